@@ -0,0 +1,55 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks;
+
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link CRI} parsing which happens for every inbound frame, event bus message and proxy call
+ */
+@State(Scope.Benchmark)
+public class CRIBenchmark {
+
+    private static final String SERVICE_CRI = EventConstants.SERVICE_DESTINATION_SCHEME
+            + "://e35f51d0-6c6e-4b58-9b9d-f5b53dd978b0@org.kinotic.benchmarks.BenchmarkService/echo#1.0.0";
+
+    private CRI cri;
+
+    @Setup
+    public void setup(){
+        cri = CRI.create(SERVICE_CRI);
+    }
+
+    @Benchmark
+    public CRI create(){
+        return CRI.create(SERVICE_CRI);
+    }
+
+    @Benchmark
+    public String baseResource(){
+        return cri.baseResource();
+    }
+
+    @Benchmark
+    public String createAndBaseResource(){
+        return CRI.create(SERVICE_CRI).baseResource();
+    }
+
+}
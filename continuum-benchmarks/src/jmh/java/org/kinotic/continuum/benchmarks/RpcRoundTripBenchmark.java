@@ -0,0 +1,77 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks;
+
+import org.kinotic.continuum.benchmarks.support.BenchmarkApplication;
+import org.kinotic.continuum.benchmarks.support.BenchmarkObject;
+import org.kinotic.continuum.benchmarks.support.BenchmarkService;
+import org.kinotic.continuum.benchmarks.support.BenchmarkServiceProxy;
+import org.kinotic.continuum.core.api.RpcServiceProxyHandle;
+import org.kinotic.continuum.core.api.ServiceRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+/**
+ * Measures a complete proxy -> supervisor -> reply round trip within a single non clustered JVM.
+ * This covers argument conversion, the event bus, invocation and correlating the response back to the caller.
+ */
+@State(Scope.Benchmark)
+public class RpcRoundTripBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private ConfigurableApplicationContext context;
+    private RpcServiceProxyHandle<BenchmarkServiceProxy> proxyHandle;
+    private BenchmarkServiceProxy proxy;
+
+    @Setup
+    public void setup(){
+        context = BenchmarkApplication.start();
+        ServiceRegistry serviceRegistry = context.getBean(ServiceRegistry.class);
+        // DefaultRpcServiceProxyHandle is created by the registry
+        proxyHandle = serviceRegistry.serviceProxy(BenchmarkServiceProxy.class);
+        proxy = proxyHandle.getService();
+        // make sure the service is available before measuring
+        proxy.echo("warmup").block(TIMEOUT);
+    }
+
+    @TearDown
+    public void tearDown(){
+        proxyHandle.release();
+        context.close();
+    }
+
+    @Benchmark
+    public String echo(){
+        return proxy.echo("Hello").block(TIMEOUT);
+    }
+
+    @Benchmark
+    public BenchmarkObject echoObject(){
+        return proxy.echoObject(BenchmarkService.BENCHMARK_OBJECT).block(TIMEOUT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BenchmarkObject acceptArgumentsConcurrent(){
+        return proxy.acceptArguments(42, 23421432343242L, "Method Man", BenchmarkService.BENCHMARK_OBJECT).block(TIMEOUT);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.kinotic.continuum.benchmarks.support.BenchmarkObject;
+import org.kinotic.continuum.benchmarks.support.BenchmarkService;
+import org.kinotic.continuum.benchmarks.support.DefaultBenchmarkService;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.config.ContinuumJacksonConfig;
+import org.kinotic.continuum.internal.config.DefaultContinuumProperties;
+import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
+import org.kinotic.continuum.internal.core.api.service.invoker.json.Jackson2ArgumentResolver;
+import org.kinotic.continuum.internal.core.api.service.invoker.json.Jackson2ReturnValueConverter;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.kinotic.continuum.internal.core.api.service.rpc.converters.Jackson2RpcArgumentConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures the conversions performed on both ends of a service invocation.
+ * The proxy converts the arguments, the supervisor resolves them and then converts the return value.
+ */
+@State(Scope.Benchmark)
+public class ServiceCodecBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public JacksonFormat format;
+
+    private static final Object[] ARGUMENTS = {42, 23421432343242L, "Method Man", BenchmarkService.BENCHMARK_OBJECT};
+
+    private Jackson2RpcArgumentConverter rpcArgumentConverter;
+    private Jackson2ArgumentResolver argumentResolver;
+    private Jackson2ReturnValueConverter returnValueConverter;
+    private Method method;
+    private HandlerMethod handlerMethod;
+    private Event<byte[]> invocationEvent;
+    private Metadata incomingMetadata;
+
+    @Setup
+    public void setup(){
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new Jdk8Module());
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.registerModule(new ContinuumJacksonConfig().continuumModule());
+
+        ReactiveAdapterRegistry reactiveAdapterRegistry = ReactiveAdapterRegistry.getSharedInstance();
+        DefaultContinuumProperties continuumProperties = new DefaultContinuumProperties();
+
+        ObjectMapper formatObjectMapper = format.createObjectMapper(objectMapper);
+
+        rpcArgumentConverter = new Jackson2RpcArgumentConverter(format, formatObjectMapper, objectMapper, reactiveAdapterRegistry, continuumProperties);
+        argumentResolver = new Jackson2ArgumentResolver(format, formatObjectMapper, objectMapper, reactiveAdapterRegistry, continuumProperties);
+        returnValueConverter = new Jackson2ReturnValueConverter(format, formatObjectMapper, objectMapper, reactiveAdapterRegistry, continuumProperties);
+
+        method = ReflectionUtils.findMethod(BenchmarkService.class, "acceptArguments", (Class<?>[]) null);
+        handlerMethod = new HandlerMethod(new DefaultBenchmarkService(),
+                                          method,
+                                          reactiveAdapterRegistry,
+                                          continuumProperties.isReflectiveServiceInvocation());
+        argumentResolver.prepare(handlerMethod);
+
+        incomingMetadata = Metadata.create();
+        incomingMetadata.put(EventConstants.CONTENT_TYPE_HEADER, format.contentType());
+        incomingMetadata.put(EventConstants.REPLY_TO_HEADER, EventConstants.SERVICE_DESTINATION_SCHEME + "://node:replyTo@benchmark");
+        incomingMetadata.put(EventConstants.CORRELATION_ID_HEADER, "1");
+
+        invocationEvent = Event.create(CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME + "://org.kinotic.continuum.benchmarks.support.BenchmarkService/acceptArguments"),
+                                       incomingMetadata,
+                                       rpcArgumentConverter.convert(method, ARGUMENTS));
+    }
+
+    @Benchmark
+    public byte[] rpcArgumentConverterConvert(){
+        return rpcArgumentConverter.convert(method, ARGUMENTS);
+    }
+
+    @Benchmark
+    public Object[] argumentResolverResolveArguments(){
+        return argumentResolver.resolveArguments(invocationEvent, handlerMethod);
+    }
+
+    @Benchmark
+    public Event<byte[]> returnValueConverterConvert(){
+        return returnValueConverter.convert(incomingMetadata, BenchmarkObject.class, BenchmarkService.BENCHMARK_OBJECT);
+    }
+
+}
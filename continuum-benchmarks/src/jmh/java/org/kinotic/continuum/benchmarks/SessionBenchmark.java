@@ -0,0 +1,70 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks;
+
+import io.vertx.core.Vertx;
+import org.kinotic.continuum.api.security.DefaultParticipant;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.security.Session;
+import org.kinotic.continuum.internal.core.api.security.DefaultSessionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the authorization check performed for every frame sent by a client
+ */
+@State(Scope.Benchmark)
+public class SessionBenchmark {
+
+    private Vertx vertx;
+    private Session session;
+    private CRI allowedCRI;
+    private CRI deniedCRI;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        DefaultSessionManager sessionManager = new DefaultSessionManager(vertx, null);
+        DefaultParticipant participant = new DefaultParticipant("continuum",
+                                                                "benchmark",
+                                                                Map.of("type", "user"),
+                                                                List.of("ADMIN"));
+        session = sessionManager.create(participant, "replyTo").get();
+        allowedCRI = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME + "://org.kinotic.benchmarks.BenchmarkService/echo");
+        deniedCRI = CRI.create("other://org.kinotic.benchmarks.BenchmarkService/echo");
+    }
+
+    @TearDown
+    public void tearDown(){
+        vertx.close();
+    }
+
+    @Benchmark
+    public boolean sendAllowed(){
+        return session.sendAllowed(allowedCRI);
+    }
+
+    @Benchmark
+    public boolean sendDenied(){
+        return session.sendAllowed(deniedCRI);
+    }
+
+}
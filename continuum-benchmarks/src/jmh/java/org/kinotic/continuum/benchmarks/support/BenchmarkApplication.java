@@ -0,0 +1,49 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks.support;
+
+import org.kinotic.continuum.api.annotations.EnableContinuum;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jmx.JmxAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Minimal Continuum application used by the benchmarks.
+ * Clustering is disabled so everything stays within a single JVM.
+ */
+@SpringBootApplication(exclude = JmxAutoConfiguration.class)
+@EnableConfigurationProperties
+@EnableContinuum
+public class BenchmarkApplication {
+
+    /**
+     * Starts a non clustered Continuum application context
+     * @return the started context which must be closed when the benchmark is complete
+     */
+    public static ConfigurableApplicationContext start(){
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("continuum.disableClustering=true",
+                            "logging.level.root=WARN")
+                .run();
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks.support;
+
+import org.kinotic.continuum.api.annotations.Publish;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service published to measure the cost of the RPC round trip
+ */
+@Publish
+public interface BenchmarkService {
+
+    BenchmarkObject BENCHMARK_OBJECT = new BenchmarkObject("Johnny", "Blaze", 10, 10000000L);
+
+    BenchmarkObject acceptArguments(int intValue, long longValue, String stringValue, BenchmarkObject benchmarkObject);
+
+    String echo(String value);
+
+    Mono<BenchmarkObject> echoObject(BenchmarkObject benchmarkObject);
+
+}
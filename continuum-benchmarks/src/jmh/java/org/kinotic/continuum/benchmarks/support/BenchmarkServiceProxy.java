@@ -0,0 +1,36 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.benchmarks.support;
+
+import org.kinotic.continuum.api.annotations.Proxy;
+import reactor.core.publisher.Mono;
+
+/**
+ * Proxy for the {@link BenchmarkService}
+ */
+@Proxy(namespace = "org.kinotic.continuum.benchmarks.support",
+       name = "BenchmarkService")
+public interface BenchmarkServiceProxy {
+
+    Mono<BenchmarkObject> acceptArguments(int intValue, long longValue, String stringValue, BenchmarkObject benchmarkObject);
+
+    Mono<String> echo(String value);
+
+    Mono<BenchmarkObject> echoObject(BenchmarkObject benchmarkObject);
+
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kinotic.continuum.api.config.ContinuumProperties;
+import org.kinotic.continuum.internal.core.api.service.invoker.json.Jackson2ArgumentResolver;
+import org.kinotic.continuum.internal.core.api.service.invoker.json.Jackson2ReturnValueConverter;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.kinotic.continuum.internal.core.api.service.rpc.converters.Jackson2RpcArgumentConverter;
+import org.kinotic.continuum.internal.core.api.service.rpc.converters.Jackson2RpcResponseConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ReactiveAdapterRegistry;
+
+/**
+ * Registers the service invocation converters for the binary {@link JacksonFormat}'s.
+ * The json converters are regular components, these are selected when a request is sent with the content-type of the format.
+ * The binary {@link ObjectMapper}'s are intentionally not exposed as beans, so they do not replace the application {@link ObjectMapper}.
+ */
+@Configuration
+public class ContinuumBinaryCodecConfig {
+
+    private final ObjectMapper jsonObjectMapper;
+    private final ObjectMapper cborObjectMapper;
+    private final ObjectMapper smileObjectMapper;
+    private final ReactiveAdapterRegistry reactiveAdapterRegistry;
+    private final ContinuumProperties continuumProperties;
+
+    public ContinuumBinaryCodecConfig(ObjectMapper objectMapper,
+                                      ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                      ContinuumProperties continuumProperties) {
+        this.jsonObjectMapper = objectMapper;
+        this.cborObjectMapper = JacksonFormat.CBOR.createObjectMapper(objectMapper);
+        this.smileObjectMapper = JacksonFormat.SMILE.createObjectMapper(objectMapper);
+        this.reactiveAdapterRegistry = reactiveAdapterRegistry;
+        this.continuumProperties = continuumProperties;
+    }
+
+    @Bean
+    public Jackson2ArgumentResolver cborArgumentResolver(){
+        return new Jackson2ArgumentResolver(JacksonFormat.CBOR, cborObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2ReturnValueConverter cborReturnValueConverter(){
+        return new Jackson2ReturnValueConverter(JacksonFormat.CBOR, cborObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2RpcArgumentConverter cborRpcArgumentConverter(){
+        return new Jackson2RpcArgumentConverter(JacksonFormat.CBOR, cborObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2RpcResponseConverter cborRpcResponseConverter(){
+        return new Jackson2RpcResponseConverter(JacksonFormat.CBOR, cborObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2ArgumentResolver smileArgumentResolver(){
+        return new Jackson2ArgumentResolver(JacksonFormat.SMILE, smileObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2ReturnValueConverter smileReturnValueConverter(){
+        return new Jackson2ReturnValueConverter(JacksonFormat.SMILE, smileObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2RpcArgumentConverter smileRpcArgumentConverter(){
+        return new Jackson2RpcArgumentConverter(JacksonFormat.SMILE, smileObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Bean
+    public Jackson2RpcResponseConverter smileRpcResponseConverter(){
+        return new Jackson2RpcResponseConverter(JacksonFormat.SMILE, smileObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+}
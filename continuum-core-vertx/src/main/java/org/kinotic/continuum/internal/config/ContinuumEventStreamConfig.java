@@ -0,0 +1,45 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.config;
+
+import io.vertx.core.Vertx;
+import org.kinotic.continuum.api.config.ContinuumProperties;
+import org.kinotic.continuum.core.api.event.EventStreamStorage;
+import org.kinotic.continuum.internal.core.api.event.stream.MappedEventStreamStorage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Provides the embedded {@link EventStreamStorage}, unless another {@link EventStreamStorage} bean is defined
+ */
+@Configuration
+public class ContinuumEventStreamConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(EventStreamStorage.class)
+    public EventStreamStorage eventStreamStorage(Vertx vertx, ContinuumProperties continuumProperties){
+        String directory = continuumProperties.getEventStreamDirectory();
+        return new MappedEventStreamStorage(vertx,
+                                            directory != null ? Path.of(directory) : null,
+                                            continuumProperties.getEventStreamSegmentSize());
+    }
+
+}
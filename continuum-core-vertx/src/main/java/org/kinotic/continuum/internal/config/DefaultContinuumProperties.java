@@ -21,11 +21,14 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.kinotic.continuum.api.config.ContinuumProperties;
+import org.kinotic.continuum.core.api.event.ListenerDispatch;
+import org.kinotic.continuum.core.api.event.ListenerOverflowStrategy;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 
 /**
  *
@@ -58,6 +61,27 @@ public class DefaultContinuumProperties implements ContinuumProperties {
     private long maxOffHeapMemory = DataStorageConfiguration.DFLT_DATA_REGION_MAX_SIZE;
     private int maxEventPayloadSize = 1024 * 1024 * 100; // 100MB
     private int maxNumberOfCoresToUse = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+    private boolean reflectiveServiceInvocation = false;
+    private boolean virtualThreadServiceInvocation = false;
+    private int virtualThreadServiceInvocationLimit = 1000;
+    private boolean serviceBulkheadEnabled = false;
+    private int serviceBulkheadMaxConcurrent = 256;
+    private int serviceBulkheadMaxQueued = 1024;
+    private long serviceBulkheadQueueTimeout = 5000;
+    private boolean serviceBulkheadAdaptive = false;
+    private long rpcRequestTimeout = 60000;
+    private boolean rpcBatching = false;
+    private int rpcBatchMaxSize = 64;
+    private long rpcBatchDelay = 1;
+    private String serviceProxyContentType = MimeTypeUtils.APPLICATION_JSON_VALUE;
+    private boolean localServiceInvocation = false;
+    private boolean localServiceInvocationDeepCopy = true;
+    private ListenerDispatch eventBusListenerDispatch = ListenerDispatch.WORKER;
+    private int eventBusListenerBufferSize = 1024;
+    private ListenerOverflowStrategy eventBusListenerOverflowStrategy = ListenerOverflowStrategy.PAUSE;
+    private int eventBusMetricsMaxDestinations = 100;
+    private String eventStreamDirectory = null;
+    private int eventStreamSegmentSize = 64 * 1024 * 1024;
 
 
     public DefaultContinuumProperties setMaxNumberOfCoresToUse(int maxNumberOfCoresToUse) {
@@ -74,6 +98,27 @@ public class DefaultContinuumProperties implements ContinuumProperties {
                 .append("sessionTimeout", sessionTimeout)
                 .append("discovery", discovery)
                 .append("maxOffHeapMemory", maxOffHeapMemory)
+                .append("reflectiveServiceInvocation", reflectiveServiceInvocation)
+                .append("virtualThreadServiceInvocation", virtualThreadServiceInvocation)
+                .append("virtualThreadServiceInvocationLimit", virtualThreadServiceInvocationLimit)
+                .append("serviceBulkheadEnabled", serviceBulkheadEnabled)
+                .append("serviceBulkheadMaxConcurrent", serviceBulkheadMaxConcurrent)
+                .append("serviceBulkheadMaxQueued", serviceBulkheadMaxQueued)
+                .append("serviceBulkheadQueueTimeout", serviceBulkheadQueueTimeout)
+                .append("serviceBulkheadAdaptive", serviceBulkheadAdaptive)
+                .append("rpcRequestTimeout", rpcRequestTimeout)
+                .append("rpcBatching", rpcBatching)
+                .append("rpcBatchMaxSize", rpcBatchMaxSize)
+                .append("rpcBatchDelay", rpcBatchDelay)
+                .append("serviceProxyContentType", serviceProxyContentType)
+                .append("localServiceInvocation", localServiceInvocation)
+                .append("localServiceInvocationDeepCopy", localServiceInvocationDeepCopy)
+                .append("eventBusListenerDispatch", eventBusListenerDispatch)
+                .append("eventBusListenerBufferSize", eventBusListenerBufferSize)
+                .append("eventBusListenerOverflowStrategy", eventBusListenerOverflowStrategy)
+                .append("eventBusMetricsMaxDestinations", eventBusMetricsMaxDestinations)
+                .append("eventStreamDirectory", eventStreamDirectory)
+                .append("eventStreamSegmentSize", eventStreamSegmentSize)
                 .toString();
     }
 }
@@ -17,11 +17,21 @@
 
 package org.kinotic.continuum.internal.core.api;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.Validate;
 import org.kinotic.continuum.api.Continuum;
 import org.kinotic.continuum.api.annotations.Proxy;
+import org.kinotic.continuum.api.config.ContinuumProperties;
+import org.kinotic.continuum.api.security.DefaultParticipant;
+import org.kinotic.continuum.api.security.Participant;
 import org.kinotic.continuum.core.api.RpcServiceProxyHandle;
 import org.kinotic.continuum.core.api.ServiceRegistry;
 import org.kinotic.continuum.core.api.event.EventBusService;
@@ -33,17 +43,25 @@ import org.kinotic.continuum.internal.core.api.service.invoker.ExceptionConverte
 import org.kinotic.continuum.internal.core.api.service.invoker.ReturnValueConverterComposite;
 import org.kinotic.continuum.internal.core.api.service.invoker.ServiceInvocationSupervisor;
 import org.kinotic.continuum.internal.core.api.service.rpc.DefaultRpcServiceProxyHandle;
+import org.kinotic.continuum.internal.core.api.service.rpc.LocalServiceInvoker;
 import org.kinotic.continuum.internal.core.api.service.rpc.RpcArgumentConverter;
 import org.kinotic.continuum.internal.core.api.service.rpc.RpcArgumentConverterResolver;
+import org.kinotic.continuum.internal.core.api.service.rpc.RpcCorrelationTable;
+import org.kinotic.continuum.internal.core.api.service.rpc.RpcRequestBatcher;
+import org.kinotic.continuum.internal.core.api.service.rpc.RpcReturnValueHandler;
 import org.kinotic.continuum.internal.core.api.service.rpc.RpcReturnValueHandlerFactory;
 import org.kinotic.continuum.internal.utils.ContinuumUtil;
 import org.kinotic.continuum.internal.utils.MetaUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.stereotype.Component;
-import org.springframework.util.MimeTypeUtils;
 
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongCounter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
 import io.vertx.core.Vertx;
 import reactor.core.publisher.Mono;
 
@@ -54,17 +72,27 @@ import reactor.core.publisher.Mono;
 @Component
 public class DefaultServiceRegistry implements ServiceRegistry {
 
+    private static final AttributeKey<String> SERVICE_ATTRIBUTE = AttributeKey.stringKey("service");
+
     private final ConcurrentHashMap<ServiceIdentifier, ServiceInvocationSupervisor> supervisors = new ConcurrentHashMap<>();
+    // Response tables of all proxies that have not been released, used to report outstanding requests
+    private final Set<RpcCorrelationTable<?>> responseTables = ConcurrentHashMap.newKeySet();
+    private ObservableLongGauge outstandingRequestsGauge;
+    private ObservableLongCounter requestTimeoutsCounter;
     // These converters are used by ServiceInvocationSupervisor
     @Autowired
     private ArgumentResolverComposite argumentResolver;
     @Autowired
     private Continuum continuum;
     @Autowired
+    private ContinuumProperties continuumProperties;
+    @Autowired
     private EventBusService eventBusService;
     @Autowired
     private ExceptionConverterComposite exceptionConverter;
     @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
     private ReactiveAdapterRegistry reactiveAdapterRegistry;
     @Autowired
     private ReturnValueConverterComposite returnValueConverter;
@@ -78,6 +106,36 @@ public class DefaultServiceRegistry implements ServiceRegistry {
     @Autowired
     private OpenTelemetry openTelemetry;
 
+    @PostConstruct
+    public void init(){
+        Meter meter = openTelemetry.getMeter("org.kinotic.continuum");
+        outstandingRequestsGauge = meter.gaugeBuilder("continuum.rpc.proxy.outstanding_requests")
+                                        .setDescription("The number of service proxy requests waiting for a response")
+                                        .ofLongs()
+                                        .buildWithCallback(measurement -> {
+                                            for(RpcCorrelationTable<?> table : responseTables){
+                                                measurement.record(table.size(), Attributes.of(SERVICE_ATTRIBUTE, table.getName()));
+                                            }
+                                        });
+        requestTimeoutsCounter = meter.counterBuilder("continuum.rpc.proxy.request_timeouts")
+                                      .setDescription("The number of service proxy requests that did not receive a response within the request timeout")
+                                      .buildWithCallback(measurement -> {
+                                          for(RpcCorrelationTable<?> table : responseTables){
+                                              measurement.record(table.getTimeoutCount(), Attributes.of(SERVICE_ATTRIBUTE, table.getName()));
+                                          }
+                                      });
+    }
+
+    @PreDestroy
+    public void destroy(){
+        if(outstandingRequestsGauge != null){
+            outstandingRequestsGauge.close();
+        }
+        if(requestTimeoutsCounter != null){
+            requestTimeoutsCounter.close();
+        }
+    }
+
     @Override
     public Mono<Void> register(ServiceIdentifier serviceIdentifier, Class<?> serviceInterface, Object instance) {
         try {
@@ -101,6 +159,7 @@ public class DefaultServiceRegistry implements ServiceRegistry {
                                                                            exceptionConverter,
                                                                            eventBusService,
                                                                            reactiveAdapterRegistry,
+                                                                           continuumProperties,
                                                                            vertx,
                                                                            openTelemetry);
 
@@ -121,14 +180,7 @@ public class DefaultServiceRegistry implements ServiceRegistry {
 
     @Override
     public <T> RpcServiceProxyHandle<T> serviceProxy(ServiceIdentifier serviceIdentifier, Class<T> serviceInterface) {
-        RpcArgumentConverter rpcArgumentConverter = rpcArgumentConverterResolver.resolve(MimeTypeUtils.APPLICATION_JSON_VALUE);
-        return new DefaultRpcServiceProxyHandle<>(serviceIdentifier,
-                                                  continuum.serverInfo().getNodeName(),
-                                                  serviceInterface,
-                                                  rpcArgumentConverter,
-                                                  rpcReturnValueHandlerFactory,
-                                                  eventBusService,
-                                                  Thread.currentThread().getContextClassLoader());
+        return serviceProxy(serviceIdentifier, serviceInterface, continuumProperties.getServiceProxyContentType());
     }
 
     @Override
@@ -136,15 +188,52 @@ public class DefaultServiceRegistry implements ServiceRegistry {
         Validate.notBlank(contentTypeExpected, "The contentTypeExpected must not be blank");
         Validate.isTrue(rpcArgumentConverterResolver.canResolve(contentTypeExpected), "The contentType:"+contentTypeExpected+" does not have any configured RpcArgumentConverter's");
         RpcArgumentConverter rpcArgumentConverter = rpcArgumentConverterResolver.resolve(contentTypeExpected);
+        RpcCorrelationTable<RpcReturnValueHandler> responseTable = new RpcCorrelationTable<>(serviceIdentifier.qualifiedName(),
+                                                                                            vertx,
+                                                                                            continuumProperties.getRpcRequestTimeout());
+        // the proxy closes the table when it is released
+        responseTable.setCloseHandler(() -> responseTables.remove(responseTable));
+        responseTables.add(responseTable);
         return new DefaultRpcServiceProxyHandle<>(serviceIdentifier,
                                                   continuum.serverInfo().getNodeName(),
                                                   serviceInterface,
                                                   rpcArgumentConverter,
                                                   rpcReturnValueHandlerFactory,
                                                   eventBusService,
+                                                  createLocalServiceInvoker(),
+                                                  responseTable,
+                                                  createRequestBatcher(),
                                                   Thread.currentThread().getContextClassLoader());
     }
 
+    private RpcRequestBatcher createRequestBatcher(){
+        RpcRequestBatcher ret = null;
+        if(continuumProperties.isRpcBatching()){
+            ret = new RpcRequestBatcher(eventBusService,
+                                        vertx,
+                                        continuumProperties.getRpcBatchMaxSize(),
+                                        continuumProperties.getRpcBatchDelay());
+        }
+        return ret;
+    }
+
+    private LocalServiceInvoker createLocalServiceInvoker(){
+        LocalServiceInvoker ret = null;
+        if(continuumProperties.isLocalServiceInvocation()){
+            // Same participant that is sent by proxies when the service is invoked over the event bus
+            Participant participant = new DefaultParticipant("continuum",
+                                                             continuum.serverInfo().getNodeName(),
+                                                             Map.of("type", "node"),
+                                                             List.of("NODE"));
+            ret = new LocalServiceInvoker(supervisors::get,
+                                          objectMapper,
+                                          reactiveAdapterRegistry,
+                                          participant,
+                                          continuumProperties.isLocalServiceInvocationDeepCopy());
+        }
+        return ret;
+    }
+
     @Override
     public <T> RpcServiceProxyHandle<T> serviceProxy(Class<T> serviceInterface) {
         Proxy proxyAnnotation = serviceInterface.getAnnotation(Proxy.class);
@@ -159,7 +248,7 @@ public class DefaultServiceRegistry implements ServiceRegistry {
                                                                     null,
                                                                     version);
 
-        return serviceProxy(serviceIdentifier, serviceInterface, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        return serviceProxy(serviceIdentifier, serviceInterface, continuumProperties.getServiceProxyContentType());
     }
 
     @Override
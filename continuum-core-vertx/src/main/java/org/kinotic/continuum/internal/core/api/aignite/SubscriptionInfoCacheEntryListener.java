@@ -18,6 +18,7 @@
 package org.kinotic.continuum.internal.core.api.aignite;
 
 import java.io.Serializable;
+import java.util.function.BiConsumer;
 
 import javax.cache.event.CacheEntryCreatedListener;
 import javax.cache.event.CacheEntryEvent;
@@ -25,15 +26,14 @@ import javax.cache.event.CacheEntryExpiredListener;
 import javax.cache.event.CacheEntryListenerException;
 import javax.cache.event.CacheEntryRemovedListener;
 
-import org.kinotic.continuum.core.api.event.ListenerStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.vertx.core.Context;
 import io.vertx.spi.cluster.ignite.impl.IgniteRegistrationInfo;
-import reactor.core.publisher.FluxSink;
 
 /**
+ * Reports the address of every subscription that is created or removed.
+ * An address can have many subscriptions, so a removal does not mean that nobody is listening to the address anymore.
  * Created by 🤓 on 5/8/21.
  */
 public class SubscriptionInfoCacheEntryListener implements CacheEntryCreatedListener<IgniteRegistrationInfo ,Boolean>,
@@ -43,32 +43,39 @@ public class SubscriptionInfoCacheEntryListener implements CacheEntryCreatedList
 
     private static final Logger log = LoggerFactory.getLogger(SubscriptionInfoCacheEntryListener.class);
 
-    private final FluxSink<ListenerStatus> sink;
-    private final Context vertxContext;
+    private final BiConsumer<String, Boolean> registrationConsumer;
 
-    public SubscriptionInfoCacheEntryListener(FluxSink<ListenerStatus> sink,
-                                              Context vertxContext) {
-        this.sink = sink;
-        this.vertxContext = vertxContext;
+    /**
+     * @param registrationConsumer that will be called with the address for each subscription change,
+     *                             and true if the subscription was created or false if it was removed
+     */
+    public SubscriptionInfoCacheEntryListener(BiConsumer<String, Boolean> registrationConsumer) {
+        this.registrationConsumer = registrationConsumer;
     }
 
     @Override
     public void onCreated(Iterable<CacheEntryEvent<? extends IgniteRegistrationInfo, ? extends Boolean>> cacheEntryEvents) throws CacheEntryListenerException {
         log.trace("Subscription Status Listener called Created");
-        vertxContext.runOnContext(event -> sink.next(ListenerStatus.ACTIVE));
+        notify(cacheEntryEvents, true);
     }
 
     @Override
     public void onExpired(Iterable<CacheEntryEvent<? extends IgniteRegistrationInfo, ? extends Boolean>> cacheEntryEvents) throws CacheEntryListenerException {
         log.trace("Subscription Status Listener called Expired");
-        vertxContext.runOnContext(event -> sink.next(ListenerStatus.INACTIVE));
+        notify(cacheEntryEvents, false);
     }
 
     @Override
     public void onRemoved(Iterable<CacheEntryEvent<? extends IgniteRegistrationInfo, ? extends Boolean>> cacheEntryEvents) throws CacheEntryListenerException {
         log.trace("Subscription Status Listener called Removed");
-        vertxContext.runOnContext(event -> sink.next(ListenerStatus.INACTIVE));
+        notify(cacheEntryEvents, false);
     }
 
+    private void notify(Iterable<CacheEntryEvent<? extends IgniteRegistrationInfo, ? extends Boolean>> cacheEntryEvents,
+                        boolean created){
+        for(CacheEntryEvent<? extends IgniteRegistrationInfo, ? extends Boolean> event : cacheEntryEvents){
+            registrationConsumer.accept(event.getKey().address(), created);
+        }
+    }
 
 }
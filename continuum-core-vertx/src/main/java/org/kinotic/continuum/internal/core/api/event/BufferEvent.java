@@ -0,0 +1,68 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import org.kinotic.continuum.core.api.event.Event;
+
+/**
+ * An {@link Event} whose data is held in a vertx {@link Buffer}.
+ * The {@link Buffer} can be passed along, such as to the event bus or a socket, without copying the data into a byte[].
+ * {@link #data()} only copies the data the first time it is called.
+ * The {@link Buffer} is shared, so it must not be modified once the {@link BufferEvent} has been created.
+ */
+public interface BufferEvent extends Event<byte[]> {
+
+    /**
+     * @return the data for this event as a {@link Buffer} or null if there is no data
+     */
+    Buffer buffer();
+
+    /**
+     * Returns the data of the given {@link Event} as a {@link Buffer}, without copying the data.
+     * @param event to get the data for
+     * @return the {@link Buffer} or null if the event has no data
+     */
+    static Buffer toBuffer(Event<byte[]> event){
+        Buffer ret;
+        if(event instanceof BufferEvent bufferEvent){
+            ret = bufferEvent.buffer();
+        }else{
+            byte[] data = event.data();
+            ret = data != null ? Buffer.buffer(Unpooled.wrappedBuffer(data)) : null;
+        }
+        return ret;
+    }
+
+    /**
+     * @return the length of the data for the given {@link Event} in bytes, without copying the data
+     */
+    static int dataLength(Event<byte[]> event){
+        int ret;
+        if(event instanceof BufferEvent bufferEvent){
+            Buffer buffer = bufferEvent.buffer();
+            ret = buffer != null ? buffer.length() : 0;
+        }else{
+            byte[] data = event.data();
+            ret = data != null ? data.length : 0;
+        }
+        return ret;
+    }
+
+}
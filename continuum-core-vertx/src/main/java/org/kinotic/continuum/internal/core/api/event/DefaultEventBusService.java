@@ -17,43 +17,47 @@
 
 package org.kinotic.continuum.internal.core.api.event;
 
+import io.opentelemetry.api.OpenTelemetry;
 import io.vertx.core.*;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.spi.cluster.ClusterManager;
-import io.vertx.core.spi.cluster.RegistrationInfo;
 import io.vertx.core.tracing.TracingPolicy;
 import io.vertx.spi.cluster.ignite.impl.IgniteRegistrationInfo;
 import org.apache.commons.lang3.Validate;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.kinotic.continuum.api.config.ContinuumProperties;
+import org.kinotic.continuum.core.api.event.BatchOptions;
+import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventBusService;
-import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.ListenOptions;
+import org.kinotic.continuum.core.api.event.ListenerDispatch;
+import org.kinotic.continuum.core.api.event.ListenerOverflowStrategy;
 import org.kinotic.continuum.core.api.event.ListenerStatus;
 import org.kinotic.continuum.internal.config.IgniteCacheConstants;
-import org.kinotic.continuum.internal.core.api.aignite.SubscriptionInfoCacheEntryEventFilter;
-import org.kinotic.continuum.internal.core.api.aignite.SubscriptionInfoCacheEntryListener;
 import org.kinotic.continuum.internal.utils.IgniteUtil;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.ConnectableFlux;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.PostConstruct;
-import javax.cache.configuration.Factory;
-import javax.cache.configuration.FactoryBuilder;
-import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
-import javax.cache.event.CacheEntryEventFilter;
-import javax.cache.event.CacheEntryListener;
+import javax.annotation.PreDestroy;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Default implementation of {@link EventBusService} using the vertx {@link io.vertx.core.eventbus.EventBus} as a backend
@@ -65,6 +69,10 @@ import java.util.Set;
 public class DefaultEventBusService implements EventBusService {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultEventBusService.class);
+    // All events are sent as the message body with the same options, so a single instance is shared by every send
+    private static final DeliveryOptions DELIVERY_OPTIONS = new DeliveryOptions()
+            .setTracingPolicy(TracingPolicy.IGNORE)
+            .setCodecName(EventMessageCodec.NAME);
     @Autowired(required = false) // this done so unit tests can complete faster. Kinda silly but hey that is unit tests.. I guess I could mock..
     private Ignite ignite;
     @Autowired(required = false)
@@ -74,6 +82,14 @@ public class DefaultEventBusService implements EventBusService {
     private IgniteCache<String, Set<IgniteRegistrationInfo>> subscriptionsCache;
     @Autowired
     private Vertx vertx;
+    @Autowired
+    private ContinuumProperties continuumProperties;
+    @Autowired
+    private OpenTelemetry openTelemetry;
+    private EventBusMetrics metrics;
+    private ExecutorService virtualThreadExecutor;
+    private ListenerStatusMonitor listenerStatusMonitor;
+    private PatternRouter patternRouter;
 
     @PostConstruct
     public void init(){
@@ -82,12 +98,49 @@ public class DefaultEventBusService implements EventBusService {
             return null;
         }));
 
+        virtualThreadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                                         .name("continuum-event-listener-", 0)
+                                                                         .factory());
+
+        // events are sent as the message body, so the cri and metadata do not need to be translated into vertx headers
+        try {
+            vertx.eventBus().registerCodec(new EventMessageCodec());
+        } catch (IllegalStateException e) {
+            log.debug("EventMessageCodec is already registered");
+        }
+
+        metrics = new EventBusMetrics(openTelemetry, continuumProperties.getEventBusMetricsMaxDestinations());
+
+        ListenerStatusMonitor monitor = null;
         if(ignite != null) {
             subscriptionsCache = ignite.cache("__vertx.subs");
+            monitor = getListenerStatusMonitor();
+        }
+        // without the subscription cache only pattern listeners on this node are known
+        patternRouter = new PatternRouter(vertx, monitor != null ? clusterManager : null);
+        if(monitor != null){
+            try {
+                // pattern listeners on other nodes are learned from their registrations
+                monitor.addRegistrationListener(PatternRouter.ADDRESS_PREFIX, patternRouter::registrationChanged);
+            } catch (Exception e) {
+                log.warn("Could not watch the pattern listeners of other nodes, they will not receive events sent from this node", e);
+            }
         }
 
     }
 
+    @PreDestroy
+    public void destroy(){
+        virtualThreadExecutor.shutdown();
+        patternRouter.close();
+        metrics.close();
+        synchronized (this){
+            if(listenerStatusMonitor != null){
+                listenerStatusMonitor.close();
+            }
+        }
+    }
+
     @Override
     public Mono<Boolean> isAnybodyListening(String cri) {
         if(ignite == null){
@@ -100,16 +153,47 @@ public class DefaultEventBusService implements EventBusService {
     public Flux<Event<byte[]>> listen(String cri) {
         Validate.notEmpty(cri, "The cri must be provided");
 
-        return _listen(cri, null);
+        return _listen(cri, null, null);
+    }
+
+    @Override
+    public Flux<Event<byte[]>> listen(String cri, ListenOptions options) {
+        Validate.notEmpty(cri, "The cri must be provided");
+        Validate.notNull(options, "The options must be provided");
+
+        return _listen(cri, null, options);
     }
 
     @Override
     public Mono<Flux<Event<byte[]>>> listenWithAck(String cri) {
+        return listenWithAck(cri, ListenOptions.create());
+    }
+
+    @Override
+    public Mono<Flux<Event<byte[]>>> listenWithAck(String cri, ListenOptions options) {
         Validate.notEmpty(cri, "The cri must be provided");
+        Validate.notNull(options, "The options must be provided");
+
+        CRI parsed = CRI.create(cri);
+        if(TopicTrie.isPattern(parsed)){
+            return Mono.create(sink -> {
+                final PatternSubscription subscription = patternRouter.createSubscription(parsed, vertx.getOrCreateContext());
+                final ConnectableFlux<Event<byte[]>> flux = _listen(null, subscription, options).publish();
+                subscription.registration()
+                            .onComplete(result -> {
+                                if(result.succeeded()){
+                                    sink.success(flux);
+                                }else{
+                                    sink.error(result.cause());
+                                }
+                            });
+                flux.connect(); // we have to connect now so flux create will be signaled and the subscription handler will be set
+            });
+        }
 
         return Mono.create(sink -> {
-            final MessageConsumer<byte[]> consumer = vertx.eventBus().consumer(cri);
-            final ConnectableFlux<Event<byte[]>> flux = _listen(null, consumer).publish();
+            final MessageConsumer<Object> consumer = vertx.eventBus().consumer(cri);
+            final ConnectableFlux<Event<byte[]>> flux = _listen(null, ListenerSource.of(consumer), options).publish();
             consumer.completionHandler(event -> sink.success(flux));
             flux.connect(); // we have to connect now so flux create will be signaled and vertx consumer handler will be set
         });
@@ -120,136 +204,172 @@ public class DefaultEventBusService implements EventBusService {
         if(ignite == null){
             throw new IllegalStateException("This method is not available when ignite is disabled");
         }
-        Flux<ListenerStatus> ret = Flux.create(sink -> {
-
-            Context vertxContext = vertx.getOrCreateContext();
-
-            IgniteCache<IgniteRegistrationInfo, Boolean> cache = ignite.cache(IgniteCacheConstants.VERTX_SUBSCRIPTION_CACHE);
-
-            if(cache == null) {
-                sink.error(new IllegalStateException("The vertx subscription cache is not available"));
-                return;
+        Flux<ListenerStatus> ret = Flux.defer(() -> {
+            Flux<ListenerStatus> statusFlux;
+            ListenerStatusMonitor monitor = getListenerStatusMonitor();
+            if(monitor != null) {
+                statusFlux = monitor.monitor(cri);
+            }else{
+                statusFlux = Flux.error(new IllegalStateException("The vertx subscription cache is not available"));
             }
-
-            Factory<? extends CacheEntryListener<IgniteRegistrationInfo, Boolean>> listenerFactory =
-                    FactoryBuilder.factoryOf(new SubscriptionInfoCacheEntryListener(sink, vertxContext));
-
-            Factory<? extends CacheEntryEventFilter<IgniteRegistrationInfo, Boolean>> filterFactory =
-                    FactoryBuilder.factoryOf(new SubscriptionInfoCacheEntryEventFilter(cri));
-
-            MutableCacheEntryListenerConfiguration<IgniteRegistrationInfo, Boolean> cacheEntryListenerConfiguration =
-                    new MutableCacheEntryListenerConfiguration<>(listenerFactory, filterFactory, false, false);
-
-            sink.onDispose(() -> {
-                log.trace("Disposing of monitorListenerStatus for cri: {}", cri);
-                vertxContext.executeBlocking(() -> {
-                    cache.deregisterCacheEntryListener(cacheEntryListenerConfiguration);
-                    return null;
-                });
-            });
-
-            cache.registerCacheEntryListener(cacheEntryListenerConfiguration);
-
-            // Make sure we didn't miss a subscription ending while we were setting up the listener
-            Promise<List<RegistrationInfo>> promise = Promise.promise();
-            clusterManager.getRegistrations(cri, promise);
-
-            promise.future().onComplete(ar -> {
-                if(ar.succeeded()){
-                    List<RegistrationInfo> list = ar.result();
-                    if(list != null && !list.isEmpty()){
-                        vertxContext.executeBlocking(() -> sink.next(ListenerStatus.ACTIVE));
-                    }else{
-                        vertxContext.executeBlocking(() -> sink.next(ListenerStatus.INACTIVE));
-                    }
-                } else {
-                    log.trace("Failed getting subscriptions for monitorListenerStatus for cri: {}", cri);
-                    vertxContext.executeBlocking(() -> {
-                        sink.error(ar.cause());
-                        return null;
-                    });
-
-                }
-            });
+            return statusFlux;
         });
         return ret.subscribeOn(scheduler);
     }
 
     @Override
     public void send(Event<byte[]> event) {
-        DeliveryOptions deliveryOptions = createDeliveryOptions(event);
-        vertx.eventBus().send(event.cri().baseResource(),
-                              event.data(),
-                              deliveryOptions);
+        String address = event.cri().baseResource();
+        metrics.recordSent(event);
+        vertx.eventBus().send(address,
+                              event,
+                              DELIVERY_OPTIONS);
+        publishToPatternListeners(event);
     }
 
     @Override
     public Mono<Void> sendWithAck(Event<byte[]> event) {
         Validate.notNull(event, "Event must not be null");
         return Mono.create(sink -> {
-            DeliveryOptions deliveryOptions = createDeliveryOptions(event);
+            String address = event.cri().baseResource();
+            long startNanos = System.nanoTime();
+            metrics.recordSent(event);
             // We expect that a response will be sent upon receipt. This will happen automatically if the listener is created with this class.
             vertx.eventBus()
-                 .request(event.cri().baseResource(),
-                          event.data(),
-                          deliveryOptions)
+                 .request(address,
+                          event,
+                          DELIVERY_OPTIONS)
                  .onComplete(reply -> {
+                     metrics.recordAck(event, startNanos, reply.cause());
                      if(reply.succeeded()){
                          sink.success();
                      }else{
                          sink.error(reply.cause());
                      }
                  });
+            publishToPatternListeners(event);
         }).subscribeOn(scheduler).then();
     }
 
-    private Flux<Event<byte[]>> _listen(String cri, MessageConsumer<byte[]> vertxEventBusConsumer) {
-        MessageConsumer<byte[]> consumer;
-        if(vertxEventBusConsumer != null){
-            consumer = vertxEventBusConsumer;
-        }else{
-            consumer = vertx.eventBus().consumer(cri);
-        }
+    @Override
+    public Mono<Void> sendBatch(List<Event<byte[]>> events) {
+        Validate.notNull(events, "Events must not be null");
+        return sendStream(Flux.fromIterable(events), BatchOptions.create()).then();
+    }
 
-        Flux<Event<byte[]>> ret = Flux.create(fluxSink -> {
-            // Setup all required handlers that are needed prior to consuming messages
-            fluxSink.onDispose(consumer::unregister);
+    @Override
+    public Flux<Integer> sendStream(Publisher<Event<byte[]>> publisher, BatchOptions options) {
+        Validate.notNull(publisher, "Publisher must not be null");
+        Validate.notNull(options, "The options must be provided");
+        Validate.isTrue(options.getChunkSize() > 0, "The chunkSize must be greater than 0");
+        Validate.notNull(options.getChunkTimeout(), "The chunkTimeout must be provided");
+        Validate.isTrue(options.getMaxChunksInFlight() > 0, "The maxChunksInFlight must be greater than 0");
+
+        return Flux.from(publisher)
+                   .bufferTimeout(options.getChunkSize(), options.getChunkTimeout(), true)
+                   .flatMapSequential(this::sendChunk, options.getMaxChunksInFlight(), 1);
+    }
 
-            // TODO: deal with back pressure properly.. ?
-            //fluxSink.onRequest()
+    /**
+     * Sends a chunk of events, every event is sent as a request.
+     * An address can have many listeners and the event bus delivers each request to one of them, so every event must be
+     * acknowledged by the listener that received it. The replies are aggregated so the chunk is acknowledged once.
+     * @return a {@link Mono} that emits the size of the chunk once every event has been acknowledged,
+     * or signals the first failure
+     */
+    private Mono<Integer> sendChunk(List<Event<byte[]>> chunk){
+        return Mono.<Integer>create(sink -> {
+            AtomicInteger pending = new AtomicInteger(chunk.size());
+            long startNanos = System.nanoTime();
+            for(Event<byte[]> event : chunk){
+                metrics.recordSent(event);
+                vertx.eventBus()
+                     .request(event.cri().baseResource(), event, DELIVERY_OPTIONS)
+                     .onComplete(reply -> {
+                         metrics.recordAck(event, startNanos, reply.cause());
+                         if(reply.failed()){
+                             // only the first failure is signaled
+                             sink.error(reply.cause());
+                         }else if(pending.decrementAndGet() == 0){
+                             sink.success(chunk.size());
+                         }
+                     });
+                publishToPatternListeners(event);
+            }
+        }).subscribeOn(scheduler);
+    }
 
-            consumer.exceptionHandler(fluxSink::error);
-            consumer.endHandler(event -> fluxSink.complete()); // this should never occur, but we handle in case..
+    /**
+     * Pattern listeners do not receive events sent to an address, so the event is also published to the address of every pattern that matches it.
+     * Nothing is published when no pattern listener on any node matches the event.
+     * The acknowledgement for a send only comes from the listeners for the address.
+     */
+    private void publishToPatternListeners(Event<byte[]> event){
+        patternRouter.forEachMatchingAddress(event.cri(), address -> vertx.eventBus().publish(address, event, DELIVERY_OPTIONS));
+    }
 
-            // now activate handler to start consuming messages
-            consumer.handler(message -> {
-                // ack that we received the message if desired by sender.
-                if (message.replyAddress() != null){
-                    message.reply(null);
-                }
+    private Flux<Event<byte[]>> _listen(String cri, ListenerSource listenerSource, ListenOptions options) {
+        ListenerSource source;
+        if(listenerSource != null){
+            source = listenerSource;
+        }else{
+            CRI parsed = CRI.create(cri);
+            if(TopicTrie.isPattern(parsed)){
+                source = patternRouter.createSubscription(parsed, vertx.getOrCreateContext());
+            }else{
+                source = ListenerSource.of(vertx.eventBus().consumer(cri));
+            }
+        }
 
-                if(!fluxSink.isCancelled()) {
-                    vertx.executeBlocking(() -> fluxSink.next(new MessageEventAdapter<>(message)));
-                }
-            });
-        });
+        // options not provided fall back to the configured defaults
+        ListenerDispatch dispatch = options != null && options.getDispatch() != null
+                ? options.getDispatch() : continuumProperties.getEventBusListenerDispatch();
+        int bufferSize = options != null && options.getBufferSize() != null
+                ? options.getBufferSize() : continuumProperties.getEventBusListenerBufferSize();
+        ListenerOverflowStrategy overflowStrategy = options != null && options.getOverflowStrategy() != null
+                ? options.getOverflowStrategy() : continuumProperties.getEventBusListenerOverflowStrategy();
+        Validate.isTrue(bufferSize > 0, "The bufferSize must be greater than 0");
+
+        // Events are only emitted when requested, so the sink does not need a buffer of its own
+        Flux<Event<byte[]>> ret = Flux.create(fluxSink -> {
+            // a pattern subscription delivers on its own context, which the listener must use as well
+            Context context = source instanceof PatternSubscription subscription
+                    ? subscription.context() : vertx.getOrCreateContext();
+            new EventBusListener(source,
+                                 fluxSink,
+                                 context,
+                                 createDispatchExecutor(dispatch, context),
+                                 bufferSize,
+                                 overflowStrategy,
+                                 metrics).start();
+        }, FluxSink.OverflowStrategy.IGNORE);
 
         return ret.subscribeOn(scheduler); // ensure message delivery happens on vertx event loop, not sure but this by itself did not move the next above to the work loop
     }
 
-    private DeliveryOptions createDeliveryOptions(Event<?> event){
-        DeliveryOptions deliveryOptions = new DeliveryOptions();
-        deliveryOptions.setTracingPolicy(TracingPolicy.IGNORE);
-        // fast path for MultiMapMetadataAdapter's
-        if(event.metadata() instanceof MultiMapMetadataAdapter){
-            deliveryOptions.setHeaders(((MultiMapMetadataAdapter)event.metadata()).getMultiMap());
-        }else{
-            for(Map.Entry<String, String> entry: event.metadata()){
-                deliveryOptions.addHeader(entry.getKey(), entry.getValue());
+    /**
+     * All calls to {@link #monitorListenerStatus(String)} share a single {@link ListenerStatusMonitor}, which is created on first use
+     */
+    private synchronized ListenerStatusMonitor getListenerStatusMonitor(){
+        if(listenerStatusMonitor == null){
+            IgniteCache<IgniteRegistrationInfo, Boolean> cache = ignite.cache(IgniteCacheConstants.VERTX_SUBSCRIPTION_CACHE);
+            if(cache != null){
+                listenerStatusMonitor = new ListenerStatusMonitor(vertx, cache, clusterManager);
             }
         }
-        deliveryOptions.addHeader(EventConstants.CRI_HEADER, event.cri().raw());
-        return deliveryOptions;
+        return listenerStatusMonitor;
+    }
+
+    private Executor createDispatchExecutor(ListenerDispatch dispatch, Context context){
+        return switch (dispatch) {
+            case EVENT_LOOP -> command -> context.runOnContext(v -> command.run());
+            // emission is already serialized by the listener, so ordering is not needed here
+            case WORKER -> command -> context.executeBlocking(() -> {
+                command.run();
+                return null;
+            }, false);
+            case VIRTUAL_THREAD -> virtualThreadExecutor;
+        };
     }
 
 }
@@ -17,121 +17,75 @@
 
 package org.kinotic.continuum.internal.core.api.event;
 
+import org.apache.commons.lang3.Validate;
 import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventStreamService;
+import org.kinotic.continuum.core.api.event.EventStreamStorage;
 import org.reactivestreams.Publisher;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
+ * Default implementation of {@link EventStreamService} that stores events using the configured {@link EventStreamStorage}
  *
  * Created by navid on 10/23/19
  */
-// FIXME: The built in service should use the Vertx event bus
 @Component
 public class DefaultEventStreamService implements EventStreamService {
+
+    private static final String LATEST_PATH = "latest";
+    /**
+     * The number of events from {@link #sendStream(Publisher)} that can be waiting to be stored, these are stored as a batch
+     */
+    private static final int MAX_PENDING_APPENDS = 256;
+
+    private final EventStreamStorage eventStreamStorage;
+
+    public DefaultEventStreamService(EventStreamStorage eventStreamStorage) {
+        this.eventStreamStorage = eventStreamStorage;
+    }
+
     @Override
     public Mono<Void> send(Event<byte[]> event) {
-        return null;
+        Validate.notNull(event, "Event must not be null");
+        return eventStreamStorage.append(event);
     }
 
     @Override
     public Mono<Void> sendStream(Publisher<Event<byte[]>> publisher) {
-        return null;
+        Validate.notNull(publisher, "Publisher must not be null");
+        // appends are ordered by subscription, so the events are still stored in the order published
+        return Flux.from(publisher)
+                   .flatMap(eventStreamStorage::append, MAX_PENDING_APPENDS)
+                   .then();
     }
 
     @Override
     public Flux<Event<byte[]>> listen(CRI cri) {
-        return null;
+        Validate.notNull(cri, "CRI must not be null");
+        Flux<Event<byte[]>> ret;
+        // the path includes the leading slash
+        String path = cri.hasPath() ? cri.path().substring(1) : null;
+        if(path == null || path.isEmpty()){
+            ret = eventStreamStorage.read(cri, 0, null);
+        }else if(path.equals(LATEST_PATH)){
+            ret = eventStreamStorage.read(cri, EventStreamStorage.LATEST, null);
+        }else if(isOffset(path)){
+            ret = eventStreamStorage.read(cri, Long.parseLong(path), null);
+        }else{
+            ret = eventStreamStorage.read(cri, 0, path);
+        }
+        return ret;
     }
 
-//    @Autowired
-//    private Vertx vertx;
-//
-//    @Autowired
-//    private KafkaTemplate<String, byte[]> kafkaTemplate;
-//
-//    @Autowired
-//    private KafkaSender<String, byte[]> kafkaSender;
-//
-//    @Autowired
-//    private ContinuumProperties continuumProperties;
-//
-//    private Scheduler scheduler;
-//
-//    @PostConstruct
-//    public void init(){
-//        scheduler = Schedulers.fromExecutor(command -> vertx.executeBlocking(v -> command.run(), null));
-//    }
-//
-//    @Override
-//    public Mono<Void> send(Event<byte[]> event) {
-//        Validate.notNull(event, "Event must not be null");
-//        Mono<Void> ret = Mono.create(sink -> {
-//            String topic = event.cri().resourceName();
-//            String key = event.cri().scope();
-//
-//            ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(topic,
-//                                                                                 null,
-//                                                                                 key,
-//                                                                                 event.data(),
-//                                                                                 new MetadataHeadersAdapter(event.metadata()));
-//            kafkaTemplate.send(producerRecord)
-//                         .addCallback(new ListenableFutureCallback<>() {
-//                             @Override
-//                             public void onFailure(Throwable ex) {
-//                                 sink.error(ex);
-//                             }
-//
-//                             @Override
-//                             public void onSuccess(SendResult<String, byte[]> result) {
-//                                 sink.success();
-//                             }
-//                         });
-//        });
-//
-//        return ret.subscribeOn(scheduler);
-//    }
-//
-//    public Mono<Void> sendStream(Publisher<Event<byte[]>> publisher){
-//        Validate.notNull(publisher, "Publisher must not be null");
-//        return kafkaSender.createOutbound()
-//                          .send(Flux.from(publisher)
-//                                    .map(event -> {
-//                                        String topic = event.cri().resourceName();
-//                                        String key = event.cri().scope();
-//                                        return new ProducerRecord<>(topic,
-//                                                                    null,
-//                                                                    key,
-//                                                                    event.data(),
-//                                                                    new MetadataHeadersAdapter(event.metadata()));
-//                                    }))
-//                          .then();
-//    }
-//
-//    @Override
-//    public Flux<Event<byte[]>> listen(CRI cri) {
-//        Map<String, Object> consumerProps = new HashMap<>();
-//        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, continuumProperties.getKafkaBootstrapServers());
-//        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, UUID.randomUUID().toString());
-//        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-//        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-//        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
-//
-//        ReceiverOptions<String, byte[]> receiverOptions =
-//                ReceiverOptions.<String, byte[]>create(consumerProps)
-//                        .subscription(Collections.singleton(cri.resourceName()));
-//
-//        Flux<Event<byte[]>> ret = KafkaReceiver.create(receiverOptions)
-//                            .receive()
-//                            .map(receiverRecord -> {
-//                                receiverRecord.receiverOffset().acknowledge();
-//                                return new ReceiverRecordEventAdapter(cri, receiverRecord);
-//                            });
-//
-//        return ret.subscribeOn(scheduler);
-//    }
+    private static boolean isOffset(String path){
+        boolean ret = path.length() <= 18;
+        for(int i = 0; i < path.length() && ret; i++){
+            ret = Character.isDigit(path.charAt(i));
+        }
+        return ret;
+    }
 
 }
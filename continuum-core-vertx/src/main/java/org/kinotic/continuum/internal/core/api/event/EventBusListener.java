@@ -0,0 +1,245 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.opentelemetry.api.common.Attributes;
+import io.vertx.core.Context;
+import io.vertx.core.eventbus.Message;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.ListenerDispatch;
+import org.kinotic.continuum.core.api.event.ListenerOverflowStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the messages received by a {@link ListenerSource} to a {@link FluxSink}, only as fast as the subscriber requests them.
+ * Messages that have not been requested yet are held in a bounded buffer, when it is full the {@link ListenerOverflowStrategy} is applied.
+ * Messages are emitted by a single drain loop at a time, which runs on the {@link Executor} for the {@link ListenerDispatch} of the listener.
+ * A message is only acknowledged when it is emitted, any message that is discarded instead is failed with {@link #OVERFLOW_FAILURE_CODE}.
+ */
+class EventBusListener {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBusListener.class);
+
+    /**
+     * Failure code sent to senders that requested an acknowledgement for a message that was discarded
+     */
+    static final int OVERFLOW_FAILURE_CODE = 503;
+
+    private final ListenerSource consumer;
+    private final FluxSink<Event<byte[]>> sink;
+    private final Context context;
+    private final Executor executor;
+    private final int bufferSize;
+    private final int resumeThreshold;
+    private final ListenerOverflowStrategy overflowStrategy;
+    private final EventBusMetrics metrics;
+    private final Attributes metricsAttributes;
+
+    private final Queue<Message<Object>> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // paused is only changed on the context of the consumer
+    private volatile boolean paused = false;
+    private volatile boolean terminated = false;
+
+    EventBusListener(ListenerSource consumer,
+                     FluxSink<Event<byte[]>> sink,
+                     Context context,
+                     Executor executor,
+                     int bufferSize,
+                     ListenerOverflowStrategy overflowStrategy,
+                     EventBusMetrics metrics) {
+        this.consumer = consumer;
+        this.sink = sink;
+        this.context = context;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.resumeThreshold = bufferSize / 2;
+        this.overflowStrategy = overflowStrategy;
+        this.metrics = metrics;
+        this.metricsAttributes = metrics.listenerAttributes(consumer.address());
+    }
+
+    /**
+     * @return the attributes the metrics of this listener are recorded with
+     */
+    Attributes metricsAttributes(){
+        return metricsAttributes;
+    }
+
+    /**
+     * @return the number of messages held until they are requested
+     */
+    int bufferedCount(){
+        return buffered.get();
+    }
+
+    /**
+     * Sets up all handlers and starts consuming messages
+     */
+    void start(){
+        // Setup all required handlers that are needed prior to consuming messages
+        sink.onDispose(() -> {
+            terminated = true;
+            metrics.removeListener(this);
+            consumer.unregister();
+            failBuffered("Listener is closed for ");
+        });
+        sink.onRequest(n -> drain());
+
+        consumer.exceptionHandler(sink::error);
+        consumer.endHandler(event -> sink.complete()); // this should never occur, but we handle in case..
+
+        if(overflowStrategy == ListenerOverflowStrategy.PAUSE){
+            // messages received while paused are held by the consumer up to this limit
+            consumer.setMaxBufferedMessages(bufferSize);
+        }
+
+        metrics.addListener(this);
+
+        // now activate handler to start consuming messages
+        consumer.handler(this::handleMessage);
+    }
+
+    private void handleMessage(Message<Object> message){
+        if(terminated){
+            fail(message, "Listener is closed for ");
+            return;
+        }
+
+        if(buffered.get() >= bufferSize){
+            switch (overflowStrategy) {
+                case DROP_LATEST:
+                    log.trace("Listener buffer is full, discarded the latest event for {}", consumer.address());
+                    fail(message, "Listener buffer is full for ");
+                    return;
+                case DROP_OLDEST:
+                    Message<Object> oldest = buffer.poll();
+                    if(oldest != null){
+                        buffered.decrementAndGet();
+                        log.trace("Listener buffer is full, discarded the oldest event for {}", consumer.address());
+                        fail(oldest, "Listener buffer is full for ");
+                    }
+                    break;
+                case ERROR:
+                    terminated = true;
+                    fail(message, "Listener buffer is full for ");
+                    failBuffered("Listener buffer is full for ");
+                    sink.error(Exceptions.failWithOverflow("Listener buffer is full for " + consumer.address()));
+                    return;
+                default:
+                    // PAUSE, messages delivered by the consumer before the pause took effect are kept
+                    break;
+            }
+        }
+
+        buffer.offer(message);
+        if(buffered.incrementAndGet() >= bufferSize
+                && overflowStrategy == ListenerOverflowStrategy.PAUSE
+                && !paused){
+            paused = true;
+            consumer.pause();
+        }
+
+        drain();
+    }
+
+    /**
+     * Fails the message if the sender requested an acknowledgement, so the sender knows it was not delivered
+     */
+    private void fail(Message<Object> message, String reason){
+        if (message.replyAddress() != null){
+            message.fail(OVERFLOW_FAILURE_CODE, reason + consumer.address());
+        }
+    }
+
+    private void failBuffered(String reason){
+        Message<Object> message;
+        while((message = buffer.poll()) != null){
+            buffered.decrementAndGet();
+            fail(message, reason);
+        }
+    }
+
+    private void drain(){
+        if(wip.getAndIncrement() == 0){
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop(){
+        int missed = 1;
+        do {
+            long requested = sink.requestedFromDownstream();
+            long emitted = 0;
+            while(emitted != requested && !terminated){
+                Message<Object> message = buffer.poll();
+                if(message == null){
+                    break;
+                }
+                buffered.decrementAndGet();
+                // ack that we received the message if desired by sender, only now that it is delivered
+                if (message.replyAddress() != null){
+                    message.reply(null);
+                }
+                Event<byte[]> event = toEvent(message);
+                metrics.recordReceived(metricsAttributes, event);
+                sink.next(event);
+                emitted++;
+            }
+
+            if(paused && buffered.get() <= resumeThreshold){
+                context.runOnContext(v -> resume());
+            }
+
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Messages sent by the {@link DefaultEventBusService} carry the {@link Event} itself using the {@link EventMessageCodec}
+     */
+    @SuppressWarnings("unchecked")
+    static Event<byte[]> toEvent(Message<Object> message){
+        Event<byte[]> ret;
+        Object body = message.body();
+        if(body instanceof Event){
+            ret = (Event<byte[]>) body;
+        }else{
+            ret = new MessageEventAdapter(message);
+        }
+        return ret;
+    }
+
+    private void resume(){
+        if(paused && !terminated && buffered.get() <= resumeThreshold){
+            paused = false;
+            consumer.resume();
+        }
+    }
+
+}
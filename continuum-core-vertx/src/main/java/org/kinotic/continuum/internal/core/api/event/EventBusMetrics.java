@@ -0,0 +1,184 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.vertx.core.eventbus.ReplyException;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the OpenTelemetry metrics for the {@link DefaultEventBusService}.
+ * All metrics are recorded per destination, which is the scheme and resource name of the {@link CRI} events are sent to or listened to.
+ * The scope is not part of the destination, since scopes such as the ones used for reply addresses are unique per client.
+ * To limit cardinality only the first {@code maxDestinations} destinations are recorded by name, all others are recorded as {@link #OTHER_DESTINATION}.
+ */
+class EventBusMetrics implements AutoCloseable {
+
+    static final String INSTRUMENTATION_SCOPE = "org.kinotic.continuum.eventbus";
+    static final String OTHER_DESTINATION = "other";
+    static final AttributeKey<String> DESTINATION = AttributeKey.stringKey("continuum.destination");
+    static final AttributeKey<String> FAILURE = AttributeKey.stringKey("continuum.failure");
+
+    private final int maxDestinations;
+    private final Attributes otherAttributes = Attributes.of(DESTINATION, OTHER_DESTINATION);
+    // keyed by scheme and then resource name, so no key needs to be created to look up the destination of an event
+    private final Map<String, Map<String, Attributes>> destinationAttributes = new ConcurrentHashMap<>();
+    private final AtomicInteger destinationCount = new AtomicInteger();
+    private final Set<EventBusListener> listeners = ConcurrentHashMap.newKeySet();
+
+    private final LongCounter sent;
+    private final LongCounter sentBytes;
+    private final LongCounter receivedBytes;
+    private final LongCounter failures;
+    private final DoubleHistogram ackDuration;
+    private final ObservableLongGauge listenerBuffered;
+
+    EventBusMetrics(OpenTelemetry openTelemetry, int maxDestinations) {
+        this.maxDestinations = maxDestinations;
+        Meter meter = openTelemetry.getMeter(INSTRUMENTATION_SCOPE);
+
+        sent = meter.counterBuilder("continuum.eventbus.sent")
+                    .setDescription("The number of events sent")
+                    .setUnit("{event}")
+                    .build();
+        sentBytes = meter.counterBuilder("continuum.eventbus.sent.bytes")
+                         .setDescription("The number of data bytes sent")
+                         .setUnit("By")
+                         .build();
+        receivedBytes = meter.counterBuilder("continuum.eventbus.received.bytes")
+                             .setDescription("The number of data bytes received by listeners")
+                             .setUnit("By")
+                             .build();
+        failures = meter.counterBuilder("continuum.eventbus.failures")
+                        .setDescription("The number of sends that were not acknowledged")
+                        .setUnit("{event}")
+                        .build();
+        ackDuration = meter.histogramBuilder("continuum.eventbus.ack.duration")
+                           .setDescription("The time from sending an event until it was acknowledged")
+                           .setUnit("s")
+                           .build();
+        listenerBuffered = meter.gaugeBuilder("continuum.eventbus.listener.buffered")
+                                .setDescription("The number of events held by listeners until they are requested")
+                                .setUnit("{event}")
+                                .ofLongs()
+                                .buildWithCallback(measurement -> {
+                                    Map<Attributes, Long> buffered = new HashMap<>();
+                                    for(EventBusListener listener : listeners){
+                                        buffered.merge(listener.metricsAttributes(), (long) listener.bufferedCount(), Long::sum);
+                                    }
+                                    buffered.forEach((attributes, count) -> measurement.record(count, attributes));
+                                });
+    }
+
+    void recordSent(Event<byte[]> event){
+        Attributes attributes = attributes(event.cri());
+        sent.add(1, attributes);
+        // the length is read without copying the data of a BufferEvent
+        int length = BufferEvent.dataLength(event);
+        if(length > 0){
+            sentBytes.add(length, attributes);
+        }
+    }
+
+    /**
+     * @param attributes of the listener, as returned by {@link #listenerAttributes(String)}
+     * @param event that was received
+     */
+    void recordReceived(Attributes attributes, Event<byte[]> event){
+        int length = BufferEvent.dataLength(event);
+        if(length > 0){
+            receivedBytes.add(length, attributes);
+        }
+    }
+
+    /**
+     * Records the result of a send that requested an acknowledgement
+     * @param event that was sent
+     * @param startNanos the value of {@link System#nanoTime()} when the event was sent
+     * @param cause the failure or null if the event was acknowledged
+     */
+    void recordAck(Event<byte[]> event, long startNanos, Throwable cause){
+        Attributes attributes = attributes(event.cri());
+        if(cause == null){
+            ackDuration.record((System.nanoTime() - startNanos) / 1_000_000_000d, attributes);
+        }else{
+            String failure = cause instanceof ReplyException replyException
+                    ? replyException.failureType().name() : cause.getClass().getSimpleName();
+            failures.add(1, attributes.toBuilder().put(FAILURE, failure).build());
+        }
+    }
+
+    void addListener(EventBusListener listener){
+        listeners.add(listener);
+    }
+
+    void removeListener(EventBusListener listener){
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void close() {
+        listenerBuffered.close();
+        listeners.clear();
+    }
+
+    /**
+     * Returns the attributes for the address of a listener, this should be called once when the listener is created
+     * @param address the listener receives events for, this is a {@link CRI} or a {@link CRI} pattern
+     * @return the attributes to record the metrics of the listener with
+     */
+    Attributes listenerAttributes(String address){
+        Attributes ret;
+        try {
+            ret = attributes(CRI.create(address));
+        } catch (IllegalArgumentException e) {
+            ret = otherAttributes;
+        }
+        return ret;
+    }
+
+    private Attributes attributes(CRI cri){
+        Map<String, Attributes> resources = destinationAttributes.computeIfAbsent(cri.scheme(), scheme -> new ConcurrentHashMap<>());
+        Attributes ret = resources.get(cri.resourceName());
+        if(ret == null){
+            if(destinationCount.get() < maxDestinations){
+                ret = resources.computeIfAbsent(cri.resourceName(), resourceName -> {
+                    destinationCount.incrementAndGet();
+                    return Attributes.of(DESTINATION, cri.scheme() + "://" + resourceName);
+                });
+            }else{
+                ret = otherAttributes;
+            }
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.Metadata;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link MessageCodec} that carries an {@link Event} as the body of a vertx message.
+ * For local delivery the {@link Event} is passed by reference, so the {@link CRI} and {@link Metadata} are never copied or parsed again.
+ * This means an {@link Event} must not be modified once it has been sent.
+ *
+ * When sent to another node the {@link Event} is written as a single binary frame.
+ * <pre>
+ * int     length of the frame, not including this field
+ * string  raw cri
+ * int     number of headers, followed by a key and value string for each header
+ * int     length of the data or -1 if there is no data, followed by the data
+ * </pre>
+ * Strings are written as the length of the UTF-8 bytes followed by the bytes, or -1 for null.
+ * The data of a received {@link Event} is a slice of the received {@link Buffer}, so it is not copied until {@link Event#data()} is called.
+ */
+public class EventMessageCodec implements MessageCodec<Event<byte[]>, Event<byte[]>> {
+
+    public static final String NAME = "continuum-event";
+
+    @Override
+    public void encodeToWire(Buffer buffer, Event<byte[]> event) {
+        int start = buffer.length();
+        buffer.appendInt(0); // length is written once the frame is complete
+
+        writeString(buffer, event.cri().raw());
+
+        Metadata metadata = event.metadata();
+        if(metadata != null){
+            int countPos = buffer.length();
+            int[] count = new int[1];
+            buffer.appendInt(0);
+            metadata.forEachHeader((key, value) -> {
+                writeString(buffer, key);
+                writeString(buffer, value);
+                count[0]++;
+            });
+            buffer.setInt(countPos, count[0]);
+        }else{
+            buffer.appendInt(0);
+        }
+
+        Buffer data = BufferEvent.toBuffer(event);
+        if(data != null){
+            buffer.appendInt(data.length());
+            buffer.appendBuffer(data);
+        }else{
+            buffer.appendInt(-1);
+        }
+
+        buffer.setInt(start, buffer.length() - start - 4);
+    }
+
+    @Override
+    public Event<byte[]> decodeFromWire(int pos, Buffer buffer) {
+        int[] position = {pos + 4};
+
+        String rawCRI = readString(buffer, position);
+
+        int headerCount = buffer.getInt(position[0]);
+        position[0] += 4;
+        Metadata metadata = Metadata.create();
+        for(int i = 0; i < headerCount; i++){
+            String key = readString(buffer, position);
+            String value = readString(buffer, position);
+            metadata.put(key, value);
+        }
+
+        int dataLength = buffer.getInt(position[0]);
+        position[0] += 4;
+        Buffer data = null;
+        if(dataLength >= 0){
+            data = buffer.slice(position[0], position[0] + dataLength);
+        }
+
+        return new WireEvent(CRI.create(rawCRI), metadata, data);
+    }
+
+    @Override
+    public Event<byte[]> transform(Event<byte[]> event) {
+        return event;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+
+    private static void writeString(Buffer buffer, String value){
+        if(value != null){
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.appendInt(bytes.length);
+            buffer.appendBytes(bytes);
+        }else{
+            buffer.appendInt(-1);
+        }
+    }
+
+    private static String readString(Buffer buffer, int[] position){
+        int length = buffer.getInt(position[0]);
+        position[0] += 4;
+        String ret = null;
+        if(length >= 0){
+            ret = buffer.getString(position[0], position[0] + length, StandardCharsets.UTF_8.name());
+            position[0] += length;
+        }
+        return ret;
+    }
+
+    /**
+     * {@link Event} received from another node
+     */
+    private static class WireEvent implements BufferEvent {
+
+        private final CRI cri;
+        private final Metadata metadata;
+        private final Buffer buffer;
+        private byte[] data;
+
+        public WireEvent(CRI cri, Metadata metadata, Buffer buffer) {
+            this.cri = cri;
+            this.metadata = metadata;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public CRI cri() {
+            return cri;
+        }
+
+        @Override
+        public Metadata metadata() {
+            return metadata;
+        }
+
+        @Override
+        public byte[] data() {
+            byte[] ret = data;
+            if(ret == null && buffer != null){
+                ret = buffer.getBytes();
+                data = ret;
+            }
+            return ret;
+        }
+
+        @Override
+        public Buffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("cri", cri)
+                    .append("metadata", metadata)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+
+/**
+ * The source of the messages delivered by an {@link EventBusListener}.
+ * This is the subset of a vertx {@link MessageConsumer} needed by the listener, so messages can also be routed to a listener by a {@link PatternRouter}.
+ */
+interface ListenerSource {
+
+    /**
+     * @return the address or pattern messages are received for
+     */
+    String address();
+
+    void handler(Handler<Message<Object>> handler);
+
+    void exceptionHandler(Handler<Throwable> handler);
+
+    void endHandler(Handler<Void> handler);
+
+    /**
+     * Sets the maximum number of messages held while the source is paused
+     */
+    void setMaxBufferedMessages(int maxBufferedMessages);
+
+    void pause();
+
+    void resume();
+
+    /**
+     * Stops delivering messages, this is called when the listener is disposed
+     */
+    void unregister();
+
+    static ListenerSource of(MessageConsumer<Object> consumer){
+        return new ListenerSource() {
+            @Override
+            public String address() {
+                return consumer.address();
+            }
+
+            @Override
+            public void handler(Handler<Message<Object>> handler) {
+                consumer.handler(handler);
+            }
+
+            @Override
+            public void exceptionHandler(Handler<Throwable> handler) {
+                consumer.exceptionHandler(handler);
+            }
+
+            @Override
+            public void endHandler(Handler<Void> handler) {
+                consumer.endHandler(handler);
+            }
+
+            @Override
+            public void setMaxBufferedMessages(int maxBufferedMessages) {
+                consumer.setMaxBufferedMessages(maxBufferedMessages);
+            }
+
+            @Override
+            public void pause() {
+                consumer.pause();
+            }
+
+            @Override
+            public void resume() {
+                consumer.resume();
+            }
+
+            @Override
+            public void unregister() {
+                consumer.unregister();
+            }
+        };
+    }
+
+}
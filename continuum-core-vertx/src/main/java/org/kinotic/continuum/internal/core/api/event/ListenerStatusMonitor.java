@@ -0,0 +1,268 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.spi.cluster.ClusterManager;
+import io.vertx.core.spi.cluster.RegistrationInfo;
+import io.vertx.spi.cluster.ignite.impl.IgniteRegistrationInfo;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.kinotic.continuum.core.api.event.ListenerStatus;
+import org.kinotic.continuum.internal.core.api.aignite.SubscriptionInfoCacheEntryListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches the {@link ListenerStatus} of addresses for any number of subscribers, using a single cache listener for this node.
+ * Subscribers watching the same address share a watcher, which is reference counted and removed when the last subscriber is disposed.
+ * The status is derived from the number of registrations for the address. A created registration always makes the address active,
+ * while a removed registration causes the registrations to be looked up again, since other registrations for the address may remain.
+ * Status changes received by the cache listener are delivered to each subscriber on the vertx {@link Context} it subscribed on.
+ * The registration changes for a group of addresses can also be received directly, see {@link #addRegistrationListener(String, BiConsumer)}.
+ */
+class ListenerStatusMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerStatusMonitor.class);
+
+    private final Vertx vertx;
+    private final IgniteCache<IgniteRegistrationInfo, Boolean> cache;
+    private final ClusterManager clusterManager;
+    private final ConcurrentHashMap<String, Watcher> watchers = new ConcurrentHashMap<>();
+    private final List<RegistrationListener> registrationListeners = new CopyOnWriteArrayList<>();
+    // guarded by this
+    private MutableCacheEntryListenerConfiguration<IgniteRegistrationInfo, Boolean> listenerConfiguration;
+    private boolean closed = false;
+
+    ListenerStatusMonitor(Vertx vertx,
+                          IgniteCache<IgniteRegistrationInfo, Boolean> cache,
+                          ClusterManager clusterManager) {
+        this.vertx = vertx;
+        this.cache = cache;
+        this.clusterManager = clusterManager;
+    }
+
+    /**
+     * @param cri the address to watch
+     * @return a {@link Flux} that emits the current {@link ListenerStatus} for the address and any changes after that
+     */
+    Flux<ListenerStatus> monitor(String cri){
+        return Flux.create(sink -> {
+            try {
+                registerListenerIfNeeded();
+            } catch (Exception e) {
+                sink.error(e);
+                return;
+            }
+
+            Context context = vertx.getOrCreateContext();
+            boolean[] created = new boolean[1];
+            Watcher watcher = watchers.compute(cri, (address, existing) -> {
+                Watcher ret = existing;
+                if(ret == null){
+                    ret = new Watcher(address);
+                    created[0] = true;
+                }
+                ret.sinks.put(sink, context);
+                return ret;
+            });
+
+            sink.onDispose(() -> {
+                log.trace("Disposing of monitorListenerStatus for cri: {}", cri);
+                watchers.computeIfPresent(cri, (address, existing) -> {
+                    existing.sinks.remove(sink);
+                    return existing.sinks.isEmpty() ? null : existing;
+                });
+            });
+
+            if(created[0]){
+                lookupStatus(watcher);
+            }else{
+                ListenerStatus status = watcher.status;
+                if(status != null){
+                    context.runOnContext(v -> sink.next(status));
+                }
+            }
+        });
+    }
+
+    /**
+     * Reports every registration change for the addresses starting with the prefix.
+     * The addresses that already have a registration are reported as created before this returns.
+     * The listener is called on the thread of the cache listener, and may be called again for an address that is already registered.
+     * @param addressPrefix the addresses must start with
+     * @param listener called with the address, and true if a registration was created or false if one was removed
+     */
+    void addRegistrationListener(String addressPrefix, BiConsumer<String, Boolean> listener){
+        registerListenerIfNeeded();
+        // added before looking up the existing registrations, so no change is missed
+        registrationListeners.add(new RegistrationListener(addressPrefix, listener));
+
+        ScanQuery<IgniteRegistrationInfo, Boolean> query = new ScanQuery<>((key, value) -> key.address().startsWith(addressPrefix));
+        try(QueryCursor<Cache.Entry<IgniteRegistrationInfo, Boolean>> cursor = cache.query(query)){
+            for(Cache.Entry<IgniteRegistrationInfo, Boolean> entry : cursor){
+                listener.accept(entry.getKey().address(), true);
+            }
+        }
+    }
+
+    /**
+     * @return the number of addresses currently being watched
+     */
+    int getWatchedCount(){
+        return watchers.size();
+    }
+
+    synchronized void close(){
+        closed = true;
+        if(listenerConfiguration != null){
+            try {
+                cache.deregisterCacheEntryListener(listenerConfiguration);
+            } catch (Exception e) {
+                log.debug("Could not deregister the subscription cache listener", e);
+            }
+            listenerConfiguration = null;
+        }
+    }
+
+    private synchronized void registerListenerIfNeeded(){
+        if(closed){
+            throw new IllegalStateException("The ListenerStatusMonitor has been closed");
+        }
+        if(listenerConfiguration == null){
+            MutableCacheEntryListenerConfiguration<IgniteRegistrationInfo, Boolean> configuration =
+                    new MutableCacheEntryListenerConfiguration<>(FactoryBuilder.factoryOf(new SubscriptionInfoCacheEntryListener(this::registrationChanged)),
+                                                                 null,
+                                                                 false,
+                                                                 false);
+            cache.registerCacheEntryListener(configuration);
+            listenerConfiguration = configuration;
+        }
+    }
+
+    private void registrationChanged(String address, boolean created){
+        for(RegistrationListener registrationListener : registrationListeners){
+            if(address.startsWith(registrationListener.addressPrefix)){
+                registrationListener.listener.accept(address, created);
+            }
+        }
+        Watcher watcher = watchers.get(address);
+        if(watcher != null){
+            if(created){
+                watcher.update(ListenerStatus.ACTIVE);
+            }else{
+                lookupStatus(watcher);
+            }
+        }
+    }
+
+    /**
+     * Looks up the registrations for the address, this is done when the watcher is created to make sure we didn't miss a
+     * subscription change while the cache listener was being set up, and whenever a registration for the address is removed
+     */
+    private void lookupStatus(Watcher watcher){
+        long version = watcher.startLookup();
+        Promise<List<RegistrationInfo>> promise = Promise.promise();
+        clusterManager.getRegistrations(watcher.address, promise);
+
+        promise.future().onComplete(ar -> {
+            if(ar.succeeded()){
+                List<RegistrationInfo> list = ar.result();
+                // a created registration or a later lookup is more recent than this result
+                watcher.updateIfVersion(version, list != null && !list.isEmpty() ? ListenerStatus.ACTIVE : ListenerStatus.INACTIVE);
+            } else {
+                log.trace("Failed getting subscriptions for monitorListenerStatus for cri: {}", watcher.address);
+                watcher.error(ar.cause());
+            }
+        });
+    }
+
+    private static class RegistrationListener {
+        private final String addressPrefix;
+        private final BiConsumer<String, Boolean> listener;
+
+        public RegistrationListener(String addressPrefix, BiConsumer<String, Boolean> listener) {
+            this.addressPrefix = addressPrefix;
+            this.listener = listener;
+        }
+    }
+
+    private static class Watcher {
+
+        private final String address;
+        private final Map<FluxSink<ListenerStatus>, Context> sinks = new ConcurrentHashMap<>();
+        private volatile ListenerStatus status;
+        // guarded by this
+        private long version = 0;
+
+        public Watcher(String address) {
+            this.address = address;
+        }
+
+        /**
+         * @return the version a lookup must still match when it completes, so only the result of the latest lookup is used
+         */
+        public synchronized long startLookup(){
+            return ++version;
+        }
+
+        public void update(ListenerStatus newStatus){
+            synchronized (this){
+                version++;
+                if(status == newStatus){
+                    return;
+                }
+                status = newStatus;
+            }
+            emit(newStatus);
+        }
+
+        public void updateIfVersion(long expectedVersion, ListenerStatus newStatus){
+            synchronized (this){
+                if(version != expectedVersion || status == newStatus){
+                    return;
+                }
+                status = newStatus;
+            }
+            emit(newStatus);
+        }
+
+        public void error(Throwable throwable){
+            sinks.forEach((sink, context) -> context.runOnContext(v -> sink.error(throwable)));
+        }
+
+        private void emit(ListenerStatus newStatus){
+            sinks.forEach((sink, context) -> context.runOnContext(v -> sink.next(newStatus)));
+        }
+    }
+
+}
@@ -17,6 +17,8 @@
 
 package org.kinotic.continuum.internal.core.api.event;
 
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
 import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventConstants;
@@ -25,16 +27,19 @@ import io.vertx.core.eventbus.Message;
 
 /**
  * {@link Event} implementation backed by a {@link Message}
+ * This is used for messages that were not sent using the {@link EventMessageCodec}, where the {@link CRI} is provided as a header.
+ * The body of the {@link Message} can either be a byte[] or a {@link Buffer}
  *
  * Created by navid on 10/30/19
  */
-public class MessageEventAdapter<T> implements Event<T> {
+public class MessageEventAdapter implements BufferEvent {
 
-    private final Message<T> vertxMessage;
+    private final Message<Object> vertxMessage;
     private final MultiMapMetadataAdapter metadata;
     private final CRI cri;
+    private byte[] data;
 
-    public MessageEventAdapter(Message<T> vertxMessage) {
+    public MessageEventAdapter(Message<Object> vertxMessage) {
         this.vertxMessage = vertxMessage;
         this.metadata = new MultiMapMetadataAdapter(vertxMessage.headers());
         this.cri = CRI.create(vertxMessage.headers().get(EventConstants.CRI_HEADER));
@@ -52,11 +57,35 @@ public class MessageEventAdapter<T> implements Event<T> {
     }
 
     @Override
-    public T data() {
-        return vertxMessage.body();
+    public byte[] data() {
+        byte[] ret = data;
+        if(ret == null){
+            Object body = vertxMessage.body();
+            if(body instanceof Buffer buffer){
+                ret = buffer.getBytes();
+            }else{
+                ret = (byte[]) body;
+            }
+            data = ret;
+        }
+        return ret;
     }
 
-    public Message<T> getMessage(){
+    @Override
+    public Buffer buffer() {
+        Object body = vertxMessage.body();
+        Buffer ret;
+        if(body instanceof Buffer buffer){
+            ret = buffer;
+        }else if(body != null){
+            ret = Buffer.buffer(Unpooled.wrappedBuffer((byte[]) body));
+        }else{
+            ret = null;
+        }
+        return ret;
+    }
+
+    public Message<Object> getMessage(){
         return vertxMessage;
     }
 
@@ -0,0 +1,217 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.spi.cluster.ClusterManager;
+import io.vertx.core.spi.cluster.RegistrationInfo;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Routes events to the listeners that were created for a {@link CRI} pattern.
+ * Every pattern with a listener is registered as its own address, made from the {@link #ADDRESS_PREFIX} and the pattern.
+ * Each node has one consumer per pattern, that delivers to all of the listeners on the node for the pattern.
+ * The patterns registered on any node are kept in a {@link TopicTrie}, so a sender can find the addresses of all patterns
+ * matching an event with a single lookup, and only publishes the event when a pattern matches.
+ * Patterns registered on other nodes are learned from the cluster registrations, see {@link #registrationChanged(String, boolean)}.
+ */
+class PatternRouter {
+
+    static final String ADDRESS_PREFIX = "continuum.pattern:";
+
+    private static final Logger log = LoggerFactory.getLogger(PatternRouter.class);
+
+    private final Vertx vertx;
+    private final ClusterManager clusterManager;
+    // the addresses of the patterns registered on any node
+    private final TopicTrie<String> patterns = new TopicTrie<>();
+    // consumers for the patterns registered on this node, keyed by address, guarded by this
+    private final Map<String, PatternConsumer> consumers = new HashMap<>();
+    // the change a pattern address was last seen registered at, so older lookups do not remove it, guarded by this
+    private final Map<String, Long> registeredAt = new HashMap<>();
+    private long changeCount = 0;
+
+    /**
+     * @param vertx to register the consumers with
+     * @param clusterManager used to check if a pattern is still registered on any node, or null if patterns are only registered on this node
+     */
+    PatternRouter(Vertx vertx, ClusterManager clusterManager) {
+        this.vertx = vertx;
+        this.clusterManager = clusterManager;
+    }
+
+    /**
+     * @return the address used by the listeners for the given pattern
+     */
+    static String address(CRI pattern){
+        return ADDRESS_PREFIX + pattern.raw();
+    }
+
+    /**
+     * Creates a new {@link PatternSubscription}, it will not receive any events until a handler is set
+     * @param pattern to receive events for
+     * @param context the events will be delivered on
+     * @return the new {@link PatternSubscription}
+     */
+    PatternSubscription createSubscription(CRI pattern, Context context){
+        return new PatternSubscription(this, pattern, context);
+    }
+
+    /**
+     * Calls the consumer with the address of every registered pattern that matches the {@link CRI}
+     * @param cri of the event being sent
+     * @param consumer to call with each address the event must be published to
+     */
+    void forEachMatchingAddress(CRI cri, Consumer<String> consumer){
+        if(patterns.size() > 0){
+            patterns.forEachMatch(cri, consumer);
+        }
+    }
+
+    /**
+     * @return true if this node has a consumer for the pattern
+     */
+    synchronized boolean hasConsumer(CRI pattern){
+        return consumers.containsKey(address(pattern));
+    }
+
+    /**
+     * Adds the subscription and registers the consumer for its pattern if needed
+     * @return a {@link Future} that completes when the consumer registration has been propagated cluster wide
+     */
+    synchronized Future<Void> add(PatternSubscription subscription){
+        String address = address(subscription.pattern());
+        PatternConsumer patternConsumer = consumers.get(address);
+        if(patternConsumer == null){
+            patternConsumer = new PatternConsumer(address);
+            consumers.put(address, patternConsumer);
+            // senders on this node must not wait for the registration to be reported by the cluster
+            patternRegistered(address);
+        }
+        patternConsumer.subscriptions.add(subscription);
+        return patternConsumer.registration;
+    }
+
+    /**
+     * Removes the subscription and unregisters the consumer for its pattern if it was the last one
+     */
+    synchronized void remove(PatternSubscription subscription){
+        String address = address(subscription.pattern());
+        PatternConsumer patternConsumer = consumers.get(address);
+        if(patternConsumer != null && patternConsumer.subscriptions.remove(subscription) && patternConsumer.subscriptions.isEmpty()){
+            consumers.remove(address);
+            patternConsumer.consumer.unregister();
+            if(clusterManager == null){
+                registeredAt.remove(address);
+                patterns.remove(subscription.pattern(), address);
+            }
+            // otherwise the removal is reported by the cluster, since other nodes may still have the pattern
+        }
+    }
+
+    /**
+     * Called for every registration change of an address, registrations for addresses that are not patterns are ignored
+     * @param address of the registration
+     * @param created true if the registration was created, false if it was removed
+     */
+    void registrationChanged(String address, boolean created){
+        if(address.startsWith(ADDRESS_PREFIX)){
+            if(created){
+                synchronized (this){
+                    patternRegistered(address);
+                }
+            }else if(clusterManager != null){
+                // other registrations for the pattern may remain
+                long lookupStartedAt;
+                synchronized (this){
+                    lookupStartedAt = ++changeCount;
+                }
+                Promise<List<RegistrationInfo>> promise = Promise.promise();
+                clusterManager.getRegistrations(address, promise);
+                promise.future().onComplete(ar -> {
+                    if(ar.succeeded()){
+                        if(ar.result() == null || ar.result().isEmpty()){
+                            patternUnregistered(address, lookupStartedAt);
+                        }
+                    }else{
+                        log.debug("Could not get the registrations for pattern address {}", address, ar.cause());
+                    }
+                });
+            }
+        }
+    }
+
+    synchronized void close(){
+        for(PatternConsumer patternConsumer : consumers.values()){
+            patternConsumer.consumer.unregister();
+        }
+        consumers.clear();
+    }
+
+    // must hold the lock
+    private void patternRegistered(String address){
+        registeredAt.put(address, ++changeCount);
+        patterns.add(CRI.create(address.substring(ADDRESS_PREFIX.length())), address);
+    }
+
+    private synchronized void patternUnregistered(String address, long lookupStartedAt){
+        Long lastRegistered = registeredAt.get(address);
+        // keep the pattern if it was registered again after the lookup started, or is still registered on this node
+        if(lastRegistered != null && lastRegistered < lookupStartedAt && !consumers.containsKey(address)){
+            registeredAt.remove(address);
+            patterns.remove(CRI.create(address.substring(ADDRESS_PREFIX.length())), address);
+        }
+    }
+
+    /**
+     * The consumer for a pattern on this node, shared by all of the subscriptions for the pattern
+     */
+    private class PatternConsumer {
+        private final Set<PatternSubscription> subscriptions = new CopyOnWriteArraySet<>();
+        private final MessageConsumer<Object> consumer;
+        private final Future<Void> registration;
+
+        public PatternConsumer(String address) {
+            Promise<Void> promise = Promise.promise();
+            consumer = vertx.eventBus().consumer(address, this::route);
+            consumer.completionHandler(promise);
+            registration = promise.future();
+        }
+
+        private void route(Message<Object> message){
+            for(PatternSubscription subscription : subscriptions){
+                subscription.deliver(message);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.eventbus.Message;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+
+/**
+ * A {@link ListenerSource} for a {@link CRI} pattern, the messages are routed to it by the {@link PatternRouter}.
+ * Messages are delivered on the {@link Context} the subscription was created for, the same as a vertx consumer,
+ * so all of the state other than the handler is only accessed from that context.
+ */
+class PatternSubscription implements ListenerSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PatternSubscription.class);
+
+    private final PatternRouter router;
+    private final CRI pattern;
+    private final Context context;
+    private final ArrayDeque<Message<Object>> pending = new ArrayDeque<>();
+    private final Promise<Void> registration = Promise.promise();
+
+    private volatile Handler<Message<Object>> handler;
+    private int maxBufferedMessages = 1000;
+    private boolean paused = false;
+
+    PatternSubscription(PatternRouter router, CRI pattern, Context context) {
+        this.router = router;
+        this.pattern = pattern;
+        this.context = context;
+    }
+
+    CRI pattern(){
+        return pattern;
+    }
+
+    Context context(){
+        return context;
+    }
+
+    /**
+     * @return a {@link Future} that completes once the subscription has been added to the {@link PatternRouter},
+     * and the consumer of the router has been registered cluster wide
+     */
+    Future<Void> registration(){
+        return registration.future();
+    }
+
+    /**
+     * Called by the {@link PatternRouter} for every message that matches the pattern
+     */
+    void deliver(Message<Object> message){
+        context.runOnContext(v -> {
+            Handler<Message<Object>> current = handler;
+            if(current != null){
+                if(paused){
+                    if(pending.size() < maxBufferedMessages){
+                        pending.offer(message);
+                    }else if(log.isTraceEnabled()){
+                        log.trace("Pattern subscription is paused and full, discarded an event for {}", pattern);
+                    }
+                }else{
+                    current.handle(message);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String address() {
+        return pattern.raw();
+    }
+
+    @Override
+    public void handler(Handler<Message<Object>> handler) {
+        boolean first = this.handler == null;
+        this.handler = handler;
+        if(first && handler != null){
+            router.add(this).onComplete(registration);
+        }
+    }
+
+    @Override
+    public void exceptionHandler(Handler<Throwable> handler) {
+        // messages are routed locally, so no exceptions are raised
+    }
+
+    @Override
+    public void endHandler(Handler<Void> handler) {
+        // a subscription only ends when it is unregistered
+    }
+
+    @Override
+    public void setMaxBufferedMessages(int maxBufferedMessages) {
+        this.maxBufferedMessages = maxBufferedMessages;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+        Message<Object> message;
+        while(!paused && handler != null && (message = pending.poll()) != null){
+            handler.handle(message);
+        }
+    }
+
+    @Override
+    public void unregister() {
+        if(handler != null){
+            handler = null;
+            router.remove(this);
+        }
+        context.runOnContext(v -> pending.clear());
+    }
+
+}
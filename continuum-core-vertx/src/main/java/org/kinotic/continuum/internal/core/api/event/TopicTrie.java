@@ -0,0 +1,220 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.core.api.event.CRI;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A concurrent trie of {@link CRI} patterns, that finds every value registered for a pattern matching a {@link CRI} with a single lookup.
+ * Patterns are split into the scheme, the scope and the dot separated segments of the resource name, the path and version are ignored.
+ * <ul>
+ *     <li>The scope can be * to match any scope, including no scope. For example srv://*@device.telemetry</li>
+ *     <li>The last segment of the resource name can be * to match one or more segments. For example srv://device.*</li>
+ * </ul>
+ * Lookups do not lock, changes to the trie are serialized.
+ */
+class TopicTrie<T> {
+
+    static final String WILDCARD = "*";
+
+    private final Node<T> root = new Node<>();
+    private volatile int size = 0;
+
+    /**
+     * @return true if the {@link CRI} contains a wildcard in its scope or resource name
+     */
+    static boolean isPattern(CRI cri){
+        return (cri.hasScope() && cri.scope().contains(WILDCARD)) || cri.resourceName().contains(WILDCARD);
+    }
+
+    /**
+     * Adds the value for the given pattern
+     * @param pattern the value should receive matches for
+     * @param value to add
+     * @throws IllegalArgumentException if the pattern uses a wildcard where it is not supported
+     */
+    synchronized void add(CRI pattern, T value){
+        Validate.notNull(value, "value must not be null");
+        String[] segments = validate(pattern);
+
+        Node<T> node = root.children.computeIfAbsent(pattern.scheme(), k -> new Node<>());
+        node = node.scopeChild(pattern.scope(), true);
+        boolean prefix = false;
+        for(String segment : segments){
+            if(segment.equals(WILDCARD)){
+                prefix = true;
+            }else{
+                node = node.children.computeIfAbsent(segment, k -> new Node<>());
+            }
+        }
+        Set<T> values = prefix ? node.prefixValues : node.values;
+        if(values.add(value)){
+            size++;
+        }
+    }
+
+    /**
+     * Removes the value for the given pattern, any nodes no longer needed are removed from the trie
+     * @param pattern the value was added for
+     * @param value to remove
+     */
+    synchronized void remove(CRI pattern, T value){
+        String[] segments = validate(pattern);
+
+        Node<T> schemeNode = root.children.get(pattern.scheme());
+        Node<T> scopeNode = schemeNode != null ? schemeNode.scopeChild(pattern.scope(), false) : null;
+        if(scopeNode != null){
+            boolean prefix = segments[segments.length - 1].equals(WILDCARD);
+            int depth = prefix ? segments.length - 1 : segments.length;
+
+            @SuppressWarnings("unchecked")
+            Node<T>[] path = new Node[depth + 1];
+            path[0] = scopeNode;
+            for(int i = 0; i < depth && path[i] != null; i++){
+                path[i + 1] = path[i].children.get(segments[i]);
+            }
+
+            Node<T> node = path[depth];
+            if(node != null && (prefix ? node.prefixValues : node.values).remove(value)){
+                size--;
+                // prune from the deepest node up
+                for(int i = depth; i > 0 && path[i].isEmpty(); i--){
+                    path[i - 1].children.remove(segments[i - 1], path[i]);
+                }
+                if(scopeNode.isEmpty()){
+                    schemeNode.removeScopeChild(pattern.scope(), scopeNode);
+                    if(schemeNode.isEmpty()){
+                        root.children.remove(pattern.scheme(), schemeNode);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for every value registered with a pattern that matches the given {@link CRI}
+     * @param cri to find the matching values for
+     * @param consumer to call for each value
+     */
+    void forEachMatch(CRI cri, Consumer<T> consumer){
+        Node<T> schemeNode = root.children.get(cri.scheme());
+        if(schemeNode != null){
+            String resourceName = cri.resourceName();
+            Node<T> scopeNode = cri.hasScope() ? schemeNode.children.get(cri.scope()) : schemeNode.noScope;
+            if(scopeNode != null){
+                forEachMatch(scopeNode, resourceName, consumer);
+            }
+            Node<T> wildcardNode = schemeNode.wildcard;
+            if(wildcardNode != null){
+                forEachMatch(wildcardNode, resourceName, consumer);
+            }
+        }
+    }
+
+    /**
+     * @return the number of values in the trie
+     */
+    int size(){
+        return size;
+    }
+
+    private void forEachMatch(Node<T> node, String resourceName, Consumer<T> consumer){
+        int start = 0;
+        int length = resourceName.length();
+        while(node != null){
+            if(start > length){
+                node.values.forEach(consumer);
+                break;
+            }
+            // at least one segment remains, so any prefix patterns at this node match
+            node.prefixValues.forEach(consumer);
+
+            int end = resourceName.indexOf('.', start);
+            if(end < 0){
+                end = length;
+            }
+            node = node.children.get(resourceName.substring(start, end));
+            start = end + 1;
+        }
+    }
+
+    private static String[] validate(CRI pattern){
+        Validate.notNull(pattern, "pattern must not be null");
+        Validate.isTrue(!pattern.scheme().contains(WILDCARD), "Wildcards are not supported in the scheme of " + pattern.raw());
+        if(pattern.hasScope()){
+            Validate.isTrue(pattern.scope().equals(WILDCARD) || !pattern.scope().contains(WILDCARD),
+                            "A wildcard must be the entire scope of " + pattern.raw());
+        }
+        String[] ret = pattern.resourceName().split("\\.", -1);
+        for(int i = 0; i < ret.length; i++){
+            if(ret[i].contains(WILDCARD)){
+                Validate.isTrue(ret[i].equals(WILDCARD) && i == ret.length - 1,
+                                "A wildcard is only supported as the last segment of the resource name in " + pattern.raw());
+            }
+        }
+        return ret;
+    }
+
+    private static class Node<T> {
+        private final ConcurrentHashMap<String, Node<T>> children = new ConcurrentHashMap<>();
+        private final Set<T> values = ConcurrentHashMap.newKeySet();
+        private final Set<T> prefixValues = ConcurrentHashMap.newKeySet();
+        // only used by scheme nodes
+        private volatile Node<T> noScope;
+        private volatile Node<T> wildcard;
+
+        private Node<T> scopeChild(String scope, boolean create){
+            Node<T> ret;
+            if(scope == null){
+                if(noScope == null && create){
+                    noScope = new Node<>();
+                }
+                ret = noScope;
+            }else if(scope.equals(WILDCARD)){
+                if(wildcard == null && create){
+                    wildcard = new Node<>();
+                }
+                ret = wildcard;
+            }else{
+                ret = create ? children.computeIfAbsent(scope, k -> new Node<>()) : children.get(scope);
+            }
+            return ret;
+        }
+
+        private void removeScopeChild(String scope, Node<T> child){
+            if(scope == null){
+                noScope = null;
+            }else if(scope.equals(WILDCARD)){
+                wildcard = null;
+            }else{
+                children.remove(scope, child);
+            }
+        }
+
+        private boolean isEmpty(){
+            return children.isEmpty() && values.isEmpty() && prefixValues.isEmpty()
+                    && noScope == null && wildcard == null;
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event.stream;
+
+import io.vertx.core.Vertx;
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventStreamStorage;
+import org.kinotic.continuum.internal.core.api.event.EventMessageCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded {@link EventStreamStorage} that stores each stream as an append only log of memory mapped segment files.
+ * Streams are stored on the local file system of this node, they are not replicated to other nodes in the cluster.
+ * Writes are not forced to disk for every append, so events that were appended right before the operating system fails may be lost.
+ * Events are stored in the same binary frame the {@link EventMessageCodec} uses for the event bus.
+ * There is no retention, segments are never deleted, so a stream keeps growing until its directory is removed while the storage is closed.
+ * <p>
+ * The directory is opened when the storage is first used, and it is locked so that only one node can use it at a time.
+ */
+public class MappedEventStreamStorage implements EventStreamStorage, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedEventStreamStorage.class);
+
+    private static final String STREAM_NAME_PATTERN = "[\\w\\-][\\w.\\-]*";
+    private static final long CONSUMER_OFFSETS_FLUSH_INTERVAL = 1000;
+    private static final String LOCK_FILE = ".lock";
+
+    private final Vertx vertx;
+    private final Path directory;
+    private final int segmentSize;
+    private final EventMessageCodec codec = new EventMessageCodec();
+    private final ConcurrentHashMap<String, StreamPartition> partitions = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    // the following are guarded by this
+    private volatile boolean opened = false;
+    private boolean closed = false;
+    private FileChannel lockChannel;
+    private long flushTimerId = -1;
+
+    /**
+     * Creates the storage, the directory is not opened until the storage is first used
+     * @param vertx used to periodically store the consumer group offsets
+     * @param directory where the streams are stored, or null if none was configured, in which case using the storage fails
+     * @param segmentSize the size of each segment file in bytes
+     */
+    public MappedEventStreamStorage(Vertx vertx, Path directory, int segmentSize) {
+        Validate.notNull(vertx, "vertx must not be null");
+        Validate.isTrue(segmentSize >= 1024, "segmentSize must be at least 1024 bytes");
+        this.vertx = vertx;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                                 .name("continuum-event-stream-", 0)
+                                                                 .factory());
+    }
+
+    @Override
+    public Mono<Void> append(Event<byte[]> event) {
+        Validate.notNull(event, "event must not be null");
+        return Mono.defer(() -> getPartition(event.cri().resourceName()).append(event));
+    }
+
+    @Override
+    public Flux<Event<byte[]>> read(CRI cri, long fromOffset, String consumerGroup) {
+        Validate.notNull(cri, "cri must not be null");
+        return Flux.defer(() -> getPartition(cri.resourceName()).read(cri.scope(), fromOffset, consumerGroup));
+    }
+
+    @Override
+    public synchronized void close() {
+        if(!closed){
+            closed = true;
+            if(opened){
+                vertx.cancelTimer(flushTimerId);
+                for(StreamPartition partition : partitions.values()){
+                    try {
+                        partition.close();
+                    } catch (IOException e) {
+                        log.warn("Could not close event stream {}", partition.getName(), e);
+                    }
+                }
+                partitions.clear();
+                try {
+                    // closing the channel releases the lock
+                    lockChannel.close();
+                } catch (IOException e) {
+                    log.warn("Could not release the lock for event streams in {}", directory, e);
+                }
+            }
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Locks the directory and opens all streams that already exist in it, if this has not been done yet
+     */
+    private void openIfNeeded(){
+        if(!opened){
+            synchronized (this){
+                if(closed){
+                    throw new IllegalStateException("The event stream storage has been closed");
+                }
+                if(!opened){
+                    if(directory == null){
+                        throw new IllegalStateException("No event stream directory is configured, set continuum.eventStreamDirectory to use the embedded event stream storage");
+                    }
+                    try {
+                        Files.createDirectories(directory);
+                        lockChannel = lockDirectory();
+                        try(DirectoryStream<Path> streams = Files.newDirectoryStream(directory, Files::isDirectory)){
+                            for(Path stream : streams){
+                                String name = stream.getFileName().toString();
+                                partitions.put(name, StreamPartition.open(name, stream, segmentSize, executor, codec));
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not open event streams in " + directory, e);
+                    }
+                    flushTimerId = vertx.setPeriodic(CONSUMER_OFFSETS_FLUSH_INTERVAL, id -> executor.execute(this::flushConsumerOffsets));
+                    opened = true;
+                }
+            }
+        }
+    }
+
+    private FileChannel lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // the lock is held by another storage in this jvm
+            lock = null;
+        }
+        if(lock == null){
+            channel.close();
+            throw new IllegalStateException("The event stream directory " + directory + " is already in use by another node");
+        }
+        return channel;
+    }
+
+    private StreamPartition getPartition(String name){
+        Validate.matchesPattern(name, STREAM_NAME_PATTERN, "Invalid stream name " + name);
+        openIfNeeded();
+        return partitions.computeIfAbsent(name, n -> {
+            try {
+                return StreamPartition.open(n, directory.resolve(n), segmentSize, executor, codec);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not create event stream " + n, e);
+            }
+        });
+    }
+
+    private void flushConsumerOffsets(){
+        for(StreamPartition partition : partitions.values()){
+            try {
+                partition.flushConsumerOffsets();
+            } catch (IOException e) {
+                log.warn("Could not store the consumer offsets for event stream {}", partition.getName(), e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event.stream;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.internal.core.api.event.EventMessageCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single append only event stream, stored as a directory of {@link StreamSegment}s.
+ * Appends are queued and written by a single append loop, which writes everything queued at once.
+ * The end offset is published and waiting {@link StreamReader}s are signaled once per batch, not for every event.
+ * The offsets of consumer groups are held in memory and written to a properties file by {@link #flushConsumerOffsets()}.
+ */
+class StreamPartition {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamPartition.class);
+
+    private static final String CONSUMER_OFFSETS_FILE = "consumer-offsets.properties";
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSize;
+    private final Executor executor;
+    private final EventMessageCodec codec;
+    private final ConcurrentSkipListMap<Long, StreamSegment> segments = new ConcurrentSkipListMap<>();
+
+    private final Queue<PendingAppend> appendQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger appendWip = new AtomicInteger();
+    private final Set<StreamReader> readers = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Long> consumerOffsets = new ConcurrentHashMap<>();
+    private volatile boolean consumerOffsetsDirty = false;
+
+    // only accessed by the append loop
+    private StreamSegment activeSegment;
+    /**
+     * Offset of the next event to be appended, all events with a lower offset can be read
+     */
+    private volatile long endOffset;
+
+    private StreamPartition(String name, Path directory, int segmentSize, Executor executor, EventMessageCodec codec) {
+        this.name = name;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.executor = executor;
+        this.codec = codec;
+    }
+
+    /**
+     * Opens the stream in the given directory, creating it if it does not exist
+     */
+    static StreamPartition open(String name,
+                                Path directory,
+                                int segmentSize,
+                                Executor executor,
+                                EventMessageCodec codec) throws IOException {
+        Files.createDirectories(directory);
+        StreamPartition ret = new StreamPartition(name, directory, segmentSize, executor, codec);
+
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+            for(Path file : files){
+                long baseOffset = StreamSegment.parseBaseOffset(file.getFileName().toString());
+                if(baseOffset >= 0){
+                    ret.segments.put(baseOffset, StreamSegment.open(file, baseOffset));
+                }
+            }
+        }
+
+        if(ret.segments.isEmpty()){
+            StreamSegment segment = StreamSegment.create(directory, 0, segmentSize);
+            ret.segments.put(0L, segment);
+        }
+        ret.activeSegment = ret.segments.lastEntry().getValue();
+        ret.endOffset = ret.activeSegment.getNextOffset();
+
+        Path offsetsFile = directory.resolve(CONSUMER_OFFSETS_FILE);
+        if(Files.exists(offsetsFile)){
+            Properties properties = new Properties();
+            try(InputStream inputStream = Files.newInputStream(offsetsFile)){
+                properties.load(inputStream);
+            }
+            for(String group : properties.stringPropertyNames()){
+                ret.consumerOffsets.put(group, Long.parseLong(properties.getProperty(group)));
+            }
+        }
+
+        log.debug("Opened event stream {} with {} segments and end offset {}", name, ret.segments.size(), ret.endOffset);
+        return ret;
+    }
+
+    Mono<Void> append(Event<byte[]> event){
+        return Mono.create(sink -> {
+            // events are encoded by the caller, so only copying into the segment is serialized
+            Buffer frame = Buffer.buffer();
+            codec.encodeToWire(frame, event);
+            if(frame.length() + 12 > segmentSize){
+                sink.error(new IllegalArgumentException("Event of " + frame.length() + " bytes is larger than the segment size for stream " + name));
+                return;
+            }
+            appendQueue.offer(new PendingAppend(frame.getBytes(), sink));
+            if(appendWip.getAndIncrement() == 0){
+                executor.execute(this::appendLoop);
+            }
+        });
+    }
+
+    Flux<Event<byte[]>> read(String scope, long fromOffset, String consumerGroup){
+        return Flux.create(sink -> {
+            long startOffset = fromOffset;
+            if(consumerGroup != null){
+                startOffset = consumerOffsets.getOrDefault(consumerGroup, fromOffset);
+            }
+            if(startOffset < 0 || startOffset > endOffset){
+                startOffset = endOffset;
+            }
+            new StreamReader(this, sink, scope, consumerGroup, executor, startOffset).start();
+        }, FluxSink.OverflowStrategy.IGNORE);
+    }
+
+    String getName(){
+        return name;
+    }
+
+    long getEndOffset(){
+        return endOffset;
+    }
+
+    /**
+     * @return the segment containing the given offset, or the first segment if the offset is before the start of the stream
+     */
+    StreamSegment segmentFor(long offset){
+        Map.Entry<Long, StreamSegment> entry = segments.floorEntry(offset);
+        return entry != null ? entry.getValue() : segments.firstEntry().getValue();
+    }
+
+    Event<byte[]> decode(byte[] frame, long offset){
+        Event<byte[]> ret = codec.decodeFromWire(0, Buffer.buffer(Unpooled.wrappedBuffer(frame)));
+        ret.metadata().put(EventConstants.STREAM_OFFSET_HEADER, Long.toString(offset));
+        return ret;
+    }
+
+    void addReader(StreamReader reader){
+        readers.add(reader);
+    }
+
+    void removeReader(StreamReader reader){
+        readers.remove(reader);
+    }
+
+    /**
+     * @param consumerGroup to store the offset for
+     * @param offset of the next event the group should read
+     */
+    void commitOffset(String consumerGroup, long offset){
+        consumerOffsets.put(consumerGroup, offset);
+        consumerOffsetsDirty = true;
+    }
+
+    synchronized void flushConsumerOffsets() throws IOException {
+        if(consumerOffsetsDirty){
+            consumerOffsetsDirty = false;
+            Properties properties = new Properties();
+            consumerOffsets.forEach((group, offset) -> properties.setProperty(group, Long.toString(offset)));
+
+            Path temp = directory.resolve(CONSUMER_OFFSETS_FILE + ".tmp");
+            try(OutputStream outputStream = Files.newOutputStream(temp)){
+                properties.store(outputStream, "Consumer group offsets for " + name);
+            }
+            Files.move(temp, directory.resolve(CONSUMER_OFFSETS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    void close() throws IOException {
+        flushConsumerOffsets();
+        for(StreamSegment segment : segments.values()){
+            segment.close();
+        }
+    }
+
+    private void appendLoop(){
+        int missed = 1;
+        do {
+            List<PendingAppend> written = new ArrayList<>();
+            long offset = endOffset;
+            PendingAppend pending;
+            while((pending = appendQueue.poll()) != null){
+                try {
+                    if(!activeSegment.hasRoom(pending.frame.length)){
+                        activeSegment.force();
+                        activeSegment = StreamSegment.create(directory, offset, segmentSize);
+                        segments.put(offset, activeSegment);
+                    }
+                    activeSegment.append(offset, pending.frame);
+                    offset++;
+                    written.add(pending);
+                } catch (Exception e) {
+                    log.error("Could not append to event stream {}", name, e);
+                    pending.sink.error(e);
+                }
+            }
+
+            if(!written.isEmpty()){
+                endOffset = offset;
+                for(PendingAppend append : written){
+                    append.sink.success();
+                }
+                for(StreamReader reader : readers){
+                    reader.drain();
+                }
+            }
+
+            missed = appendWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private static class PendingAppend {
+
+        private final byte[] frame;
+        private final MonoSink<Void> sink;
+
+        public PendingAppend(byte[] frame, MonoSink<Void> sink) {
+            this.frame = frame;
+            this.sink = sink;
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event.stream;
+
+import org.kinotic.continuum.core.api.event.Event;
+import reactor.core.publisher.FluxSink;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the events of a {@link StreamPartition} into a {@link FluxSink}, only as fast as the subscriber requests them.
+ * Once the end of the stream is reached the reader waits until it is signaled by the append loop of the {@link StreamPartition}.
+ * Events are emitted by a single drain loop at a time, which runs on the {@link Executor} of the {@link StreamPartition}.
+ */
+class StreamReader {
+
+    private final StreamPartition partition;
+    private final FluxSink<Event<byte[]>> sink;
+    private final String scope;
+    private final String consumerGroup;
+    private final Executor executor;
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled = false;
+
+    // only accessed by the drain loop
+    private StreamSegment segment;
+    private int position;
+    private long nextOffset;
+
+    StreamReader(StreamPartition partition,
+                 FluxSink<Event<byte[]>> sink,
+                 String scope,
+                 String consumerGroup,
+                 Executor executor,
+                 long startOffset) {
+        this.partition = partition;
+        this.sink = sink;
+        this.scope = scope;
+        this.consumerGroup = consumerGroup;
+        this.executor = executor;
+        this.nextOffset = startOffset;
+    }
+
+    void start(){
+        sink.onDispose(() -> {
+            cancelled = true;
+            partition.removeReader(this);
+        });
+        sink.onRequest(n -> drain());
+        partition.addReader(this);
+        drain();
+    }
+
+    void drain(){
+        if(wip.getAndIncrement() == 0){
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop(){
+        int missed = 1;
+        do {
+            try {
+                if(segment == null){
+                    seek();
+                }
+                long requested = sink.requestedFromDownstream();
+                long emitted = 0;
+                long endOffset = partition.getEndOffset();
+                while(emitted != requested && !cancelled && nextOffset < endOffset){
+                    if(segment.offsetAt(position) != nextOffset){
+                        // the record is at the start of the next segment
+                        segment = partition.segmentFor(nextOffset);
+                        position = 0;
+                    }
+                    byte[] frame = segment.readFrame(position);
+                    position = segment.nextPosition(position);
+                    Event<byte[]> event = partition.decode(frame, nextOffset);
+                    nextOffset++;
+
+                    if(scope == null || scope.equals(event.cri().scope())){
+                        sink.next(event);
+                        emitted++;
+                    }
+                    if(consumerGroup != null){
+                        partition.commitOffset(consumerGroup, nextOffset);
+                    }
+                }
+            } catch (Exception e) {
+                cancelled = true;
+                sink.error(e);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Positions the reader at the record for the next offset, or where the record will be written if it does not exist yet
+     */
+    private void seek(){
+        segment = partition.segmentFor(nextOffset);
+        if(nextOffset < segment.getBaseOffset()){
+            nextOffset = segment.getBaseOffset();
+        }
+        position = segment.indexedPosition(nextOffset);
+        long offset = segment.offsetAt(position);
+        while(offset != -1 && offset < nextOffset){
+            position = segment.nextPosition(position);
+            offset = segment.offsetAt(position);
+        }
+    }
+
+}
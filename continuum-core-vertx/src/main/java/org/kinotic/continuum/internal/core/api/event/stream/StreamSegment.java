@@ -0,0 +1,232 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event.stream;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * A memory mapped file holding a contiguous range of the records of a {@link StreamPartition}.
+ * Each record is laid out as follows.
+ * <pre>
+ * int     CRC32C of the rest of the record
+ * long    offset of the record
+ * bytes   the event frame written by the {@link org.kinotic.continuum.internal.core.api.event.EventMessageCodec},
+ *         which starts with the length of the frame not including the length itself
+ * </pre>
+ * Records are only written by the append loop of the {@link StreamPartition}.
+ * Readers may read any record with an offset lower than the published end offset of the {@link StreamPartition} concurrently.
+ */
+class StreamSegment {
+
+    static final int RECORD_HEADER_SIZE = 16;
+    /**
+     * The position of every record with an offset that is a multiple of this interval, relative to the base offset, is indexed
+     */
+    private static final int INDEX_INTERVAL = 1024;
+
+    private final Path path;
+    private final long baseOffset;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // only accessed by the append loop
+    private int writePosition = 0;
+    private long nextOffset;
+
+    // guarded by this
+    private int[] index = new int[16];
+    private int indexCount = 0;
+
+    private StreamSegment(Path path, long baseOffset, FileChannel channel, int capacity) throws IOException {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.nextOffset = baseOffset;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Creates a new empty segment
+     */
+    static StreamSegment create(Path directory, long baseOffset, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(baseOffset));
+        FileChannel channel = FileChannel.open(path,
+                                               StandardOpenOption.CREATE_NEW,
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        return new StreamSegment(path, baseOffset, channel, capacity);
+    }
+
+    /**
+     * Opens an existing segment, all valid records are indexed and anything after the last valid record is discarded
+     */
+    static StreamSegment open(Path path, long baseOffset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        StreamSegment ret = new StreamSegment(path, baseOffset, channel, (int) channel.size());
+        ret.recover();
+        return ret;
+    }
+
+    static String fileName(long baseOffset){
+        return String.format("%020d.log", baseOffset);
+    }
+
+    /**
+     * @return the base offset of the segment, parsed from the file name or -1 if the name is not a segment file name
+     */
+    static long parseBaseOffset(String fileName){
+        long ret = -1;
+        if(fileName.length() == 24 && fileName.endsWith(".log")){
+            try {
+                ret = Long.parseLong(fileName.substring(0, 20));
+            } catch (NumberFormatException e) {
+                ret = -1;
+            }
+        }
+        return ret;
+    }
+
+    long getBaseOffset(){
+        return baseOffset;
+    }
+
+    /**
+     * @return the offset the next record written to this segment will have
+     */
+    long getNextOffset(){
+        return nextOffset;
+    }
+
+    boolean hasRoom(int frameLength){
+        return writePosition + 12 + frameLength <= capacity;
+    }
+
+    /**
+     * Writes a record, {@link #hasRoom(int)} must be checked first
+     * @param offset of the record
+     * @param frame the event frame, including its length
+     */
+    void append(long offset, byte[] frame){
+        int position = writePosition;
+        buffer.putLong(position + 4, offset);
+        buffer.put(position + 12, frame);
+        buffer.putInt(position, crc(position, frame.length));
+
+        if((offset - baseOffset) % INDEX_INTERVAL == 0){
+            addIndex(position);
+        }
+        writePosition = position + 12 + frame.length;
+        nextOffset = offset + 1;
+    }
+
+    /**
+     * @return the offset of the record at the given position or -1 if there is no record at the position
+     */
+    long offsetAt(int position){
+        long ret = -1;
+        if(position + RECORD_HEADER_SIZE <= capacity && buffer.getInt(position + 12) > 0){
+            ret = buffer.getLong(position + 4);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the position of the record following the record at the given position
+     */
+    int nextPosition(int position){
+        return position + RECORD_HEADER_SIZE + buffer.getInt(position + 12);
+    }
+
+    /**
+     * @return a copy of the event frame of the record at the given position
+     */
+    byte[] readFrame(int position){
+        byte[] ret = new byte[4 + buffer.getInt(position + 12)];
+        buffer.get(position + 12, ret);
+        return ret;
+    }
+
+    /**
+     * @return the position of the closest indexed record with an offset less than or equal to the given offset
+     */
+    synchronized int indexedPosition(long offset){
+        int slot = (int) Math.min((offset - baseOffset) / INDEX_INTERVAL, indexCount - 1);
+        return slot >= 0 ? index[slot] : 0;
+    }
+
+    void force(){
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    private synchronized void addIndex(int position){
+        if(indexCount == index.length){
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[indexCount++] = position;
+    }
+
+    private int crc(int position, int frameLength){
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + 4, 8 + frameLength));
+        return (int) crc.getValue();
+    }
+
+    private void recover(){
+        int position = 0;
+        long expectedOffset = baseOffset;
+        while(offsetAt(position) == expectedOffset){
+            int frameLength = 4 + buffer.getInt(position + 12);
+            if(position + 12 + frameLength > capacity || buffer.getInt(position) != crc(position, frameLength)){
+                break;
+            }
+            if((expectedOffset - baseOffset) % INDEX_INTERVAL == 0){
+                addIndex(position);
+            }
+            position += 12 + frameLength;
+            expectedOffset++;
+        }
+        writePosition = position;
+        nextOffset = expectedOffset;
+
+        // clear anything left by an incomplete write, so it can never be mistaken for a record
+        for(int i = position; i < capacity; i++){
+            if(buffer.get(i) != 0){
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+}
@@ -36,6 +36,15 @@ public interface ArgumentResolver {
      */
     boolean supports(Event<byte[]> incomingEvent);
 
+    /**
+     * Called once for every {@link HandlerMethod} when a service is registered, before any invocations occur.
+     * This allows a resolver to precompute any state needed to resolve the arguments for the method.
+     *
+     * @param handlerMethod that will be invoked using arguments resolved by this resolver
+     */
+    default void prepare(HandlerMethod handlerMethod){
+    }
+
     /**
      * Resolves the arguments from the given {@link Event}
      *
@@ -58,6 +58,13 @@ public class ArgumentResolverComposite implements ArgumentResolver {
         return resolver.resolveArguments(incomingEvent, handlerMethod);
     }
 
+    @Override
+    public void prepare(HandlerMethod handlerMethod) {
+        for(ArgumentResolver resolver : resolvers){
+            resolver.prepare(handlerMethod);
+        }
+    }
+
     @Override
     public boolean supports(Event<byte[]> incomingEvent) {
         return selectResolver(incomingEvent) != null;
@@ -22,11 +22,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -51,11 +60,37 @@ public class HandlerMethod {
     private final Method bridgedMethod;
     private final Method method;
     private final MethodParameter[] parameters;
+    private final MethodParameter returnType;
+    private final ReactiveAdapter returnTypeAdapter;
+    private final boolean returnTypeAdapterResolvable;
+    private final boolean reactiveReturnType;
+    /**
+     * Handle bound to the bean, adapted to the signature (Object[])Object. Null when reflection is used for invocation.
+     */
+    private final MethodHandle invoker;
+    private final Map<Object, Object> attachments = new ConcurrentHashMap<>();
 
     /**
      * Create an instance from a bean instance and a method.
+     * The method will be invoked using reflection.
      */
     public HandlerMethod(Object bean, Method method) {
+        this(bean, method, null, true);
+    }
+
+    /**
+     * Create an instance from a bean instance and a method.
+     *
+     * @param bean the bean instance the method will be invoked on
+     * @param method the method to invoke
+     * @param reactiveAdapterRegistry used to resolve the {@link ReactiveAdapter} for the return type once up front, may be null
+     * @param reflectiveInvocation if true the method will be invoked using reflection,
+     *                             otherwise a {@link MethodHandle} is bound to the bean when this {@link HandlerMethod} is created
+     */
+    public HandlerMethod(Object bean,
+                         Method method,
+                         ReactiveAdapterRegistry reactiveAdapterRegistry,
+                         boolean reflectiveInvocation) {
         Validate.notNull(bean, "Bean is required");
         Validate.notNull(method, "Method is required");
         this.bean = bean;
@@ -63,6 +98,21 @@ public class HandlerMethod {
         this.method = method;
         this.bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
         this.parameters = initMethodParameters();
+        this.returnType = new MethodParameter(this.bridgedMethod, -1);
+
+        Class<?> returnClass = this.returnType.getParameterType();
+        ReactiveAdapter adapter = reactiveAdapterRegistry != null ? reactiveAdapterRegistry.getAdapter(returnClass) : null;
+        this.reactiveReturnType = adapter != null;
+        // The declared type only determines the adapter when every value returned must use the same adapter.
+        // This is the case for a class that is exactly the reactive type of the adapter, such as Mono, or a final type that is not reactive.
+        // For other types, such as Publisher, Future or Object, the actual value must be checked for every invocation.
+        boolean exactReactiveClass = adapter != null && adapter.getReactiveType() == returnClass && !returnClass.isInterface();
+        boolean finalNonReactive = reactiveAdapterRegistry != null && adapter == null && Modifier.isFinal(returnClass.getModifiers());
+        this.returnTypeAdapterResolvable = exactReactiveClass || finalNonReactive;
+        this.returnTypeAdapter = exactReactiveClass ? adapter : null;
+
+        ReflectionUtils.makeAccessible(this.bridgedMethod);
+        this.invoker = reflectiveInvocation ? null : createInvoker();
     }
 
     /**
@@ -99,7 +149,59 @@ public class HandlerMethod {
      * Return the HandlerMethod return type.
      */
     public MethodParameter getReturnType() {
-        return new MethodParameter(this.bridgedMethod, -1);
+        return this.returnType;
+    }
+
+    /**
+     * Return the {@link ReactiveAdapter} for the declared return type, or null if the return type is not reactive.
+     * This is only meaningful when {@link #isReturnTypeAdapterResolvable()} is true.
+     */
+    public ReactiveAdapter getReturnTypeAdapter() {
+        return this.returnTypeAdapter;
+    }
+
+    /**
+     * Return true if {@link #getReturnTypeAdapter()} can be used instead of looking up an adapter for every returned value.
+     */
+    public boolean isReturnTypeAdapterResolvable() {
+        return this.returnTypeAdapterResolvable;
+    }
+
+    /**
+     * Return true if the method returns its result directly, meaning the invoking thread is held until the method completes.
+     * Methods that do not declare a reactive return type, such as Object, are considered blocking, since the actual type is not known until invocation.
+     */
+    public boolean isBlocking() {
+        return !this.reactiveReturnType;
+    }
+
+    /**
+     * Return true if this method is invoked using reflection, false if a precompiled {@link MethodHandle} is used
+     */
+    public boolean isReflectiveInvocation() {
+        return this.invoker == null;
+    }
+
+    /**
+     * Returns the attachment stored for the given key, creating it if it does not exist yet.
+     * Attachments allow collaborators such as {@link ArgumentResolver}'s to precompute state for this method once,
+     * instead of resolving it again for every invocation.
+     *
+     * @param key for the attachment, typically the collaborator that owns the attachment
+     * @param factory to create the attachment if one does not exist
+     * @return the attachment for the given key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T computeAttachmentIfAbsent(Object key, Function<HandlerMethod, ? extends T> factory) {
+        return (T) this.attachments.computeIfAbsent(key, k -> factory.apply(this));
+    }
+
+    /**
+     * Return the attachment stored for the given key or null if none exists
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttachment(Object key) {
+        return (T) this.attachments.get(key);
     }
 
     /**
@@ -138,13 +240,14 @@ public class HandlerMethod {
      * Invoke the handler method with the given argument values.
      */
     protected Object doInvoke(Object... args) throws Exception {
+        if(log.isTraceEnabled()){
+            log.trace(formatInvokeMessage("Invoking ", args));
+        }
+        if(this.invoker != null){
+            return doInvokeWithHandle(args);
+        }
         Method method = getBridgedMethod();
-        ReflectionUtils.makeAccessible(method);
         try {
-            if(log.isTraceEnabled()){
-                log.trace(formatInvokeMessage("Invoking ", args));
-            }
-
             return method.invoke(getBean(), args);
         }
         catch (IllegalArgumentException ex) {
@@ -170,6 +273,41 @@ public class HandlerMethod {
         }
     }
 
+    private Object doInvokeWithHandle(Object[] args) throws Exception {
+        try {
+            return (Object) this.invoker.invokeExact(args);
+        }
+        catch (Exception | Error ex) {
+            throw ex;
+        }
+        catch (Throwable throwable) {
+            throw new IllegalStateException(formatInvokeMessage("Invocation failure", args), throwable);
+        }
+    }
+
+    /**
+     * Binds the bridged method to the bean and adapts it to accept all arguments as an Object[] and return an Object.
+     * Falls back to reflection if a {@link MethodHandle} cannot be created for the method.
+     */
+    private MethodHandle createInvoker() {
+        if(Modifier.isStatic(this.bridgedMethod.getModifiers())){
+            return null;
+        }
+        MethodHandle ret;
+        try {
+            int parameterCount = this.bridgedMethod.getParameterCount();
+            ret = MethodHandles.lookup()
+                               .unreflect(this.bridgedMethod)
+                               .bindTo(this.bean)
+                               .asSpreader(Object[].class, parameterCount)
+                               .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            log.debug("Could not create MethodHandle for {}, falling back to reflection", this.bridgedMethod, e);
+            ret = null;
+        }
+        return ret;
+    }
+
     protected String formatInvokeMessage(String text, Object[] args) {
         String formattedArgs = IntStream.range(0, args.length)
                 .mapToObj(i -> (args[i] != null ?
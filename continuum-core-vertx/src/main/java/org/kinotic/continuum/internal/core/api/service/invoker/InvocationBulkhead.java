@@ -0,0 +1,221 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.invoker;
+
+import io.vertx.core.Vertx;
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.api.exceptions.RpcRejectedException;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Limits the number of concurrent invocations of a service, or a single method of a service.
+ * Invocations that arrive when the limit is reached wait in a bounded queue until an invocation completes.
+ * Invocations are rejected with a {@link RpcRejectedException} when the queue is full or they have waited longer than the queue timeout.
+ *
+ * When adaptive the limit is adjusted using additive increase / multiplicative decrease.
+ * The limit grows by about one for every limit's worth of invocations that complete close to the lowest latency observed and the limit is in use,
+ * and is reduced when latency grows beyond twice the lowest latency observed, which indicates the service is queueing internally.
+ */
+public class InvocationBulkhead {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    /**
+     * The lowest observed latency is forgotten after this many samples, so the limit can recover if the service becomes slower permanently
+     */
+    private static final int MIN_LATENCY_WINDOW = 1000;
+
+    private final String name;
+    private final Vertx vertx;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeout;
+    private final boolean adaptive;
+    private final ArrayDeque<QueuedInvocation> queue = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight = 0;
+    private long minLatency = Long.MAX_VALUE;
+    private int samples = 0;
+
+    /**
+     * @param name used in rejection messages
+     * @param vertx used for queue timeouts and to dispatch queued invocations
+     * @param maxConcurrent the maximum number of concurrent invocations, this is the upper bound of the limit when adaptive
+     * @param maxQueued the maximum number of invocations that can wait for the limit
+     * @param queueTimeout the maximum number of milliseconds an invocation can wait, or a value less than 1 to wait indefinitely
+     * @param adaptive true if the limit should be adjusted based on observed latency
+     */
+    public InvocationBulkhead(String name,
+                              Vertx vertx,
+                              int maxConcurrent,
+                              int maxQueued,
+                              long queueTimeout,
+                              boolean adaptive) {
+        Validate.notNull(name, "name must not be null");
+        Validate.notNull(vertx, "vertx must not be null");
+        Validate.isTrue(maxConcurrent > 0, "maxConcurrent must be greater than 0");
+        Validate.isTrue(maxQueued >= 0, "maxQueued must not be negative");
+        this.name = name;
+        this.vertx = vertx;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+        this.adaptive = adaptive;
+        // start low when adaptive so the limit is discovered instead of starting overloaded
+        this.limit = adaptive ? Math.min(maxConcurrent, 10) : maxConcurrent;
+    }
+
+    /**
+     * Submits an invocation to this bulkhead.
+     * The invocation will be run on the calling thread if the limit has not been reached, otherwise it will be queued.
+     * Queued invocations are run on a vertx worker thread once an invocation completes.
+     *
+     * @param invocation that will be run, it is given a {@link Runnable} that must be run once the invocation completes
+     * @param rejectionHandler that will be called with a {@link RpcRejectedException} if the invocation is rejected
+     */
+    public void submit(Consumer<Runnable> invocation, Consumer<Throwable> rejectionHandler){
+        boolean run = false;
+        RpcRejectedException rejected = null;
+        synchronized (this){
+            if(inFlight < (int) limit && queue.isEmpty()){
+                inFlight++;
+                run = true;
+            }else if(queue.size() < maxQueued){
+                QueuedInvocation queued = new QueuedInvocation(invocation, rejectionHandler);
+                if(queueTimeout > 0){
+                    queued.timerId = vertx.setTimer(queueTimeout, id -> timeout(queued));
+                }
+                queue.add(queued);
+            }else{
+                rejected = new RpcRejectedException("Service "+name+" is at its limit of "+(int) limit
+                                                            +" concurrent and "+maxQueued+" queued invocations");
+            }
+        }
+        if(run){
+            invocation.accept(new Completion());
+        }else if(rejected != null){
+            rejectionHandler.accept(rejected);
+        }
+    }
+
+    /**
+     * @return the current limit of concurrent invocations
+     */
+    public synchronized int getLimit(){
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of invocations currently running
+     */
+    public synchronized int getInFlight(){
+        return inFlight;
+    }
+
+    /**
+     * @return the number of invocations waiting for the limit
+     */
+    public synchronized int getQueued(){
+        return queue.size();
+    }
+
+    private void timeout(QueuedInvocation queued){
+        boolean removed;
+        synchronized (this){
+            removed = queue.remove(queued);
+        }
+        if(removed){
+            queued.rejectionHandler.accept(new RpcRejectedException("Invocation of service "+name+" waited longer than "
+                                                                            +queueTimeout+"ms for the concurrency limit"));
+        }
+    }
+
+    private void complete(long latency){
+        QueuedInvocation next = null;
+        synchronized (this){
+            inFlight--;
+            if(adaptive){
+                adjustLimit(latency);
+            }
+            if(inFlight < (int) limit){
+                next = queue.poll();
+                if(next != null){
+                    inFlight++;
+                }
+            }
+        }
+        if(next != null){
+            if(next.timerId >= 0){
+                vertx.cancelTimer(next.timerId);
+            }
+            QueuedInvocation toRun = next;
+            // Run on a worker since completions can happen on an event loop thread or inside a reactive pipeline
+            vertx.executeBlocking(() -> {
+                toRun.invocation.accept(new Completion());
+                return null;
+            }, false);
+        }
+    }
+
+    private void adjustLimit(long latency){
+        if(++samples > MIN_LATENCY_WINDOW){
+            samples = 0;
+            minLatency = latency;
+        }else{
+            minLatency = Math.min(minLatency, latency);
+        }
+        if(latency > minLatency * LATENCY_TOLERANCE){
+            limit = Math.max(1, limit * BACKOFF_RATIO);
+        }else if(inFlight + 1 >= (int) limit){
+            // only grow when the limit is actually being used, otherwise it can grow without bound while idle
+            limit = Math.min(maxConcurrent, limit + (1 / limit));
+        }
+    }
+
+    private static class QueuedInvocation {
+        private final Consumer<Runnable> invocation;
+        private final Consumer<Throwable> rejectionHandler;
+        private long timerId = -1;
+
+        public QueuedInvocation(Consumer<Runnable> invocation, Consumer<Throwable> rejectionHandler) {
+            this.invocation = invocation;
+            this.rejectionHandler = rejectionHandler;
+        }
+    }
+
+    /**
+     * Run once an invocation completes, additional runs are ignored
+     */
+    private class Completion extends AtomicBoolean implements Runnable {
+
+        private final long start = System.nanoTime();
+
+        @Override
+        public void run() {
+            if(compareAndSet(false, true)){
+                complete(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            }
+        }
+    }
+
+}
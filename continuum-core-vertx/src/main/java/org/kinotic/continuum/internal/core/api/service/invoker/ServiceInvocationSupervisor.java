@@ -18,18 +18,29 @@
 package org.kinotic.continuum.internal.core.api.service.invoker;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.api.annotations.Bulkhead;
+import org.kinotic.continuum.api.config.ContinuumProperties;
 import org.kinotic.continuum.api.exceptions.RpcMissingMethodException;
 import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventBusService;
 import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.ListenOptions;
+import org.kinotic.continuum.core.api.event.ListenerDispatch;
 import org.kinotic.continuum.core.api.event.ListenerStatus;
 import org.kinotic.continuum.core.api.event.Metadata;
 import org.kinotic.continuum.core.api.service.ServiceDescriptor;
@@ -43,6 +54,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.core.ReactiveAdapter;
 import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 
 import io.opentelemetry.api.OpenTelemetry;
 import io.vertx.core.Vertx;
@@ -51,6 +63,8 @@ import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Class handles invoking services that are published to the Continuum.
@@ -66,14 +80,31 @@ public class ServiceInvocationSupervisor {
     private final ConcurrentHashMap<String, StreamSubscriber> activeStreamingResults = new ConcurrentHashMap<>();
     private final MetadataTextMapGetter textMapGetter = new MetadataTextMapGetter();
     private final ArgumentResolver argumentResolver;
+    private final ContinuumProperties continuumProperties;
     private final EventBusService eventBusService;
     private final ExceptionConverter exceptionConverter;
     private final Map<String, HandlerMethod> methodMap;
+    /**
+     * The {@link InvocationBulkhead} for each {@link HandlerMethod} that has one
+     */
+    private final Map<HandlerMethod, InvocationBulkhead> bulkheadMap;
     private final ReactiveAdapterRegistry reactiveAdapterRegistry;
     private final ReturnValueConverter returnValueConverter;
     private final ServiceDescriptor serviceDescriptor;
     private final Vertx vertx;
     private final OpenTelemetry openTelemetry;
+    /**
+     * Creates the virtual threads used for blocking invocations, null when virtual thread invocation is disabled
+     */
+    private final ThreadFactory virtualThreadFactory;
+    /**
+     * Limits the number of concurrent virtual thread invocations, null if there is no limit
+     */
+    private final Semaphore virtualThreadPermits;
+    /**
+     * Used to invoke blocking methods for callers in the same JVM, so the calling thread is never blocked
+     */
+    private final Scheduler localBlockingScheduler;
 
 
     private Disposable methodInvocationEventListenerDisposable;
@@ -87,6 +118,7 @@ public class ServiceInvocationSupervisor {
                                        ExceptionConverter exceptionConverter,
                                        EventBusService eventBusService,
                                        ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                       ContinuumProperties continuumProperties,
                                        Vertx vertx,
                                        OpenTelemetry openTelemetry) {
 
@@ -97,6 +129,7 @@ public class ServiceInvocationSupervisor {
         Validate.notNull(exceptionConverter, "exceptionConverter must not be null");
         Validate.notNull(eventBusService, "eventBusService must not be null");
         Validate.notNull(reactiveAdapterRegistry, "reactiveAdapterRegistry must not be null");
+        Validate.notNull(continuumProperties, "continuumProperties must not be null");
         Validate.notNull(vertx, "vertx must not be null");
         Validate.notNull(openTelemetry, "OpenTelemetry must not be null");
 
@@ -106,16 +139,139 @@ public class ServiceInvocationSupervisor {
         this.exceptionConverter = exceptionConverter;
         this.eventBusService = eventBusService;
         this.reactiveAdapterRegistry = reactiveAdapterRegistry;
+        this.continuumProperties = continuumProperties;
         this.vertx = vertx;
         this.openTelemetry = openTelemetry;
 
         this.methodMap = buildMethodMap(serviceDescriptor, instanceProvider);
+        this.bulkheadMap = buildBulkheadMap(serviceDescriptor);
+
+        if(continuumProperties.isVirtualThreadServiceInvocation()){
+            this.virtualThreadFactory = Thread.ofVirtual()
+                                              .name("continuum-" + serviceDescriptor.serviceIdentifier().name() + "-", 0)
+                                              .factory();
+            int limit = continuumProperties.getVirtualThreadServiceInvocationLimit();
+            this.virtualThreadPermits = limit > 0 ? new Semaphore(limit) : null;
+            // the virtual thread waits for a permit, since the caller must not be blocked
+            this.localBlockingScheduler = Schedulers.fromExecutor(command -> virtualThreadFactory.newThread(() -> {
+                if(virtualThreadPermits != null){
+                    virtualThreadPermits.acquireUninterruptibly();
+                }
+                try {
+                    command.run();
+                } finally {
+                    if(virtualThreadPermits != null){
+                        virtualThreadPermits.release();
+                    }
+                }
+            }).start());
+        }else{
+            this.virtualThreadFactory = null;
+            this.virtualThreadPermits = null;
+            this.localBlockingScheduler = Schedulers.boundedElastic();
+        }
     }
 
     public boolean isActive(){
         return active.get();
     }
 
+    /**
+     * Finds the {@link HandlerMethod} for a method of the supervised service.
+     * This allows callers in the same JVM to invoke the service directly instead of sending an {@link Event}.
+     * @param methodName the name of the method
+     * @return the {@link HandlerMethod} or null if the service does not have a method with the given name
+     */
+    public HandlerMethod findHandlerMethod(String methodName){
+        // add a / since the method map is keyed by uri path
+        return methodMap.get("/" + methodName);
+    }
+
+    /**
+     * Invokes a {@link HandlerMethod} of the supervised service for a caller in the same JVM.
+     * The invocation is subject to the same {@link InvocationBulkhead} as invocations received over the event bus,
+     * and blocking methods are invoked on a virtual thread or worker thread, never on the thread that subscribes.
+     *
+     * @param handlerMethod returned by {@link #findHandlerMethod(String)}
+     * @param arguments to invoke the method with
+     * @return a {@link Flux} that invokes the method when subscribed to, and emits the values of the result
+     */
+    public Flux<Object> invokeLocally(HandlerMethod handlerMethod, Object[] arguments){
+        Flux<Object> ret;
+        InvocationBulkhead bulkhead = bulkheadMap.get(handlerMethod);
+        if(bulkhead != null){
+            ret = acquireBulkhead(bulkhead).flatMapMany(completion -> invokeLocally(handlerMethod, arguments, completion));
+        }else{
+            ret = invokeLocally(handlerMethod, arguments, null);
+        }
+        return ret;
+    }
+
+    private Flux<Object> invokeLocally(HandlerMethod handlerMethod, Object[] arguments, Runnable completion){
+        Flux<Object> ret = Flux.defer(() -> {
+            Object result;
+            try {
+                result = handlerMethod.invoke(arguments);
+            } catch (Exception e) {
+                return Flux.error(e);
+            }
+
+            Flux<Object> resultFlux;
+            ReactiveAdapter reactiveAdapter = null;
+            if(result != null){
+                reactiveAdapter = handlerMethod.isReturnTypeAdapterResolvable()
+                        ? handlerMethod.getReturnTypeAdapter()
+                        : reactiveAdapterRegistry.getAdapter(null, result);
+            }
+            if(result == null){
+                resultFlux = Flux.empty();
+            }else if(reactiveAdapter == null){
+                resultFlux = Flux.just(result);
+            }else{
+                resultFlux = Flux.from(reactiveAdapter.toPublisher(result));
+                if(reactiveAdapter.isMultiValue() && completion != null){
+                    // streams are only counted until they are subscribed to
+                    resultFlux = resultFlux.doOnSubscribe(subscription -> completion.run());
+                }
+            }
+            return resultFlux;
+        });
+        if(handlerMethod.isBlocking()){
+            ret = ret.subscribeOn(localBlockingScheduler);
+        }
+        if(completion != null){
+            ret = ret.doFinally(signalType -> completion.run());
+        }
+        return ret;
+    }
+
+    /**
+     * @return a {@link Mono} that emits the completion to run once the invocation completes, when the bulkhead allows the invocation
+     */
+    private static Mono<Runnable> acquireBulkhead(InvocationBulkhead bulkhead){
+        return Mono.create(sink -> {
+            // a queued invocation may be allowed after the subscriber cancelled, then the completion must be run right away
+            Runnable cancelled = () -> {};
+            Runnable delivered = () -> {};
+            AtomicReference<Runnable> state = new AtomicReference<>();
+            sink.onCancel(() -> {
+                Runnable completion = state.getAndSet(cancelled);
+                if(completion != null && completion != delivered && completion != cancelled){
+                    completion.run();
+                }
+            });
+            bulkhead.submit(completion -> {
+                if(state.compareAndSet(null, completion)){
+                    sink.success(completion);
+                    // from now on the completion is run by the invocation
+                    state.compareAndSet(completion, delivered);
+                }else{
+                    completion.run();
+                }
+            }, sink::error);
+        });
+    }
+
     /**
      * Starts this {@link ServiceInvocationSupervisor}
      * @return a Mono that will succeed on Start and fail on an error
@@ -126,7 +282,13 @@ public class ServiceInvocationSupervisor {
 
                 // begin listening on the event bus for Buffer's
                 // use listenWithAck variant so remote sender will know that the data was received
-                Mono<Flux<Event<byte[]>>> eventMono = eventBusService.listenWithAck(serviceDescriptor.serviceIdentifier().cri().baseResource());
+                ListenOptions listenOptions = ListenOptions.create();
+                if(virtualThreadFactory != null){
+                    // events are delivered on a virtual thread as well, since it blocks when the invocation limit is reached
+                    listenOptions.setDispatch(ListenerDispatch.VIRTUAL_THREAD);
+                }
+                Mono<Flux<Event<byte[]>>> eventMono = eventBusService.listenWithAck(serviceDescriptor.serviceIdentifier().cri().baseResource(),
+                                                                                    listenOptions);
 
                 eventMono.subscribe(eventFlux -> {
 
@@ -185,20 +347,95 @@ public class ServiceInvocationSupervisor {
             if(ret.containsKey(methodName)){
                 throw new IllegalArgumentException("Multiple ServiceFunctions provided with the name " + specificMethod.getName());
             }else{
-                HandlerMethod handlerMethod = new HandlerMethod(instance, specificMethod);
+                HandlerMethod handlerMethod = new HandlerMethod(instance,
+                                                                specificMethod,
+                                                                reactiveAdapterRegistry,
+                                                                continuumProperties.isReflectiveServiceInvocation());
+                // allow the resolver to precompute anything needed for decoding arguments before the first invocation
+                argumentResolver.prepare(handlerMethod);
                 ret.put(methodName,  handlerMethod);
             }
         }
         return ret;
     }
 
+    /**
+     * Creates a {@link InvocationBulkhead} for every method annotated with {@link Bulkhead}.
+     * Methods that are not annotated share a single {@link InvocationBulkhead}, if the service is annotated or bulkheads are enabled for all services.
+     */
+    private Map<HandlerMethod, InvocationBulkhead> buildBulkheadMap(ServiceDescriptor serviceDescriptor){
+        final HashMap<HandlerMethod, InvocationBulkhead> ret = new HashMap<>();
+        String serviceName = serviceDescriptor.serviceIdentifier().qualifiedName();
+        InvocationBulkhead serviceBulkhead = null;
+        boolean serviceBulkheadResolved = false;
+
+        for(HandlerMethod handlerMethod : methodMap.values()){
+            Bulkhead methodAnnotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), Bulkhead.class);
+            if(methodAnnotation != null){
+                ret.put(handlerMethod, createBulkhead(serviceName + "/" + handlerMethod.getMethod().getName(), methodAnnotation));
+            }else{
+                if(!serviceBulkheadResolved){
+                    Bulkhead serviceAnnotation = findServiceBulkhead(serviceDescriptor);
+                    if(serviceAnnotation != null || continuumProperties.isServiceBulkheadEnabled()){
+                        serviceBulkhead = createBulkhead(serviceName, serviceAnnotation);
+                    }
+                    serviceBulkheadResolved = true;
+                }
+                if(serviceBulkhead != null){
+                    ret.put(handlerMethod, serviceBulkhead);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private Bulkhead findServiceBulkhead(ServiceDescriptor serviceDescriptor){
+        Bulkhead ret = null;
+        for(ServiceFunction serviceFunction : serviceDescriptor.functions()){
+            ret = AnnotatedElementUtils.findMergedAnnotation(serviceFunction.invocationMethod().getDeclaringClass(), Bulkhead.class);
+            if(ret != null){
+                break;
+            }
+        }
+        return ret;
+    }
+
+    private InvocationBulkhead createBulkhead(String name, Bulkhead annotation){
+        int maxConcurrent = continuumProperties.getServiceBulkheadMaxConcurrent();
+        int maxQueued = continuumProperties.getServiceBulkheadMaxQueued();
+        long queueTimeout = continuumProperties.getServiceBulkheadQueueTimeout();
+        boolean adaptive = continuumProperties.isServiceBulkheadAdaptive();
+        if(annotation != null){
+            if(annotation.maxConcurrent() >= 0){
+                maxConcurrent = annotation.maxConcurrent();
+            }
+            if(annotation.maxQueued() >= 0){
+                maxQueued = annotation.maxQueued();
+            }
+            if(annotation.queueTimeout() >= 0){
+                queueTimeout = annotation.queueTimeout();
+            }
+            if(annotation.mode() != Bulkhead.Mode.DEFAULT){
+                adaptive = annotation.mode() == Bulkhead.Mode.ADAPTIVE;
+            }
+        }
+        return new InvocationBulkhead(name, vertx, maxConcurrent, maxQueued, queueTimeout, adaptive);
+    }
+
     private void convertAndSend(Metadata incomingMetadata, HandlerMethod handlerMethod, Object result) {
+        convertAndSend(incomingMetadata, handlerMethod, result, false);
+    }
+
+    private void convertAndSend(Metadata incomingMetadata, HandlerMethod handlerMethod, Object result, boolean streamStart) {
         try {
             Event<byte[]> resultEvent = returnValueConverter.convert(incomingMetadata,
                                                                      handlerMethod.getReturnType()
                                                                                   .getParameterType(),
                                                                      result);
-            eventBusService.send(resultEvent);
+            if(streamStart){
+                resultEvent.metadata().put(EventConstants.STREAM_START_HEADER, "true");
+            }
+            sendReply(incomingMetadata, resultEvent);
         } catch (Exception e) {
             if(log.isDebugEnabled()){
                 log.debug("Exception occurred sending response", e);
@@ -210,7 +447,7 @@ public class ServiceInvocationSupervisor {
     private void handleException(Metadata incomingMetadata, Throwable e) {
         try {
             Event<byte[]> convertedEvent = exceptionConverter.convert(incomingMetadata, e);
-            eventBusService.send(convertedEvent);
+            sendReply(incomingMetadata, convertedEvent);
         } catch (Exception ex) {
             log.error("Error occurred when calling exception converter",e);
         }
@@ -228,6 +465,15 @@ public class ServiceInvocationSupervisor {
     }
 
     private void processEvent(Event<byte[]> incomingEvent){
+        if(incomingEvent.metadata().contains(EventConstants.BATCH_HEADER)){
+            try {
+                processBatch(incomingEvent);
+            } catch (Exception e) {
+                log.error("Exception occurred processing batch of service requests", e);
+            }
+            return;
+        }
+
         boolean isControl = incomingEvent.metadata().contains(EventConstants.CONTROL_HEADER);
 
         log.trace("Service {} requested for {}", isControl ? "Control" : "Invocation", incomingEvent.cri());
@@ -286,43 +532,125 @@ public class ServiceInvocationSupervisor {
                     throw new IllegalStateException("No compatible ReturnValueConverter found");
                 }
 
-                Object[] arguments = argumentResolver.resolveArguments(incomingEvent, handlerMethod);
+                InvocationBulkhead bulkhead = bulkheadMap.get(handlerMethod);
+                if(bulkhead != null){
+                    bulkhead.submit(completion -> {
+                        try {
+                            dispatchInvocation(incomingEvent, handlerMethod, completion);
+                        } catch (Exception e) {
+                            completion.run();
+                            log.debug("Exception occurred processing service request\n{}", EventUtil.toString(incomingEvent, true), e);
+                            handleException(incomingEvent.metadata(), e);
+                        }
+                    }, throwable -> handleException(incomingEvent.metadata(), throwable));
+                }else{
+                    dispatchInvocation(incomingEvent, handlerMethod, null);
+                }
+
+        } else {
+            throw new IllegalStateException("No compatible ArgumentResolver found");
+        }
+    }
+
+    /**
+     * @param completion to run once the invocation has completed, or null if completion does not need to be tracked
+     */
+    private void dispatchInvocation(Event<byte[]> incomingEvent, HandlerMethod handlerMethod, Runnable completion){
+        if(virtualThreadFactory != null && handlerMethod.isBlocking()){
+            invokeOnVirtualThread(incomingEvent, handlerMethod, completion);
+        }else{
+            invokeHandlerMethod(incomingEvent, handlerMethod, completion);
+        }
+    }
+
+    private void invokeHandlerMethod(Event<byte[]> incomingEvent, HandlerMethod handlerMethod, Runnable completion){
+        Object[] arguments = argumentResolver.resolveArguments(incomingEvent, handlerMethod);
 
-                // separate try catch since we do not want to log invocation errors
-                Object result = null;
-                boolean error = false;
+        // separate try catch since we do not want to log invocation errors
+        Object result = null;
+        boolean error = false;
+        try {
+            // Invoke the method and then handle the result
+            result = handlerMethod.invoke(arguments);
+        } catch (Exception e) {
+            error = true;
+            runCompletion(completion);
+            handleException(incomingEvent.metadata(), e);
+        }
+
+        if (!error) {
+            processMethodInvocationResult(incomingEvent, handlerMethod, result, completion);
+        }
+    }
+
+    private static void runCompletion(Runnable completion){
+        if(completion != null){
+            completion.run();
+        }
+    }
+
+    /**
+     * Resolves the arguments and invokes the {@link HandlerMethod} on a new virtual thread.
+     * If the invocation limit has been reached, the calling thread waits until an invocation completes.
+     */
+    private void invokeOnVirtualThread(Event<byte[]> incomingEvent, HandlerMethod handlerMethod, Runnable completion){
+        if(virtualThreadPermits != null){
+            virtualThreadPermits.acquireUninterruptibly();
+        }
+        try {
+            virtualThreadFactory.newThread(() -> {
                 try {
-                    // Invoke the method and then handle the result
-                    result = handlerMethod.invoke(arguments);
+                    invokeHandlerMethod(incomingEvent, handlerMethod, completion);
                 } catch (Exception e) {
-                    error = true;
+                    runCompletion(completion);
+                    log.debug("Exception occurred processing service request\n{}", EventUtil.toString(incomingEvent, true), e);
                     handleException(incomingEvent.metadata(), e);
+                } finally {
+                    if(virtualThreadPermits != null){
+                        virtualThreadPermits.release();
+                    }
                 }
-
-                if (!error) {
-                    processMethodInvocationResult(incomingEvent, handlerMethod, result);
-                }
-
-        } else {
-            throw new IllegalStateException("No compatible ArgumentResolver found");
+            }).start();
+        } catch (RuntimeException e) {
+            if(virtualThreadPermits != null){
+                virtualThreadPermits.release();
+            }
+            throw e;
         }
     }
 
-    private void processMethodInvocationResult(Event<byte[]> incomingEvent, HandlerMethod handlerMethod, Object result){
+    /**
+     * Sends the result of an invocation, once the result is available.
+     * The completion is run once the result has been sent, for streaming results this is once the stream has been subscribed to,
+     * since streams can remain open indefinitely.
+     */
+    private void processMethodInvocationResult(Event<byte[]> incomingEvent, HandlerMethod handlerMethod, Object result, Runnable completion){
 
         Metadata incomingMetadata = incomingEvent.metadata();
 
         // Check if result is reactive if so we only complete once result is complete
-        ReactiveAdapter reactiveAdapter = reactiveAdapterRegistry.getAdapter(null, result);
+        ReactiveAdapter reactiveAdapter = null;
+        if(result != null){
+            reactiveAdapter = handlerMethod.isReturnTypeAdapterResolvable()
+                    ? handlerMethod.getReturnTypeAdapter()
+                    : reactiveAdapterRegistry.getAdapter(null, result);
+        }
         if(reactiveAdapter == null){
 
-            convertAndSend(incomingMetadata, handlerMethod, result);
+            try {
+                convertAndSend(incomingMetadata, handlerMethod, result);
+            } finally {
+                runCompletion(completion);
+            }
 
         }else{
 
             if(!reactiveAdapter.isMultiValue()){
 
                 Mono<?> mono = Mono.from(reactiveAdapter.toPublisher(result));
+                if(completion != null){
+                    mono = mono.doFinally(signalType -> completion.run());
+                }
                 mono.doOnSuccess((Consumer<Object>) o -> convertAndSend(incomingMetadata, handlerMethod, o))
                     .subscribe(v -> {}, t -> {
                         if(log.isDebugEnabled()){
@@ -335,6 +663,9 @@ public class ServiceInvocationSupervisor {
 
             }else{
 
+                // streams are only counted until they are subscribed to
+                runCompletion(completion);
+
                 // All long-running results require a CORRELATION_ID_HEADER to be able to coordinate with the requester
                 if(!incomingEvent.metadata().contains(EventConstants.CORRELATION_ID_HEADER)){
                     throw new IllegalArgumentException("Streaming results require a CORRELATION_ID_HEADER to be set");
@@ -360,7 +691,34 @@ public class ServiceInvocationSupervisor {
         Event<byte[]> completionEvent = EventUtil.createReplyEvent(incomingMetadata,
                                                                    Map.of(EventConstants.CONTROL_HEADER, EventConstants.CONTROL_VALUE_COMPLETE),
                                                                    null);
-        eventBusService.send(completionEvent);
+        sendReply(incomingMetadata, completionEvent);
+    }
+
+    /**
+     * Sends a reply for the request with the given metadata. Replies for requests received in a batch are sent as a batch when possible.
+     */
+    private void sendReply(Metadata incomingMetadata, Event<byte[]> replyEvent){
+        if(!(incomingMetadata instanceof BatchEntryMetadata batchEntryMetadata)
+                || !batchEntryMetadata.batchReply.add(replyEvent)){
+            eventBusService.send(replyEvent);
+        }
+    }
+
+    /**
+     * Processes each event contained in a batch, as if they were received individually
+     */
+    private void processBatch(Event<byte[]> batchEvent){
+        if(validateReplyTo(batchEvent)){
+            String replyTo = batchEvent.metadata().get(EventConstants.REPLY_TO_HEADER);
+            int count = Integer.parseInt(batchEvent.metadata().get(EventConstants.BATCH_HEADER));
+            BatchReply batchReply = new BatchReply(replyTo, count);
+            List<Event<byte[]>> events = EventUtil.extractBatchEvents(batchEvent, () -> new BatchEntryMetadata(batchReply));
+            for(Event<byte[]> event : events){
+                processEvent(event);
+            }
+        }else{
+            log.error("ReplyTo header is missing or invalid incoming batch will be ignored\n{}", EventUtil.toString(batchEvent, false));
+        }
     }
 
     private boolean validateReplyTo(Event<byte[]> incomingEvent){
@@ -382,6 +740,119 @@ public class ServiceInvocationSupervisor {
         return ret;
     }
 
+    /**
+     * Collects the replies to the requests received in a single batch, so they can be returned as a batch as well.
+     * The replies are sent once a reply is available for every request, or the batch delay has passed since the first reply.
+     * Any replies after that are sent individually.
+     */
+    private class BatchReply {
+
+        private final String replyTo;
+        private final int expected;
+        private final List<Event<byte[]>> replies;
+        private boolean sent = false;
+        private long timerId = -1;
+
+        public BatchReply(String replyTo, int expected) {
+            this.replyTo = replyTo;
+            this.expected = expected;
+            this.replies = new ArrayList<>(expected);
+        }
+
+        /**
+         * @return true if the reply was added to the batch, false if it must be sent individually
+         */
+        public boolean add(Event<byte[]> replyEvent){
+            boolean complete;
+            synchronized (this){
+                if(sent){
+                    return false;
+                }
+                replies.add(replyEvent);
+                complete = replies.size() >= expected;
+                if(!complete && timerId == -1){
+                    timerId = vertx.setTimer(Math.max(1, continuumProperties.getRpcBatchDelay()), id -> send());
+                }
+            }
+            if(complete){
+                send();
+            }
+            return true;
+        }
+
+        private void send(){
+            List<Event<byte[]>> toSend;
+            synchronized (this){
+                if(sent){
+                    return;
+                }
+                sent = true;
+                if(timerId != -1){
+                    vertx.cancelTimer(timerId);
+                }
+                toSend = replies;
+            }
+            if(toSend.size() == 1){
+                eventBusService.send(toSend.get(0));
+            }else{
+                eventBusService.send(EventUtil.createBatchEvent(replyTo, Metadata.create(), toSend));
+            }
+        }
+    }
+
+    /**
+     * {@link Metadata} for an event received in a batch, which tracks the {@link BatchReply} the reply should be added to
+     */
+    private static class BatchEntryMetadata implements Metadata {
+
+        private final Metadata delegate = Metadata.create();
+        private final BatchReply batchReply;
+
+        public BatchEntryMetadata(BatchReply batchReply) {
+            this.batchReply = batchReply;
+        }
+
+        @Override
+        public String get(String key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public void put(String key, String value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public void remove(String key) {
+            delegate.remove(key);
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return delegate.contains(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return delegate.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return delegate.iterator();
+        }
+    }
+
     /**
      * This subscriber handles monitoring the remote ends subscription for reply events.
      * If it detects that the remote ends subscription for reply events is removed, it will terminate the {@link StreamSubscriber}
@@ -425,14 +896,21 @@ public class ServiceInvocationSupervisor {
 
     /**
      * This subscriber will handle processing for any {@link org.reactivestreams.Publisher} returned by a method invocation
-     * It may be acted on by the remote end by sending control requests to this supervisor
+     * It may be acted on by the remote end by sending control requests to this supervisor.
+     * Values are requested in windows of {@link #STREAM_REQUEST_WINDOW}, so a suspended stream stops once the values already requested have been sent.
      */
     private class StreamSubscriber extends BaseSubscriber<Object> {
 
+        private static final int STREAM_REQUEST_WINDOW = 256;
+
         private final HandlerMethod handlerMethod;
         private final Metadata incomingMetadata;
         private final Flux<ListenerStatus> replyListenerStatus;
+        private final AtomicBoolean suspended = new AtomicBoolean(false);
+        // values sent that have not been requested again, together with the outstanding demand this is always one window
+        private final AtomicLong toRequest = new AtomicLong();
         private ReplyListenerStatusSubscriber replyListenerStatusSubscriber;
+        private boolean started = false;
 
         public StreamSubscriber(Metadata incomingMetadata,
                                 HandlerMethod handlerMethod,
@@ -452,10 +930,11 @@ public class ServiceInvocationSupervisor {
                     this.cancel();
                     break;
                 case EventConstants.CONTROL_VALUE_SUSPEND:
-                    this.request(0);
+                    suspended.set(true);
                     break;
                 case EventConstants.CONTROL_VALUE_RESUME:
-                    this.requestUnbounded();
+                    suspended.set(false);
+                    requestMore();
                     break;
                 default:
                     throw new IllegalArgumentException("Unknown control header value " + control);
@@ -496,7 +975,11 @@ public class ServiceInvocationSupervisor {
             if(log.isTraceEnabled()){
                 log.trace("Next stream value " + value);
             }
-            convertAndSend(incomingMetadata, handlerMethod, value);
+            convertAndSend(incomingMetadata, handlerMethod, value, !started);
+            started = true;
+            if(toRequest.incrementAndGet() >= STREAM_REQUEST_WINDOW / 2 && !suspended.get()){
+                requestMore();
+            }
         }
 
         @Override
@@ -505,7 +988,14 @@ public class ServiceInvocationSupervisor {
             replyListenerStatusSubscriber = new ReplyListenerStatusSubscriber(this);
             replyListenerStatus.subscribe(replyListenerStatusSubscriber);
 
-            super.hookOnSubscribe(subscription);
+            subscription.request(STREAM_REQUEST_WINDOW);
+        }
+
+        private void requestMore(){
+            long n = toRequest.getAndSet(0);
+            if(n > 0){
+                request(n);
+            }
         }
 
     }
@@ -23,30 +23,61 @@ import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.internal.core.api.service.invoker.ArgumentResolver;
 import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
 import org.kinotic.continuum.internal.core.api.service.json.AbstractJackson2Support;
+import org.kinotic.continuum.internal.core.api.service.json.Jackson2ArgumentDecoder;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.stereotype.Component;
 
 /**
- * Resolves arguments from json data using jackson
+ * Resolves arguments from json, or any other {@link JacksonFormat}, data using jackson
  * Created by Navid Mitchell on 2019-04-08.
  */
 @Component
 public class Jackson2ArgumentResolver extends AbstractJackson2Support implements ArgumentResolver {
 
+    @Autowired
     public Jackson2ArgumentResolver(ObjectMapper objectMapper,
                                     ReactiveAdapterRegistry reactiveAdapterRegistry,
                                     ContinuumProperties continuumProperties) {
         super(objectMapper, reactiveAdapterRegistry, continuumProperties);
     }
 
+    public Jackson2ArgumentResolver(JacksonFormat format,
+                                    ObjectMapper formatObjectMapper,
+                                    ObjectMapper jsonObjectMapper,
+                                    ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                    ContinuumProperties continuumProperties) {
+        super(format, formatObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    @Override
+    public void prepare(HandlerMethod handlerMethod) {
+        // Multiple resolvers can prepare the same method, one for each format, so this is used as the key
+        handlerMethod.computeAttachmentIfAbsent(this, this::createDecoder);
+    }
+
     @Override
     public Object[] resolveArguments(Event<byte[]> incomingEvent, HandlerMethod handlerMethod) {
-        return createJavaObjectsFromJsonEvent(incomingEvent, handlerMethod.getMethodParameters(), true);
+        // Decoder is normally created by prepare, this handles any HandlerMethod that was not prepared up front
+        Jackson2ArgumentDecoder decoder = handlerMethod.getAttachment(this);
+        if(decoder == null){
+            decoder = handlerMethod.computeAttachmentIfAbsent(this, this::createDecoder);
+        }
+        return decoder.decode(incomingEvent);
     }
 
     @Override
     public boolean supports(Event<byte[]> incomingEvent) {
-        return containsJsonContent(incomingEvent.metadata());
+        return containsSupportedContent(incomingEvent.metadata());
+    }
+
+    private Jackson2ArgumentDecoder createDecoder(HandlerMethod handlerMethod){
+        return new Jackson2ArgumentDecoder(handlerMethod,
+                                           getObjectMapper(),
+                                           getJsonObjectMapper(),
+                                           getReactiveAdapterRegistry(),
+                                           getContinuumProperties().getMaxEventPayloadSize());
     }
 
 }
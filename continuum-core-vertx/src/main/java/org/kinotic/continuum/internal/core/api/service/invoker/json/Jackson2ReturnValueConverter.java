@@ -24,9 +24,10 @@ import org.kinotic.continuum.core.api.event.EventConstants;
 import org.kinotic.continuum.core.api.event.Metadata;
 import org.kinotic.continuum.internal.core.api.service.invoker.ReturnValueConverter;
 import org.kinotic.continuum.internal.core.api.service.json.AbstractJackson2Support;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.stereotype.Component;
-import org.springframework.util.MimeTypeUtils;
 
 import java.util.HashMap;
 
@@ -37,12 +38,21 @@ import java.util.HashMap;
 @Component
 public class Jackson2ReturnValueConverter extends AbstractJackson2Support implements ReturnValueConverter {
 
+    @Autowired
     public Jackson2ReturnValueConverter(ObjectMapper objectMapper,
                                         ReactiveAdapterRegistry reactiveAdapterRegistry,
                                         ContinuumProperties continuumProperties) {
         super(objectMapper, reactiveAdapterRegistry, continuumProperties);
     }
 
+    public Jackson2ReturnValueConverter(JacksonFormat format,
+                                        ObjectMapper formatObjectMapper,
+                                        ObjectMapper jsonObjectMapper,
+                                        ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                        ContinuumProperties continuumProperties) {
+        super(format, formatObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
     @Override
     public Event<byte[]> convert(Metadata incomingMetadata, Class<?> returnType, Object returnValue) {
         // insure void return types are not mistakenly seen as null
@@ -50,14 +60,14 @@ public class Jackson2ReturnValueConverter extends AbstractJackson2Support implem
             returnValue = Void.TYPE;
         }
         HashMap<String,String> headers = new HashMap<>(1);
-        headers.put(EventConstants.CONTENT_TYPE_HEADER, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        headers.put(EventConstants.CONTENT_TYPE_HEADER, getFormat().contentType());
 
         return createOutgoingEvent(incomingMetadata, headers, returnValue);
     }
 
     @Override
     public boolean supports(Metadata incomingMetadata, Class<?> returnType) {
-        return containsJsonContent(incomingMetadata);
+        return containsSupportedContent(incomingMetadata);
     }
 
 }
@@ -17,6 +17,7 @@
 
 package org.kinotic.continuum.internal.core.api.service.json;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -29,7 +30,6 @@ import org.kinotic.continuum.api.config.ContinuumProperties;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventConstants;
 import org.kinotic.continuum.core.api.event.Metadata;
-import org.kinotic.continuum.api.security.Participant;
 import org.kinotic.continuum.internal.core.api.service.invoker.ServiceInvocationSupervisor;
 import org.kinotic.continuum.internal.utils.EventUtil;
 import org.apache.commons.lang3.Validate;
@@ -39,118 +39,98 @@ import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.codec.EncodingException;
-import org.springframework.util.MimeTypeUtils;
-import reactor.core.publisher.Flux;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 /**
+ * Base class for all of the Jackson based converters.
+ * Each instance handles a single {@link JacksonFormat}, which is identified by the content-type header of the event.
  *
  * Created by Navid Mitchell on 2019-04-08.
  */
 public abstract class AbstractJackson2Support {
 
+    /**
+     * The {@link ObjectMapper} used to read and write event data in the {@link JacksonFormat} supported
+     */
     @Getter
     private final ObjectMapper objectMapper;
+    /**
+     * The {@link ObjectMapper} used for json header values, such as the sender, these are always json
+     */
+    @Getter
+    private final ObjectMapper jsonObjectMapper;
+    @Getter
+    private final JacksonFormat format;
+    @Getter
     private final ReactiveAdapterRegistry reactiveAdapterRegistry;
+    @Getter
     private final ContinuumProperties continuumProperties;
 
     public AbstractJackson2Support(ObjectMapper objectMapper,
                                    ReactiveAdapterRegistry reactiveAdapterRegistry,
                                    ContinuumProperties continuumProperties) {
-        this.objectMapper = objectMapper;
+        this(JacksonFormat.JSON, objectMapper, objectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
+    /**
+     * @param format the {@link JacksonFormat} supported
+     * @param formatObjectMapper the {@link ObjectMapper} for the format, see {@link JacksonFormat#createObjectMapper(ObjectMapper)}
+     * @param jsonObjectMapper the application json {@link ObjectMapper}
+     * @param reactiveAdapterRegistry used to unwrap reactive types
+     * @param continuumProperties the configured {@link ContinuumProperties}
+     */
+    public AbstractJackson2Support(JacksonFormat format,
+                                   ObjectMapper formatObjectMapper,
+                                   ObjectMapper jsonObjectMapper,
+                                   ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                   ContinuumProperties continuumProperties) {
+        Validate.notNull(format, "format must not be null");
+        Validate.notNull(formatObjectMapper, "formatObjectMapper must not be null");
+        Validate.notNull(jsonObjectMapper, "jsonObjectMapper must not be null");
+        this.format = format;
+        this.objectMapper = formatObjectMapper;
+        this.jsonObjectMapper = jsonObjectMapper;
         this.reactiveAdapterRegistry = reactiveAdapterRegistry;
         this.continuumProperties = continuumProperties;
     }
 
     /**
-     * Tests if the content is considered json
+     * Tests if the content is in the format supported by this instance
      * @param incomingMetadata to evaluate
-     * @return true if the content-type header of the message is application/json
+     * @return true if the content-type header of the message matches the content type of the {@link JacksonFormat}
      */
-    protected boolean containsJsonContent(Metadata incomingMetadata) {
+    protected boolean containsSupportedContent(Metadata incomingMetadata) {
         boolean ret = false;
         String contentType = incomingMetadata.get(EventConstants.CONTENT_TYPE_HEADER);
         if(contentType != null && !contentType.isEmpty()){
-            ret =  MimeTypeUtils.APPLICATION_JSON_VALUE.contentEquals(contentType);
+            ret =  format.contentType().contentEquals(contentType);
         }
         return ret;
     }
 
     /**
-     * Transforms the Json content to Java objects using the given expected parameter types
-     * @param event the message containing the Json content to be converted
-     * @param parameters to determine the correct type for the {@link TokenBuffer} being decoded.
-     * @param dataInArray if true the incoming data is expected to be within an array such as when decoding input arguments
+     * Transforms the event data to a single Java object using the given expected type
+     * @param event the message containing the content to be converted
+     * @param methodParameter to determine the correct type for the data being decoded.
      *
-     * @return the deserialized Json as Java objects
+     * @return the deserialized Java object
      */
-    protected Object[] createJavaObjectsFromJsonEvent(Event<byte[]> event, MethodParameter[] parameters, boolean dataInArray){
+    protected Object createJavaObjectFromEvent(Event<byte[]> event, MethodParameter methodParameter){
         Validate.notNull(event, "event must not be null");
-        Validate.notNull(parameters, "parameters must not be null");
-
-        // TODO: remove the use of the Spring Tokenizer since I have found out about the performance issues with reactor
-        // Should we use the Jackson2Tokenizer borrowed from spring? We are not really taking advantage of the claimed non blocking or the Flux themselves
-        // I really don't see a way to do that anyhow since all Arguments at least for the invoker must be available upfront.
-        // A return value could be parsed and streamed but that would require more machinery.
-        // And we would want to plum that all the way to the caller.
-        List<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(Flux.just(event.data()),
-                                                              getObjectMapper().getFactory(),
-                                                              getObjectMapper(),
-                                                              dataInArray,
-                                                              continuumProperties.getMaxEventPayloadSize())
-                                                    .collectList()
-                                                    .block();
-        List<Object> ret = new LinkedList<>();
-        if(tokens!= null && !tokens.isEmpty()){
-
-            if(tokens.size() > parameters.length){
-                // Error could be misleading / inaccurate, Should we keep the number of participant args in mind?
-                throw new IllegalArgumentException("Received too many json arguments, Expected: " + parameters.length + " Got: " +tokens.size());
-            }
+        Validate.notNull(methodParameter, "methodParameter must not be null");
 
-            int tokenIdx = 0;
-            for(MethodParameter methodParameter: parameters){
-
-                methodParameter = methodParameter.nestedIfOptional();
-
-                // FIXME: when the invocation is local this happens for no reason. If the event stays on the local bus we shouldn't do this..
-                // if the parameter is a participant we get this from the even metadata
-                if(Participant.class.isAssignableFrom(methodParameter.getParameterType())){
-
-                    String participantJson = event.metadata().get(EventConstants.SENDER_HEADER);
-
-                    if(participantJson != null){
-                        try {
-                            Participant participant = objectMapper.readValue(participantJson, Participant.class);
-                            ret.add(participant);
-                        } catch (JsonProcessingException e) {
-                            throw new DecodingException("JSON decoding error: " + e.getOriginalMessage(), e);
-                        }
-                    }else{
-                        throw new IllegalArgumentException("Participant parameter is required but no Participant is available");
-                    }
-
-                }else{
-                    if(tokenIdx + 1 > tokens.size()){ // index is zero base..
-                        // Error could be misleading / inaccurate, Should we keep the number of participant args in mind?
-                        throw new IllegalArgumentException("Received too few json arguments, Expected: " + parameters.length + " Got: " +tokens.size());
-                    }
-
-                    Object arg = decodeInternal(tokens.get(tokenIdx), methodParameter);
-                    ret.add(arg);
-                    tokenIdx++;
-                }
-            }
+        byte[] data = event.data();
+        int maxPayloadSize = continuumProperties.getMaxEventPayloadSize();
+        if(data != null && maxPayloadSize >= 0 && data.length > maxPayloadSize){
+            throw new DataBufferLimitException("Exceeded limit on max bytes per " + format + " object: " + maxPayloadSize);
         }
-        return ret.toArray();
-    }
 
-    private Object decodeInternal(TokenBuffer tokenBuffer, MethodParameter methodParameter){
+        methodParameter = methodParameter.nestedIfOptional();
+
         // Unwrap async classes, this is also used for method return values so this handles that..
         if(reactiveAdapterRegistry.getAdapter(methodParameter.getParameterType()) != null){
             methodParameter = methodParameter.nested();
@@ -161,27 +141,28 @@ public abstract class AbstractJackson2Support {
         // The parser will return null for void so we don't parse void
         if(!Void.class.isAssignableFrom(methodParameter.getParameterType())){
 
-            // Support passing the TokenBuffer directly
-            if (TokenBuffer.class.isAssignableFrom(methodParameter.getParameterType())) {
-
-                ret = tokenBuffer;
+            try (JsonParser parser = objectMapper.getFactory().createParser(data)) {
 
-            } else {
+                // Support passing the TokenBuffer directly
+                if (TokenBuffer.class.isAssignableFrom(methodParameter.getParameterType())) {
 
-                JavaType javaType = getJavaType(methodParameter);
-                ObjectReader reader = getObjectMapper().readerFor(javaType);
+                    parser.nextToken();
+                    TokenBuffer tokenBuffer = new TokenBuffer(parser);
+                    tokenBuffer.copyCurrentStructure(parser);
+                    ret = tokenBuffer;
 
-                try {
+                } else {
 
-                    ret = reader.readValue(tokenBuffer.asParser(getObjectMapper()));
-
-                } catch (InvalidDefinitionException ex) {
-                    throw new CodecException("Type definition error: " + ex.getType(), ex);
-                } catch (JsonProcessingException ex) {
-                    throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
-                } catch (IOException ex) {
-                    throw new DecodingException("I/O error while parsing input stream", ex);
+                    ObjectReader reader = objectMapper.readerFor(getJavaType(methodParameter));
+                    ret = reader.readValue(parser);
                 }
+
+            } catch (InvalidDefinitionException ex) {
+                throw new CodecException("Type definition error: " + ex.getType(), ex);
+            } catch (JsonProcessingException ex) {
+                throw new DecodingException(format + " decoding error: " + ex.getOriginalMessage(), ex);
+            } catch (IOException ex) {
+                throw new DecodingException("I/O error while parsing input stream", ex);
             }
         }else{
             ret = Void.TYPE;
@@ -197,25 +178,30 @@ public abstract class AbstractJackson2Support {
         return typeFactory.constructType(GenericTypeResolver.resolveType(targetType, contextClass));
     }
 
+    /**
+     * Encodes the given value using the {@link JacksonFormat} supported
+     * @param value to encode
+     * @return the encoded bytes
+     */
+    protected byte[] encode(Object value){
+        try {
+
+            return objectMapper.writeValueAsBytes(value);
+
+        } catch (JsonProcessingException e) {
+            throw new EncodingException(format + " encoding error: " + e.getOriginalMessage(), e);
+        }
+    }
+
     /**
      * Creates a {@link Event} that can be sent based on the incomingMessage headers and the data to use as the body
      * @param incomingMetadata the original {@link Metadata} sent to the {@link ServiceInvocationSupervisor}
      * @param headers key value pairs that will be added to the outgoing headers
-     * @param body the value that will be converted to a Json string and set as the body
+     * @param body the value that will be encoded and set as the body
      * @return the {@link Event} to send
      */
     protected Event<byte[]> createOutgoingEvent(Metadata incomingMetadata, Map<String, String> headers, Object body){
-        return EventUtil.createReplyEvent(incomingMetadata, headers, () -> {
-            byte[] jsonBytes;
-            try {
-
-                jsonBytes = objectMapper.writeValueAsBytes(body);
-
-            } catch (JsonProcessingException e) {
-                throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
-            }
-            return jsonBytes;
-        });
+        return EventUtil.createReplyEvent(incomingMetadata, headers, () -> encode(body));
     }
 
 
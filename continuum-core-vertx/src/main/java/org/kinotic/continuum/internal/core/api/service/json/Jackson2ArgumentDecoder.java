@@ -0,0 +1,255 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.api.security.Participant;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+
+import java.io.IOException;
+
+/**
+ * Decodes the json arguments for a single {@link HandlerMethod}.
+ * All of the {@link JavaType}'s and {@link ObjectReader}'s needed are resolved once when the decoder is created,
+ * so that decoding only requires a single pass over the incoming json array using a blocking {@link JsonParser}.
+ * Each array element is deserialized directly into the type of the matching {@link MethodParameter}.
+ * Binary {@link JacksonFormat}'s are decoded the same way, by providing an {@link ObjectMapper} for the format.
+ */
+public class Jackson2ArgumentDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader participantReader;
+    private final ParameterDecoder[] parameterDecoders;
+    private final int jsonParameterCount;
+    private final int maxPayloadSize;
+
+    public Jackson2ArgumentDecoder(HandlerMethod handlerMethod,
+                                   ObjectMapper objectMapper,
+                                   ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                   int maxPayloadSize) {
+        this(handlerMethod, objectMapper, objectMapper, reactiveAdapterRegistry, maxPayloadSize);
+    }
+
+    /**
+     * @param handlerMethod to decode arguments for
+     * @param objectMapper the {@link ObjectMapper} used to read the argument data, this can be any {@link JacksonFormat}
+     * @param jsonObjectMapper the {@link ObjectMapper} used to read the json sender header
+     * @param reactiveAdapterRegistry used to unwrap reactive parameter types
+     * @param maxPayloadSize the maximum allowed size of the argument data in bytes, or -1 for no limit
+     */
+    public Jackson2ArgumentDecoder(HandlerMethod handlerMethod,
+                                   ObjectMapper objectMapper,
+                                   ObjectMapper jsonObjectMapper,
+                                   ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                   int maxPayloadSize) {
+        Validate.notNull(handlerMethod, "handlerMethod must not be null");
+        Validate.notNull(objectMapper, "objectMapper must not be null");
+        Validate.notNull(jsonObjectMapper, "jsonObjectMapper must not be null");
+        Validate.notNull(reactiveAdapterRegistry, "reactiveAdapterRegistry must not be null");
+
+        this.objectMapper = objectMapper;
+        this.participantReader = jsonObjectMapper.readerFor(Participant.class);
+        this.maxPayloadSize = maxPayloadSize;
+
+        MethodParameter[] parameters = handlerMethod.getMethodParameters();
+        this.parameterDecoders = new ParameterDecoder[parameters.length];
+        int jsonCount = 0;
+        for(int i = 0; i < parameters.length; i++){
+            ParameterDecoder decoder = createParameterDecoder(parameters[i], reactiveAdapterRegistry);
+            if(decoder.kind != ParameterKind.PARTICIPANT){
+                jsonCount++;
+            }
+            parameterDecoders[i] = decoder;
+        }
+        this.jsonParameterCount = jsonCount;
+    }
+
+    /**
+     * Decodes the arguments contained in the given {@link Event}
+     * @param event containing the json argument array, and the sender header if a {@link Participant} is required
+     * @return an Object array with all arguments in the order they should be provided to the method to be invoked
+     */
+    public Object[] decode(Event<byte[]> event){
+        Validate.notNull(event, "event must not be null");
+
+        byte[] data = event.data();
+        if(data != null && maxPayloadSize >= 0 && data.length > maxPayloadSize){
+            throw new DataBufferLimitException("Exceeded limit on max bytes per JSON object: " + maxPayloadSize);
+        }
+
+        Object[] ret = new Object[parameterDecoders.length];
+
+        try {
+            if(data != null && data.length > 0){
+
+                try(JsonParser parser = objectMapper.getFactory().createParser(data)){
+
+                    JsonToken token = parser.nextToken();
+                    // A top level value that is not an array is treated as a single argument
+                    boolean inArray = token == JsonToken.START_ARRAY;
+                    int received = 0;
+
+                    for(int i = 0; i < parameterDecoders.length; i++){
+                        ParameterDecoder decoder = parameterDecoders[i];
+
+                        if(decoder.kind == ParameterKind.PARTICIPANT){
+                            ret[i] = readParticipant(event);
+                        }else{
+                            if(inArray){
+                                token = parser.nextToken();
+                            }else if(received > 0){
+                                token = null;
+                            }
+
+                            if(token == null || token == JsonToken.END_ARRAY){
+                                throw new IllegalArgumentException("Received too few json arguments, Expected: " + jsonParameterCount + " Got: " + received);
+                            }
+
+                            ret[i] = decoder.decode(parser);
+                            received++;
+                        }
+                    }
+
+                    if(inArray){
+                        int extra = 0;
+                        while((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY){
+                            parser.skipChildren();
+                            extra++;
+                        }
+                        if(extra > 0){
+                            throw new IllegalArgumentException("Received too many json arguments, Expected: " + jsonParameterCount + " Got: " + (received + extra));
+                        }
+                    }else if(received == 0){
+                        throw new IllegalArgumentException("Received too many json arguments, Expected: 0 Got: 1");
+                    }
+                }
+
+            }else{
+                for(int i = 0; i < parameterDecoders.length; i++){
+                    if(parameterDecoders[i].kind == ParameterKind.PARTICIPANT){
+                        ret[i] = readParticipant(event);
+                    }else{
+                        throw new IllegalArgumentException("Received too few json arguments, Expected: " + jsonParameterCount + " Got: 0");
+                    }
+                }
+            }
+        } catch (InvalidDefinitionException ex) {
+            throw new CodecException("Type definition error: " + ex.getType(), ex);
+        } catch (JsonProcessingException ex) {
+            throw new DecodingException("Argument decoding error: " + ex.getOriginalMessage(), ex);
+        } catch (IOException ex) {
+            throw new DecodingException("I/O error while parsing input stream", ex);
+        }
+        return ret;
+    }
+
+    private Participant readParticipant(Event<byte[]> event) throws IOException {
+        // FIXME: when the invocation is local this happens for no reason. If the event stays on the local bus we shouldn't do this..
+        String participantJson = event.metadata().get(EventConstants.SENDER_HEADER);
+        if(participantJson == null){
+            throw new IllegalArgumentException("Participant parameter is required but no Participant is available");
+        }
+        return participantReader.readValue(participantJson);
+    }
+
+    private ParameterDecoder createParameterDecoder(MethodParameter methodParameter,
+                                                    ReactiveAdapterRegistry reactiveAdapterRegistry){
+        methodParameter = methodParameter.nestedIfOptional();
+
+        if(Participant.class.isAssignableFrom(methodParameter.getParameterType())){
+            return new ParameterDecoder(ParameterKind.PARTICIPANT, null);
+        }
+
+        // Unwrap async classes
+        if(reactiveAdapterRegistry.getAdapter(methodParameter.getParameterType()) != null){
+            methodParameter = methodParameter.nested();
+        }
+
+        Class<?> parameterType = methodParameter.getParameterType();
+        if(Void.class.isAssignableFrom(parameterType)){
+            return new ParameterDecoder(ParameterKind.VOID, null);
+        }else if(TokenBuffer.class.isAssignableFrom(parameterType)){
+            return new ParameterDecoder(ParameterKind.TOKEN_BUFFER, null);
+        }else{
+            return new ParameterDecoder(ParameterKind.VALUE, objectMapper.readerFor(getJavaType(methodParameter)));
+        }
+    }
+
+    private JavaType getJavaType(MethodParameter methodParameter){
+        TypeFactory typeFactory = objectMapper.getTypeFactory();
+        return typeFactory.constructType(GenericTypeResolver.resolveType(methodParameter.getNestedGenericParameterType(),
+                                                                         methodParameter.getContainingClass()));
+    }
+
+    private enum ParameterKind {
+        PARTICIPANT,
+        VOID,
+        TOKEN_BUFFER,
+        VALUE
+    }
+
+    private static class ParameterDecoder {
+
+        private final ParameterKind kind;
+        private final ObjectReader reader;
+
+        public ParameterDecoder(ParameterKind kind, ObjectReader reader) {
+            this.kind = kind;
+            this.reader = reader;
+        }
+
+        /**
+         * Decodes the value the parser is currently positioned at, leaving the parser on the last token of the value
+         */
+        public Object decode(JsonParser parser) throws IOException {
+            Object ret;
+            switch (kind) {
+                case VOID:
+                    parser.skipChildren();
+                    ret = Void.TYPE;
+                    break;
+                case TOKEN_BUFFER:
+                    TokenBuffer tokenBuffer = new TokenBuffer(parser);
+                    tokenBuffer.copyCurrentStructure(parser);
+                    ret = tokenBuffer;
+                    break;
+                default:
+                    ret = reader.readValue(parser);
+            }
+            return ret;
+        }
+    }
+
+}
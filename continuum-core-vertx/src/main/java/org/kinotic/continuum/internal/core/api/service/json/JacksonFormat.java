@@ -0,0 +1,78 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * The data formats that can be used for service invocations, along with the content-type used to identify each one.
+ * All formats share the configuration of the application {@link ObjectMapper}, only the underlying encoding differs.
+ */
+public enum JacksonFormat {
+
+    JSON(MimeTypeUtils.APPLICATION_JSON_VALUE),
+    CBOR("application/cbor"),
+    SMILE("application/x-jackson-smile");
+
+    private final String contentType;
+
+    JacksonFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the mime type used in the content-type header for this format
+     */
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Creates an {@link ObjectMapper} for this format, with the same configuration and modules as the given json {@link ObjectMapper}
+     * @param jsonObjectMapper the application {@link ObjectMapper}
+     * @return the {@link ObjectMapper} for this format, this is the jsonObjectMapper itself when the format is {@link #JSON}
+     */
+    public ObjectMapper createObjectMapper(ObjectMapper jsonObjectMapper) {
+        return switch (this) {
+            case JSON -> jsonObjectMapper;
+            case CBOR -> jsonObjectMapper.copyWith(new CBORFactory());
+            case SMILE -> jsonObjectMapper.copyWith(new SmileFactory());
+        };
+    }
+
+    /**
+     * Finds the format for the given content-type
+     * @param contentType to find the format for
+     * @return the matching format or null if the content-type is not supported
+     */
+    public static JacksonFormat fromContentType(String contentType) {
+        JacksonFormat ret = null;
+        if(contentType != null){
+            for(JacksonFormat format : values()){
+                if(format.contentType.contentEquals(contentType)){
+                    ret = format;
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+}
@@ -23,15 +23,19 @@ import io.vertx.core.eventbus.ReplyFailure;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.kinotic.continuum.api.annotations.RequestTimeout;
 import org.kinotic.continuum.api.exceptions.RpcMissingServiceException;
+import org.kinotic.continuum.api.exceptions.RpcTimeoutException;
 import org.kinotic.continuum.core.api.RpcServiceProxy;
 import org.kinotic.continuum.core.api.RpcServiceProxyHandle;
 import org.kinotic.continuum.core.api.event.*;
 import org.kinotic.continuum.core.api.service.ServiceIdentifier;
 import org.kinotic.continuum.internal.utils.ContinuumUtil;
+import org.kinotic.continuum.internal.utils.EventUtil;
 import org.kinotic.continuum.internal.utils.MetaUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 import reactor.core.Disposable;
@@ -41,14 +45,15 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Base implementation of the {@link RpcServiceProxyHandle}
- * Will send all service requests on the Vertx {@link EventBus}
+ * Will send all service requests on the Vertx {@link EventBus}, unless a {@link LocalServiceInvoker} can invoke the service directly
  *
  * Created by navid on 2019-04-18.
  */
@@ -60,16 +65,24 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
     private final String nodeName;
     private final Class<T> serviceClass;
     private final CRI handlerCRI;
+    /**
+     * Correlation ids must be unique across all requesters, since services track streaming results by correlation id.
+     * So the id of a request in the response table is prefixed with the unique scope of the handler CRI.
+     */
+    private final String correlationIdPrefix;
     private final RpcArgumentConverter rpcArgumentConverter;
     private final RpcReturnValueHandlerFactory rpcReturnValueHandlerFactory;
     private final EventBusService eventBusService;
+    private final LocalServiceInvoker localServiceInvoker;
+    private final RpcRequestBatcher requestBatcher;
 
     private final Map<Method, Integer> methodsWithScopeAnnotation = new HashMap<>();
+    private final Map<Method, Long> methodRequestTimeouts = new HashMap<>();
     private final Disposable replyEventListenerDisposable;
     private final T serviceProxy;
     private final AtomicBoolean released = new AtomicBoolean(false);
 
-    private final ConcurrentHashMap<String, RpcReturnValueHandler> responseMap = new ConcurrentHashMap<>();
+    private final RpcCorrelationTable<RpcReturnValueHandler> responseTable;
 
     public DefaultRpcServiceProxyHandle(ServiceIdentifier serviceIdentifier,
                                         String nodeName,
@@ -78,6 +91,55 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
                                         RpcReturnValueHandlerFactory rpcReturnValueHandlerFactory,
                                         EventBusService eventBusService,
                                         ClassLoader classLoader) {
+        this(serviceIdentifier,
+             nodeName,
+             serviceClass,
+             rpcArgumentConverter,
+             rpcReturnValueHandlerFactory,
+             eventBusService,
+             null,
+             classLoader);
+    }
+
+    /**
+     * @param localServiceInvoker used to invoke services registered in the same JVM directly, or null if all invocations should be sent over the event bus
+     */
+    public DefaultRpcServiceProxyHandle(ServiceIdentifier serviceIdentifier,
+                                        String nodeName,
+                                        Class<T> serviceClass,
+                                        RpcArgumentConverter rpcArgumentConverter,
+                                        RpcReturnValueHandlerFactory rpcReturnValueHandlerFactory,
+                                        EventBusService eventBusService,
+                                        LocalServiceInvoker localServiceInvoker,
+                                        ClassLoader classLoader) {
+        this(serviceIdentifier,
+             nodeName,
+             serviceClass,
+             rpcArgumentConverter,
+             rpcReturnValueHandlerFactory,
+             eventBusService,
+             localServiceInvoker,
+             new RpcCorrelationTable<>(serviceIdentifier.qualifiedName()),
+             null,
+             classLoader);
+    }
+
+    /**
+     * @param localServiceInvoker used to invoke services registered in the same JVM directly, or null if all invocations should be sent over the event bus
+     * @param responseTable used to correlate responses with outstanding requests, and to expire requests that do not receive a response.
+     *                      This handle takes ownership of the table and closes it when released.
+     * @param requestBatcher used to send requests in batches, or null if every request should be sent individually
+     */
+    public DefaultRpcServiceProxyHandle(ServiceIdentifier serviceIdentifier,
+                                        String nodeName,
+                                        Class<T> serviceClass,
+                                        RpcArgumentConverter rpcArgumentConverter,
+                                        RpcReturnValueHandlerFactory rpcReturnValueHandlerFactory,
+                                        EventBusService eventBusService,
+                                        LocalServiceInvoker localServiceInvoker,
+                                        RpcCorrelationTable<RpcReturnValueHandler> responseTable,
+                                        RpcRequestBatcher requestBatcher,
+                                        ClassLoader classLoader) {
 
         Validate.notNull(serviceIdentifier, "serviceIdentifier must not be null");
         Validate.notBlank(nodeName, "nodeName must not be blank");
@@ -85,6 +147,7 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
         Validate.notNull(rpcArgumentConverter, "argumentConverter must not be null");
         Validate.notNull(rpcReturnValueHandlerFactory, "returnValueHandlerFactory must not be null");
         Validate.notNull(eventBusService, "eventBusService must not be null");
+        Validate.notNull(responseTable, "responseTable must not be null");
         Validate.notNull(classLoader, "classLoader must not be null");
 
         this.serviceIdentifier = serviceIdentifier;
@@ -94,8 +157,16 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
         this.rpcArgumentConverter = rpcArgumentConverter;
         this.rpcReturnValueHandlerFactory = rpcReturnValueHandlerFactory;
         this.eventBusService = eventBusService;
+        this.localServiceInvoker = localServiceInvoker;
+        this.responseTable = responseTable;
+        this.requestBatcher = requestBatcher;
 
-        this.handlerCRI = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME, encodedNodeName + ":" + UUID.randomUUID(), ContinuumUtil.safeEncodeURI(serviceClass.getName())+"RpcProxyResponseHandler");
+        org.kinotic.continuum.api.annotations.Proxy proxyAnnotation = AnnotationUtils.findAnnotation(serviceClass, org.kinotic.continuum.api.annotations.Proxy.class);
+        long proxyRequestTimeout = proxyAnnotation != null ? proxyAnnotation.requestTimeout() : -1;
+
+        String handlerId = UUID.randomUUID().toString();
+        this.handlerCRI = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME, encodedNodeName + ":" + handlerId, ContinuumUtil.safeEncodeURI(serviceClass.getName())+"RpcProxyResponseHandler");
+        this.correlationIdPrefix = handlerId + ":";
 
         // Verify that a proxy can be built supporting all methods of the provided serviceClass
         ReflectionUtils.doWithMethods(serviceClass, method -> {
@@ -111,6 +182,13 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
                 methodsWithScopeAnnotation.put(method, parameterIndexWithScopeAnnotation);
             }
 
+            // a negative timeout means the default timeout of the response table is used
+            RequestTimeout requestTimeout = AnnotationUtils.findAnnotation(method, RequestTimeout.class);
+            long timeout = requestTimeout != null ? requestTimeout.value() : proxyRequestTimeout;
+            if(timeout >= 0){
+                methodRequestTimeouts.put(method, timeout);
+            }
+
         }, ReflectionUtils.USER_DECLARED_METHODS);
 
         serviceProxy = serviceClass.cast(Proxy.newProxyInstance(classLoader, new Class[] { serviceClass, RpcServiceProxy.class}, this));
@@ -122,25 +200,20 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
         replyEventListenerDisposable =
                 eventFlux.subscribe(event -> {
 
-                    String correlationId = event.metadata().get(EventConstants.CORRELATION_ID_HEADER);
-                    if(correlationId != null){
-                        if(responseMap.containsKey(correlationId)){
-                            try {
-                                // provide message to handler for processing
-                                RpcReturnValueHandler handler = responseMap.get(correlationId);
-                                if(handler.processResponse(event)){
-                                    responseMap.remove(correlationId);
-                                }
-                            } catch (Exception e) {
-                                log.error("URGENT: Unhandled exception in RpcReturnValueHandler.processResponse, Proxy Will be Released!!", e);
-                                release();
-                            }
-                        }else{
-                            log.error("Received Message for correlationId: {} but no response handler is set", correlationId);
+                    if(event.metadata().contains(EventConstants.BATCH_HEADER)){
+                        // replies to batched requests may be returned as a batch as well
+                        List<Event<byte[]>> replies;
+                        try {
+                            replies = EventUtil.extractBatchEvents(event, Metadata::create);
+                        } catch (Exception e) {
+                            log.error("Received invalid batch of replies", e);
+                            return;
+                        }
+                        for(Event<byte[]> reply : replies){
+                            processReply(reply);
                         }
-
                     }else{
-                        log.error("Received Message with no " + EventConstants.CORRELATION_ID_HEADER +" header");
+                        processReply(event);
                     }
                 },
                 // received error
@@ -159,8 +232,7 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
         if(released.compareAndSet(false,true)){
             replyEventListenerDisposable.dispose();
 
-            responseMap.forEach((s, returnValueHandler) -> returnValueHandler.cancel(serviceClass.getSimpleName() + " released. No further responses will be processed"));
-            responseMap.clear();
+            responseTable.close(returnValueHandler -> returnValueHandler.cancel(serviceClass.getSimpleName() + " released. No further responses will be processed"));
         }
     }
 
@@ -186,79 +258,107 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
                     args = ArrayUtils.remove(args, scopeParameter);
                 }
 
-                // convert arguments to be sent
-                byte[] argumentData = rpcArgumentConverter.convert(method, args);
-                String correlationId = UUID.randomUUID().toString();
-
-                // Now create response handler and store, so we can propagate response in replyMessageConsumer
-                RpcReturnValueHandler handler = rpcReturnValueHandlerFactory.createReturnValueHandler(method, args);
-                responseMap.put(correlationId, handler);
-
-                // Create Event to be sent to remote end to cause service invocation
-                Metadata metadata = Metadata.create();
-                // For right now we just supply a fairly generic participant
-                // It is probably not really useful in production
-                metadata.put(EventConstants.SENDER_HEADER, "{\"tenantId\":\"continuum\",\"id\":\""+nodeName+"\",\"metadata\":{\"type\":\"node\"},\"roles\":[\"NODE\"]}");
-                metadata.put(EventConstants.REPLY_TO_HEADER, handlerCRI.raw());
-                metadata.put(EventConstants.CORRELATION_ID_HEADER, correlationId);
-                metadata.put(EventConstants.CONTENT_TYPE_HEADER, rpcArgumentConverter.producesContentType());
-
-                // TODO: use version string to determine how specific the invocation has to be like npm semantics ^1.0.0 ect
-                CRI requestCri = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME,
-                                            scope,
-                                            serviceIdentifier.qualifiedName(),
-                                            "/" + method.getName(),
-                                            serviceIdentifier.version());
-
-                Event<byte[]> rpcOutboundEvent = Event.create(requestCri,
-                                                              metadata,
-                                                              argumentData);
-
-                ret = handler.getReturnValue(new RpcRequest() {
-                    @Override
-                    public void send() {
-                        // Send data to remote end to trigger service invocation
-                        eventBusService.sendWithAck(rpcOutboundEvent)
-                                       .subscribe(v -> {},
-                                                  throwable -> {
-                                           // send failed, signal handler so failure can be relayed to the return value
-                                           try{
-
-                                               responseMap.remove(correlationId);
-
-                                               // TODO: refactor into util, this is also done in the EndpointConnectionHandler
-                                               if (throwable instanceof ReplyException replyException) {
-                                                   if (replyException.failureType() == ReplyFailure.NO_HANDLERS) {
-                                                       throwable = new RpcMissingServiceException(throwable);
-                                                   }
-                                               }
-                                               handler.processError(throwable);
-                                           }catch (Exception e){
-                                               log.error("URGENT: Unhandled exception in RpcReturnValueHandler.processError, Proxy Will be Released!!", e);
-                                               release();
-                                           }
-                                       });
+                // Services registered in this JVM can be invoked directly, null is returned if the event bus must be used
+                Object localReturnValue = null;
+                if(localServiceInvoker != null){
+                    ServiceIdentifier targetIdentifier = scope != null
+                            ? new ServiceIdentifier(serviceIdentifier.namespace(), serviceIdentifier.name(), scope, serviceIdentifier.version())
+                            : serviceIdentifier;
+                    // local invocations use the same timeout as invocations sent over the event bus
+                    long timeout = methodRequestTimeouts.getOrDefault(method, -1L);
+                    if(timeout < 0){
+                        timeout = responseTable.getDefaultTimeout();
                     }
+                    localReturnValue = localServiceInvoker.invoke(targetIdentifier, method, args, timeout);
+                }
 
-                    @Override
-                    public void cancelRequest() {
-                        if(handler.isMultiValue()) {
-                            // Now publish message for remote control
-                            Metadata metadata = Metadata.create();
-                            metadata.put(EventConstants.CONTROL_HEADER, EventConstants.CONTROL_VALUE_CANCEL);
-                            metadata.put(EventConstants.CORRELATION_ID_HEADER, correlationId);
-
-                            // Send data to remote end for control request
-                            eventBusService.sendWithAck(Event.create(requestCri,
-                                                                     metadata,
-                                                                     null))
-                                           .doFinally(signalType -> responseMap.remove(correlationId))
-                                           .subscribe();
-                        } else {
-                            throw new IllegalStateException("Cancel is not supported if RpcReturnValueHandler.isMultiValue returns false");
+                if(localReturnValue != null){
+                    ret = localReturnValue;
+                }else{
+
+                    // convert arguments to be sent
+                    byte[] argumentData = rpcArgumentConverter.convert(method, args);
+                    long id = responseTable.nextId();
+                    String correlationId = correlationIdPrefix + id;
+
+                    // Now create response handler and store, so we can propagate response in replyMessageConsumer
+                    RpcReturnValueHandler handler = rpcReturnValueHandlerFactory.createReturnValueHandler(method, args);
+                    // streams can remain open indefinitely so they are not subject to the request timeout
+                    long timeout = handler.isMultiValue() ? 0 : methodRequestTimeouts.getOrDefault(method, -1L);
+                    responseTable.put(id, handler, timeout, timedOutHandler -> processTimeout(timedOutHandler, method));
+
+                    // Create Event to be sent to remote end to cause service invocation
+                    Metadata metadata = Metadata.create();
+                    // For right now we just supply a fairly generic participant
+                    // It is probably not really useful in production
+                    metadata.put(EventConstants.SENDER_HEADER, "{\"tenantId\":\"continuum\",\"id\":\""+nodeName+"\",\"metadata\":{\"type\":\"node\"},\"roles\":[\"NODE\"]}");
+                    metadata.put(EventConstants.REPLY_TO_HEADER, handlerCRI.raw());
+                    metadata.put(EventConstants.CORRELATION_ID_HEADER, correlationId);
+                    metadata.put(EventConstants.CONTENT_TYPE_HEADER, rpcArgumentConverter.producesContentType());
+
+                    // TODO: use version string to determine how specific the invocation has to be like npm semantics ^1.0.0 ect
+                    CRI requestCri = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME,
+                                                scope,
+                                                serviceIdentifier.qualifiedName(),
+                                                "/" + method.getName(),
+                                                serviceIdentifier.version());
+
+                    Event<byte[]> rpcOutboundEvent = Event.create(requestCri,
+                                                                  metadata,
+                                                                  argumentData);
+
+                    ret = handler.getReturnValue(new RpcRequest() {
+                        @Override
+                        public void send() {
+                            Consumer<Throwable> sendErrorHandler = throwable -> {
+                                // send failed, signal handler so failure can be relayed to the return value
+                                try{
+
+                                    responseTable.remove(id);
+
+                                    // TODO: refactor into util, this is also done in the EndpointConnectionHandler
+                                    if (throwable instanceof ReplyException replyException) {
+                                        if (replyException.failureType() == ReplyFailure.NO_HANDLERS) {
+                                            throwable = new RpcMissingServiceException(throwable);
+                                        }
+                                    }
+                                    handler.processError(throwable);
+                                }catch (Exception e){
+                                    log.error("URGENT: Unhandled exception in RpcReturnValueHandler.processError, Proxy Will be Released!!", e);
+                                    release();
+                                }
+                            };
+
+                            // Send data to remote end to trigger service invocation
+                            // streaming requests are never batched since they are controlled individually
+                            if(requestBatcher != null && !handler.isMultiValue()){
+                                requestBatcher.send(rpcOutboundEvent, sendErrorHandler);
+                            }else{
+                                eventBusService.sendWithAck(rpcOutboundEvent)
+                                               .subscribe(v -> {}, sendErrorHandler);
+                            }
                         }
-                    }
-                });
+
+                        @Override
+                        public void cancelRequest() {
+                            if(handler.isMultiValue()) {
+                                // Now publish message for remote control
+                                Metadata metadata = Metadata.create();
+                                metadata.put(EventConstants.CONTROL_HEADER, EventConstants.CONTROL_VALUE_CANCEL);
+                                metadata.put(EventConstants.CORRELATION_ID_HEADER, correlationId);
+
+                                // Send data to remote end for control request
+                                eventBusService.sendWithAck(Event.create(requestCri,
+                                                                         metadata,
+                                                                         null))
+                                               .doFinally(signalType -> responseTable.remove(id))
+                                               .subscribe();
+                            } else {
+                                throw new IllegalStateException("Cancel is not supported if RpcReturnValueHandler.isMultiValue returns false");
+                            }
+                        }
+                    });
+                }
 
             }else{
                 // Method not defined on service interface pass call directly to this service handle. ex: toString()
@@ -279,6 +379,61 @@ public class DefaultRpcServiceProxyHandle<T> implements RpcServiceProxyHandle<T>
         return ret;
     }
 
+    private void processReply(Event<byte[]> event){
+        String correlationId = event.metadata().get(EventConstants.CORRELATION_ID_HEADER);
+        if(correlationId != null){
+            long id = parseCorrelationId(correlationId);
+            RpcReturnValueHandler handler = id > 0 ? responseTable.get(id) : null;
+            if(handler != null){
+                try {
+                    // provide message to handler for processing
+                    if(handler.processResponse(event)){
+                        responseTable.remove(id);
+                    }
+                } catch (Exception e) {
+                    log.error("URGENT: Unhandled exception in RpcReturnValueHandler.processResponse, Proxy Will be Released!!", e);
+                    release();
+                }
+            }else{
+                log.error("Received Message for correlationId: {} but no response handler is set", correlationId);
+            }
+
+        }else{
+            log.error("Received Message with no " + EventConstants.CORRELATION_ID_HEADER +" header");
+        }
+    }
+
+    private long parseCorrelationId(String correlationId){
+        long ret = -1;
+        if(correlationId.startsWith(correlationIdPrefix)){
+            try {
+                ret = Long.parseLong(correlationId, correlationIdPrefix.length(), correlationId.length(), 10);
+            } catch (NumberFormatException e) {
+                log.error("Received Message with invalid correlationId: {}", correlationId);
+            }
+        }else{
+            log.error("Received Message with correlationId: {} that was not created by this proxy", correlationId);
+        }
+        return ret;
+    }
+
+    private void processTimeout(RpcReturnValueHandler handler, Method method){
+        try {
+            handler.processError(new RpcTimeoutException("No response received for " + serviceClass.getSimpleName() + "." + method.getName()
+                                                                 + " within the request timeout"));
+        } catch (Exception e) {
+            log.error("URGENT: Unhandled exception in RpcReturnValueHandler.processError, Proxy Will be Released!!", e);
+            release();
+        }
+    }
+
+    /**
+     * @return the number of requests that are waiting for a response
+     */
+    public int getOutstandingRequestCount(){
+        return responseTable.size();
+    }
+
     private boolean shouldInvokeLocally(Method method){
         boolean ret = false;
 
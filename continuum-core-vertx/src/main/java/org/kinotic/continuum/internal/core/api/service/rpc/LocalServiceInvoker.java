@@ -0,0 +1,253 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.rpc;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.api.exceptions.RpcTimeoutException;
+import org.kinotic.continuum.api.security.Participant;
+import org.kinotic.continuum.core.api.service.ServiceIdentifier;
+import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
+import org.kinotic.continuum.internal.core.api.service.invoker.ServiceInvocationSupervisor;
+import org.kinotic.continuum.internal.utils.MetaUtil;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Invokes services that are registered in the same JVM as a {@link DefaultRpcServiceProxyHandle} directly.
+ * This skips converting the arguments, sending the invocation over the event bus, and converting the result.
+ * A proxy method is only invoked locally when it is compatible with the service method, otherwise the invocation is left to the event bus.
+ * The value returned to the caller is the same type of reactive value that would be returned for a remote invocation.
+ * Invocations are dispatched by the {@link ServiceInvocationSupervisor}, so they are subject to the same bulkheads and threading as remote invocations,
+ * and single value results are subject to the same request timeout.
+ */
+public class LocalServiceInvoker {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalServiceInvoker.class);
+
+    private final Function<ServiceIdentifier, ServiceInvocationSupervisor> supervisorResolver;
+    private final ObjectMapper objectMapper;
+    private final ReactiveAdapterRegistry reactiveAdapterRegistry;
+    private final Participant participant;
+    private final boolean deepCopy;
+    private final ConcurrentHashMap<Method, LocalMethodBinding> bindings = new ConcurrentHashMap<>();
+
+    /**
+     * @param supervisorResolver returns the {@link ServiceInvocationSupervisor} for a {@link ServiceIdentifier}, or null if the service is not registered in this JVM
+     * @param objectMapper used to deep copy arguments and results
+     * @param reactiveAdapterRegistry used to adapt service results to the proxy return type
+     * @param participant provided to service methods that have a {@link Participant} parameter
+     * @param deepCopy true if arguments and results should be deep copied, false to pass them by reference
+     */
+    public LocalServiceInvoker(Function<ServiceIdentifier, ServiceInvocationSupervisor> supervisorResolver,
+                               ObjectMapper objectMapper,
+                               ReactiveAdapterRegistry reactiveAdapterRegistry,
+                               Participant participant,
+                               boolean deepCopy) {
+        Validate.notNull(supervisorResolver, "supervisorResolver must not be null");
+        Validate.notNull(objectMapper, "objectMapper must not be null");
+        Validate.notNull(reactiveAdapterRegistry, "reactiveAdapterRegistry must not be null");
+        Validate.notNull(participant, "participant must not be null");
+
+        this.supervisorResolver = supervisorResolver;
+        this.objectMapper = objectMapper;
+        this.reactiveAdapterRegistry = reactiveAdapterRegistry;
+        this.participant = participant;
+        this.deepCopy = deepCopy;
+    }
+
+    /**
+     * Invokes the service method for the given proxy method, if the service is active in this JVM.
+     *
+     * @param serviceIdentifier of the service to invoke, including the scope if one was provided
+     * @param proxyMethod the method invoked on the proxy
+     * @param args the arguments provided to the proxy, without the scope argument
+     * @param timeout in milliseconds for a single value result, or 0 for no timeout. Streaming results are never subject to the timeout.
+     * @return the value to return from the proxy, or null if the invocation could not be performed locally and must be sent over the event bus
+     */
+    public Object invoke(ServiceIdentifier serviceIdentifier, Method proxyMethod, Object[] args, long timeout) {
+        Object ret = null;
+        ServiceInvocationSupervisor supervisor = supervisorResolver.apply(serviceIdentifier);
+        if(supervisor != null && supervisor.isActive()){
+
+            HandlerMethod handlerMethod = supervisor.findHandlerMethod(proxyMethod.getName());
+            if(handlerMethod != null){
+
+                // bindings are recreated if the service was registered again since the binding was created
+                LocalMethodBinding binding = bindings.get(proxyMethod);
+                if(binding == null || binding.handlerMethod != handlerMethod){
+                    binding = new LocalMethodBinding(proxyMethod, supervisor, handlerMethod);
+                    bindings.put(proxyMethod, binding);
+                }
+
+                if(binding.compatible){
+                    ret = binding.invoke(args, timeout);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Precomputes everything needed to invoke a {@link HandlerMethod} for a proxy {@link Method}
+     */
+    private class LocalMethodBinding {
+
+        private final Method proxyMethod;
+        private final ServiceInvocationSupervisor supervisor;
+        private final HandlerMethod handlerMethod;
+        private final boolean compatible;
+        private boolean[] participantParameters;
+        private JavaType[] argumentTypes;
+        private ReactiveAdapter proxyReturnAdapter;
+        private JavaType resultType;
+        private boolean ignoreResult;
+
+        public LocalMethodBinding(Method proxyMethod, ServiceInvocationSupervisor supervisor, HandlerMethod handlerMethod) {
+            this.proxyMethod = proxyMethod;
+            this.supervisor = supervisor;
+            this.handlerMethod = handlerMethod;
+            this.compatible = bindParameters(proxyMethod) && bindReturnType(proxyMethod);
+            if(!compatible && log.isDebugEnabled()){
+                log.debug("Proxy method {} is not compatible with service method {}. The event bus will be used for invocations.",
+                          proxyMethod, handlerMethod);
+            }
+        }
+
+        private boolean bindParameters(Method proxyMethod){
+            // The scope argument is not sent to the service, it is only used to select the service instance
+            Class<?>[] proxyParameterTypes = proxyMethod.getParameterTypes();
+            Integer scopeParameter = MetaUtil.findParameterIndexWithScopeAnnotation(proxyMethod);
+            if(scopeParameter != null){
+                proxyParameterTypes = ArrayUtils.remove(proxyParameterTypes, scopeParameter);
+            }
+
+            MethodParameter[] parameters = handlerMethod.getMethodParameters();
+            participantParameters = new boolean[parameters.length];
+            argumentTypes = new JavaType[proxyParameterTypes.length];
+
+            int argIndex = 0;
+            for(int i = 0; i < parameters.length; i++){
+                MethodParameter parameter = parameters[i];
+                if(Participant.class.isAssignableFrom(parameter.getParameterType())){
+                    participantParameters[i] = true;
+                    continue;
+                }
+
+                if(argIndex >= proxyParameterTypes.length
+                        || reactiveAdapterRegistry.getAdapter(parameter.getParameterType()) != null){
+                    return false;
+                }
+
+                if(deepCopy){
+                    argumentTypes[argIndex] = objectMapper.constructType(GenericTypeResolver.resolveType(parameter.getGenericParameterType(),
+                                                                                                         parameter.getContainingClass()));
+                }else if(!ClassUtils.isAssignable(parameter.getParameterType(), proxyParameterTypes[argIndex])){
+                    return false;
+                }
+                argIndex++;
+            }
+            return argIndex == proxyParameterTypes.length;
+        }
+
+        private boolean bindReturnType(Method proxyMethod){
+            proxyReturnAdapter = reactiveAdapterRegistry.getAdapter(proxyMethod.getReturnType());
+            if(proxyReturnAdapter == null){
+                return false;
+            }
+
+            MethodParameter proxyResult = new MethodParameter(proxyMethod, -1).nested();
+            Class<?> proxyResultClass = proxyResult.getNestedParameterType();
+            ignoreResult = Void.class.equals(proxyResultClass);
+
+            boolean ret = true;
+            if(!ignoreResult){
+                if(deepCopy){
+                    resultType = objectMapper.constructType(proxyResult.getNestedGenericParameterType());
+                }else{
+                    MethodParameter serviceResult = handlerMethod.getReturnType();
+                    if(reactiveAdapterRegistry.getAdapter(serviceResult.getParameterType()) != null){
+                        serviceResult = serviceResult.nested();
+                    }
+                    ret = ClassUtils.isAssignable(proxyResultClass, serviceResult.getNestedParameterType());
+                }
+            }
+            return ret;
+        }
+
+        public Object invoke(Object[] args, long timeout){
+            Object[] serviceArgs = new Object[participantParameters.length];
+            int argIndex = 0;
+            for(int i = 0; i < serviceArgs.length; i++){
+                if(participantParameters[i]){
+                    serviceArgs[i] = participant;
+                }else{
+                    Object arg = args[argIndex];
+                    // arguments are copied before returning, just like a remote invocation converts them before returning
+                    serviceArgs[i] = deepCopy ? objectMapper.convertValue(arg, argumentTypes[argIndex]) : arg;
+                    argIndex++;
+                }
+            }
+
+            Publisher<Object> publisher;
+            if(proxyReturnAdapter.isMultiValue()){
+                Flux<Object> flux = supervisor.invokeLocally(handlerMethod, serviceArgs);
+                if(ignoreResult){
+                    flux = Flux.from(flux.ignoreElements());
+                }else if(deepCopy){
+                    flux = flux.map(this::copyResult);
+                }
+                publisher = flux;
+            }else{
+                Mono<Object> mono = Mono.from(supervisor.invokeLocally(handlerMethod, serviceArgs));
+                if(ignoreResult){
+                    mono = mono.ignoreElement();
+                }else if(deepCopy){
+                    mono = mono.map(this::copyResult);
+                }
+                if(timeout > 0){
+                    mono = mono.timeout(Duration.ofMillis(timeout),
+                                        Mono.error(() -> new RpcTimeoutException("No response received for " + proxyMethod.getDeclaringClass().getSimpleName()
+                                                                                       + "." + proxyMethod.getName() + " within the request timeout")));
+                }
+                publisher = mono;
+            }
+            return proxyReturnAdapter.fromPublisher(publisher);
+        }
+
+        private Object copyResult(Object result){
+            return objectMapper.convertValue(result, resultType);
+        }
+    }
+
+}
@@ -0,0 +1,418 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.rpc;
+
+import io.vertx.core.Vertx;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tracks outstanding RPC requests by correlation id, and expires requests that do not receive a response in time.
+ * Correlation ids are monotonically increasing longs, so they are cheap to create and to parse from the correlation header.
+ * The entries are held in striped open addressing tables keyed by the primitive id, to avoid boxing and string hashing on every request.
+ * Timeouts are tracked with a hashed wheel that is advanced by a single vertx periodic timer, so no timer is created per request.
+ *
+ * @param <V> the type of value stored for each request
+ */
+public class RpcCorrelationTable<V> {
+
+    private static final int STRIPES = 16;
+    private static final int WHEEL_SIZE = 512;
+    private static final long DEFAULT_TICK_MILLIS = 100;
+
+    private final String name;
+    private final Vertx vertx;
+    private final long defaultTimeout;
+    private final long tickMillis;
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Stripe<V>[] stripes;
+    private final Entry<?>[] wheel = new Entry<?>[WHEEL_SIZE];
+    private final long timerId;
+
+    private long currentTick = 0;
+    private volatile Runnable closeHandler;
+
+    /**
+     * Creates a table that does not expire requests
+     * @param name used to identify the table in metrics
+     */
+    public RpcCorrelationTable(String name) {
+        this(name, null, 0);
+    }
+
+    /**
+     * @param name used to identify the table in metrics
+     * @param vertx used to advance the timeout wheel, or null if requests should not expire
+     * @param defaultTimeout the timeout in milliseconds used when a request does not provide one, or 0 for no timeout
+     */
+    public RpcCorrelationTable(String name, Vertx vertx, long defaultTimeout) {
+        this(name, vertx, defaultTimeout, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param name used to identify the table in metrics
+     * @param vertx used to advance the timeout wheel, or null if requests should not expire
+     * @param defaultTimeout the timeout in milliseconds used when a request does not provide one, or 0 for no timeout
+     * @param tickMillis the resolution of timeouts in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public RpcCorrelationTable(String name, Vertx vertx, long defaultTimeout, long tickMillis) {
+        Validate.notNull(name, "name must not be null");
+        Validate.isTrue(tickMillis > 0, "tickMillis must be greater than 0");
+        this.name = name;
+        this.vertx = vertx;
+        this.defaultTimeout = Math.max(0, defaultTimeout);
+        this.tickMillis = tickMillis;
+        this.stripes = new Stripe[STRIPES];
+        for(int i = 0; i < STRIPES; i++){
+            stripes[i] = new Stripe<>();
+        }
+        this.timerId = vertx != null ? vertx.setPeriodic(tickMillis, id -> tick()) : -1;
+    }
+
+    /**
+     * @return the name of this table
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the timeout in milliseconds used when a request does not provide one, or 0 if requests do not expire
+     */
+    public long getDefaultTimeout() {
+        return vertx != null ? defaultTimeout : 0;
+    }
+
+    /**
+     * @return a new correlation id, that is unique for this table
+     */
+    public long nextId(){
+        // zero is used to mark empty slots
+        return nextId.incrementAndGet();
+    }
+
+    /**
+     * Adds a request to this table
+     * @param id of the request created with {@link #nextId()}
+     * @param value to store for the request
+     * @param timeout in milliseconds, 0 for no timeout, or a negative value to use the default timeout
+     * @param timeoutHandler called with the value if the request expires, the value is removed from the table before this is called
+     */
+    public void put(long id, V value, long timeout, Consumer<? super V> timeoutHandler){
+        Validate.isTrue(id > 0, "id must be greater than 0");
+        Validate.notNull(value, "value must not be null");
+        Entry<V> entry = new Entry<>(id, value, timeoutHandler);
+        stripe(id).put(entry);
+
+        long actualTimeout = timeout < 0 ? defaultTimeout : timeout;
+        if(vertx != null && actualTimeout > 0 && timeoutHandler != null){
+            schedule(entry, actualTimeout);
+        }
+    }
+
+    /**
+     * @return the value for the given id or null if there is none
+     */
+    public V get(long id){
+        Entry<V> entry = stripe(id).get(id);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Removes the request with the given id, cancelling its timeout
+     * @return the value removed or null if there is none
+     */
+    public V remove(long id){
+        Entry<V> entry = stripe(id).remove(id);
+        V ret = null;
+        if(entry != null){
+            unschedule(entry);
+            ret = entry.value;
+        }
+        return ret;
+    }
+
+    /**
+     * @return the number of outstanding requests
+     */
+    public int size(){
+        int ret = 0;
+        for(Stripe<V> stripe : stripes){
+            ret += stripe.size();
+        }
+        return ret;
+    }
+
+    /**
+     * @return the number of requests that have expired since this table was created
+     */
+    public long getTimeoutCount(){
+        return timeoutCount.get();
+    }
+
+    public boolean isClosed(){
+        return closed.get();
+    }
+
+    /**
+     * @param closeHandler called once this table is closed, after all requests have been removed
+     */
+    public void setCloseHandler(Runnable closeHandler){
+        this.closeHandler = closeHandler;
+    }
+
+    /**
+     * Removes all requests from this table and stops expiring requests
+     * @param consumer called for every request that was removed
+     */
+    public void close(Consumer<? super V> consumer){
+        if(closed.compareAndSet(false, true)){
+            if(vertx != null){
+                vertx.cancelTimer(timerId);
+            }
+            for(Stripe<V> stripe : stripes){
+                for(Entry<V> entry : stripe.clear()){
+                    unschedule(entry);
+                    consumer.accept(entry.value);
+                }
+            }
+            Runnable handler = closeHandler;
+            if(handler != null){
+                handler.run();
+            }
+        }
+    }
+
+    private Stripe<V> stripe(long id){
+        return stripes[(int) (id & (STRIPES - 1))];
+    }
+
+    private void schedule(Entry<V> entry, long timeout){
+        synchronized (wheel){
+            // round up and skip the current tick, which has already partly elapsed, so a request never expires early
+            entry.deadline = currentTick + 1 + ((timeout + tickMillis - 1) / tickMillis);
+            int bucket = (int) (entry.deadline & (WHEEL_SIZE - 1));
+            entry.bucket = bucket;
+            entry.next = wheel[bucket];
+            if(entry.next != null){
+                entry.next.prev = entry;
+            }
+            wheel[bucket] = entry;
+        }
+    }
+
+    private void unschedule(Entry<?> entry){
+        if(entry.bucket >= 0){
+            synchronized (wheel){
+                unlink(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry<?> entry){
+        if(entry.bucket >= 0){
+            if(entry.prev != null){
+                entry.prev.next = entry.next;
+            }else{
+                wheel[entry.bucket] = entry.next;
+            }
+            if(entry.next != null){
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = -1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void tick(){
+        List<Entry<V>> expired = null;
+        synchronized (wheel){
+            currentTick++;
+            Entry<?> entry = wheel[(int) (currentTick & (WHEEL_SIZE - 1))];
+            while(entry != null){
+                Entry<?> next = entry.next;
+                // entries for later rounds of the wheel share the bucket
+                if(entry.deadline <= currentTick){
+                    unlink(entry);
+                    if(expired == null){
+                        expired = new ArrayList<>();
+                    }
+                    expired.add((Entry<V>) entry);
+                }
+                entry = next;
+            }
+        }
+        if(expired != null){
+            for(Entry<V> entry : expired){
+                // only expire if a response did not remove the entry in the meantime
+                if(stripe(entry.id).remove(entry.id) == entry){
+                    timeoutCount.incrementAndGet();
+                    entry.timeoutHandler.accept(entry.value);
+                }
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final long id;
+        private final V value;
+        private final Consumer<? super V> timeoutHandler;
+        // the following are guarded by the wheel lock
+        private long deadline;
+        private int bucket = -1;
+        private Entry<?> prev;
+        private Entry<?> next;
+
+        public Entry(long id, V value, Consumer<? super V> timeoutHandler) {
+            this.id = id;
+            this.value = value;
+            this.timeoutHandler = timeoutHandler;
+        }
+    }
+
+    /**
+     * Open addressing hash table with linear probing, keyed by the primitive id
+     */
+    private static class Stripe<V> {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Entry<V>[] values = newArray(INITIAL_CAPACITY);
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        private static <V> Entry<V>[] newArray(int capacity){
+            return (Entry<V>[]) new Entry[capacity];
+        }
+
+        private static int hash(long id, int mask){
+            // ids are sequential within a stripe apart from the stripe bits, so mix them to spread clusters
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        public synchronized int size(){
+            return size;
+        }
+
+        public synchronized void put(Entry<V> entry){
+            if((size + 1) * 2 > keys.length){
+                resize(keys.length * 2);
+            }
+            insert(entry);
+            size++;
+        }
+
+        public synchronized Entry<V> get(long id){
+            int mask = keys.length - 1;
+            int index = hash(id, mask);
+            while(keys[index] != 0){
+                if(keys[index] == id){
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        public synchronized Entry<V> remove(long id){
+            int mask = keys.length - 1;
+            int index = hash(id, mask);
+            while(keys[index] != 0){
+                if(keys[index] == id){
+                    Entry<V> ret = values[index];
+                    shiftBack(index, mask);
+                    size--;
+                    return ret;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        public synchronized List<Entry<V>> clear(){
+            List<Entry<V>> ret = new ArrayList<>(size);
+            for(Entry<V> entry : values){
+                if(entry != null){
+                    ret.add(entry);
+                }
+            }
+            keys = new long[INITIAL_CAPACITY];
+            values = newArray(INITIAL_CAPACITY);
+            size = 0;
+            return ret;
+        }
+
+        private void insert(Entry<V> entry){
+            int mask = keys.length - 1;
+            int index = hash(entry.id, mask);
+            while(keys[index] != 0){
+                if(keys[index] == entry.id){
+                    throw new IllegalStateException("Duplicate correlation id " + entry.id);
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = entry.id;
+            values[index] = entry;
+        }
+
+        /**
+         * Removes the slot at the given index, and moves any following entries of the probe sequence back so no tombstones are needed
+         */
+        private void shiftBack(int index, int mask){
+            int free = index;
+            int current = (index + 1) & mask;
+            while(keys[current] != 0){
+                int home = hash(keys[current], mask);
+                // move the entry if its home slot is not between the free slot and its current slot (cyclically)
+                if(((current - home) & mask) >= ((current - free) & mask)){
+                    keys[free] = keys[current];
+                    values[free] = values[current];
+                    free = current;
+                }
+                current = (current + 1) & mask;
+            }
+            keys[free] = 0;
+            values[free] = null;
+        }
+
+        private void resize(int capacity){
+            long[] oldKeys = keys;
+            Entry<V>[] oldValues = values;
+            keys = new long[capacity];
+            values = newArray(capacity);
+            for(int i = 0; i < oldKeys.length; i++){
+                if(oldKeys[i] != 0){
+                    insert(oldValues[i]);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.service.rpc;
+
+import io.vertx.core.Vertx;
+import org.apache.commons.lang3.Validate;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventBusService;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.utils.EventUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Combines RPC request {@link Event}s sent to the same service into a single batch {@link Event}.
+ * A batch is sent once it reaches the maximum size or the first request in the batch has waited for the batch delay.
+ * All requests must share the same sender, reply-to and content type headers, which is the case for all requests sent by a single proxy.
+ */
+public class RpcRequestBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RpcRequestBatcher.class);
+
+    /**
+     * Headers that are sent once for the whole batch
+     */
+    private static final Set<String> SHARED_HEADERS = Set.of(EventConstants.SENDER_HEADER,
+                                                             EventConstants.REPLY_TO_HEADER,
+                                                             EventConstants.CONTENT_TYPE_HEADER);
+
+    private final EventBusService eventBusService;
+    private final Vertx vertx;
+    private final int maxSize;
+    private final long delay;
+    /**
+     * Batches being filled keyed by the base resource of the service they will be sent to
+     */
+    private final Map<String, PendingBatch> pendingBatches = new HashMap<>();
+
+    public RpcRequestBatcher(EventBusService eventBusService, Vertx vertx, int maxSize, long delay) {
+        Validate.notNull(eventBusService, "eventBusService must not be null");
+        Validate.notNull(vertx, "vertx must not be null");
+        Validate.isTrue(maxSize > 0, "maxSize must be greater than 0");
+        this.eventBusService = eventBusService;
+        this.vertx = vertx;
+        this.maxSize = maxSize;
+        this.delay = Math.max(1, delay);
+    }
+
+    /**
+     * Adds the request to a batch
+     * @param requestEvent the request to send
+     * @param errorHandler called if the batch containing the request could not be delivered
+     */
+    public void send(Event<byte[]> requestEvent, Consumer<Throwable> errorHandler){
+        String destination = requestEvent.cri().baseResource();
+        PendingBatch toSend = null;
+        synchronized (pendingBatches){
+            PendingBatch batch = pendingBatches.get(destination);
+            if(batch == null){
+                batch = new PendingBatch(destination, requestEvent.metadata());
+                pendingBatches.put(destination, batch);
+                PendingBatch scheduled = batch;
+                batch.timerId = vertx.setTimer(delay, id -> flush(scheduled));
+            }
+            batch.add(requestEvent, errorHandler);
+            if(batch.events.size() >= maxSize){
+                pendingBatches.remove(destination);
+                vertx.cancelTimer(batch.timerId);
+                toSend = batch;
+            }
+        }
+        if(toSend != null){
+            sendBatch(toSend);
+        }
+    }
+
+    private void flush(PendingBatch batch){
+        boolean removed;
+        synchronized (pendingBatches){
+            removed = pendingBatches.remove(batch.destination, batch);
+        }
+        if(removed){
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(PendingBatch batch){
+        Event<byte[]> batchEvent;
+        if(batch.events.size() == 1){
+            // no need for the batch framing
+            batchEvent = batch.original;
+        }else{
+            batchEvent = EventUtil.createBatchEvent(batch.destination, batch.sharedHeaders, batch.events);
+        }
+        eventBusService.sendWithAck(batchEvent)
+                       .subscribe(v -> {},
+                                  throwable -> {
+                                      for(Consumer<Throwable> errorHandler : batch.errorHandlers){
+                                          try {
+                                              errorHandler.accept(throwable);
+                                          } catch (Exception e) {
+                                              log.error("Unhandled exception in batch error handler", e);
+                                          }
+                                      }
+                                  });
+    }
+
+    private static class PendingBatch {
+        private final String destination;
+        private final Metadata sharedHeaders = Metadata.create();
+        private final List<Event<byte[]>> events = new ArrayList<>();
+        private final List<Consumer<Throwable>> errorHandlers = new ArrayList<>();
+        private Event<byte[]> original;
+        private long timerId;
+
+        public PendingBatch(String destination, Metadata firstMetadata) {
+            this.destination = destination;
+            for(String header : SHARED_HEADERS){
+                String value = firstMetadata.get(header);
+                if(value != null){
+                    sharedHeaders.put(header, value);
+                }
+            }
+        }
+
+        public void add(Event<byte[]> requestEvent, Consumer<Throwable> errorHandler){
+            if(original == null){
+                original = requestEvent;
+            }
+            Metadata metadata = requestEvent.metadata().copy();
+            for(String header : SHARED_HEADERS){
+                metadata.remove(header);
+            }
+            events.add(Event.create(requestEvent.cri(), metadata, requestEvent.data()));
+            errorHandlers.add(errorHandler);
+        }
+    }
+
+}
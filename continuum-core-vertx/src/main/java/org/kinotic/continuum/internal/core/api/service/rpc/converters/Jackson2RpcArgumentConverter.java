@@ -17,15 +17,14 @@
 
 package org.kinotic.continuum.internal.core.api.service.rpc.converters;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.kinotic.continuum.api.config.ContinuumProperties;
 import org.kinotic.continuum.internal.core.api.service.json.AbstractJackson2Support;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
 import org.kinotic.continuum.internal.core.api.service.rpc.RpcArgumentConverter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ReactiveAdapterRegistry;
-import org.springframework.core.codec.EncodingException;
 import org.springframework.stereotype.Component;
-import org.springframework.util.MimeTypeUtils;
 
 import java.lang.reflect.Method;
 
@@ -36,15 +35,24 @@ import java.lang.reflect.Method;
 @Component
 public class Jackson2RpcArgumentConverter extends AbstractJackson2Support implements RpcArgumentConverter {
 
+    @Autowired
     public Jackson2RpcArgumentConverter(ObjectMapper objectMapper,
                                         ReactiveAdapterRegistry reactiveAdapterRegistry,
                                         ContinuumProperties continuumProperties) {
         super(objectMapper, reactiveAdapterRegistry, continuumProperties);
     }
 
+    public Jackson2RpcArgumentConverter(JacksonFormat format,
+                                        ObjectMapper formatObjectMapper,
+                                        ObjectMapper jsonObjectMapper,
+                                        ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                        ContinuumProperties continuumProperties) {
+        super(format, formatObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
     @Override
     public String producesContentType() {
-        return MimeTypeUtils.APPLICATION_JSON_VALUE;
+        return getFormat().contentType();
     }
 
     @Override
@@ -52,13 +60,7 @@ public class Jackson2RpcArgumentConverter extends AbstractJackson2Support implem
         byte[] ret;
 
         if(args != null && args.length > 0){
-            try {
-
-                ret = getObjectMapper().writeValueAsBytes(args);
-
-            } catch (JsonProcessingException e) {
-                throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
-            }
+            ret = encode(args);
         }else{
             ret = new byte[0];
         }
@@ -21,6 +21,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.kinotic.continuum.api.config.ContinuumProperties;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.internal.core.api.service.json.AbstractJackson2Support;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.kinotic.continuum.internal.core.api.service.rpc.RpcResponseConverter;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ReactiveAdapterRegistry;
@@ -34,15 +36,24 @@ import org.springframework.util.Assert;
 @Component
 public class Jackson2RpcResponseConverter extends AbstractJackson2Support implements RpcResponseConverter {
 
+    @Autowired
     public Jackson2RpcResponseConverter(ObjectMapper objectMapper,
                                         ReactiveAdapterRegistry reactiveAdapterRegistry,
                                         ContinuumProperties continuumProperties) {
         super(objectMapper, reactiveAdapterRegistry, continuumProperties);
     }
 
+    public Jackson2RpcResponseConverter(JacksonFormat format,
+                                        ObjectMapper formatObjectMapper,
+                                        ObjectMapper jsonObjectMapper,
+                                        ReactiveAdapterRegistry reactiveAdapterRegistry,
+                                        ContinuumProperties continuumProperties) {
+        super(format, formatObjectMapper, jsonObjectMapper, reactiveAdapterRegistry, continuumProperties);
+    }
+
     @Override
     public boolean supports(Event<byte[]> responseEvent, MethodParameter methodParameter) {
-        return containsJsonContent(responseEvent.metadata());
+        return containsSupportedContent(responseEvent.metadata());
     }
 
     @Override
@@ -53,17 +64,7 @@ public class Jackson2RpcResponseConverter extends AbstractJackson2Support implem
 
             Assert.notNull(methodParameter, "The return type is null but event data was found");
 
-            Object[] temp = createJavaObjectsFromJsonEvent(responseEvent, new MethodParameter[]{methodParameter}, false);
-
-            // We know no more than a single response can be returned because of check above
-            // however we want to verify we got at least one
-            if(temp.length == 1){
-
-                ret = temp[0];
-
-            }else if(temp.length == 0){
-                throw new IllegalStateException("Event data was present but no values could be converted");
-            }
+            ret = createJavaObjectFromEvent(responseEvent, methodParameter);
         }
         return ret;
     }
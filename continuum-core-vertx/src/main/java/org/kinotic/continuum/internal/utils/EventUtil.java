@@ -31,7 +31,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeTypeUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -108,15 +115,88 @@ public class EventUtil {
         }
 
         // we must persist any headers that begin with __
-        for(Map.Entry<String, String> entry: incomingMetadata){
-            if(entry.getKey().startsWith("__")) {
-                newMetadata.put(entry.getKey(), entry.getValue());
+        incomingMetadata.forEachHeader((key, value) -> {
+            if(key.startsWith("__")) {
+                newMetadata.put(key, value);
             }
-        }
+        });
 
         return Event.create(replyCRI, newMetadata, bodySupplier != null ?  bodySupplier.get() : null);
     }
 
+    /**
+     * Creates a single {@link Event} containing all the given events.
+     * Each event is framed as its cri, its metadata and its data, the resulting event carries the given headers and a {@link EventConstants#BATCH_HEADER}
+     * @param cri the raw cri the batch event will be sent to
+     * @param headers that apply to all events in the batch
+     * @param events to include in the batch
+     * @return the batch {@link Event}
+     */
+    public static Event<byte[]> createBatchEvent(String cri, Metadata headers, List<Event<byte[]>> events){
+        Validate.notNull(headers, "headers cannot be null");
+        Validate.notEmpty(events, "events cannot be empty");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(events.size() * 128);
+        try(DataOutputStream out = new DataOutputStream(bytes)){
+            out.writeInt(events.size());
+            for(Event<byte[]> event : events){
+                out.writeUTF(event.cri().raw());
+                out.writeShort(event.metadata().size());
+                for(Map.Entry<String, String> entry : event.metadata()){
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+                byte[] data = event.data();
+                if(data != null){
+                    out.writeInt(data.length);
+                    out.write(data);
+                }else{
+                    out.writeInt(-1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        headers.put(EventConstants.BATCH_HEADER, Integer.toString(events.size()));
+        return Event.create(cri, headers, bytes.toByteArray());
+    }
+
+    /**
+     * Extracts the events contained in a batch {@link Event} created by {@link #createBatchEvent(String, Metadata, List)}
+     * @param batchEvent the event containing the batch
+     * @param metadataSupplier provides the {@link Metadata} for each event, the headers of the batch event except the {@link EventConstants#BATCH_HEADER} are added first
+     * @return all the events contained in the batch
+     */
+    public static List<Event<byte[]>> extractBatchEvents(Event<byte[]> batchEvent, Supplier<Metadata> metadataSupplier){
+        Validate.notNull(batchEvent, "batchEvent cannot be null");
+        Validate.notNull(batchEvent.data(), "batchEvent must contain data");
+
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(batchEvent.data()))){
+            int count = in.readInt();
+            List<Event<byte[]>> ret = new ArrayList<>(count);
+            for(int i = 0; i < count; i++){
+                String cri = in.readUTF();
+                Metadata metadata = metadataSupplier.get();
+                batchEvent.metadata().forEachHeader(metadata::put);
+                metadata.remove(EventConstants.BATCH_HEADER);
+                int headerCount = in.readUnsignedShort();
+                for(int h = 0; h < headerCount; h++){
+                    metadata.put(in.readUTF(), in.readUTF());
+                }
+                int length = in.readInt();
+                byte[] data = null;
+                if(length >= 0){
+                    data = new byte[length];
+                    in.readFully(data);
+                }
+                ret.add(Event.create(cri, metadata, data));
+            }
+            return ret;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid batch event data", e);
+        }
+    }
+
     public static String toString(Event<byte[]> event, boolean includeData) {
         StringBuilder sb = new StringBuilder("Event<byte>{\n");
         sb.append("\tcri=");
@@ -0,0 +1,131 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
+import org.kinotic.continuum.internal.core.api.service.json.Jackson2ArgumentDecoder;
+import org.kinotic.continuum.internal.core.api.service.json.JacksonFormat;
+import org.kinotic.continuum.internal.core.api.support.SimpleObject;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests the single pass json argument decoding used by the service invoker
+ */
+public class ArgumentDecoderTests {
+
+    private static final String CRI = "srv://org.kinotic.tests.DecoderService/accept";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testDecodeArguments() {
+        Object[] args = createDecoder("accept").decode(createEvent("[42,\"Hello\",[\"a\",\"b\"]]"));
+
+        Assertions.assertEquals(3, args.length);
+        Assertions.assertEquals(42, args[0]);
+        Assertions.assertEquals("Hello", args[1]);
+        Assertions.assertEquals(List.of("a", "b"), args[2]);
+    }
+
+    @Test
+    public void testDecodeObjectArgument() {
+        Object[] args = createDecoder("acceptObject").decode(createEvent("[{\"firstName\":\"Bob\",\"lastName\":\"Dole\"}]"));
+
+        Assertions.assertEquals(1, args.length);
+        SimpleObject simpleObject = (SimpleObject) args[0];
+        Assertions.assertEquals("Bob", simpleObject.getFirstName());
+        Assertions.assertEquals("Dole", simpleObject.getLastName());
+    }
+
+    @Test
+    public void testDecodeCborArguments() throws Exception {
+        ObjectMapper cborObjectMapper = JacksonFormat.CBOR.createObjectMapper(objectMapper);
+        Method method = ReflectionUtils.findMethod(DecoderService.class, "accept", (Class<?>[]) null);
+        Assertions.assertNotNull(method);
+        Jackson2ArgumentDecoder decoder = new Jackson2ArgumentDecoder(new HandlerMethod(new DecoderService(), method),
+                                                                      cborObjectMapper,
+                                                                      objectMapper,
+                                                                      ReactiveAdapterRegistry.getSharedInstance(),
+                                                                      1024);
+
+        byte[] data = cborObjectMapper.writeValueAsBytes(new Object[]{42, "Hello", List.of("a", "b")});
+        Object[] args = decoder.decode(Event.create(CRI, Metadata.create(), data));
+
+        Assertions.assertEquals(3, args.length);
+        Assertions.assertEquals(42, args[0]);
+        Assertions.assertEquals("Hello", args[1]);
+        Assertions.assertEquals(List.of("a", "b"), args[2]);
+    }
+
+    @Test
+    public void testNoArguments() {
+        Object[] args = createDecoder("noArguments").decode(createEvent(null));
+        Assertions.assertEquals(0, args.length);
+    }
+
+    @Test
+    public void testTooFewArguments() {
+        Jackson2ArgumentDecoder decoder = createDecoder("accept");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.decode(createEvent("[42,\"Hello\"]")));
+    }
+
+    @Test
+    public void testTooManyArguments() {
+        Jackson2ArgumentDecoder decoder = createDecoder("accept");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.decode(createEvent("[42,\"Hello\",[],{\"extra\":true}]")));
+    }
+
+    private Jackson2ArgumentDecoder createDecoder(String methodName){
+        Method method = ReflectionUtils.findMethod(DecoderService.class, methodName, (Class<?>[]) null);
+        Assertions.assertNotNull(method);
+        return new Jackson2ArgumentDecoder(new HandlerMethod(new DecoderService(), method),
+                                           objectMapper,
+                                           ReactiveAdapterRegistry.getSharedInstance(),
+                                           1024);
+    }
+
+    private Event<byte[]> createEvent(String json){
+        return Event.create(CRI, Metadata.create(), json != null ? json.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    @SuppressWarnings("unused")
+    public static class DecoderService {
+
+        public String accept(int intValue, String stringValue, List<String> strings){
+            return stringValue;
+        }
+
+        public SimpleObject acceptObject(SimpleObject simpleObject){
+            return simpleObject;
+        }
+
+        public void noArguments(){
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kinotic.continuum.api.Continuum;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.support.RpcTestServiceProxy;
+import org.kinotic.continuum.internal.utils.EventUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests that batched requests are framed, unpacked and answered correctly, and that every batched reply reaches the request it belongs to
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {"continuum.rpcBatching=true", "continuum.rpcBatchDelay=20"})
+@ActiveProfiles({"test"})
+public class BatchRpcTests {
+
+    private static final int NUMBER_OF_REQUESTS = 200;
+
+    @Autowired
+    private Continuum continuum;
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection") // these are not detected because continuum wires them..
+    @Autowired
+    private RpcTestServiceProxy rpcTestServiceProxy;
+
+    @Test
+    public void testBatchEventRoundTrip(){
+        Metadata sharedHeaders = Metadata.create();
+        sharedHeaders.put(EventConstants.SENDER_HEADER, "sender");
+        sharedHeaders.put(EventConstants.REPLY_TO_HEADER, "srv://reply@test.Service");
+        sharedHeaders.put(EventConstants.CONTENT_TYPE_HEADER, "application/json");
+
+        List<Event<byte[]>> events = new ArrayList<>();
+        for(int i = 0; i < 3; i++){
+            Metadata metadata = Metadata.create();
+            metadata.put(EventConstants.CORRELATION_ID_HEADER, Integer.toString(i));
+            metadata.put("header" + i, "value" + i);
+            events.add(Event.create("srv://test.Service/method" + i, metadata, ("[" + i + "]").getBytes(StandardCharsets.UTF_8)));
+        }
+        // an event without data
+        events.add(Event.create("srv://test.Service/noData", Metadata.create(), null));
+
+        Event<byte[]> batchEvent = EventUtil.createBatchEvent("srv://test.Service", sharedHeaders, events);
+        Assertions.assertEquals("4", batchEvent.metadata().get(EventConstants.BATCH_HEADER));
+
+        List<Event<byte[]>> extracted = EventUtil.extractBatchEvents(batchEvent, Metadata::create);
+        Assertions.assertEquals(events.size(), extracted.size());
+
+        for(int i = 0; i < events.size(); i++){
+            Event<byte[]> expected = events.get(i);
+            Event<byte[]> actual = extracted.get(i);
+            Assertions.assertEquals(expected.cri().raw(), actual.cri().raw());
+            Assertions.assertArrayEquals(expected.data(), actual.data());
+            Assertions.assertFalse(actual.metadata().contains(EventConstants.BATCH_HEADER), "Batch header must not be copied to the batched events");
+
+            // every event gets the shared headers back in addition to its own
+            for(Map.Entry<String, String> entry : sharedHeaders){
+                if(!entry.getKey().equals(EventConstants.BATCH_HEADER)){
+                    Assertions.assertEquals(entry.getValue(), actual.metadata().get(entry.getKey()));
+                }
+            }
+            for(Map.Entry<String, String> entry : expected.metadata()){
+                Assertions.assertEquals(entry.getValue(), actual.metadata().get(entry.getKey()));
+            }
+            Assertions.assertEquals(expected.metadata().size() + 3, actual.metadata().size());
+        }
+    }
+
+    @Test
+    public void testBatchEventHeadersOverrideSharedHeaders(){
+        Metadata sharedHeaders = Metadata.create();
+        sharedHeaders.put(EventConstants.CONTENT_TYPE_HEADER, "application/json");
+
+        Metadata metadata = Metadata.create();
+        metadata.put(EventConstants.CONTENT_TYPE_HEADER, "application/cbor");
+        List<Event<byte[]>> events = List.of(Event.create("srv://test.Service/method", metadata, new byte[0]),
+                                             Event.create("srv://test.Service/method", Metadata.create(), new byte[0]));
+
+        List<Event<byte[]>> extracted = EventUtil.extractBatchEvents(EventUtil.createBatchEvent("srv://test.Service", sharedHeaders, events),
+                                                                     Metadata::create);
+
+        Assertions.assertEquals("application/cbor", extracted.get(0).metadata().get(EventConstants.CONTENT_TYPE_HEADER));
+        Assertions.assertEquals("application/json", extracted.get(1).metadata().get(EventConstants.CONTENT_TYPE_HEADER));
+        Assertions.assertEquals(0, extracted.get(0).data().length);
+    }
+
+    @Test
+    public void testInvalidBatchEventIsRejected(){
+        Metadata headers = Metadata.create();
+        headers.put(EventConstants.BATCH_HEADER, "2");
+        Event<byte[]> batchEvent = Event.create("srv://test.Service", headers, new byte[]{0, 0, 0, 2, 0});
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> EventUtil.extractBatchEvents(batchEvent, Metadata::create));
+    }
+
+    /**
+     * Sends many requests at once, so they are batched by the proxy and answered with batches of replies,
+     * every result must be the one for the arguments of its own request
+     */
+    @Test
+    public void testBatchedRepliesAreCorrelated(){
+        String nodeName = continuum.serverInfo().getNodeName();
+        List<Mono<String>> requests = new ArrayList<>(NUMBER_OF_REQUESTS);
+        List<String> expected = new ArrayList<>(NUMBER_OF_REQUESTS);
+        for(int i = 0; i < NUMBER_OF_REQUESTS; i++){
+            String suffix = "-" + i;
+            requests.add(rpcTestServiceProxy.firstArgParticipant(suffix));
+            expected.add(nodeName + suffix);
+        }
+
+        // all requests are subscribed to at once, so they are sent within the batch delay
+        StepVerifier.create(Flux.mergeSequential(requests, NUMBER_OF_REQUESTS, 1).collectList())
+                    .expectNext(expected)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(30));
+    }
+
+    /**
+     * A failed request must only fail its own caller, even when its error is returned in the same batch as successful replies
+     */
+    @Test
+    public void testErrorInBatchOnlyFailsItsRequest(){
+        Mono<List<String>> successes = Flux.mergeSequential(List.of(rpcTestServiceProxy.getMonoWithValue(),
+                                                                    rpcTestServiceProxy.getMonoWithValue()))
+                                           .collectList();
+
+        StepVerifier.create(Mono.zip(successes, rpcTestServiceProxy.getMissingRemoteMethodFailure()
+                                                                   .map(value -> "unexpected")
+                                                                   .onErrorResume(throwable -> Mono.just("failed"))))
+                    .assertNext(tuple -> {
+                        Assertions.assertEquals(List.of("Hello Bob", "Hello Bob"), tuple.getT1());
+                        Assertions.assertEquals("failed", tuple.getT2());
+                    })
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(30));
+    }
+
+}
@@ -20,10 +20,11 @@ package org.kinotic.continuum.internal.core.api;
 import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.EventConstants;
 import org.apache.commons.lang3.Validate;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
- * CRI's internally are implemented using the Java URI class, so we don't need to verify the logic there.
+ * CRI's are parsed by slicing the raw string, the results must be the same as parsing the raw string as a URI.
  * Created by navid on 1/23/20
  */
 public class CRITests {
@@ -55,6 +56,31 @@ public class CRITests {
         validateCRI(CRI.create(SERVICE_LITERAL2), true);
     }
 
+    @Test
+    public void testPathAndBaseResource(){
+        CRI cri = CRI.create(EventConstants.SERVICE_DESTINATION_SCHEME, SERVICE_SCOPE, SERVICE_NAME, "/getFreeMemory", SERVICE_VERSION);
+
+        Assertions.assertEquals(SERVICE_LITERAL2.replace("#", "/getFreeMemory#"), cri.raw());
+        Assertions.assertEquals("/getFreeMemory", cri.path());
+        Assertions.assertEquals(EventConstants.SERVICE_DESTINATION_SCHEME + "://" + SERVICE_SCOPE + "@" + SERVICE_NAME, cri.baseResource());
+        Assertions.assertEquals(cri, CRI.create(cri.raw()));
+        Assertions.assertEquals(cri.hashCode(), CRI.create(cri.raw()).hashCode());
+    }
+
+    @Test
+    public void testNoPath(){
+        CRI cri = CRI.create(SERVICE_LITERAL1);
+        Assertions.assertFalse(cri.hasPath());
+        Assertions.assertFalse(cri.hasScope());
+        Assertions.assertNull(cri.path());
+        Assertions.assertEquals(EventConstants.SERVICE_DESTINATION_SCHEME + "://" + SERVICE_NAME, cri.baseResource());
+    }
+
+    @Test
+    public void testInvalidCRI(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CRI.create(SERVICE_NAME));
+    }
+
 
 
 
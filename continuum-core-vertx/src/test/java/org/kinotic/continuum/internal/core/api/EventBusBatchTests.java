@@ -0,0 +1,163 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kinotic.continuum.core.api.event.BatchOptions;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventBusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the chunking and acknowledgement of {@link EventBusService#sendStream(org.reactivestreams.Publisher, BatchOptions)}
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles({"test"})
+public class EventBusBatchTests {
+
+    @Autowired
+    private EventBusService eventBusService;
+    @Autowired
+    private Vertx vertx;
+
+    /**
+     * Every event must be requested, since each listener of an address only receives some of the events
+     */
+    @Test
+    public void testEveryEventIsAcknowledgedByItsListener(){
+        String destination = createDestination();
+        AtomicInteger requests = new AtomicInteger();
+        MessageConsumer<Object> first = acknowledgingConsumer(destination, requests);
+        MessageConsumer<Object> second = acknowledgingConsumer(destination, requests);
+        try {
+            StepVerifier.create(eventBusService.sendStream(createEvents(destination, 2500),
+                                                           BatchOptions.create().setChunkSize(1000)))
+                        .expectNext(1000, 1000, 500)
+                        .expectComplete()
+                        .verify(Duration.ofSeconds(30));
+
+            Assertions.assertEquals(2500, requests.get());
+        } finally {
+            first.unregister();
+            second.unregister();
+        }
+    }
+
+    @Test
+    public void testPartialChunkIsSentAfterTimeout(){
+        String destination = createDestination();
+        AtomicInteger requests = new AtomicInteger();
+        MessageConsumer<Object> consumer = acknowledgingConsumer(destination, requests);
+        try {
+            // the publisher never completes, so the chunk can only be sent once the chunk timeout has passed
+            Flux<Event<byte[]>> events = Flux.concat(createEvents(destination, 3), Flux.never());
+            StepVerifier.create(eventBusService.sendStream(events,
+                                                           BatchOptions.create()
+                                                                       .setChunkSize(1000)
+                                                                       .setChunkTimeout(Duration.ofMillis(100))))
+                        .expectNext(3)
+                        .thenCancel()
+                        .verify(Duration.ofSeconds(30));
+
+            Assertions.assertEquals(3, requests.get());
+        } finally {
+            consumer.unregister();
+        }
+    }
+
+    @Test
+    public void testUnacknowledgedEventFailsTheStream(){
+        // nobody listens to this destination
+        StepVerifier.create(eventBusService.sendStream(createEvents(createDestination(), 10),
+                                                       BatchOptions.create().setChunkSize(5)))
+                    .expectError(ReplyException.class)
+                    .verify(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testChunksInFlightAreLimited(){
+        String destination = createDestination();
+        AtomicInteger received = new AtomicInteger();
+        // never acknowledges, so no chunk completes
+        MessageConsumer<Object> consumer = awaitRegistration(vertx.eventBus().consumer(destination, message -> received.incrementAndGet()));
+        AtomicInteger emitted = new AtomicInteger();
+        Disposable disposable = null;
+        try {
+            disposable = eventBusService.sendStream(createEvents(destination, 1000).doOnNext(event -> emitted.incrementAndGet()),
+                                                    BatchOptions.create()
+                                                                .setChunkSize(10)
+                                                                .setMaxChunksInFlight(2))
+                                        .subscribe();
+
+            Awaitility.await().atMost(Duration.ofSeconds(10)).until(() -> received.get() == 20);
+            // give the publisher a chance to emit more than it should
+            Awaitility.await().pollDelay(Duration.ofMillis(500)).until(() -> true);
+
+            Assertions.assertEquals(20, received.get());
+            Assertions.assertTrue(emitted.get() <= 40, "Events were requested beyond the chunks in flight, emitted " + emitted.get());
+        } finally {
+            if(disposable != null){
+                disposable.dispose();
+            }
+            consumer.unregister();
+        }
+    }
+
+    private MessageConsumer<Object> acknowledgingConsumer(String destination, AtomicInteger requests){
+        return awaitRegistration(vertx.eventBus().consumer(destination, message -> {
+            if(message.replyAddress() != null){
+                requests.incrementAndGet();
+                message.reply(null);
+            }
+        }));
+    }
+
+    private static MessageConsumer<Object> awaitRegistration(MessageConsumer<Object> consumer){
+        // when clustered the registration must reach the cluster before events are sent
+        consumer.completion().toCompletionStage().toCompletableFuture().join();
+        return consumer;
+    }
+
+    private static String createDestination(){
+        return "srv://org.kinotic.continuum.tests.Batch" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static Flux<Event<byte[]>> createEvents(String destination, int count){
+        return Flux.range(0, count)
+                   .map(i -> Event.create(destination, ("Event " + i).getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
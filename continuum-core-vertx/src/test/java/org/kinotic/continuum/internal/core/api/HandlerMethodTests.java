@@ -0,0 +1,172 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import io.vertx.core.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.internal.core.api.service.invoker.HandlerMethod;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ReactiveTypeDescriptor;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Tests that {@link HandlerMethod} only resolves the {@link ReactiveAdapter} for the declared return type when every returned value must use it
+ */
+public class HandlerMethodTests {
+
+    private final ReactiveAdapterRegistry reactiveAdapterRegistry = createRegistry();
+
+    @Test
+    public void testMonoIsResolved(){
+        HandlerMethod handlerMethod = createHandlerMethod("getMono");
+
+        Assertions.assertTrue(handlerMethod.isReturnTypeAdapterResolvable());
+        Assertions.assertFalse(handlerMethod.getReturnTypeAdapter().isMultiValue());
+        Assertions.assertFalse(handlerMethod.isBlocking());
+    }
+
+    @Test
+    public void testFluxIsResolved(){
+        HandlerMethod handlerMethod = createHandlerMethod("getFlux");
+
+        Assertions.assertTrue(handlerMethod.isReturnTypeAdapterResolvable());
+        Assertions.assertTrue(handlerMethod.getReturnTypeAdapter().isMultiValue());
+        Assertions.assertFalse(handlerMethod.isBlocking());
+    }
+
+    @Test
+    public void testPublisherReturningMonoIsSingleValue() throws Exception {
+        HandlerMethod handlerMethod = createHandlerMethod("getPublisher");
+
+        Assertions.assertFalse(handlerMethod.isReturnTypeAdapterResolvable(), "Publisher can be any reactive type so it must be resolved for every value");
+        Assertions.assertFalse(handlerMethod.isBlocking());
+
+        ReactiveAdapter adapter = adapterFor(handlerMethod, handlerMethod.invoke(new Object[0]));
+        Assertions.assertNotNull(adapter);
+        Assertions.assertFalse(adapter.isMultiValue(), "A Mono returned as a Publisher must not be streamed");
+    }
+
+    @Test
+    public void testFutureIsReactive() throws Exception {
+        HandlerMethod handlerMethod = createHandlerMethod("getFuture");
+
+        Assertions.assertFalse(handlerMethod.isReturnTypeAdapterResolvable(), "Future is an interface so it must be resolved for every value");
+        Assertions.assertFalse(handlerMethod.isBlocking());
+
+        ReactiveAdapter adapter = adapterFor(handlerMethod, handlerMethod.invoke(new Object[0]));
+        Assertions.assertNotNull(adapter, "The value returned by a Future method must not be treated as a plain value");
+        Assertions.assertEquals("Hello", Mono.from(adapter.toPublisher(handlerMethod.invoke(new Object[0]))).block());
+    }
+
+    @Test
+    public void testFinalNonReactiveTypeIsResolved(){
+        HandlerMethod handlerMethod = createHandlerMethod("getString");
+
+        Assertions.assertTrue(handlerMethod.isReturnTypeAdapterResolvable());
+        Assertions.assertNull(handlerMethod.getReturnTypeAdapter());
+        Assertions.assertTrue(handlerMethod.isBlocking());
+    }
+
+    @Test
+    public void testOtherTypesAreNotResolved(){
+        HandlerMethod objectMethod = createHandlerMethod("getObject");
+        Assertions.assertFalse(objectMethod.isReturnTypeAdapterResolvable());
+        Assertions.assertTrue(objectMethod.isBlocking());
+
+        HandlerMethod listMethod = createHandlerMethod("getList");
+        Assertions.assertFalse(listMethod.isReturnTypeAdapterResolvable());
+        Assertions.assertTrue(listMethod.isBlocking());
+    }
+
+    /**
+     * Resolves the adapter for a returned value the same way as the service invoker
+     */
+    private ReactiveAdapter adapterFor(HandlerMethod handlerMethod, Object result){
+        return handlerMethod.isReturnTypeAdapterResolvable()
+                ? handlerMethod.getReturnTypeAdapter()
+                : reactiveAdapterRegistry.getAdapter(null, result);
+    }
+
+    private HandlerMethod createHandlerMethod(String methodName){
+        Method method = ReflectionUtils.findMethod(ReturnTypeService.class, methodName);
+        Assertions.assertNotNull(method);
+        return new HandlerMethod(new ReturnTypeService(), method, reactiveAdapterRegistry, false);
+    }
+
+    /**
+     * Registers the vertx {@link Future} the same way as the continuum configuration
+     */
+    private static ReactiveAdapterRegistry createRegistry(){
+        ReactiveAdapterRegistry ret = new ReactiveAdapterRegistry();
+        ret.registerReactiveType(ReactiveTypeDescriptor.singleOptionalValue(Future.class,
+                                                                            (Supplier<Future<?>>) Future::succeededFuture),
+                                 source -> {
+                                     Future<?> future = (Future<?>) source;
+                                     return Mono.create(monoSink -> future.onComplete(event -> {
+                                         if(event.succeeded()){
+                                             monoSink.success(event.result());
+                                         }else{
+                                             monoSink.error(event.cause());
+                                         }
+                                     }));
+                                 },
+                                 publisher -> Future.fromCompletionStage(Mono.from(publisher).toFuture()));
+        return ret;
+    }
+
+    public static class ReturnTypeService {
+
+        public Mono<String> getMono(){
+            return Mono.just("Hello");
+        }
+
+        public Flux<String> getFlux(){
+            return Flux.just("Hello", "World");
+        }
+
+        public Publisher<String> getPublisher(){
+            return Mono.just("Hello");
+        }
+
+        public Future<String> getFuture(){
+            return Future.succeededFuture("Hello");
+        }
+
+        public String getString(){
+            return "Hello";
+        }
+
+        public Object getObject(){
+            return "Hello";
+        }
+
+        public List<String> getList(){
+            return List.of("Hello");
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.api.exceptions.RpcRejectedException;
+import org.kinotic.continuum.internal.core.api.service.invoker.InvocationBulkhead;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the concurrency limit, queueing and adaptive limit of the {@link InvocationBulkhead}
+ */
+public class InvocationBulkheadTests {
+
+    private static Vertx vertx;
+
+    @BeforeAll
+    public static void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @AfterAll
+    public static void tearDown(){
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 2, 10, 0, false);
+        List<Runnable> completions = new CopyOnWriteArrayList<>();
+        CountDownLatch queuedRan = new CountDownLatch(1);
+
+        bulkhead.submit(completions::add, Assertions::fail);
+        bulkhead.submit(completions::add, Assertions::fail);
+        bulkhead.submit(completion -> {
+            completions.add(completion);
+            queuedRan.countDown();
+        }, Assertions::fail);
+
+        // the first two are run on the calling thread, the third must wait
+        Assertions.assertEquals(2, completions.size());
+        Assertions.assertEquals(2, bulkhead.getInFlight());
+        Assertions.assertEquals(1, bulkhead.getQueued());
+
+        completions.get(0).run();
+
+        Assertions.assertTrue(queuedRan.await(5, TimeUnit.SECONDS), "Queued invocation was not run after an invocation completed");
+        Assertions.assertEquals(2, bulkhead.getInFlight());
+        Assertions.assertEquals(0, bulkhead.getQueued());
+
+        completions.get(1).run();
+        completions.get(2).run();
+        Assertions.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testCompletionOnlyCountsOnce(){
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 2, 10, 0, false);
+        List<Runnable> completions = new ArrayList<>();
+
+        bulkhead.submit(completions::add, Assertions::fail);
+        bulkhead.submit(completions::add, Assertions::fail);
+
+        completions.get(0).run();
+        completions.get(0).run();
+
+        Assertions.assertEquals(1, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testRejectedWhenQueueFull(){
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 1, 1, 0, false);
+        List<Runnable> completions = new ArrayList<>();
+        List<Throwable> rejections = new ArrayList<>();
+
+        bulkhead.submit(completions::add, rejections::add);
+        bulkhead.submit(completions::add, rejections::add);
+        bulkhead.submit(completions::add, rejections::add);
+
+        Assertions.assertEquals(1, completions.size());
+        Assertions.assertEquals(1, bulkhead.getQueued());
+        Assertions.assertEquals(1, rejections.size());
+        Assertions.assertInstanceOf(RpcRejectedException.class, rejections.get(0));
+    }
+
+    @Test
+    public void testQueueTimeout() throws Exception {
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 1, 1, 50, false);
+        List<Runnable> completions = new CopyOnWriteArrayList<>();
+        List<Throwable> rejections = new CopyOnWriteArrayList<>();
+        CountDownLatch rejected = new CountDownLatch(1);
+
+        bulkhead.submit(completions::add, Assertions::fail);
+        bulkhead.submit(completions::add, throwable -> {
+            rejections.add(throwable);
+            rejected.countDown();
+        });
+
+        Assertions.assertTrue(rejected.await(5, TimeUnit.SECONDS), "Queued invocation did not time out");
+        Assertions.assertInstanceOf(RpcRejectedException.class, rejections.get(0));
+        Assertions.assertEquals(0, bulkhead.getQueued());
+
+        // the timed out invocation must never run
+        completions.get(0).run();
+        Thread.sleep(100);
+        Assertions.assertEquals(1, completions.size());
+        Assertions.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testAdaptiveLimitDecreasesWhenLatencyGrows() throws Exception {
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 20, 100, 0, true);
+        Assertions.assertEquals(10, bulkhead.getLimit());
+
+        // establishes the lowest latency
+        runInvocations(bulkhead, 1, 20);
+        Assertions.assertEquals(10, bulkhead.getLimit());
+
+        // more than twice the lowest latency
+        runInvocations(bulkhead, 1, 200);
+        Assertions.assertEquals(9, bulkhead.getLimit());
+    }
+
+    @Test
+    public void testAdaptiveLimitIncreasesWhenLimitIsUsed() throws Exception {
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 20, 100, 0, true);
+
+        // each round uses the whole limit with a steady latency, which grows the limit by 1 / limit
+        int rounds = 0;
+        while(bulkhead.getLimit() <= 10 && rounds < 40){
+            runInvocations(bulkhead, bulkhead.getLimit(), 20);
+            rounds++;
+        }
+        Assertions.assertEquals(11, bulkhead.getLimit());
+        Assertions.assertTrue(rounds >= 10, "Limit grew faster than expected, rounds: " + rounds);
+    }
+
+    @Test
+    public void testAdaptiveLimitDoesNotGrowWhenIdle() throws Exception {
+        InvocationBulkhead bulkhead = new InvocationBulkhead("test", vertx, 20, 100, 0, true);
+
+        for(int i = 0; i < 20; i++){
+            runInvocations(bulkhead, 1, 5);
+        }
+        Assertions.assertTrue(bulkhead.getLimit() <= 10, "Limit grew while idle to " + bulkhead.getLimit());
+    }
+
+    /**
+     * Submits the given number of invocations, which must all run immediately, and completes them after the given latency
+     */
+    private void runInvocations(InvocationBulkhead bulkhead, int count, long latencyMillis) throws InterruptedException {
+        List<Runnable> completions = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            bulkhead.submit(completions::add, Assertions::fail);
+        }
+        Assertions.assertEquals(count, completions.size());
+        Thread.sleep(latencyMillis);
+        for(Runnable completion : completions){
+            completion.run();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kinotic.continuum.api.Continuum;
+import org.kinotic.continuum.internal.core.api.support.ABunchOfArgumentsHolder;
+import org.kinotic.continuum.internal.core.api.support.RpcTestService;
+import org.kinotic.continuum.internal.core.api.support.RpcTestServiceProxy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Tests service invocations when the service is invoked directly, because it is registered in the same JVM as the proxy
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "continuum.localServiceInvocation=true")
+@ActiveProfiles({"test"})
+public class LocalRpcTests {
+
+    @Autowired
+    private Continuum continuum;
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection") // these are not detected because continuum wires them..
+    @Autowired
+    private RpcTestServiceProxy rpcTestServiceProxy;
+
+    @Test
+    public void testABunchOfArguments(){
+        ABunchOfArgumentsHolder argumentsHolder = RpcTestService.BUNCH_OF_ARGUMENTS;
+        Mono<ABunchOfArgumentsHolder> mono = rpcTestServiceProxy.acceptABunchOfArguments(argumentsHolder.getIntValue(),
+                                                                                         argumentsHolder.getLongValue(),
+                                                                                         argumentsHolder.getStringValue(),
+                                                                                         argumentsHolder.isBoolValue(),
+                                                                                         argumentsHolder.getSimpleObject(),
+                                                                                         RpcTestService.LIST_OF_STRINGS);
+
+        StepVerifier.create(mono)
+                    .expectNext(argumentsHolder)
+                    .expectComplete()
+                    .verify();
+    }
+
+    @Test
+    public void testFirstArgParticipant(){
+        String suffix = " Wat";
+        Mono<String> mono = rpcTestServiceProxy.firstArgParticipant(suffix);
+
+        StepVerifier.create(mono)
+                    .expectNext(continuum.serverInfo().getNodeName() + suffix)
+                    .expectComplete()
+                    .verify();
+    }
+
+    @Test
+    public void testInfiniteFlux(){
+        Flux<String> flux = rpcTestServiceProxy.getInfiniteFlux();
+
+        StepVerifier.create(flux)
+                    .expectNextMatches(s -> s.startsWith("Hello Sucka"))
+                    .expectNextMatches(s -> s.startsWith("Hello Sucka"))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    public void testModifyListOfStrings(){
+        // the service accepts a String[] so the argument must be converted
+        Mono<List<String>> mono = rpcTestServiceProxy.modifyListOfStrings(RpcTestService.LIST_OF_STRINGS);
+
+        StepVerifier.create(mono)
+                    .expectNext(RpcTestService.LIST_OF_STRINGS.stream().map(s -> "Hello " + s).collect(Collectors.toList()))
+                    .expectComplete()
+                    .verify();
+    }
+
+    @Test
+    public void testBlockingMethodIsNotInvokedOnSubscribingThread(){
+        String subscribingThread = Thread.currentThread().getName();
+        String invocationThread = rpcTestServiceProxy.getInvocationThreadName().block();
+
+        Assertions.assertNotNull(invocationThread);
+        Assertions.assertNotEquals(subscribingThread, invocationThread);
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        CompletableFuture<String> future = rpcTestServiceProxy.getString();
+        Assertions.assertEquals(RpcTestService.STRING_VALUE, future.get());
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.internal.core.api.service.rpc.RpcCorrelationTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests the open addressing tables, the timeout wheel and closing of the {@link RpcCorrelationTable}
+ */
+public class RpcCorrelationTableTests {
+
+    private static Vertx vertx;
+
+    @BeforeAll
+    public static void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @AfterAll
+    public static void tearDown(){
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    public void testPutGetRemove(){
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test");
+        long id = table.nextId();
+        table.put(id, "value", 0, null);
+
+        Assertions.assertEquals(1, table.size());
+        Assertions.assertEquals("value", table.get(id));
+        Assertions.assertEquals("value", table.remove(id));
+        Assertions.assertNull(table.get(id));
+        Assertions.assertNull(table.remove(id));
+        Assertions.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testDuplicateIdIsRejected(){
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test");
+        long id = table.nextId();
+        table.put(id, "value", 0, null);
+        Assertions.assertThrows(IllegalStateException.class, () -> table.put(id, "other", 0, null));
+    }
+
+    /**
+     * Removes random entries while adding more, so entries are moved back by deletions and the tables are resized,
+     * then compares the contents with a {@link HashMap}
+     */
+    @Test
+    public void testRandomRemovalsMatchHashMap(){
+        RpcCorrelationTable<Long> table = new RpcCorrelationTable<>("test");
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for(int i = 0; i < 20_000; i++){
+            long id = table.nextId();
+            table.put(id, id, 0, null);
+            expected.put(id, id);
+
+            if(random.nextInt(3) == 0){
+                // remove an id that may or may not still be present
+                long toRemove = 1 + random.nextInt((int) id);
+                Assertions.assertEquals(expected.remove(toRemove), table.remove(toRemove));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), table.size());
+        for(long id = 1; id <= 20_000; id++){
+            Assertions.assertEquals(expected.get(id), table.get(id), "Wrong value for id " + id);
+        }
+
+        // removing everything must leave every id unreachable
+        for(Long id : new ArrayList<>(expected.keySet())){
+            Assertions.assertEquals(id, table.remove(id));
+        }
+        Assertions.assertEquals(0, table.size());
+        for(long id = 1; id <= 20_000; id++){
+            Assertions.assertNull(table.get(id));
+        }
+    }
+
+    @Test
+    public void testRequestExpires() throws Exception {
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test", vertx, 0, 10);
+        try {
+            CountDownLatch expired = new CountDownLatch(1);
+            long id = table.nextId();
+            long start = System.nanoTime();
+            table.put(id, "value", 50, value -> expired.countDown());
+
+            Assertions.assertTrue(expired.await(5, TimeUnit.SECONDS), "Request did not expire");
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50, "Request expired early");
+            Assertions.assertNull(table.get(id));
+            Assertions.assertEquals(1, table.getTimeoutCount());
+        } finally {
+            table.close(value -> {});
+        }
+    }
+
+    @Test
+    public void testDefaultTimeoutIsUsed() throws Exception {
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test", vertx, 50, 10);
+        try {
+            Assertions.assertEquals(50, table.getDefaultTimeout());
+            CountDownLatch expired = new CountDownLatch(1);
+            table.put(table.nextId(), "value", -1, value -> expired.countDown());
+
+            Assertions.assertTrue(expired.await(5, TimeUnit.SECONDS), "Request did not expire with the default timeout");
+        } finally {
+            table.close(value -> {});
+        }
+    }
+
+    @Test
+    public void testRemovedRequestDoesNotExpire() throws Exception {
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test", vertx, 0, 10);
+        try {
+            AtomicBoolean expired = new AtomicBoolean(false);
+            long id = table.nextId();
+            table.put(id, "value", 30, value -> expired.set(true));
+            // no timeout
+            long other = table.nextId();
+            table.put(other, "other", 0, value -> expired.set(true));
+
+            Assertions.assertEquals("value", table.remove(id));
+            Thread.sleep(200);
+
+            Assertions.assertFalse(expired.get());
+            Assertions.assertEquals(0, table.getTimeoutCount());
+            Assertions.assertEquals("other", table.get(other));
+        } finally {
+            table.close(value -> {});
+        }
+    }
+
+    @Test
+    public void testTimeoutsLongerThanTheWheel() throws Exception {
+        // the wheel has 512 buckets, so with a 1ms tick this timeout wraps around the wheel
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test", vertx, 0, 1);
+        try {
+            List<Long> expiredAt = new CopyOnWriteArrayList<>();
+            CountDownLatch expired = new CountDownLatch(2);
+            long start = System.nanoTime();
+            table.put(table.nextId(), "short", 20, value -> {
+                expiredAt.add(System.nanoTime() - start);
+                expired.countDown();
+            });
+            table.put(table.nextId(), "long", 700, value -> {
+                expiredAt.add(System.nanoTime() - start);
+                expired.countDown();
+            });
+
+            Assertions.assertTrue(expired.await(10, TimeUnit.SECONDS), "Requests did not expire");
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(expiredAt.get(1)) >= 700, "Request expired before a full round of the wheel");
+        } finally {
+            table.close(value -> {});
+        }
+    }
+
+    @Test
+    public void testCloseDrainsRequests(){
+        RpcCorrelationTable<String> table = new RpcCorrelationTable<>("test", vertx, 60_000);
+        AtomicBoolean closeHandlerCalled = new AtomicBoolean(false);
+        table.setCloseHandler(() -> closeHandlerCalled.set(true));
+        for(int i = 0; i < 100; i++){
+            table.put(table.nextId(), "value" + i, -1, value -> Assertions.fail("Request must not expire"));
+        }
+
+        List<String> drained = new ArrayList<>();
+        table.close(drained::add);
+        // closing again does nothing
+        table.close(drained::add);
+
+        Assertions.assertEquals(100, drained.size());
+        Assertions.assertEquals(0, table.size());
+        Assertions.assertTrue(table.isClosed());
+        Assertions.assertTrue(closeHandlerCalled.get());
+    }
+
+}
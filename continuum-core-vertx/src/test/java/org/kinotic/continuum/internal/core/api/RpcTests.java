@@ -28,19 +28,24 @@ import org.kinotic.continuum.api.Continuum;
 import org.kinotic.continuum.api.exceptions.RpcInvocationException;
 import org.kinotic.continuum.api.exceptions.RpcMissingMethodException;
 import org.kinotic.continuum.api.exceptions.RpcMissingServiceException;
+import org.kinotic.continuum.core.api.RpcServiceProxyHandle;
+import org.kinotic.continuum.core.api.ServiceRegistry;
 import org.kinotic.continuum.internal.core.api.support.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import reactor.util.function.Tuple2;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -66,6 +71,9 @@ public class RpcTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ServiceRegistry serviceRegistry;
+
     // TODO: test to few arguments, and too many arguments, also a variation with the participant. Participant variant error message may be misleading?
     // See org.kinotic.continuum.internal.core.api.service.json.AbstractJackson2Support Line 114, Line 180. Should we keep the number of participant args in mind.
 
@@ -109,6 +117,37 @@ public class RpcTests {
                     .verify();
     }
 
+    @Test
+    public void testConcurrentStreamsFromMultipleProxies(){
+        // each proxy numbers its requests the same way, so this verifies the streams do not collide in the service
+        RpcServiceProxyHandle<RpcTestServiceProxy> firstHandle = serviceRegistry.serviceProxy(RpcTestServiceProxy.class);
+        RpcServiceProxyHandle<RpcTestServiceProxy> secondHandle = serviceRegistry.serviceProxy(RpcTestServiceProxy.class);
+        try {
+            List<String> received = new CopyOnWriteArrayList<>();
+            Disposable secondStream = secondHandle.getService()
+                                                  .getInfiniteFlux()
+                                                  .subscribe(received::add);
+            try {
+                StepVerifier.create(firstHandle.getService().getInfiniteFlux())
+                            .expectNextMatches(s -> s.startsWith("Hello Sucka"))
+                            .expectNextMatches(s -> s.startsWith("Hello Sucka"))
+                            .thenCancel()
+                            .verify(Duration.ofSeconds(10));
+
+                // cancelling the first stream must not cancel the second
+                int receivedAfterCancel = received.size();
+                Awaitility.await()
+                          .atMost(Duration.ofSeconds(10))
+                          .until(() -> received.size() >= receivedAfterCancel + 2);
+            } finally {
+                secondStream.dispose();
+            }
+        } finally {
+            firstHandle.release();
+            secondHandle.release();
+        }
+    }
+
     @Test
     public void testLastArgParticipant(){
         String prefix = "Hello ";
@@ -427,4 +466,25 @@ public class RpcTests {
         }
     }
 
+    @Test
+    public void testVertxFutureString(){
+        Future<String> future  = rpcTestServiceProxy.getVertxFutureString();
+
+        Awaitility.await().until(future::isComplete);
+
+        if(future.failed()){
+            throw new IllegalStateException("TestServiceProxy method invocation failed", future.cause());
+        }else if(!future.result().equals(RpcTestService.STRING_VALUE)){
+            throw new IllegalStateException("Service data returned does not match what was expected: "+RpcTestService.STRING_VALUE+" got: "+future.result());
+        }
+    }
+
+    @Test
+    public void testPublisherFromMono(){
+        StepVerifier.create(rpcTestServiceProxy.getPublisherFromMono())
+                    .expectNext(RpcTestService.STRING_VALUE)
+                    .expectComplete()
+                    .verify();
+    }
+
 }
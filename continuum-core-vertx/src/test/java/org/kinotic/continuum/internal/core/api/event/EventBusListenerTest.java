@@ -0,0 +1,182 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.ListenerOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests that the {@link EventBusListener} only acknowledges events once they are emitted,
+ * and fails the acknowledgement of every event it discards
+ */
+public class EventBusListenerTest {
+
+    private static final DeliveryOptions DELIVERY_OPTIONS = new DeliveryOptions().setCodecName(EventMessageCodec.NAME);
+
+    private static Vertx vertx;
+    private static EventBusMetrics metrics;
+
+    @BeforeAll
+    public static void setUp(){
+        vertx = Vertx.vertx();
+        vertx.eventBus().registerCodec(new EventMessageCodec());
+        metrics = new EventBusMetrics(OpenTelemetry.noop(), 10);
+    }
+
+    @AfterAll
+    public static void tearDown(){
+        metrics.close();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    public void testDropOldestFailsTheDiscardedEvent(){
+        String address = "srv://org.kinotic.tests.DropOldest";
+        List<Future<Message<Object>>> replies = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(listen(address, 2, ListenerOverflowStrategy.DROP_OLDEST), 0)
+                    .thenAwait(Duration.ofMillis(100))
+                    .then(() -> {
+                        for(int i = 0; i < 3; i++){
+                            replies.add(request(address, i));
+                        }
+                    })
+                    .then(() -> {
+                        Awaitility.await().until(() -> replies.get(0).isComplete());
+                        assertOverflowFailure(replies.get(0));
+                        // the remaining events have not been emitted yet
+                        Assertions.assertFalse(replies.get(1).isComplete());
+                        Assertions.assertFalse(replies.get(2).isComplete());
+                    })
+                    .thenRequest(2)
+                    .expectNextMatches(event -> hasData(event, 1))
+                    .expectNextMatches(event -> hasData(event, 2))
+                    .then(() -> Awaitility.await().until(() -> replies.get(1).succeeded() && replies.get(2).succeeded()))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testDropLatestFailsTheReceivedEvent(){
+        String address = "srv://org.kinotic.tests.DropLatest";
+        List<Future<Message<Object>>> replies = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(listen(address, 1, ListenerOverflowStrategy.DROP_LATEST), 0)
+                    .thenAwait(Duration.ofMillis(100))
+                    .then(() -> {
+                        replies.add(request(address, 0));
+                        replies.add(request(address, 1));
+                    })
+                    .then(() -> {
+                        Awaitility.await().until(() -> replies.get(1).isComplete());
+                        assertOverflowFailure(replies.get(1));
+                        Assertions.assertFalse(replies.get(0).isComplete());
+                    })
+                    .thenRequest(1)
+                    .expectNextMatches(event -> hasData(event, 0))
+                    .then(() -> Awaitility.await().until(() -> replies.get(0).succeeded()))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testErrorFailsAllBufferedEvents(){
+        String address = "srv://org.kinotic.tests.Error";
+        List<Future<Message<Object>>> replies = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(listen(address, 2, ListenerOverflowStrategy.ERROR), 0)
+                    .thenAwait(Duration.ofMillis(100))
+                    .then(() -> {
+                        for(int i = 0; i < 3; i++){
+                            replies.add(request(address, i));
+                        }
+                    })
+                    .expectError()
+                    .verify(Duration.ofSeconds(10));
+
+        Awaitility.await().until(() -> replies.size() == 3 && replies.stream().allMatch(Future::isComplete));
+        for(Future<Message<Object>> reply : replies){
+            assertOverflowFailure(reply);
+        }
+    }
+
+    @Test
+    public void testCancelFailsBufferedEvents(){
+        String address = "srv://org.kinotic.tests.Cancel";
+        List<Future<Message<Object>>> replies = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(listen(address, 10, ListenerOverflowStrategy.DROP_LATEST), 0)
+                    .thenAwait(Duration.ofMillis(100))
+                    .then(() -> replies.add(request(address, 0)))
+                    .thenAwait(Duration.ofMillis(100))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+
+        Awaitility.await().until(() -> replies.get(0).isComplete());
+        assertOverflowFailure(replies.get(0));
+    }
+
+    private Flux<Event<byte[]>> listen(String address, int bufferSize, ListenerOverflowStrategy overflowStrategy){
+        return Flux.create(sink -> {
+            Context context = vertx.getOrCreateContext();
+            new EventBusListener(ListenerSource.of(vertx.eventBus().consumer(address)),
+                                 sink,
+                                 context,
+                                 command -> context.runOnContext(v -> command.run()),
+                                 bufferSize,
+                                 overflowStrategy,
+                                 metrics).start();
+        }, FluxSink.OverflowStrategy.IGNORE);
+    }
+
+    private Future<Message<Object>> request(String address, int index){
+        Event<byte[]> event = Event.create(address, Integer.toString(index).getBytes(StandardCharsets.UTF_8));
+        return vertx.eventBus().request(address, event, DELIVERY_OPTIONS);
+    }
+
+    private boolean hasData(Event<byte[]> event, int index){
+        return Integer.toString(index).equals(new String(event.data(), StandardCharsets.UTF_8));
+    }
+
+    private void assertOverflowFailure(Future<Message<Object>> reply){
+        Assertions.assertTrue(reply.failed(), "The acknowledgement of a discarded event must fail");
+        Assertions.assertInstanceOf(ReplyException.class, reply.cause());
+        Assertions.assertEquals(EventBusListener.OVERFLOW_FAILURE_CODE, ((ReplyException) reply.cause()).failureCode());
+    }
+
+}
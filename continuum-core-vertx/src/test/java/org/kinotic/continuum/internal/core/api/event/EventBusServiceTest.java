@@ -25,7 +25,9 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -88,4 +90,22 @@ public class EventBusServiceTest {
                     .verify();
     }
 
+    public void testSendBatch(){
+        List<Event<byte[]>> events = new ArrayList<>();
+        for(int i = 0; i < 10_000; i++){
+            events.add(Event.create(DESTINATION, ("Event " + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        Flux<Event<byte[]>> flux = eventBusService.listenWithAck(DESTINATION).block();
+
+        executorService.schedule(() -> {
+            eventBusService.sendBatch(events).subscribe();
+        }, 1, TimeUnit.SECONDS);
+
+        assert flux != null;
+        StepVerifier.create(flux.take(events.size()).index())
+                    .thenConsumeWhile(tuple -> Arrays.equals(tuple.getT2().data(),
+                                                             events.get(tuple.getT1().intValue()).data()))
+                    .verifyComplete();
+    }
+
 }
@@ -0,0 +1,80 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.Metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Tests that {@link Event}'s survive being written to the wire by the {@link EventMessageCodec}
+ */
+public class EventMessageCodecTest {
+
+    private static final String DESTINATION = "srv://org.kinotic.continuum.tests.TestService/serviceMethod";
+
+    private final EventMessageCodec codec = new EventMessageCodec();
+
+    @Test
+    public void testWireRoundTrip(){
+        Metadata metadata = Metadata.create(Map.of(EventConstants.REPLY_TO_HEADER, "srv://reply/replyHandler",
+                                                   EventConstants.CORRELATION_ID_HEADER, "42",
+                                                   "custom", "Hëllo"));
+        Event<byte[]> event = Event.create(DESTINATION, metadata, "Hello World".getBytes(StandardCharsets.UTF_8));
+
+        // the frame must be readable when it does not start at the beginning of the buffer
+        Buffer buffer = Buffer.buffer().appendString("prefix");
+        codec.encodeToWire(buffer, event);
+        buffer.appendString("suffix");
+
+        Event<byte[]> decoded = codec.decodeFromWire(6, buffer);
+
+        Assertions.assertEquals(DESTINATION, decoded.cri().raw());
+        Assertions.assertEquals(3, decoded.metadata().size());
+        Assertions.assertEquals("srv://reply/replyHandler", decoded.metadata().get(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertEquals("42", decoded.metadata().get(EventConstants.CORRELATION_ID_HEADER));
+        Assertions.assertEquals("Hëllo", decoded.metadata().get("custom"));
+        Assertions.assertArrayEquals(event.data(), decoded.data());
+    }
+
+    @Test
+    public void testWireRoundTripNoData(){
+        Event<byte[]> event = Event.create(DESTINATION, null);
+
+        Buffer buffer = Buffer.buffer();
+        codec.encodeToWire(buffer, event);
+        Event<byte[]> decoded = codec.decodeFromWire(0, buffer);
+
+        Assertions.assertEquals(DESTINATION, decoded.cri().raw());
+        Assertions.assertTrue(decoded.metadata().isEmpty());
+        Assertions.assertNull(decoded.data());
+    }
+
+    @Test
+    public void testLocalDeliveryIsByReference(){
+        Event<byte[]> event = Event.create(DESTINATION, "Hello World".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertSame(event, codec.transform(event));
+    }
+
+}
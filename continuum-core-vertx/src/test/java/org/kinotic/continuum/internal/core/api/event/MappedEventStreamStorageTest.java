@@ -0,0 +1,210 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.EventStreamService;
+import org.kinotic.continuum.core.api.event.EventStreamStorage;
+import org.kinotic.continuum.internal.core.api.event.stream.MappedEventStreamStorage;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Tests the embedded event stream storage without starting the rest of continuum
+ */
+public class MappedEventStreamStorageTest {
+
+    private static final String STREAM = "stream://org.kinotic.continuum.tests.Telemetry";
+    private static final String STREAM_SCOPE_A = "stream://a@org.kinotic.continuum.tests.Telemetry";
+    private static final String STREAM_SCOPE_B = "stream://b@org.kinotic.continuum.tests.Telemetry";
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private Vertx vertx;
+    private MappedEventStreamStorage storage;
+
+    @BeforeEach
+    public void setUp(){
+        vertx = Vertx.vertx();
+        storage = new MappedEventStreamStorage(vertx, directory, SEGMENT_SIZE);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        storage.close();
+        vertx.close();
+    }
+
+    @Test
+    public void testAppendAndReplay(){
+        // enough events to span several segments
+        appendAll(STREAM, 200);
+
+        StepVerifier.create(storage.read(CRI.create(STREAM), 0, null).take(200).map(this::dataOf))
+                    .expectNextSequence(expectedData(0, 200))
+                    .verifyComplete();
+
+        StepVerifier.create(storage.read(CRI.create(STREAM), 150, null).take(1))
+                    .assertNext(event -> {
+                        Assertions.assertEquals("150", event.metadata().get(EventConstants.STREAM_OFFSET_HEADER));
+                        Assertions.assertEquals("event-150", dataOf(event));
+                    })
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testScopeFilter(){
+        storage.append(createEvent(STREAM_SCOPE_A, 0)).block();
+        storage.append(createEvent(STREAM_SCOPE_B, 1)).block();
+        storage.append(createEvent(STREAM_SCOPE_A, 2)).block();
+
+        StepVerifier.create(storage.read(CRI.create(STREAM_SCOPE_A), 0, null).take(2).map(this::dataOf))
+                    .expectNext("event-0", "event-2")
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testLatestReceivesNewEvents(){
+        appendAll(STREAM, 5);
+
+        Flux<String> latest = storage.read(CRI.create(STREAM), EventStreamStorage.LATEST, null)
+                                     .take(1)
+                                     .map(this::dataOf);
+
+        StepVerifier.create(latest)
+                    .then(() -> storage.append(createEvent(STREAM, 5)).subscribe())
+                    .expectNext("event-5")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testConsumerGroupResumes(){
+        appendAll(STREAM, 10);
+
+        StepVerifier.create(storage.read(CRI.create(STREAM), 0, "group").take(4).map(this::dataOf))
+                    .expectNextSequence(expectedData(0, 4))
+                    .verifyComplete();
+
+        StepVerifier.create(storage.read(CRI.create(STREAM), 0, "group").take(6).map(this::dataOf))
+                    .expectNextSequence(expectedData(4, 10))
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testReopen(){
+        appendAll(STREAM, 100);
+        storage.close();
+
+        storage = new MappedEventStreamStorage(vertx, directory, SEGMENT_SIZE);
+        storage.append(createEvent(STREAM, 100)).block();
+
+        StepVerifier.create(storage.read(CRI.create(STREAM), 0, null).take(101).map(this::dataOf))
+                    .expectNextSequence(expectedData(0, 101))
+                    .verifyComplete();
+    }
+
+    @Test
+    public void testListenPaths(){
+        EventStreamService service = new DefaultEventStreamService(storage);
+        appendAll(STREAM, 10);
+
+        StepVerifier.create(service.listen(CRI.create(STREAM)).take(10).map(this::dataOf))
+                    .expectNextSequence(expectedData(0, 10))
+                    .verifyComplete();
+
+        StepVerifier.create(service.listen(CRI.create(STREAM + "/7")).take(3).map(this::dataOf))
+                    .expectNextSequence(expectedData(7, 10))
+                    .verifyComplete();
+
+        StepVerifier.create(service.listen(CRI.create(STREAM + "/group")).take(4).map(this::dataOf))
+                    .expectNextSequence(expectedData(0, 4))
+                    .verifyComplete();
+
+        StepVerifier.create(service.listen(CRI.create(STREAM + "/group")).take(2).map(this::dataOf))
+                    .expectNextSequence(expectedData(4, 6))
+                    .verifyComplete();
+
+        StepVerifier.create(service.listen(CRI.create(STREAM + "/latest")).take(1).map(this::dataOf))
+                    .then(() -> service.send(createEvent(STREAM, 10)).subscribe())
+                    .expectNext("event-10")
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testDirectoryIsLocked(){
+        appendAll(STREAM, 1);
+
+        MappedEventStreamStorage other = new MappedEventStreamStorage(vertx, directory, SEGMENT_SIZE);
+        try {
+            StepVerifier.create(other.append(createEvent(STREAM, 1)))
+                        .expectError(IllegalStateException.class)
+                        .verify();
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testDirectoryIsRequired(){
+        MappedEventStreamStorage other = new MappedEventStreamStorage(vertx, null, SEGMENT_SIZE);
+        try {
+            StepVerifier.create(other.read(CRI.create(STREAM), 0, null))
+                        .expectError(IllegalStateException.class)
+                        .verify();
+        } finally {
+            other.close();
+        }
+    }
+
+    private void appendAll(String cri, int count){
+        Flux.range(0, count)
+            .concatMap(i -> storage.append(createEvent(cri, i)))
+            .blockLast();
+    }
+
+    private Event<byte[]> createEvent(String cri, int i){
+        return Event.create(cri, ("event-" + i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String dataOf(Event<byte[]> event){
+        return new String(event.data(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> expectedData(int from, int to){
+        return IntStream.range(from, to).mapToObj(i -> "event-" + i).toList();
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.core.api.event.CRI;
+import org.kinotic.continuum.core.api.event.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that the {@link PatternRouter} routes events to matching subscriptions, only finds addresses for events that match a pattern,
+ * and only keeps the consumer for a pattern registered while it has subscriptions
+ */
+public class PatternRouterTest {
+
+    private static final DeliveryOptions DELIVERY_OPTIONS = new DeliveryOptions().setCodecName(EventMessageCodec.NAME);
+
+    private static Vertx vertx;
+
+    @BeforeAll
+    public static void setUp(){
+        vertx = Vertx.vertx();
+        vertx.eventBus().registerCodec(new EventMessageCodec());
+    }
+
+    @AfterAll
+    public static void tearDown(){
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    public void testRoutesToMatchingSubscriptions() throws Exception {
+        PatternRouter router = new PatternRouter(vertx, null);
+        try {
+            Context context = vertx.getOrCreateContext();
+            List<String> received = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(2);
+
+            PatternSubscription devices = router.createSubscription(CRI.create("srv://*@device.*"), context);
+            devices.handler(message -> {
+                received.add("devices:" + EventBusListener.toEvent(message).cri().raw());
+                latch.countDown();
+            });
+            PatternSubscription other = router.createSubscription(CRI.create("srv://other.*"), context);
+            other.handler(message -> Assertions.fail("Event does not match the pattern"));
+
+            devices.registration().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            other.registration().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+            publish(router, "srv://dev1@device.telemetry");
+            publish(router, "srv://dev2@device.gps/position");
+
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS), "Events were not routed");
+            Assertions.assertEquals(List.of("devices:srv://dev1@device.telemetry", "devices:srv://dev2@device.gps/position"), received);
+
+            devices.unregister();
+            other.unregister();
+        } finally {
+            router.close();
+        }
+    }
+
+    @Test
+    public void testConsumerOnlyRegisteredWhileSubscribed() throws Exception {
+        PatternRouter router = new PatternRouter(vertx, null);
+        try {
+            Context context = vertx.getOrCreateContext();
+            CRI pattern = CRI.create("srv://*@device.*");
+            PatternSubscription first = router.createSubscription(pattern, context);
+            PatternSubscription second = router.createSubscription(pattern, context);
+
+            // a subscription without a handler does not need the consumer
+            Assertions.assertFalse(router.hasConsumer(pattern));
+
+            first.handler(message -> {});
+            second.handler(message -> {});
+            first.registration().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(router.hasConsumer(pattern));
+
+            first.unregister();
+            Assertions.assertTrue(router.hasConsumer(pattern), "Consumer was unregistered while a subscription remains");
+
+            second.unregister();
+            Assertions.assertFalse(router.hasConsumer(pattern), "Consumer was not unregistered after the last subscription");
+
+            // subscribing again registers a new consumer
+            PatternSubscription third = router.createSubscription(pattern, context);
+            third.handler(message -> {});
+            third.registration().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(router.hasConsumer(pattern));
+            third.unregister();
+        } finally {
+            router.close();
+        }
+    }
+
+    @Test
+    public void testOnlyMatchingPatternsArePublished() throws Exception {
+        PatternRouter router = new PatternRouter(vertx, null);
+        try {
+            Context context = vertx.getOrCreateContext();
+            CRI devices = CRI.create("srv://*@device.*");
+            CRI telemetry = CRI.create("srv://device.telemetry.*");
+            PatternSubscription first = router.createSubscription(devices, context);
+            first.handler(message -> {});
+            PatternSubscription second = router.createSubscription(telemetry, context);
+            second.handler(message -> {});
+
+            Assertions.assertEquals(List.of(), matchingAddresses(router, "srv://org.kinotic.SomeService/someMethod"));
+            Assertions.assertEquals(List.of(), matchingAddresses(router, "srv://other.telemetry"));
+            Assertions.assertEquals(List.of(PatternRouter.address(devices)), matchingAddresses(router, "srv://dev1@device.gps"));
+            Assertions.assertEquals(Set.of(PatternRouter.address(devices), PatternRouter.address(telemetry)),
+                                    Set.copyOf(matchingAddresses(router, "srv://device.telemetry.cpu")));
+
+            first.unregister();
+            second.unregister();
+            Assertions.assertEquals(List.of(), matchingAddresses(router, "srv://device.telemetry.cpu"));
+        } finally {
+            router.close();
+        }
+    }
+
+    @Test
+    public void testPatternsRegisteredByOtherNodes(){
+        PatternRouter router = new PatternRouter(vertx, null);
+        try {
+            CRI pattern = CRI.create("srv://*@device.*");
+            router.registrationChanged(PatternRouter.address(pattern), true);
+            // registrations of other addresses are not patterns
+            router.registrationChanged("srv://device.telemetry", true);
+
+            Assertions.assertEquals(List.of(PatternRouter.address(pattern)), matchingAddresses(router, "srv://dev1@device.gps"));
+            Assertions.assertEquals(List.of(), matchingAddresses(router, "srv://other.telemetry"));
+            Assertions.assertFalse(router.hasConsumer(pattern), "A pattern registered by another node must not have a consumer on this node");
+        } finally {
+            router.close();
+        }
+    }
+
+    private List<String> matchingAddresses(PatternRouter router, String cri){
+        List<String> ret = new ArrayList<>();
+        router.forEachMatchingAddress(CRI.create(cri), ret::add);
+        return ret;
+    }
+
+    private void publish(PatternRouter router, String cri){
+        Event<byte[]> event = Event.create(cri, "data".getBytes(StandardCharsets.UTF_8));
+        router.forEachMatchingAddress(event.cri(), address -> vertx.eventBus().publish(address, event, DELIVERY_OPTIONS));
+    }
+
+}
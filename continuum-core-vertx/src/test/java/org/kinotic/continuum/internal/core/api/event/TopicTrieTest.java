@@ -0,0 +1,79 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.internal.core.api.event;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.kinotic.continuum.core.api.event.CRI;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests that the {@link TopicTrie} finds every pattern that matches a {@link CRI}
+ */
+public class TopicTrieTest {
+
+    @Test
+    public void testMatches(){
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add(CRI.create("srv://device.telemetry"), "exact");
+        trie.add(CRI.create("srv://*@device.telemetry"), "anyScope");
+        trie.add(CRI.create("srv://device.*"), "prefix");
+        trie.add(CRI.create("srv://dev42@device.*"), "scopedPrefix");
+        trie.add(CRI.create("srv://*@*"), "everything");
+        trie.add(CRI.create("stream://*@device.telemetry"), "otherScheme");
+
+        Assertions.assertEquals(Set.of("exact", "anyScope", "prefix", "everything"), match(trie, "srv://device.telemetry"));
+        Assertions.assertEquals(Set.of("anyScope", "scopedPrefix", "everything"), match(trie, "srv://dev42@device.telemetry/method"));
+        Assertions.assertEquals(Set.of("prefix", "everything"), match(trie, "srv://device.telemetry.gps"));
+        Assertions.assertEquals(Set.of("everything"), match(trie, "srv://device"));
+        Assertions.assertEquals(Set.of(), match(trie, "rpc://device.telemetry"));
+    }
+
+    @Test
+    public void testRemove(){
+        TopicTrie<String> trie = new TopicTrie<>();
+        CRI pattern = CRI.create("srv://*@device.*");
+        trie.add(pattern, "one");
+        trie.add(pattern, "two");
+        Assertions.assertEquals(2, trie.size());
+
+        trie.remove(pattern, "one");
+        Assertions.assertEquals(Set.of("two"), match(trie, "srv://dev42@device.telemetry"));
+
+        trie.remove(pattern, "two");
+        Assertions.assertEquals(0, trie.size());
+        Assertions.assertEquals(Set.of(), match(trie, "srv://dev42@device.telemetry"));
+    }
+
+    @Test
+    public void testInvalidPatterns(){
+        TopicTrie<String> trie = new TopicTrie<>();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> trie.add(CRI.create("srv://device.*.telemetry"), "value"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> trie.add(CRI.create("srv://dev*@device.telemetry"), "value"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> trie.add(CRI.create("srv://device.tele*"), "value"));
+    }
+
+    private static Set<String> match(TopicTrie<String> trie, String cri){
+        Set<String> ret = new HashSet<>();
+        trie.forEachMatch(CRI.create(cri), ret::add);
+        return ret;
+    }
+
+}
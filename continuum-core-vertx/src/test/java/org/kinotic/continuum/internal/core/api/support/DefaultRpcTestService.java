@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import org.kinotic.continuum.api.security.Participant;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
@@ -157,6 +158,11 @@ public class DefaultRpcTestService implements RpcTestService{
         return RpcTestService.STRING_VALUE;
     }
 
+    @Override
+    public String getInvocationThreadName() {
+        return Thread.currentThread().getName();
+    }
+
     @Override
     public String getUnknownFailure() {
         throw new UnknownThrowable("Everything failed Sucka!");
@@ -167,6 +173,16 @@ public class DefaultRpcTestService implements RpcTestService{
         return Future.succeededFuture(null);
     }
 
+    @Override
+    public Future<String> getVertxFutureString() {
+        return Future.succeededFuture(STRING_VALUE);
+    }
+
+    @Override
+    public Publisher<String> getPublisherFromMono() {
+        return Mono.just(STRING_VALUE);
+    }
+
     @Override
     public Mono<String> lastArgParticipant(String prefix, Participant participant){
         return Mono.just(prefix + participant.getId());
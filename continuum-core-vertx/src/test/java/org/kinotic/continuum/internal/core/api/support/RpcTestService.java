@@ -22,6 +22,7 @@ import org.kinotic.continuum.api.annotations.Publish;
 import org.kinotic.continuum.api.security.Participant;
 import org.kinotic.continuum.internal.core.api.RpcTests;
 import io.vertx.core.Future;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -89,10 +90,22 @@ public interface RpcTestService {
 
     String getString();
 
+    /**
+     * @return the name of the thread the method was invoked on
+     */
+    String getInvocationThreadName();
+
     String getUnknownFailure();
 
     Future<String> getVertxFutureNullString();
 
+    Future<String> getVertxFutureString();
+
+    /**
+     * @return a {@link Mono} declared as a {@link Publisher}, so the result must be returned as a single value
+     */
+    Publisher<String> getPublisherFromMono();
+
     Mono<String> lastArgParticipant(String prefix, Participant participant);
 
     Mono<String> middleArgParticipant(String prefix, Participant participant, String suffix);
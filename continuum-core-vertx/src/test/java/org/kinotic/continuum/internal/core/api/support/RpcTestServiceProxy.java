@@ -77,10 +77,16 @@ public interface RpcTestServiceProxy {
 
     CompletableFuture<String> getString();
 
+    Mono<String> getInvocationThreadName();
+
     Mono<String> getUnknownFailure();
 
     Future<String> getVertxFutureNullString();
 
+    Future<String> getVertxFutureString();
+
+    Mono<String> getPublisherFromMono();
+
     Mono<String> lastArgParticipant(String prefix);
 
     Mono<String> middleArgParticipant(String prefix, String suffix);
@@ -0,0 +1,70 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.api.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * {@link Bulkhead} limits the number of concurrent invocations of a published service.
+ * When used on a {@link Publish} interface, all methods of the service share a single limit.
+ * When used on a method, the method has a limit of its own.
+ * Any value that is not provided uses the value configured by {@link org.kinotic.continuum.api.config.ContinuumProperties}.
+ * Invocations over the limit are rejected with a {@link org.kinotic.continuum.api.exceptions.RpcRejectedException}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * The maximum number of concurrent invocations.
+     * When the limit is adaptive this is the upper bound of the limit.
+     */
+    int maxConcurrent() default -1;
+
+    /**
+     * The maximum number of invocations that will wait for the number of concurrent invocations to drop below the limit.
+     */
+    int maxQueued() default -1;
+
+    /**
+     * The maximum number of milliseconds an invocation will wait in the queue.
+     */
+    long queueTimeout() default -1;
+
+    /**
+     * How the limit of concurrent invocations is determined
+     */
+    Mode mode() default Mode.DEFAULT;
+
+    enum Mode {
+        /**
+         * Use the mode configured by {@link org.kinotic.continuum.api.config.ContinuumProperties}
+         */
+        DEFAULT,
+        /**
+         * The limit is always {@link #maxConcurrent()}
+         */
+        FIXED,
+        /**
+         * The limit is adjusted based on the observed latency of invocations, up to {@link #maxConcurrent()}
+         */
+        ADAPTIVE
+    }
+
+}
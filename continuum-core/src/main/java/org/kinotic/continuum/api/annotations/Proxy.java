@@ -45,4 +45,12 @@ public @interface Proxy {
      */
     String name() default "";
 
+    /**
+     * The number of milliseconds to wait for the response to a request, before the request fails with a {@link org.kinotic.continuum.api.exceptions.RpcTimeoutException}
+     * This can be overridden for individual methods with {@link RequestTimeout}
+     * If this is not provided the value configured by {@link org.kinotic.continuum.api.config.ContinuumProperties#getRpcRequestTimeout()} is used
+     * A value of 0 disables the timeout.
+     */
+    long requestTimeout() default -1;
+
 }
@@ -0,0 +1,37 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.api.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * {@link RequestTimeout} sets the number of milliseconds a {@link Proxy} method will wait for a response, before the request fails
+ * with a {@link org.kinotic.continuum.api.exceptions.RpcTimeoutException}.
+ * Methods returning a stream of values are not subject to the timeout, since the stream may remain open indefinitely.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestTimeout {
+
+    /**
+     * The timeout in milliseconds, a value of 0 disables the timeout
+     */
+    long value();
+
+}
@@ -17,6 +17,9 @@
 
 package org.kinotic.continuum.api.config;
 
+import org.kinotic.continuum.core.api.event.ListenerDispatch;
+import org.kinotic.continuum.core.api.event.ListenerOverflowStrategy;
+
 /**
  *
  * Created by Navíd Mitchell 🤪 on 1/18/21
@@ -75,6 +78,158 @@ public interface ContinuumProperties {
 
     int getMaxEventPayloadSize();
 
+    /**
+     * If true published service methods will be invoked using reflection.
+     * Otherwise, a {@link java.lang.invoke.MethodHandle} is bound to each service method when the service is registered.
+     * Reflection can be used as a fallback for services backed by proxies that do not work with method handles.
+     * @return true to invoke service methods using reflection, false to use precompiled method handles
+     */
+    boolean isReflectiveServiceInvocation();
+
+    /**
+     * If true, invocations of published service methods that do not return a reactive type are run on virtual threads.
+     * This allows services that block, such as for JDBC or file I/O, to handle many concurrent invocations without sizing the worker pool.
+     * Methods that return a reactive type are still invoked directly, since they are expected not to block.
+     * @return true to invoke blocking service methods on virtual threads
+     */
+    boolean isVirtualThreadServiceInvocation();
+
+    /**
+     * The maximum number of concurrent virtual thread invocations for each published service.
+     * When the limit is reached, no further events are taken from the event bus for the service until an invocation completes.
+     * Only used when {@link #isVirtualThreadServiceInvocation()} is true.
+     * @return the maximum number of concurrent invocations per service, or a value less than 1 for no limit
+     */
+    int getVirtualThreadServiceInvocationLimit();
+
+    /**
+     * If true every published service is given a bulkhead that limits its concurrent invocations, using the service bulkhead settings below.
+     * Services or methods annotated with {@link org.kinotic.continuum.api.annotations.Bulkhead} always have a bulkhead.
+     * @return true to give every service a bulkhead
+     */
+    boolean isServiceBulkheadEnabled();
+
+    /**
+     * The default maximum number of concurrent invocations allowed by a service bulkhead.
+     * For invocations that return a stream, the invocation is counted until the stream is subscribed to.
+     * @return the maximum number of concurrent invocations
+     */
+    int getServiceBulkheadMaxConcurrent();
+
+    /**
+     * The default maximum number of invocations that will wait when a service bulkhead is at its limit.
+     * Invocations beyond this are rejected immediately.
+     * @return the maximum number of queued invocations
+     */
+    int getServiceBulkheadMaxQueued();
+
+    /**
+     * The default maximum number of milliseconds an invocation will wait for a service bulkhead, before it is rejected
+     * @return the queue timeout in milliseconds, or a value less than 1 to wait indefinitely
+     */
+    long getServiceBulkheadQueueTimeout();
+
+    /**
+     * If true service bulkheads adjust their limit based on the observed latency of invocations.
+     * The limit is increased while latency stays close to the lowest latency observed, and reduced when latency grows.
+     * {@link #getServiceBulkheadMaxConcurrent()} is the upper bound of the limit.
+     * @return true if service bulkheads should use an adaptive limit by default
+     */
+    boolean isServiceBulkheadAdaptive();
+
+    /**
+     * The default number of milliseconds a service proxy waits for the response to a request, before the request fails with a
+     * {@link org.kinotic.continuum.api.exceptions.RpcTimeoutException}. This can be overridden using {@link org.kinotic.continuum.api.annotations.Proxy}
+     * or {@link org.kinotic.continuum.api.annotations.RequestTimeout}. Requests returning a stream of values are not subject to the timeout.
+     * @return the request timeout in milliseconds, or 0 for no timeout
+     */
+    long getRpcRequestTimeout();
+
+    /**
+     * If true service proxies combine requests, made to the same service within {@link #getRpcBatchDelay()}, into a single batch event.
+     * This reduces the per request overhead of the event bus, for clients making many small requests at a high rate.
+     * The service answers with a batch of replies. Requests returning a stream of values are never batched.
+     * @return true if service proxies should batch requests
+     */
+    boolean isRpcBatching();
+
+    /**
+     * The maximum number of requests included in a single batch, the batch is sent immediately once this is reached
+     * @return the maximum batch size
+     */
+    int getRpcBatchMaxSize();
+
+    /**
+     * The number of milliseconds a request can wait for other requests to be batched with.
+     * This is also the time a service waits for additional replies, after the first reply for a batch is ready.
+     * @return the batch delay in milliseconds
+     */
+    long getRpcBatchDelay();
+
+    /**
+     * The content type used by Java service proxies when invoking remote services, ex: application/json, application/cbor or application/x-jackson-smile
+     * Binary content types reduce the encoding cost and payload size for node to node service invocations.
+     * This does not affect clients connected through the gateway, since services always reply using the content type of the request.
+     * @return the content type used for service proxies, defaults to application/json
+     */
+    String getServiceProxyContentType();
+
+    /**
+     * The threads that deliver events to event bus listeners, unless specified by the {@link org.kinotic.continuum.core.api.event.ListenOptions} of the listener
+     * @return the default {@link ListenerDispatch}, defaults to {@link ListenerDispatch#WORKER}
+     */
+    ListenerDispatch getEventBusListenerDispatch();
+
+    /**
+     * The maximum number of events held for an event bus listener that has not requested them yet, unless specified by the {@link org.kinotic.continuum.core.api.event.ListenOptions} of the listener
+     * @return the default buffer size for event bus listeners
+     */
+    int getEventBusListenerBufferSize();
+
+    /**
+     * What an event bus listener does when its buffer is full, unless specified by the {@link org.kinotic.continuum.core.api.event.ListenOptions} of the listener
+     * @return the default {@link ListenerOverflowStrategy}, defaults to {@link ListenerOverflowStrategy#PAUSE}
+     */
+    ListenerOverflowStrategy getEventBusListenerOverflowStrategy();
+
+    /**
+     * The maximum number of destinations that event bus metrics are recorded for by name, metrics for any other destinations are combined.
+     * A destination is the scheme and resource name of a CRI, so events for different scopes of the same resource share a destination.
+     * This limits the cardinality of the metrics when events are sent to many different destinations.
+     * @return the maximum number of destinations recorded by name
+     */
+    int getEventBusMetricsMaxDestinations();
+
+    /**
+     * If true Java service proxies will invoke services registered in the same JVM directly, instead of sending the invocation over the event bus.
+     * Arguments and results are not serialized in this case, and errors are relayed as thrown by the service instead of being converted.
+     * Invocations that cannot be performed locally, such as when the proxy method is not compatible with the service method, will still use the event bus.
+     * @return true to enable local service invocation, false to always use the event bus
+     */
+    boolean isLocalServiceInvocation();
+
+    /**
+     * If true arguments and results of local service invocations are deep copied, so the caller and the service never share mutable objects.
+     * This also allows the proxy and service to use different types that have the same json representation.
+     * Copying is still much cheaper than serializing, since values are copied using an in memory token stream.
+     * @return true to deep copy values of local service invocations, false to pass them by reference
+     */
+    boolean isLocalServiceInvocationDeepCopy();
+
+    /**
+     * The directory used by the embedded event stream storage. Each stream is stored in a sub directory named after the stream.
+     * There is no default, the embedded storage fails when it is used without a directory. The directory is locked while in use,
+     * so every node on a host needs its own directory. There is no retention, stored events are never deleted.
+     * @return the event stream directory, or null if not set
+     */
+    String getEventStreamDirectory();
+
+    /**
+     * The size of each memory mapped segment file of an event stream, this also limits the maximum size of a single event
+     * @return the segment size in bytes
+     */
+    int getEventStreamSegmentSize();
+
     /**
      * The maximum number of CPU cores if not set or less than 1, this will default to the available number of cores.
      * @return the max number of CPU Cores to Use
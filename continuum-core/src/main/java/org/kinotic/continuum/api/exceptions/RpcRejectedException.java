@@ -0,0 +1,27 @@
+package org.kinotic.continuum.api.exceptions;
+
+/**
+ * This exception is thrown when an RPC request is rejected because the service has reached its limit of concurrent and queued invocations
+ * or the request waited in the queue longer than allowed.
+ * The request was not invoked, so it is safe to retry.
+ */
+public class RpcRejectedException extends ContinuumException{
+    public RpcRejectedException() {
+    }
+
+    public RpcRejectedException(String message) {
+        super(message);
+    }
+
+    public RpcRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcRejectedException(Throwable cause) {
+        super(cause);
+    }
+
+    public RpcRejectedException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
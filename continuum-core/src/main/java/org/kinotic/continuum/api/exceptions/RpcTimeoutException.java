@@ -0,0 +1,26 @@
+package org.kinotic.continuum.api.exceptions;
+
+/**
+ * This exception is thrown when no response is received for an RPC request within the request timeout.
+ * The service may or may not have been invoked.
+ */
+public class RpcTimeoutException extends ContinuumException{
+    public RpcTimeoutException() {
+    }
+
+    public RpcTimeoutException(String message) {
+        super(message);
+    }
+
+    public RpcTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcTimeoutException(Throwable cause) {
+        super(cause);
+    }
+
+    public RpcTimeoutException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+
+/**
+ * Options that control how {@link Event}'s are grouped into chunks when they are published in bulk with the {@link EventBusService}.
+ * The acknowledgements for the events of a chunk are aggregated, so the sender waits for each chunk instead of for each {@link Event}.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class BatchOptions {
+
+    /**
+     * The maximum number of events in a chunk
+     */
+    private int chunkSize = 1000;
+    /**
+     * The maximum time to wait for a chunk to fill, before it is sent with fewer than {@link #chunkSize} events
+     */
+    private Duration chunkTimeout = Duration.ofMillis(100);
+    /**
+     * The maximum number of chunks that can be waiting for an acknowledgement, before no more events are requested from the publisher
+     */
+    private int maxChunksInFlight = 4;
+
+    public static BatchOptions create(){
+        return new BatchOptions();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("chunkSize", chunkSize)
+                .append("chunkTimeout", chunkTimeout)
+                .append("maxChunksInFlight", maxChunksInFlight)
+                .toString();
+    }
+}
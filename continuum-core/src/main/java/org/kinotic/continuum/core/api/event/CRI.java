@@ -117,12 +117,16 @@ public interface CRI {
 
     /**
      * Will create a new {@link CRI} from a raw string
+     * Frequently used {@link CRI}s are cached, so the same instance may be returned for equal raw strings
      *
      * @param rawUrc the raw string
-     * @return the newly created {@link CRI}
+     * @return the {@link CRI}
      */
     static CRI create(String rawUrc){
-        return new DefaultCRI(rawUrc);
+        if(rawUrc == null){
+            throw new NullPointerException("rawUrc must not be null");
+        }
+        return CRICache.get(rawUrc);
     }
 
     static CRI create(String scheme, String resourceName){
@@ -0,0 +1,43 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kinotic.continuum.core.api.event;
+
+/**
+ * A bounded cache of {@link CRI}s keyed by their raw value, so frequently seen destinations are only parsed once.
+ * The cache is direct mapped, each raw value can only be stored in one slot, and a new value simply replaces the value in its slot.
+ * This keeps lookups to a hash and a string comparison without any locking, since {@link DefaultCRI} is immutable.
+ */
+class CRICache {
+
+    private static final int SIZE = 4096;
+    private static final DefaultCRI[] cache = new DefaultCRI[SIZE];
+
+    private CRICache() {
+    }
+
+    static CRI get(String rawCRI){
+        int hash = rawCRI.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        DefaultCRI ret = cache[index];
+        if(ret == null || !ret.raw().equals(rawCRI)){
+            ret = new DefaultCRI(rawCRI);
+            cache[index] = ret;
+        }
+        return ret;
+    }
+
+}
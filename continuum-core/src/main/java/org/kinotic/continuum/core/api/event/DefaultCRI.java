@@ -14,29 +14,39 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.kinotic.continuum.core.api.event;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-
 import java.net.URI;
 import java.net.URISyntaxException;
 
 /**
+ * {@link CRI} implementation that slices the raw string into its parts once, by recording the offsets of each part.
+ * The string value of a part is only created when it is first requested.
  *
  * Created by Navid Mitchell on 5/1/20
  */
 class DefaultCRI implements CRI {
 
-    private final URI uri;
+    private final String raw;
+    private final int schemeEnd;
+    private final int scopeStart;
+    private final int scopeEnd;
+    private final int resourceStart;
+    private final int resourceEnd;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int versionStart;
+
+    // lazily created parts, these are safe to race on since Strings are immutable
+    private String scheme;
+    private String scope;
+    private String resourceName;
+    private String path;
+    private String version;
+    private String baseResource;
 
     public DefaultCRI(String scheme, String scope, String resourceName, String path, String version) {
-        try {
-            uri = new URI(scheme, scope,  resourceName, -1, path,null, version);
-        } catch (URISyntaxException x) {
-            throw new IllegalArgumentException(x.getMessage(), x);
-        }
+        this(buildRaw(scheme, scope, resourceName, path, version));
     }
 
     /**
@@ -45,65 +55,203 @@ class DefaultCRI implements CRI {
      * @param rawCRI the raw string to create from an {@link CRI}
      */
     public DefaultCRI(String rawCRI) {
-        uri = URI.create(rawCRI);
+        if(rawCRI == null){
+            throw new NullPointerException("rawCRI must not be null");
+        }
+        this.raw = rawCRI;
+
+        schemeEnd = rawCRI.indexOf("://");
+        if(schemeEnd <= 0){
+            throw new IllegalArgumentException("Expected scheme://[scope@]resourceName[/path][#version] but got: " + rawCRI);
+        }
+        int authorityStart = schemeEnd + 3;
+        int length = rawCRI.length();
+
+        int hash = rawCRI.indexOf('#', authorityStart);
+        int beforeVersion = hash >= 0 ? hash : length;
+        versionStart = hash >= 0 ? hash + 1 : -1;
+
+        int authorityEnd = beforeVersion;
+        int slash = -1;
+        int query = -1;
+        for(int i = authorityStart; i < beforeVersion; i++){
+            char c = rawCRI.charAt(i);
+            if(c == '/' && slash == -1 && query == -1){
+                slash = i;
+            }else if(c == '?' && query == -1){
+                query = i;
+            }
+        }
+        if(slash >= 0){
+            authorityEnd = slash;
+        }else if(query >= 0){
+            authorityEnd = query;
+        }
+
+        int at = rawCRI.lastIndexOf('@', authorityEnd - 1);
+        if(at >= authorityStart){
+            scopeStart = authorityStart;
+            scopeEnd = at;
+            resourceStart = at + 1;
+        }else{
+            scopeStart = -1;
+            scopeEnd = -1;
+            resourceStart = authorityStart;
+        }
+        resourceEnd = authorityEnd;
+        if(resourceStart >= resourceEnd){
+            throw new IllegalArgumentException("Expected scheme://[scope@]resourceName[/path][#version] but got: " + rawCRI);
+        }
+
+        if(slash >= 0){
+            pathStart = slash;
+            // any query is not part of the path
+            pathEnd = query > slash ? query : beforeVersion;
+        }else{
+            pathStart = -1;
+            pathEnd = -1;
+        }
+    }
+
+    /**
+     * Creates the raw string directly when none of the parts need to be quoted.
+     * Otherwise {@link URI} is used to quote the parts, so the result is the same as a {@link URI} created from the parts.
+     */
+    private static String buildRaw(String scheme, String scope, String resourceName, String path, String version){
+        String ret;
+        if(isSafe(scheme, false)
+                && isSafe(scope, false)
+                && isSafe(resourceName, false)
+                && (path == null || (path.startsWith("/") && isSafe(path, true)))
+                && isSafe(version, false)
+                && scheme != null
+                && resourceName != null){
+
+            StringBuilder sb = new StringBuilder(scheme.length()
+                                                 + 3
+                                                 + (scope != null ? scope.length() + 1 : 0)
+                                                 + resourceName.length()
+                                                 + (path != null ? path.length() : 0)
+                                                 + (version != null ? version.length() + 1 : 0));
+            sb.append(scheme).append("://");
+            if(scope != null){
+                sb.append(scope).append('@');
+            }
+            sb.append(resourceName);
+            if(path != null){
+                sb.append(path);
+            }
+            if(version != null){
+                sb.append('#').append(version);
+            }
+            ret = sb.toString();
+        }else{
+            try {
+                ret = new URI(scheme, scope, resourceName, -1, path, null, version).toString();
+            } catch (URISyntaxException x) {
+                throw new IllegalArgumentException(x.getMessage(), x);
+            }
+        }
+        return ret;
+    }
+
+    private static boolean isSafe(String value, boolean allowSlash){
+        if(value == null){
+            return true;
+        }
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z')
+                    || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~' || c == ':'
+                    || (allowSlash && c == '/');
+            if(!safe){
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public String scheme() {
-        return uri.getScheme();
+        String ret = scheme;
+        if(ret == null){
+            ret = raw.substring(0, schemeEnd);
+            scheme = ret;
+        }
+        return ret;
     }
 
     @Override
     public String scope() {
-        return uri.getRawUserInfo();
+        String ret = scope;
+        if(ret == null && scopeStart >= 0){
+            ret = raw.substring(scopeStart, scopeEnd);
+            scope = ret;
+        }
+        return ret;
     }
 
     @Override
     public boolean hasScope() {
-        return uri.getRawUserInfo() != null;
+        return scopeStart >= 0;
     }
 
     @Override
     public String resourceName() {
-        return uri.getHost();
+        String ret = resourceName;
+        if(ret == null){
+            ret = raw.substring(resourceStart, resourceEnd);
+            resourceName = ret;
+        }
+        return ret;
     }
 
     @Override
     public String version() {
-        return uri.getRawFragment();
+        String ret = version;
+        if(ret == null && versionStart >= 0){
+            ret = raw.substring(versionStart);
+            version = ret;
+        }
+        return ret;
     }
 
     @Override
     public boolean hasVersion() {
-        return uri.getRawFragment() != null;
+        return versionStart >= 0;
     }
 
     @Override
     public String path() {
-        return uri.getRawPath();
+        String ret = path;
+        if(ret == null && pathStart >= 0){
+            ret = raw.substring(pathStart, pathEnd);
+            path = ret;
+        }
+        return ret;
     }
 
     @Override
     public boolean hasPath() {
-        return uri.getRawPath() != null;
+        return pathStart >= 0;
     }
 
     @Override
     public String baseResource() {
-        StringBuilder sb = new StringBuilder(scheme());
-        sb.append("://");
-        if(hasScope()){
-            sb.append(scope());
-            sb.append("@");
+        String ret = baseResource;
+        if(ret == null){
+            // the base resource is always the start of the raw value
+            ret = resourceEnd == raw.length() ? raw : raw.substring(0, resourceEnd);
+            baseResource = ret;
         }
-        sb.append(resourceName());
-
-        return sb.toString();
+        return ret;
     }
 
     @Override
     public String raw() {
-        return uri.toString();
+        return raw;
     }
 
     @Override
@@ -114,20 +262,16 @@ class DefaultCRI implements CRI {
 
         DefaultCRI that = (DefaultCRI) o;
 
-        return new EqualsBuilder()
-                .append(uri.toString(), that.toString())
-                .isEquals();
+        return raw.equals(that.raw);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37)
-                .append(uri.toString())
-                .toHashCode();
+        return raw.hashCode();
     }
 
     @Override
     public String toString() {
-        return uri.toString();
+        return raw;
     }
 }
@@ -14,65 +14,276 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.kinotic.continuum.core.api.event;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 /**
+ * Compact {@link Metadata} backed by arrays.
+ * Well known headers from {@link EventConstants} are stored in fixed slots, so they are found without hashing.
+ * All other headers are stored in parallel key and value arrays in the order they were added.
+ * Iteration returns the well known headers first, followed by all other headers.
+ * Null values are not stored, putting a null value removes the header. Null keys are not supported, looking up a null key finds nothing.
  *
  * Created by navid on 11/6/19
  */
 class DefaultMetadata implements Metadata{
 
-    private final Map<String,String> delegate;
+    private static final String[] KNOWN_KEYS = {
+            EventConstants.REPLY_TO_HEADER,
+            EventConstants.CORRELATION_ID_HEADER,
+            EventConstants.CONTENT_TYPE_HEADER,
+            EventConstants.SENDER_HEADER,
+            EventConstants.CONTROL_HEADER,
+            EventConstants.ERROR_HEADER,
+            EventConstants.CONTENT_LENGTH_HEADER,
+            EventConstants.REPLY_TO_ID_HEADER,
+            EventConstants.SESSION_HEADER,
+            EventConstants.TRACEPARENT_HEADER,
+            EventConstants.TRACESTATE_HEADER,
+            EventConstants.BATCH_HEADER
+    };
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final String[] knownValues;
+    private int knownCount;
+    private String[] keys;
+    private String[] values;
+    private int otherCount;
 
     public DefaultMetadata() {
-        delegate = new LinkedHashMap<>();
+        knownValues = new String[KNOWN_KEYS.length];
     }
 
     public DefaultMetadata(Map<String, String> delegate) {
-        this.delegate = new LinkedHashMap<>(delegate);
+        this();
+        for(Map.Entry<String, String> entry : delegate.entrySet()){
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private DefaultMetadata(DefaultMetadata other) {
+        knownValues = other.knownValues.clone();
+        knownCount = other.knownCount;
+        if(other.otherCount > 0){
+            keys = Arrays.copyOf(other.keys, other.keys.length);
+            values = Arrays.copyOf(other.values, other.values.length);
+            otherCount = other.otherCount;
+        }
+    }
+
+    /**
+     * @return the slot for a well known header or -1 if the header does not have a slot
+     */
+    private static int slot(String key){
+        if(key == null){
+            return -1;
+        }
+        switch (key){
+            case EventConstants.REPLY_TO_HEADER: return 0;
+            case EventConstants.CORRELATION_ID_HEADER: return 1;
+            case EventConstants.CONTENT_TYPE_HEADER: return 2;
+            case EventConstants.SENDER_HEADER: return 3;
+            case EventConstants.CONTROL_HEADER: return 4;
+            case EventConstants.ERROR_HEADER: return 5;
+            case EventConstants.CONTENT_LENGTH_HEADER: return 6;
+            case EventConstants.REPLY_TO_ID_HEADER: return 7;
+            case EventConstants.SESSION_HEADER: return 8;
+            case EventConstants.TRACEPARENT_HEADER: return 9;
+            case EventConstants.TRACESTATE_HEADER: return 10;
+            case EventConstants.BATCH_HEADER: return 11;
+            default: return -1;
+        }
+    }
+
+    private int indexOfOther(String key){
+        for(int i = 0; i < otherCount; i++){
+            if(Objects.equals(keys[i], key)){
+                return i;
+            }
+        }
+        return -1;
     }
 
     @Override
     public boolean contains(String key) {
-        return delegate.containsKey(key);
+        return get(key) != null;
     }
 
     @Override
     public Iterator<Map.Entry<String, String>> iterator() {
-        return delegate.entrySet().iterator();
+        return new MetadataIterator();
     }
 
     @Override
     public int size() {
-        return delegate.size();
+        return knownCount + otherCount;
     }
 
     @Override
     public boolean isEmpty() {
-        return delegate.isEmpty();
+        return size() == 0;
     }
 
     public String get(String key) {
-        return delegate.get(key);
+        int slot = slot(key);
+        if(slot >= 0){
+            return knownValues[slot];
+        }
+        int index = indexOfOther(key);
+        return index >= 0 ? values[index] : null;
     }
 
     @Override
     public void put(String key, String value) {
-        delegate.put(key, value);
+        Objects.requireNonNull(key, "key must not be null");
+        if(value == null){
+            remove(key);
+            return;
+        }
+        int slot = slot(key);
+        if(slot >= 0){
+            if(knownValues[slot] == null){
+                knownCount++;
+            }
+            knownValues[slot] = value;
+        }else{
+            int index = indexOfOther(key);
+            if(index >= 0){
+                values[index] = value;
+            }else{
+                if(keys == null){
+                    keys = new String[INITIAL_CAPACITY];
+                    values = new String[INITIAL_CAPACITY];
+                }else if(otherCount == keys.length){
+                    keys = Arrays.copyOf(keys, otherCount * 2);
+                    values = Arrays.copyOf(values, otherCount * 2);
+                }
+                keys[otherCount] = key;
+                values[otherCount] = value;
+                otherCount++;
+            }
+        }
     }
 
     public void remove(String key) {
-        delegate.remove(key);
+        int slot = slot(key);
+        if(slot >= 0){
+            removeSlot(slot);
+        }else{
+            int index = indexOfOther(key);
+            if(index >= 0){
+                removeOther(index);
+            }
+        }
+    }
+
+    private void removeSlot(int slot){
+        if(knownValues[slot] != null){
+            knownValues[slot] = null;
+            knownCount--;
+        }
+    }
+
+    private void removeOther(int index){
+        int moved = otherCount - index - 1;
+        if(moved > 0){
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        otherCount--;
+        keys[otherCount] = null;
+        values[otherCount] = null;
     }
 
     @Override
     public void clear() {
-        delegate.clear();
+        Arrays.fill(knownValues, null);
+        knownCount = 0;
+        if(keys != null){
+            Arrays.fill(keys, 0, otherCount, null);
+            Arrays.fill(values, 0, otherCount, null);
+        }
+        otherCount = 0;
+    }
+
+    @Override
+    public void forEachHeader(BiConsumer<String, String> action) {
+        if(knownCount > 0){
+            for(int i = 0; i < knownValues.length; i++){
+                if(knownValues[i] != null){
+                    action.accept(KNOWN_KEYS[i], knownValues[i]);
+                }
+            }
+        }
+        for(int i = 0; i < otherCount; i++){
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public Metadata copy() {
+        return new DefaultMetadata(this);
+    }
+
+    private class MetadataIterator implements Iterator<Map.Entry<String, String>> {
+
+        // positions below KNOWN_KEYS.length are slots, positions after are indexes of the other headers
+        private int position = -1;
+        private int lastReturned = -1;
+
+        public MetadataIterator() {
+            advance();
+        }
+
+        private void advance(){
+            position++;
+            while(position < KNOWN_KEYS.length && knownValues[position] == null){
+                position++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < KNOWN_KEYS.length + otherCount;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, String> ret;
+            if(position < KNOWN_KEYS.length){
+                ret = Map.entry(KNOWN_KEYS[position], knownValues[position]);
+            }else{
+                int index = position - KNOWN_KEYS.length;
+                ret = Map.entry(keys[index], values[index]);
+            }
+            lastReturned = position;
+            advance();
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned < 0){
+                throw new IllegalStateException();
+            }
+            if(lastReturned < KNOWN_KEYS.length){
+                removeSlot(lastReturned);
+            }else{
+                removeOther(lastReturned - KNOWN_KEYS.length);
+                // the following headers moved back by one
+                position--;
+            }
+            lastReturned = -1;
+        }
     }
 
 }
@@ -17,9 +17,12 @@
 
 package org.kinotic.continuum.core.api.event;
 
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Provides functionality for non-persistent {@link Event}'s
  *
@@ -36,18 +39,55 @@ public interface EventBusService {
     /**
      * Send an {@link Event} to through the event bus.
      * This is a special form of send that requires the receiver to acknowledge receipt of the message.
-     * An exception will be signaled if no acknowledgement is sent.
+     * Listeners created by this service acknowledge an event once it is emitted to their subscriber.
+     * An exception will be signaled if no acknowledgement is sent, or the listener discarded the event.
      * @param event to send
      */
     Mono<Void> sendWithAck(Event<byte[]> event);
 
+    /**
+     * Send all of the {@link Event}'s through the event bus, in the order provided.
+     * The events are sent in chunks using the default {@link BatchOptions}, and every event must be acknowledged by the receiver it was delivered to.
+     * @param events to send
+     * @return a {@link Mono} that completes when every chunk has been acknowledged, or signals an error if any chunk is not acknowledged
+     */
+    Mono<Void> sendBatch(List<Event<byte[]>> events);
+
+    /**
+     * Send all of the {@link Event}'s emitted by the {@link Publisher} through the event bus, in the order they are emitted.
+     * Events are grouped into chunks as described by the {@link BatchOptions}.
+     * Every event is sent as a request, since a destination with many listeners delivers each event to only one of them.
+     * The acknowledgements of the events in a chunk are aggregated, so a chunk is reported once every one of its events is acknowledged,
+     * and the {@link Flux} fails with the first event that is not acknowledged.
+     * Events are only requested from the publisher while fewer than {@link BatchOptions#getMaxChunksInFlight()} chunks are waiting for acknowledgement.
+     * @param publisher of the events to send
+     * @param options that control how events are chunked
+     * @return a {@link Flux} that emits the number of events in each chunk, in order, as each chunk is acknowledged
+     */
+    Flux<Integer> sendStream(Publisher<Event<byte[]>> publisher, BatchOptions options);
+
     /**
      * Returns a "Cold" {@link Flux} that will emit {@link Event<byte[]>} from the given cri when subscribed to
+     * The cri can also be a pattern, to receive the events sent to every {@link CRI} that matches it.
+     * <ul>
+     *     <li>The scope can be * to match any scope, for example srv://*@device.telemetry</li>
+     *     <li>The last dot separated segment of the resource name can be * to match one or more segments, for example srv://device.*</li>
+     * </ul>
+     * Events received by a pattern are never acknowledged to the sender.
      * @param cri to subscribe to
      * @return the newly created {@link Flux} for the given cri
      */
     Flux<Event<byte[]>> listen(String cri);
 
+    /**
+     * Returns a "Cold" {@link Flux} that will emit {@link Event<byte[]>} from the given cri when subscribed to
+     * Events are only emitted as they are requested by the subscriber, the {@link ListenOptions} control how events are buffered until then.
+     * @param cri to subscribe to
+     * @param options that control how events are delivered to the subscriber
+     * @return the newly created {@link Flux} for the given cri
+     */
+    Flux<Event<byte[]>> listen(String cri, ListenOptions options);
+
     /**
      * Returns a {@link Mono} that when subscribed to will produce a "Hot" flux {@link Flux} that will emit {@link Event}'s from the given cri.
      * Because this returns a "Hot" flux some messages can be lost before you can subscribe to the {@link Flux} provided by the {@link Mono}
@@ -61,6 +101,14 @@ public interface EventBusService {
      */
     Mono<Flux<Event<byte[]>>> listenWithAck(String cri);
 
+    /**
+     * Same as {@link #listenWithAck(String)} but allows the delivery of events to be controlled with the given {@link ListenOptions}
+     * @param cri to subscribe to
+     * @param options that control how events are delivered to the subscriber
+     * @return the newly created {@link Flux<byte[]>} for the given cri
+     */
+    Mono<Flux<Event<byte[]>>> listenWithAck(String cri, ListenOptions options);
+
     /**
      * Checks if any listeners have been registered for the given {@link CRI}
      * @param cri to check if any listeners are active for
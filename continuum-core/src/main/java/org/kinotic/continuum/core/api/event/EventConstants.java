@@ -63,6 +63,11 @@ public class EventConstants {
      */
     public static final String CORRELATION_ID_HEADER = "__correlation-id";
 
+    /**
+     * The offset of an event read from an event stream. This can be used to resume listening to the stream from the next event.
+     */
+    public static final String STREAM_OFFSET_HEADER = "stream-offset";
+
     /**
      * Denotes that something caused an error. Will contain a brief message about the error.
      */
@@ -84,6 +89,18 @@ public class EventConstants {
 
     public static final String CONTROL_VALUE_RESUME = "resume";
 
+    /**
+     * Set on the first value sent for a streaming result. Allows receivers that do not know the return type of the invoked method,
+     * such as the REST gateway, to tell a streaming result apart from a single value result.
+     */
+    public static final String STREAM_START_HEADER = "stream-start";
+
+
+    /**
+     * Denotes the event data contains multiple framed events, sent together to reduce per event overhead.
+     * The value is the number of events contained. Headers of the batch event apply to all contained events.
+     */
+    public static final String BATCH_HEADER = "batch";
 
     public static final String SERVICE_DESTINATION_SCHEME = "srv";
 
@@ -30,6 +30,12 @@ import reactor.core.publisher.Mono;
  */
 public interface EventStreamService {
 
+    /**
+     * Appends the event to the stream named by the {@link CRI#resourceName()} of the event.
+     * The {@link CRI#scope()} is stored as the key of the event.
+     * @param event to append
+     * @return a {@link Mono} that completes once the event has been stored
+     */
     Mono<Void> send(Event<byte[]> event);
 
     /**
@@ -42,6 +48,20 @@ public interface EventStreamService {
      */
     Mono<Void> sendStream(Publisher<Event<byte[]>> publisher);
 
+    /**
+     * Listens to the stream named by the {@link CRI#resourceName()}.
+     * If a {@link CRI#scope()} is provided only events with that scope are received.
+     * The {@link CRI#path()} determines where to start reading the stream.
+     * <ul>
+     *     <li>no path, reads the stream from the first event</li>
+     *     <li>latest, only receives events sent after listening</li>
+     *     <li>a number, reads the stream starting at the event with that offset</li>
+     *     <li>anything else is the name of a consumer group, reading continues from the offset last received by the group</li>
+     * </ul>
+     * Every event received contains the {@link EventConstants#STREAM_OFFSET_HEADER}.
+     * @param cri of the stream to listen to
+     * @return a {@link Flux} that receives the events, this does not complete when the end of the stream is reached
+     */
     Flux<Event<byte[]>> listen(CRI cri);
 }
 
@@ -0,0 +1,53 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stores the events for the {@link EventStreamService}.
+ * An embedded storage is provided by default, this can be replaced by providing a bean of this type, such as one backed by an external broker.
+ * Streams are named by the {@link CRI#resourceName()} of an event and the {@link CRI#scope()} is the key of the event.
+ * Each event in a stream is assigned an offset, starting at 0 and increasing by one for every event.
+ */
+public interface EventStreamStorage {
+
+    /**
+     * Offset that can be provided to {@link #read(CRI, long, String)} to only receive events appended after reading starts
+     */
+    long LATEST = -1;
+
+    /**
+     * Appends the event to the end of its stream
+     * @param event to append
+     * @return a {@link Mono} that completes once the event is stored, events are stored in the order this method is called
+     */
+    Mono<Void> append(Event<byte[]> event);
+
+    /**
+     * Reads the stream for the given {@link CRI}, starting at the given offset and continuing with events appended after that.
+     * @param cri of the stream, if a {@link CRI#scope()} is provided only events with that scope are read
+     * @param fromOffset the offset of the first event to read or {@link #LATEST}
+     * @param consumerGroup if not null reading starts after the last event read by this group, or at fromOffset if the group has not read any events.
+     *                      The offset of the group is updated as events are emitted.
+     * @return a {@link Flux} emitting the events, each containing the {@link EventConstants#STREAM_OFFSET_HEADER}
+     */
+    Flux<Event<byte[]>> read(CRI cri, long fromOffset, String consumerGroup);
+
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Options that control how {@link Event}'s are delivered to a listener created with the {@link EventBusService}.
+ * Any option that is not set will use the value configured by {@link org.kinotic.continuum.api.config.ContinuumProperties}.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class ListenOptions {
+
+    /**
+     * The threads that deliver events to the subscriber
+     */
+    private ListenerDispatch dispatch;
+    /**
+     * The maximum number of events that will be held for the subscriber, before the {@link #overflowStrategy} is applied
+     */
+    private Integer bufferSize;
+    /**
+     * What to do when the buffer is full
+     */
+    private ListenerOverflowStrategy overflowStrategy;
+
+    public static ListenOptions create(){
+        return new ListenOptions();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("dispatch", dispatch)
+                .append("bufferSize", bufferSize)
+                .append("overflowStrategy", overflowStrategy)
+                .toString();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+/**
+ * Determines which threads deliver {@link Event}'s to a listener created with the {@link EventBusService}
+ */
+public enum ListenerDispatch {
+    /**
+     * Events are delivered on the event loop that received them.
+     * This has the least overhead, but subscribers must never block.
+     */
+    EVENT_LOOP,
+    /**
+     * Events are delivered on the worker pool, in the order they were received.
+     * Subscribers may block, but doing so holds a worker thread.
+     */
+    WORKER,
+    /**
+     * Events are delivered on virtual threads, in the order they were received.
+     * Subscribers may block without holding a platform thread.
+     */
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,45 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+/**
+ * Determines what a listener created with the {@link EventBusService} does when its buffer is full,
+ * because {@link Event}'s are received faster than the subscriber requests them.
+ */
+public enum ListenerOverflowStrategy {
+    /**
+     * Stop receiving events from the event bus until the subscriber requests more.
+     * Events sent while paused are held by the event bus up to the buffer size, after which they are discarded by the event bus.
+     */
+    PAUSE,
+    /**
+     * Discard the event that was just received.
+     * If the sender requested an acknowledgement, it will receive a failure.
+     */
+    DROP_LATEST,
+    /**
+     * Discard the oldest buffered event to make room for the event that was just received.
+     * If the sender of the discarded event requested an acknowledgement, it will receive a failure.
+     */
+    DROP_OLDEST,
+    /**
+     * Terminate the listener with an error.
+     * The event that was just received and all buffered events are discarded, senders that requested an acknowledgement will receive a failure.
+     */
+    ERROR
+}
@@ -18,6 +18,7 @@
 package org.kinotic.continuum.core.api.event;
 
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * {@link Metadata} is {@link String} key value pairs containing useful information about an {@link Event}
@@ -76,6 +77,27 @@ public interface Metadata extends Iterable<Map.Entry<String, String>> {
      */
     int size();
 
+    /**
+     * Performs the given action for each key value pair in this {@link Metadata}.
+     * Unlike iterating this {@link Metadata}, implementations can do this without creating an entry for each pair.
+     *
+     * @param action to perform for each key value pair
+     */
+    default void forEachHeader(BiConsumer<String, String> action){
+        for(Map.Entry<String, String> entry : this){
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return a new {@link Metadata} containing all the key value pairs of this {@link Metadata}
+     */
+    default Metadata copy(){
+        Metadata ret = create();
+        forEachHeader(ret::put);
+        return ret;
+    }
+
     static Metadata create(){
         return new DefaultMetadata();
     }
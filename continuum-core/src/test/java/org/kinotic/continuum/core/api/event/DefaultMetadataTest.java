@@ -0,0 +1,262 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.core.api.event;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Tests the slots for well known headers and the arrays for all other headers of {@link DefaultMetadata}
+ */
+public class DefaultMetadataTest {
+
+    @Test
+    public void testPutGetRemoveSlotKey(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put(EventConstants.REPLY_TO_HEADER, "srv://reply");
+
+        Assertions.assertEquals("srv://reply", metadata.get(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertTrue(metadata.contains(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertEquals(1, metadata.size());
+
+        metadata.put(EventConstants.REPLY_TO_HEADER, "srv://other");
+        Assertions.assertEquals("srv://other", metadata.get(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertEquals(1, metadata.size());
+
+        metadata.remove(EventConstants.REPLY_TO_HEADER);
+        Assertions.assertNull(metadata.get(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertFalse(metadata.contains(EventConstants.REPLY_TO_HEADER));
+        Assertions.assertTrue(metadata.isEmpty());
+
+        // removing again does nothing
+        metadata.remove(EventConstants.REPLY_TO_HEADER);
+        Assertions.assertEquals(0, metadata.size());
+    }
+
+    @Test
+    public void testPutGetRemoveOtherKey(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put("custom", "value");
+
+        Assertions.assertEquals("value", metadata.get("custom"));
+        Assertions.assertTrue(metadata.contains("custom"));
+        Assertions.assertEquals(1, metadata.size());
+
+        metadata.put("custom", "other");
+        Assertions.assertEquals("other", metadata.get("custom"));
+        Assertions.assertEquals(1, metadata.size());
+
+        metadata.remove("custom");
+        Assertions.assertNull(metadata.get("custom"));
+        Assertions.assertFalse(metadata.contains("custom"));
+        Assertions.assertTrue(metadata.isEmpty());
+
+        metadata.remove("custom");
+        Assertions.assertEquals(0, metadata.size());
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity(){
+        Metadata metadata = new DefaultMetadata();
+        for(int i = 0; i < 100; i++){
+            metadata.put("key" + i, "value" + i);
+        }
+        metadata.put(EventConstants.CONTENT_TYPE_HEADER, "application/json");
+
+        Assertions.assertEquals(101, metadata.size());
+        for(int i = 0; i < 100; i++){
+            Assertions.assertEquals("value" + i, metadata.get("key" + i));
+        }
+
+        // removing from the middle keeps the remaining headers reachable and in order
+        for(int i = 0; i < 100; i += 2){
+            metadata.remove("key" + i);
+        }
+        Assertions.assertEquals(51, metadata.size());
+        List<String> keys = keys(metadata);
+        Assertions.assertEquals(EventConstants.CONTENT_TYPE_HEADER, keys.get(0));
+        for(int i = 1; i < 100; i += 2){
+            Assertions.assertEquals("value" + i, metadata.get("key" + i));
+            Assertions.assertEquals("key" + i, keys.get(1 + i / 2));
+        }
+    }
+
+    @Test
+    public void testNullValueRemoves(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put(EventConstants.SENDER_HEADER, "sender");
+        metadata.put("custom", "value");
+
+        metadata.put(EventConstants.SENDER_HEADER, null);
+        metadata.put("custom", null);
+        // a null value for a header that does not exist does nothing
+        metadata.put("missing", null);
+
+        Assertions.assertFalse(metadata.contains(EventConstants.SENDER_HEADER));
+        Assertions.assertFalse(metadata.contains("custom"));
+        Assertions.assertFalse(metadata.contains("missing"));
+        Assertions.assertEquals(0, metadata.size());
+    }
+
+    @Test
+    public void testNullKey(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put("custom", "value");
+
+        Assertions.assertNull(metadata.get(null));
+        Assertions.assertFalse(metadata.contains(null));
+        metadata.remove(null);
+        Assertions.assertEquals(1, metadata.size());
+        Assertions.assertThrows(NullPointerException.class, () -> metadata.put(null, "value"));
+    }
+
+    @Test
+    public void testIterationOrder(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put("first", "1");
+        metadata.put(EventConstants.CORRELATION_ID_HEADER, "42");
+        metadata.put("second", "2");
+        metadata.put(EventConstants.REPLY_TO_HEADER, "srv://reply");
+
+        // well known headers come first in a fixed order, all other headers in the order they were added
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put(EventConstants.REPLY_TO_HEADER, "srv://reply");
+        expected.put(EventConstants.CORRELATION_ID_HEADER, "42");
+        expected.put("first", "1");
+        expected.put("second", "2");
+
+        Assertions.assertEquals(List.copyOf(expected.entrySet()), entries(metadata));
+
+        Map<String, String> visited = new LinkedHashMap<>();
+        metadata.forEachHeader(visited::put);
+        Assertions.assertEquals(List.copyOf(expected.entrySet()), List.copyOf(visited.entrySet()));
+
+        Iterator<Map.Entry<String, String>> iterator = metadata.iterator();
+        for(int i = 0; i < expected.size(); i++){
+            iterator.next();
+        }
+        Assertions.assertFalse(iterator.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testIteratorRemove(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put(EventConstants.REPLY_TO_HEADER, "srv://reply");
+        metadata.put(EventConstants.CONTENT_TYPE_HEADER, "application/json");
+        metadata.put("first", "1");
+        metadata.put("second", "2");
+        metadata.put("third", "3");
+
+        Iterator<Map.Entry<String, String>> iterator = metadata.iterator();
+        Assertions.assertThrows(IllegalStateException.class, iterator::remove);
+
+        List<String> visited = new ArrayList<>();
+        while(iterator.hasNext()){
+            String key = iterator.next().getKey();
+            visited.add(key);
+            if(key.equals(EventConstants.REPLY_TO_HEADER) || key.equals("first") || key.equals("second")){
+                iterator.remove();
+                Assertions.assertThrows(IllegalStateException.class, iterator::remove);
+            }
+        }
+
+        // removing does not skip any header
+        Assertions.assertEquals(List.of(EventConstants.REPLY_TO_HEADER, EventConstants.CONTENT_TYPE_HEADER, "first", "second", "third"), visited);
+        Assertions.assertEquals(List.of(EventConstants.CONTENT_TYPE_HEADER, "third"), keys(metadata));
+        Assertions.assertEquals(2, metadata.size());
+        Assertions.assertNull(metadata.get("first"));
+        Assertions.assertEquals("3", metadata.get("third"));
+    }
+
+    @Test
+    public void testCopyIsIndependent(){
+        Metadata metadata = new DefaultMetadata();
+        metadata.put(EventConstants.CONTENT_TYPE_HEADER, "application/json");
+        metadata.put("custom", "value");
+
+        Metadata copy = metadata.copy();
+        Assertions.assertEquals(entries(metadata), entries(copy));
+
+        copy.put(EventConstants.CONTENT_TYPE_HEADER, "application/cbor");
+        copy.put("custom", "changed");
+        copy.put("added", "value");
+        metadata.remove(EventConstants.CONTENT_TYPE_HEADER);
+        metadata.put("original", "value");
+
+        Assertions.assertNull(metadata.get(EventConstants.CONTENT_TYPE_HEADER));
+        Assertions.assertEquals("value", metadata.get("custom"));
+        Assertions.assertNull(metadata.get("added"));
+        Assertions.assertEquals(2, metadata.size());
+
+        Assertions.assertEquals("application/cbor", copy.get(EventConstants.CONTENT_TYPE_HEADER));
+        Assertions.assertEquals("changed", copy.get("custom"));
+        Assertions.assertNull(copy.get("original"));
+        Assertions.assertEquals(3, copy.size());
+    }
+
+    @Test
+    public void testCopyOfEmpty(){
+        Metadata copy = new DefaultMetadata().copy();
+        Assertions.assertTrue(copy.isEmpty());
+        copy.put("custom", "value");
+        Assertions.assertEquals("value", copy.get("custom"));
+    }
+
+    @Test
+    public void testCreateFromMapAndClear(){
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("custom", "value");
+        map.put(EventConstants.SESSION_HEADER, "session");
+        Metadata metadata = Metadata.create(map);
+
+        Assertions.assertEquals("value", metadata.get("custom"));
+        Assertions.assertEquals("session", metadata.get(EventConstants.SESSION_HEADER));
+
+        metadata.clear();
+        Assertions.assertTrue(metadata.isEmpty());
+        Assertions.assertFalse(metadata.iterator().hasNext());
+        Assertions.assertNull(metadata.get("custom"));
+        metadata.put("custom", "again");
+        Assertions.assertEquals(1, metadata.size());
+    }
+
+    private static List<Map.Entry<String, String>> entries(Metadata metadata){
+        List<Map.Entry<String, String>> ret = new ArrayList<>();
+        for(Map.Entry<String, String> entry : metadata){
+            ret.add(entry);
+        }
+        return ret;
+    }
+
+    private static List<String> keys(Metadata metadata){
+        List<String> ret = new ArrayList<>();
+        for(Map.Entry<String, String> entry : metadata){
+            ret.add(entry.getKey());
+        }
+        return ret;
+    }
+
+}
@@ -38,6 +38,10 @@ public class ContinuumGatewayProperties {
     public static int DEFAULT_REST_PORT = 58504;
     public static String DEFAULT_REST_PATH = "/api";
     public static long DEFAULT_REST_BODY_LIMIT_SIZE = 2048;
+    public static long DEFAULT_REST_REQUEST_TIMEOUT = 30_000;
+    public static int DEFAULT_REST_MAX_IN_FLIGHT_REQUESTS = 10_000;
+    public static long DEFAULT_REST_HTTP2_MAX_CONCURRENT_STREAMS = 100;
+    public static int DEFAULT_STOMP_MAX_IN_FLIGHT_SENDS = 64;
 
     private final StompServerOptions stomp;
 
@@ -45,12 +49,22 @@ public class ContinuumGatewayProperties {
 
     private final ContinuumRestServerProperties rest = new ContinuumRestServerProperties();
 
+    private final ContinuumHftProperties hft = new ContinuumHftProperties();
+
+    private final ContinuumStompSubscriptionProperties stompSubscription = new ContinuumStompSubscriptionProperties();
+
     /**
      * Denotes if the CLI connections should be enabled or not
      * True if CLI connections should be enabled false if not
      */
     private boolean enableCLIConnections = true;
 
+    /**
+     * The maximum number of STOMP SEND frames a single connection can have in flight, before the connection is paused.
+     * Receipts are still sent in the order the SEND frames were received. A value of 1 handles one SEND at a time.
+     */
+    private int stompMaxInFlightSends = DEFAULT_STOMP_MAX_IN_FLIGHT_SENDS;
+
     public ContinuumGatewayProperties(ContinuumProperties continuumProperties) {
         stomp = new StompServerOptions()
                 .setPort(DEFAULT_STOMP_PORT)
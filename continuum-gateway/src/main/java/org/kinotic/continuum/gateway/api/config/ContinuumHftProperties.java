@@ -0,0 +1,100 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.api.config;
+
+/**
+ * Properties for the HFT queues used to journal events received by the gateway
+ */
+public class ContinuumHftProperties {
+
+    private boolean journal = false;
+    private String directory = "/tmp/continuum/hft";
+    private HftRollCycle rollCycle = HftRollCycle.HOURLY;
+    private int fileSize = 64 * 1024 * 1024;
+    private HftSyncPolicy syncPolicy = HftSyncPolicy.NONE;
+    private long queueExpiration = 60 * 60 * 1000;
+
+    public ContinuumHftProperties() {
+    }
+
+    /**
+     * @return true if every event sent by a gateway client is written to the HFT queue for its {@link org.kinotic.continuum.core.api.event.CRI#resourceName()}
+     */
+    public boolean isJournal() {
+        return journal;
+    }
+
+    public ContinuumHftProperties setJournal(boolean journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * @return the directory containing a sub directory for each queue
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    public ContinuumHftProperties setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public HftRollCycle getRollCycle() {
+        return rollCycle;
+    }
+
+    public ContinuumHftProperties setRollCycle(HftRollCycle rollCycle) {
+        this.rollCycle = rollCycle;
+        return this;
+    }
+
+    /**
+     * @return the size each queue file is preallocated with, this also limits the maximum size of a single event
+     */
+    public int getFileSize() {
+        return fileSize;
+    }
+
+    public ContinuumHftProperties setFileSize(int fileSize) {
+        this.fileSize = fileSize;
+        return this;
+    }
+
+    public HftSyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public ContinuumHftProperties setSyncPolicy(HftSyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy;
+        return this;
+    }
+
+    /**
+     * @return the number of milliseconds a queue stays open after it was last written to
+     */
+    public long getQueueExpiration() {
+        return queueExpiration;
+    }
+
+    public ContinuumHftProperties setQueueExpiration(long queueExpiration) {
+        this.queueExpiration = queueExpiration;
+        return this;
+    }
+}
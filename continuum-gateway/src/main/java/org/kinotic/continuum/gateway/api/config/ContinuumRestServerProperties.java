@@ -26,6 +26,10 @@ public class ContinuumRestServerProperties {
     private int port = ContinuumGatewayProperties.DEFAULT_REST_PORT;
     private String restPath = ContinuumGatewayProperties.DEFAULT_REST_PATH;
     private long bodyLimitSize = ContinuumGatewayProperties.DEFAULT_REST_BODY_LIMIT_SIZE;
+    private long requestTimeout = ContinuumGatewayProperties.DEFAULT_REST_REQUEST_TIMEOUT;
+    private int maxInFlightRequests = ContinuumGatewayProperties.DEFAULT_REST_MAX_IN_FLIGHT_REQUESTS;
+    private boolean http2Enabled = true;
+    private long http2MaxConcurrentStreams = ContinuumGatewayProperties.DEFAULT_REST_HTTP2_MAX_CONCURRENT_STREAMS;
 
     public ContinuumRestServerProperties() {
     }
@@ -56,4 +60,55 @@ public class ContinuumRestServerProperties {
         this.bodyLimitSize = bodyLimitSize;
         return this;
     }
+
+    /**
+     * @return the number of milliseconds to wait for the response to a request, before responding with a 504
+     */
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public ContinuumRestServerProperties setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of requests each REST server instance waits for a response to, additional requests are rejected with a 503
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public ContinuumRestServerProperties setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+        return this;
+    }
+
+    /**
+     * If true clients can use HTTP/2 over clear text (h2c), either with prior knowledge or by upgrading an HTTP/1.1 connection.
+     * The REST server does not terminate TLS, so HTTP/2 is not negotiated with ALPN. Clients connecting through a TLS terminating proxy
+     * negotiate HTTP/2 with the proxy.
+     * @return true if clients can use HTTP/2
+     */
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public ContinuumRestServerProperties setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of requests a single HTTP/2 connection can have open at the same time
+     */
+    public long getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public ContinuumRestServerProperties setHttp2MaxConcurrentStreams(long http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+        return this;
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.api.config;
+
+/**
+ * Properties that control how events are written to STOMP clients for their subscriptions
+ */
+public class ContinuumStompSubscriptionProperties {
+
+    private int requestSize = 64;
+    private StompSlowConsumerPolicy slowConsumerPolicy = StompSlowConsumerPolicy.BACKPRESSURE;
+    private int bufferSize = 1024;
+    private String conflationKeyHeader = null;
+
+    public ContinuumStompSubscriptionProperties() {
+    }
+
+    /**
+     * @return the number of events a subscription requests at a time, more are only requested once the connection can be written to
+     */
+    public int getRequestSize() {
+        return requestSize;
+    }
+
+    public ContinuumStompSubscriptionProperties setRequestSize(int requestSize) {
+        this.requestSize = requestSize;
+        return this;
+    }
+
+    public StompSlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    public ContinuumStompSubscriptionProperties setSlowConsumerPolicy(StompSlowConsumerPolicy slowConsumerPolicy) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of events a subscription holds while the connection cannot be written to,
+     *         this is not used by {@link StompSlowConsumerPolicy#BACKPRESSURE}
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public ContinuumStompSubscriptionProperties setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * @return the header containing the key used by {@link StompSlowConsumerPolicy#CONFLATE}, if not set the destination of the event is used
+     */
+    public String getConflationKeyHeader() {
+        return conflationKeyHeader;
+    }
+
+    public ContinuumStompSubscriptionProperties setConflationKeyHeader(String conflationKeyHeader) {
+        this.conflationKeyHeader = conflationKeyHeader;
+        return this;
+    }
+}
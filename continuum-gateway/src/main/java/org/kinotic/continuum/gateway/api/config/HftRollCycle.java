@@ -0,0 +1,49 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.api.config;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * How often a HFT queue starts writing to a new file. Files are named after the start of their cycle in UTC.
+ */
+public enum HftRollCycle {
+
+    MINUTELY(60_000L, "yyyyMMdd-HHmm"),
+    HOURLY(3_600_000L, "yyyyMMdd-HH"),
+    DAILY(86_400_000L, "yyyyMMdd");
+
+    private final long length;
+    private final DateTimeFormatter formatter;
+
+    HftRollCycle(long length, String pattern) {
+        this.length = length;
+        this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.UTC);
+    }
+
+    /**
+     * @param epochMillis the time to get the cycle name for
+     * @return the name of the cycle containing the given time
+     */
+    public String cycleName(long epochMillis){
+        return formatter.format(Instant.ofEpochMilli(epochMillis - (epochMillis % length)));
+    }
+
+}
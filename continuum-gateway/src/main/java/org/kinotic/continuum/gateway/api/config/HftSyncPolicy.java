@@ -0,0 +1,36 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.api.config;
+
+/**
+ * When data written to a HFT queue is forced to the storage device.
+ */
+public enum HftSyncPolicy {
+    /**
+     * The operating system decides when data is written, events can be lost if the operating system fails
+     */
+    NONE,
+    /**
+     * Each file is forced when the queue rolls to the next file or is closed
+     */
+    ROLL,
+    /**
+     * Every event is forced before the write completes, this is much slower than the other policies
+     */
+    EVERY_WRITE
+}
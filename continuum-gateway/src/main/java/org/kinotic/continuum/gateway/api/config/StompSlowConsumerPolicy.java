@@ -0,0 +1,42 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.api.config;
+
+/**
+ * What a STOMP subscription does when events arrive faster than the client connection can write them.
+ */
+public enum StompSlowConsumerPolicy {
+    /**
+     * No more events are requested until the connection can be written to again.
+     * Events are held by the event bus listener, which applies its own {@link org.kinotic.continuum.core.api.event.ListenerOverflowStrategy}
+     */
+    BACKPRESSURE,
+    /**
+     * Events are held by the subscription, when the buffer is full the oldest event is discarded
+     */
+    DROP_OLDEST,
+    /**
+     * Events are held by the subscription, and a held event is replaced by a newer event with the same conflation key.
+     * When the buffer is full the oldest event is discarded
+     */
+    CONFLATE,
+    /**
+     * Events are held by the subscription, when the buffer is full the client is disconnected
+     */
+    DISCONNECT
+}
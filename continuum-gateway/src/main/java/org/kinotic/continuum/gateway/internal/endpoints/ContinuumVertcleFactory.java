@@ -1,6 +1,7 @@
 package org.kinotic.continuum.gateway.internal.endpoints;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
 import io.vertx.ext.stomp.lite.StompServerHandlerFactory;
 import org.kinotic.continuum.api.config.ContinuumProperties;
 import org.kinotic.continuum.api.security.SecurityService;
@@ -24,18 +25,21 @@ public class ContinuumVertcleFactory {
     private final EventBusService eventService;
     private final SecurityService securityService;
     private final ObjectMapper objectMapper;
+    private final OpenTelemetry openTelemetry;
 
     public ContinuumVertcleFactory(ContinuumProperties continuumProperties,
                                    ContinuumGatewayProperties gatewayProperties,
                                    StompServerHandlerFactory stompServerHandlerFactory,
                                    EventBusService eventService,
                                    ObjectMapper objectMapper,
+                                   OpenTelemetry openTelemetry,
                                    @Autowired(required = false) SecurityService securityService) {
         this.continuumProperties = continuumProperties;
         this.gatewayProperties = gatewayProperties;
         this.stompServerHandlerFactory = stompServerHandlerFactory;
         this.eventService = eventService;
         this.objectMapper = objectMapper;
+        this.openTelemetry = openTelemetry;
         this.securityService = securityService;
     }
 
@@ -44,7 +48,7 @@ public class ContinuumVertcleFactory {
     }
 
     public RestServerVerticle createRestServerVerticle(){
-       return new RestServerVerticle(gatewayProperties, eventService, securityService, objectMapper);
+       return new RestServerVerticle(gatewayProperties, eventService, securityService, objectMapper, openTelemetry);
     }
 
 }
@@ -204,6 +204,11 @@ public class EndpointConnectionHandler {
             } else {
                 ret = Mono.error(new IllegalArgumentException("CRI scheme not supported"));
             }
+
+            // journal the event before it is processed, so it can be replayed
+            if(services.continuumGatewayProperties.getHft().isJournal()){
+                ret = services.hftQueueManager.write(incomingEvent).then(ret);
+            }
         } else {
             ret = Mono.error(new AuthorizationException("Not Authorized to send to " + incomingEvent.cri()));
         }
@@ -27,6 +27,8 @@ import org.kinotic.continuum.api.security.SecurityService;
 import org.kinotic.continuum.core.api.security.SessionManager;
 import org.kinotic.continuum.gateway.api.config.ContinuumGatewayProperties;
 import org.kinotic.continuum.gateway.internal.endpoints.stomp.DefaultStompServerHandler;
+import org.kinotic.continuum.gateway.internal.endpoints.stomp.StompMessageEncoder;
+import org.kinotic.continuum.gateway.internal.hft.HFTQueueManager;
 import org.kinotic.continuum.internal.core.api.service.invoker.ExceptionConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -51,11 +53,15 @@ public class Services {
     @Autowired
     public ExceptionConverter exceptionConverter;
     @Autowired
+    public HFTQueueManager hftQueueManager;
+    @Autowired
     public ObjectMapper objectMapper;
     @Autowired
     public SecurityService securityService;
     @Autowired
     public SessionManager sessionManager;
     @Autowired
+    public StompMessageEncoder stompMessageEncoder;
+    @Autowired
     public Vertx vertx;
 }
@@ -18,19 +18,21 @@
 package org.kinotic.continuum.gateway.internal.endpoints.mqtt;
 
 import org.kinotic.continuum.core.api.event.CRI;
-import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.mqtt.messages.MqttPublishMessage;
 
 /**
  *
  * Created by Navid Mitchell on 11/11/20
  */
-public class MqttPublishMessageEventAdapter implements Event<byte[]> {
+public class MqttPublishMessageEventAdapter implements BufferEvent {
 
     private final MqttPublishMessage mqttPublishMessage;
     private final CRI cri;
     private final Metadata metadata;
+    private byte[] data;
 
     public MqttPublishMessageEventAdapter(MqttPublishMessage mqttPublishMessage) {
         this.mqttPublishMessage = mqttPublishMessage;
@@ -50,6 +52,16 @@ public class MqttPublishMessageEventAdapter implements Event<byte[]> {
 
     @Override
     public byte[] data() {
-        return mqttPublishMessage.payload().getBytes();
+        byte[] ret = data;
+        if(ret == null && mqttPublishMessage.payload() != null){
+            ret = mqttPublishMessage.payload().getBytes();
+            data = ret;
+        }
+        return ret;
+    }
+
+    @Override
+    public Buffer buffer() {
+        return mqttPublishMessage.payload();
     }
 }
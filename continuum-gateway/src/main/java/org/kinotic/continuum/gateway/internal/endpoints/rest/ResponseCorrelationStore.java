@@ -0,0 +1,163 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.endpoints.rest;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the {@link RoutingContext} of each REST request until the response for it is received.
+ * Each {@link RestServerVerticle} has its own store, which is only accessed from the context of the verticle.
+ *
+ * Every request has the same timeout, so requests are held in the order they expire and expiring them only needs to look at the oldest requests.
+ * Claim ids must be unique across all requesters, since services track streaming results and their control events by correlation id alone.
+ * So claim ids are a counter prefixed with a value that is unique to the store.
+ */
+class ResponseCorrelationStore {
+
+    static final String INSTRUMENTATION_SCOPE = "org.kinotic.continuum.gateway.rest";
+
+    private final LinkedHashMap<String, PendingRequest> pendingRequests = new LinkedHashMap<>();
+    private final String claimIdPrefix;
+    private final long timeoutMillis;
+    private final int maxInFlight;
+    private final LongUpDownCounter inFlight;
+    private final LongCounter timeouts;
+    private final LongCounter rejected;
+    private final LongSupplier clock;
+    private long nextClaimId = 0;
+
+    /**
+     * @param claimIdPrefix prepended to every claim id, this must be unique for the store
+     * @param timeoutMillis the number of milliseconds a request waits for a response before it expires
+     * @param maxInFlight the maximum number of requests that can wait for a response
+     * @param openTelemetry used to record metrics
+     */
+    ResponseCorrelationStore(String claimIdPrefix, long timeoutMillis, int maxInFlight, OpenTelemetry openTelemetry) {
+        this(claimIdPrefix, timeoutMillis, maxInFlight, openTelemetry, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock that provides the current time in milliseconds, used to determine when requests expire
+     */
+    ResponseCorrelationStore(String claimIdPrefix,
+                             long timeoutMillis,
+                             int maxInFlight,
+                             OpenTelemetry openTelemetry,
+                             LongSupplier clock) {
+        this.claimIdPrefix = claimIdPrefix;
+        this.timeoutMillis = timeoutMillis;
+        this.maxInFlight = maxInFlight;
+        this.clock = clock;
+
+        Meter meter = openTelemetry.getMeter(INSTRUMENTATION_SCOPE);
+        inFlight = meter.upDownCounterBuilder("continuum.gateway.rest.in_flight")
+                        .setDescription("The number of REST requests waiting for a response")
+                        .setUnit("{request}")
+                        .build();
+        timeouts = meter.counterBuilder("continuum.gateway.rest.timeouts")
+                        .setDescription("The number of REST requests that did not receive a response before the timeout")
+                        .setUnit("{request}")
+                        .build();
+        rejected = meter.counterBuilder("continuum.gateway.rest.rejected")
+                        .setDescription("The number of REST requests rejected because too many requests were waiting for a response")
+                        .setUnit("{request}")
+                        .build();
+    }
+
+    /**
+     * Adds the request to the store
+     * @param routingContext for the request
+     * @return the claim id to use as the correlation id of the request, or null if the store is full
+     */
+    String add(RoutingContext routingContext){
+        String ret = null;
+        if(pendingRequests.size() < maxInFlight){
+            ret = claimIdPrefix + nextClaimId++;
+            pendingRequests.put(ret, new PendingRequest(routingContext, clock.getAsLong() + timeoutMillis));
+            inFlight.add(1);
+        }else{
+            rejected.add(1);
+        }
+        return ret;
+    }
+
+    /**
+     * Removes the request for the claim id
+     * @return the {@link RoutingContext} for the request or null if no request is waiting for the claim id
+     */
+    RoutingContext remove(String claimId){
+        RoutingContext ret = null;
+        PendingRequest pendingRequest = pendingRequests.remove(claimId);
+        if(pendingRequest != null){
+            inFlight.add(-1);
+            ret = pendingRequest.routingContext;
+        }
+        return ret;
+    }
+
+    /**
+     * Removes all requests that have expired
+     * @param handler called with the {@link RoutingContext} of each expired request
+     */
+    void expire(Consumer<RoutingContext> handler){
+        long now = clock.getAsLong();
+        Iterator<PendingRequest> iterator = pendingRequests.values().iterator();
+        while(iterator.hasNext()){
+            PendingRequest pendingRequest = iterator.next();
+            if(pendingRequest.deadline > now){
+                break;
+            }
+            iterator.remove();
+            inFlight.add(-1);
+            timeouts.add(1);
+            handler.accept(pendingRequest.routingContext);
+        }
+    }
+
+    /**
+     * Removes all requests
+     * @param handler called with the {@link RoutingContext} of each request
+     */
+    void clear(Consumer<RoutingContext> handler){
+        for(PendingRequest pendingRequest : pendingRequests.values()){
+            handler.accept(pendingRequest.routingContext);
+        }
+        inFlight.add(-pendingRequests.size());
+        pendingRequests.clear();
+    }
+
+    private static class PendingRequest {
+        private final RoutingContext routingContext;
+        private final long deadline;
+
+        public PendingRequest(RoutingContext routingContext, long deadline) {
+            this.routingContext = routingContext;
+            this.deadline = deadline;
+        }
+    }
+
+}
@@ -18,13 +18,18 @@
 package org.kinotic.continuum.gateway.internal.endpoints.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.opentelemetry.api.OpenTelemetry;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Context;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Http2Settings;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
@@ -33,9 +38,12 @@ import io.vertx.ext.web.handler.StaticHandler;
 import lombok.RequiredArgsConstructor;
 import org.kinotic.continuum.api.security.Participant;
 import org.kinotic.continuum.api.security.SecurityService;
+import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.EventBusService;
 import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
 import org.kinotic.continuum.gateway.api.config.ContinuumGatewayProperties;
 import org.kinotic.continuum.gateway.api.security.AuthenticationHandler;
 import org.slf4j.Logger;
@@ -47,11 +55,16 @@ import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * Vertx Verticle to convert REST requests to continuum requests..
  *
+ * Clients can receive the values of a streaming result as they are produced, by accepting one of the {@link StreamFormat}'s.
+ * When the client goes away before the stream completes, the stream is canceled.
+ * When the client does not keep up with the stream, the stream is suspended until the response has been drained.
+ *
  *
  * Created by navid on 12/18/19
  */
@@ -60,28 +73,58 @@ public class RestServerVerticle extends AbstractVerticle {
 
     private static final Logger log = LoggerFactory.getLogger(RestServerVerticle.class);
 
-    private final HashMap<String, RoutingContext> responseCorrelationMap = new HashMap<>();
+    private static final String CLAIM_ID_KEY = "continuum.claimId";
+    private static final String REQUEST_CRI_KEY = "continuum.requestCri";
+    private static final String STREAM_FORMAT_KEY = "continuum.streamFormat";
+    private static final String STREAM_SUSPENDED_KEY = "continuum.streamSuspended";
 
     private final ContinuumGatewayProperties gatewayProperties;
     private final EventBusService eventService;
     private final SecurityService securityService;
     private final ObjectMapper objectMapper;
+    private final OpenTelemetry openTelemetry;
 
     private Scheduler scheduler;
+    private ResponseCorrelationStore correlationStore;
+    private long expirationTimerId;
+    // requests that are receiving a streaming result, these no longer expire
+    private final Map<String, RoutingContext> activeStreams = new HashMap<>();
 
     private Disposable disposable;
     private HttpServer httpServer;
 
     @Override
     public void start(Promise<Void> startPromise) {
-        final String replyDestination = EventConstants.SERVICE_DESTINATION_SCHEME + "://" + UUID.randomUUID() + "@continuum.java.rest.EventBus";
+        final String verticleId = UUID.randomUUID().toString();
+        final String replyDestination = EventConstants.SERVICE_DESTINATION_SCHEME + "://" + verticleId + "@continuum.java.rest.EventBus";
         final String restPath = gatewayProperties.getRest().getRestPath();
 
         // Create scheduler for reactor objects
         Context context = vertx.getOrCreateContext();
         scheduler = Schedulers.fromExecutor(command -> context.runOnContext(v -> command.run()));
 
-        httpServer = vertx.createHttpServer();
+        // requests waiting for a response are only accessed from the context of this verticle
+        long requestTimeout = gatewayProperties.getRest().getRequestTimeout();
+        correlationStore = new ResponseCorrelationStore(verticleId + ":",
+                                                        requestTimeout,
+                                                        gatewayProperties.getRest().getMaxInFlightRequests(),
+                                                        openTelemetry);
+        long expirationInterval = Math.min(1000, Math.max(10, requestTimeout / 10));
+        expirationTimerId = vertx.setPeriodic(expirationInterval, id -> correlationStore.expire(routingContext -> {
+            // a streaming result may still be started, so make sure it will not run forever
+            sendCancel(routingContext);
+            endWithStatus(routingContext, HttpResponseStatus.GATEWAY_TIMEOUT);
+        }));
+
+        HttpServerOptions serverOptions = new HttpServerOptions();
+        if(gatewayProperties.getRest().isHttp2Enabled()){
+            // the server does not use TLS, so ALPN cannot be used and HTTP/2 is only available as h2c
+            serverOptions.setHttp2ClearTextEnabled(true)
+                         .setInitialSettings(new Http2Settings().setMaxConcurrentStreams(gatewayProperties.getRest().getHttp2MaxConcurrentStreams()));
+        }else{
+            serverOptions.setHttp2ClearTextEnabled(false);
+        }
+        httpServer = vertx.createHttpServer(serverOptions);
 
         Router router = Router.router(vertx);
         router.route("/*").handler(StaticHandler.create("continuum-gateway-static"));
@@ -98,16 +141,34 @@ public class RestServerVerticle extends AbstractVerticle {
 
         // will dispatch to event service
         restRoute.handler(routingContext -> {
-            String claimId = UUID.randomUUID().toString();
+            String claimId = correlationStore.add(routingContext);
+            if(claimId == null){
+                endWithStatus(routingContext, HttpResponseStatus.SERVICE_UNAVAILABLE);
+                return;
+            }
+            // the client will not see the response, so stop waiting for it
+            routingContext.response().closeHandler(v -> {
+                if(correlationStore.remove(claimId) != null){
+                    sendCancel(routingContext);
+                }
+            });
             try {
                 // create event for incoming request
                 Event<byte[]> requestEvent = new RoutingContextEventAdapter(restPath, routingContext);
+
+                // needed to cancel a streaming result
+                routingContext.put(CLAIM_ID_KEY, claimId);
+                routingContext.put(REQUEST_CRI_KEY, requestEvent.cri());
+
+                StreamFormat streamFormat = StreamFormat.fromAccept(routingContext.request().getHeader(HttpHeaders.ACCEPT));
+                if(streamFormat != null){
+                    routingContext.put(STREAM_FORMAT_KEY, streamFormat);
+                }
                 // set reply header
                 requestEvent.metadata().put(EventConstants.REPLY_TO_HEADER, replyDestination+"/replyHandler");
 
                 // set claim ticket
                 requestEvent.metadata().put(EventConstants.CORRELATION_ID_HEADER, claimId);
-                responseCorrelationMap.put(claimId, routingContext);
 
                 Participant participant = routingContext.get(EventConstants.SENDER_HEADER);
                 if(participant != null){
@@ -119,14 +180,17 @@ public class RestServerVerticle extends AbstractVerticle {
                             .publishOn(scheduler)
                             .subscribe(null,
                                        throwable -> {
-                                           routingContext.response().setStatusCode(500);
-                                           routingContext.response().setStatusMessage(throwable.getMessage());
-                                           routingContext.response().end();
+                                           // the request may have already expired
+                                           if(correlationStore.remove(claimId) != null){
+                                               routingContext.response().setStatusCode(500);
+                                               routingContext.response().setStatusMessage(throwable.getMessage());
+                                               routingContext.response().end();
+                                           }
                                        });
 
             } catch (Exception e) {
                 // problem processing request
-                responseCorrelationMap.remove(claimId);
+                correlationStore.remove(claimId);
                 routingContext.response().setStatusCode(500);
                 routingContext.response().setStatusMessage(e.getMessage());
                 routingContext.response().end();
@@ -166,39 +230,163 @@ public class RestServerVerticle extends AbstractVerticle {
     private void processResponseEvent(Event<byte[]> event){
         String id = event.metadata().get(EventConstants.CORRELATION_ID_HEADER);
         if(id != null){
-            RoutingContext context = responseCorrelationMap.get(id);
+            RoutingContext context = correlationStore.remove(id);
             if(context != null){
-                String errorHeader = event.metadata().get(EventConstants.ERROR_HEADER);
+                StreamFormat streamFormat = context.get(STREAM_FORMAT_KEY);
 
-                if(errorHeader == null) {
-                    context.response().setStatusCode(200);
+                if(streamFormat != null && !event.metadata().contains(EventConstants.ERROR_HEADER)){
+                    startStream(id, context, streamFormat, event);
+                }else{
+                    if(event.metadata().contains(EventConstants.STREAM_START_HEADER)){
+                        // the client did not request a streaming result, so only the first value is returned
+                        sendCancel(context);
+                    }
+                    writeResponse(context, event);
+                }
+            }else{
+                context = activeStreams.get(id);
+                if(context != null){
+                    processStreamEvent(id, context, event);
                 }else{
-                    context.response().setStatusCode(500);
+                    // this is expected when the request expired or the client disconnected before the response was received
+                    log.debug("Received RPC response for "+EventConstants.CORRELATION_ID_HEADER+": "+id + " but no context is set");
                 }
+            }
+        }else{
+            log.error("Received RPC response that does not contain a "+EventConstants.CORRELATION_ID_HEADER+" header");
+        }
+    }
 
-                if(event.data() != null) {
-                    context.response().putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(event.data().length));
-                    if(event.metadata().contains(EventConstants.CONTENT_TYPE_HEADER)){
-                        context.response().putHeader(HttpHeaders.CONTENT_TYPE, event.metadata().get(EventConstants.CONTENT_TYPE_HEADER));
-                    }
-                    context.response().write(Buffer.buffer(event.data()));
-                }else if(errorHeader != null){
-                    context.response().putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(errorHeader.length()));
-                    context.response().write(Buffer.buffer(errorHeader));
+    private void writeResponse(RoutingContext context, Event<byte[]> event){
+        String errorHeader = event.metadata().get(EventConstants.ERROR_HEADER);
+
+        if(errorHeader == null) {
+            context.response().setStatusCode(200);
+        }else{
+            context.response().setStatusCode(500);
+        }
+
+        // use the Buffer directly so the data is not copied again
+        Buffer body = BufferEvent.toBuffer(event);
+        if(body != null) {
+            context.response().putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length()));
+            if(event.metadata().contains(EventConstants.CONTENT_TYPE_HEADER)){
+                context.response().putHeader(HttpHeaders.CONTENT_TYPE, event.metadata().get(EventConstants.CONTENT_TYPE_HEADER));
+            }
+            context.response().write(body);
+        }else if(errorHeader != null){
+            context.response().putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(errorHeader.length()));
+            context.response().write(Buffer.buffer(errorHeader));
+        }
+
+        context.response().end();
+    }
+
+    private void startStream(String id, RoutingContext context, StreamFormat streamFormat, Event<byte[]> event){
+        HttpServerResponse response = context.response();
+        response.setStatusCode(200)
+                .setChunked(true)
+                .putHeader(HttpHeaders.CONTENT_TYPE, streamFormat.contentType())
+                .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if(event.metadata().contains(EventConstants.STREAM_START_HEADER)){
+            activeStreams.put(id, context);
+            // for HTTP/2 this is called when the client resets the stream, so other requests on the connection are not affected
+            response.closeHandler(v -> {
+                if(activeStreams.remove(id) != null){
+                    sendCancel(context);
+                }
+            });
+            response.drainHandler(v -> {
+                if(context.remove(STREAM_SUSPENDED_KEY) != null && activeStreams.containsKey(id)){
+                    sendControl(context, EventConstants.CONTROL_VALUE_RESUME);
                 }
+            });
+            processStreamEvent(id, context, event);
+        }else{
+            // the method returned a single value, or a stream that completed without any values
+            writeStreamValue(response, streamFormat, event);
+            response.end();
+        }
+    }
+
+    private void processStreamEvent(String id, RoutingContext context, Event<byte[]> event){
+        HttpServerResponse response = context.response();
+        String errorHeader = event.metadata().get(EventConstants.ERROR_HEADER);
 
-                context.response().end();
+        if(EventConstants.CONTROL_VALUE_COMPLETE.equals(event.metadata().get(EventConstants.CONTROL_HEADER))){
+            activeStreams.remove(id);
+            response.end();
+        }else if(errorHeader != null){
+            activeStreams.remove(id);
+            StreamFormat streamFormat = context.get(STREAM_FORMAT_KEY);
+            Buffer error = streamFormat.encodeError(errorHeader);
+            if(error != null){
+                response.end(error);
             }else{
-                log.error("Received RPC response for "+EventConstants.CORRELATION_ID_HEADER+": "+id + " but no context is set");
+                // the response must not look like it completed normally
+                response.reset();
             }
         }else{
-            log.error("Received RPC response that does not contain a "+EventConstants.CORRELATION_ID_HEADER+" header");
+            writeStreamValue(response, context.get(STREAM_FORMAT_KEY), event);
+            // values already requested by the service are still written, the service stops producing once it receives the suspend
+            if(response.writeQueueFull() && context.get(STREAM_SUSPENDED_KEY) == null){
+                context.put(STREAM_SUSPENDED_KEY, Boolean.TRUE);
+                sendControl(context, EventConstants.CONTROL_VALUE_SUSPEND);
+            }
+        }
+    }
+
+    private void writeStreamValue(HttpServerResponse response, StreamFormat streamFormat, Event<byte[]> event){
+        Buffer body = BufferEvent.toBuffer(event);
+        if(body != null && !event.metadata().contains(EventConstants.CONTROL_HEADER)){
+            response.write(streamFormat.encode(body));
+        }
+    }
+
+    /**
+     * Cancels the streaming result for the request if one exists, since the client will not receive any more values
+     */
+    private void sendCancel(RoutingContext routingContext){
+        sendControl(routingContext, EventConstants.CONTROL_VALUE_CANCEL);
+    }
+
+    /**
+     * Sends a control event for the streaming result of the request, if one exists
+     */
+    private void sendControl(RoutingContext routingContext, String control){
+        String claimId = routingContext.get(CLAIM_ID_KEY);
+        CRI requestCri = routingContext.get(REQUEST_CRI_KEY);
+        if(claimId != null && requestCri != null){
+            Metadata metadata = Metadata.create();
+            metadata.put(EventConstants.CONTROL_HEADER, control);
+            metadata.put(EventConstants.CORRELATION_ID_HEADER, claimId);
+
+            eventService.sendWithAck(Event.create(requestCri, metadata, null))
+                        .subscribe(null,
+                                   throwable -> log.debug("Could not send "+control+" for streaming result of "+EventConstants.CORRELATION_ID_HEADER+": "+claimId, throwable));
+        }
+    }
+
+    private void endWithStatus(RoutingContext routingContext, HttpResponseStatus status){
+        if(!routingContext.response().ended() && !routingContext.response().closed()){
+            routingContext.response()
+                          .setStatusCode(status.code())
+                          .setStatusMessage(status.reasonPhrase())
+                          .end();
         }
     }
 
     @Override
     public void stop() throws Exception {
+        vertx.cancelTimer(expirationTimerId);
         httpServer.close();
         disposable.dispose();
+        correlationStore.clear(routingContext -> endWithStatus(routingContext, HttpResponseStatus.SERVICE_UNAVAILABLE));
+        for(RoutingContext routingContext : activeStreams.values()){
+            sendCancel(routingContext);
+            routingContext.response().reset();
+        }
+        activeStreams.clear();
     }
 }
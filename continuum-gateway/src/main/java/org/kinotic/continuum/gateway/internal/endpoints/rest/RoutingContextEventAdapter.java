@@ -17,24 +17,26 @@
 
 package org.kinotic.continuum.gateway.internal.endpoints.rest;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.ext.web.RoutingContext;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.kinotic.continuum.core.api.event.CRI;
-import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
 import org.kinotic.continuum.internal.core.api.event.MultiMapMetadataAdapter;
 
 /**
  *
  * Created by navid on 12/19/19
  */
-class RoutingContextEventAdapter implements Event<byte[]> {
+class RoutingContextEventAdapter implements BufferEvent {
 
     private final CRI cri;
     private final MultiMapMetadataAdapter metadataAdapter;
     private final RoutingContext routingContext;
+    private byte[] data;
 
     public RoutingContextEventAdapter(String rootPath, RoutingContext routingContext) {
         Validate.notBlank(rootPath,"The rootPath must not be blank");
@@ -70,7 +72,20 @@ class RoutingContextEventAdapter implements Event<byte[]> {
 
     @Override
     public byte[] data() {
-        return routingContext.body().buffer().getBytes();
+        byte[] ret = data;
+        if(ret == null){
+            Buffer buffer = buffer();
+            if(buffer != null){
+                ret = buffer.getBytes();
+                data = ret;
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public Buffer buffer() {
+        return routingContext.body().buffer();
     }
 
 }
@@ -0,0 +1,128 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.endpoints.rest;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * The formats a REST client can request streaming results in, using the Accept header.
+ * Values are written to the response as they are received, using chunked transfer encoding for HTTP/1.1 and data frames for HTTP/2.
+ */
+enum StreamFormat {
+    /**
+     * Each value is sent as the data of a Server-Sent Event, a failure is sent as an "error" event
+     */
+    SERVER_SENT_EVENTS("text/event-stream"){
+        @Override
+        Buffer encode(Buffer value) {
+            Buffer ret;
+            if(!containsLineBreak(value)){
+                ret = Buffer.buffer(value.length() + 8)
+                            .appendString("data: ")
+                            .appendBuffer(value)
+                            .appendString("\n\n");
+            }else{
+                // each line must be sent as its own data field
+                ret = Buffer.buffer(value.length() + 16);
+                appendData(ret, value.toString());
+                ret.appendString("\n");
+            }
+            return ret;
+        }
+
+        @Override
+        Buffer encodeError(String message) {
+            Buffer ret = Buffer.buffer().appendString("event: error\n");
+            appendData(ret, message);
+            return ret.appendString("\n");
+        }
+
+        private boolean containsLineBreak(Buffer value){
+            boolean ret = false;
+            for(int i = 0; i < value.length(); i++){
+                byte b = value.getByte(i);
+                if(b == '\n' || b == '\r'){
+                    ret = true;
+                    break;
+                }
+            }
+            return ret;
+        }
+
+        private void appendData(Buffer buffer, String text){
+            for(String line : text.split("\r\n|\r|\n", -1)){
+                buffer.appendString("data: ").appendString(line).appendString("\n");
+            }
+        }
+    },
+    /**
+     * Each value is sent as a single line of json, there is no way to send a failure in band
+     */
+    NDJSON("application/x-ndjson"){
+        @Override
+        Buffer encode(Buffer value) {
+            return Buffer.buffer(value.length() + 1)
+                         .appendBuffer(value)
+                         .appendString("\n");
+        }
+
+        @Override
+        Buffer encodeError(String message) {
+            return null;
+        }
+    };
+
+    private final String contentType;
+
+    StreamFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    String contentType() {
+        return contentType;
+    }
+
+    /**
+     * @param value the data of a single value of the stream
+     * @return the data to write to the response for the value
+     */
+    abstract Buffer encode(Buffer value);
+
+    /**
+     * @param message describing the failure
+     * @return the data to write to the response for the failure, or null if the format cannot represent a failure
+     */
+    abstract Buffer encodeError(String message);
+
+    /**
+     * @param accept the value of the Accept header of the request
+     * @return the {@link StreamFormat} requested or null if the client did not request a streaming result
+     */
+    static StreamFormat fromAccept(String accept){
+        StreamFormat ret = null;
+        if(accept != null){
+            for(StreamFormat format : values()){
+                if(accept.contains(format.contentType)){
+                    ret = format;
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.endpoints.stomp;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.ServerWebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the write queue of the web socket used by a STOMP connection, so subscriptions can stop writing when the client cannot keep up.
+ * Also counts the events each slow consumer policy discarded for the connection.
+ *
+ * The STOMP server does not expose the web socket of a connection, so it is captured by {@link #capture(Handler)}
+ * while the connection is created. If no web socket was captured the write queue is never considered full.
+ */
+public class ConnectionWriteQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionWriteQueue.class);
+
+    private static final ThreadLocal<ServerWebSocket> CONNECTING = new ThreadLocal<>();
+
+    private final ServerWebSocket webSocket;
+    private final List<Runnable> drainCallbacks = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+
+    private ConnectionWriteQueue(ServerWebSocket webSocket) {
+        this.webSocket = webSocket;
+        if(webSocket != null){
+            webSocket.drainHandler(v -> drained());
+        }
+    }
+
+    /**
+     * Wraps the web socket handler of the STOMP server, so the web socket is available to {@link #forNewConnection()}
+     * while the STOMP connection for it is created
+     */
+    public static Handler<ServerWebSocket> capture(Handler<ServerWebSocket> webSocketHandler){
+        return webSocket -> {
+            CONNECTING.set(webSocket);
+            try {
+                webSocketHandler.handle(webSocket);
+            } finally {
+                CONNECTING.remove();
+            }
+        };
+    }
+
+    /**
+     * @return a {@link ConnectionWriteQueue} for the web socket of the connection currently being created
+     */
+    public static ConnectionWriteQueue forNewConnection(){
+        ServerWebSocket webSocket = CONNECTING.get();
+        if(webSocket == null){
+            log.debug("No web socket available for the new connection, write queue state will not be used");
+        }
+        return new ConnectionWriteQueue(webSocket);
+    }
+
+    /**
+     * @return true if the web socket write queue is full and nothing more should be written until it drains
+     */
+    public boolean isFull(){
+        return webSocket != null && webSocket.writeQueueFull();
+    }
+
+    /**
+     * Calls the callback once, the next time the write queue drains
+     */
+    public void onDrain(Runnable callback){
+        synchronized (drainCallbacks){
+            drainCallbacks.add(callback);
+        }
+    }
+
+    public void recordDropped(){
+        dropped.incrementAndGet();
+    }
+
+    public void recordConflated(){
+        conflated.incrementAndGet();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getConflated() {
+        return conflated.get();
+    }
+
+    private void drained(){
+        List<Runnable> callbacks;
+        synchronized (drainCallbacks){
+            callbacks = new ArrayList<>(drainCallbacks);
+            drainCallbacks.clear();
+        }
+        for(Runnable callback : callbacks){
+            callback.run();
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 
 package org.kinotic.continuum.gateway.internal.endpoints.stomp;
 
+import java.util.ArrayDeque;
 import java.util.Map;
 
 import org.kinotic.continuum.core.api.event.CRI;
@@ -27,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
@@ -46,7 +48,13 @@ public class DefaultStompServerHandler implements StompServerHandler {
     private final Vertx vertx;
     private final StompServerConnection connection;
     private final EndpointConnectionHandler endpointConnectionHandler;
-
+    private final Services services;
+    private final ConnectionWriteQueue writeQueue;
+    private final Context context;
+    private final int maxInFlightSends;
+    // SEND frames in the order they were received, all access happens on the connection context
+    private final ArrayDeque<PendingSend> pendingSends = new ArrayDeque<>();
+    private boolean paused = false;
 
     public DefaultStompServerHandler(Vertx vertx,
                                      Services services,
@@ -54,6 +62,11 @@ public class DefaultStompServerHandler implements StompServerHandler {
         this.vertx = vertx;
         this.connection = connection;
         this.endpointConnectionHandler = new EndpointConnectionHandler(services);
+        this.services = services;
+        this.writeQueue = ConnectionWriteQueue.forNewConnection();
+        // handlers are created on the context of the connection
+        this.context = vertx.getOrCreateContext();
+        this.maxInFlightSends = Math.max(1, services.continuumGatewayProperties.getStompMaxInFlightSends());
     }
 
     @Override
@@ -67,22 +80,42 @@ public class DefaultStompServerHandler implements StompServerHandler {
 
     @Override
     public void send(Frame frame) {
-        // FIXME: this is probably the wrong way to  do this, We are not really providing guaranteed delivery below so this kinda just creates a bottle neck for no reason.
-        // We pause the client to effectively make all client requests block until the previous request is handled asynchronously
-        connection.pause();
-
         log.trace("Send Frame received\n{}", frame.toString());
 
+        // SEND frames are handled concurrently, the client is only paused when too many are in flight
+        PendingSend pendingSend = new PendingSend(frame);
+        pendingSends.offer(pendingSend);
+        if(pendingSends.size() >= maxInFlightSends && !paused){
+            paused = true;
+            connection.pause();
+        }
+
         Event<byte[]> incomingEvent = new FrameEventAdapter(frame);
 
         endpointConnectionHandler
                 .send(incomingEvent)
                 .subscribe(null,
-                           connection::sendErrorAndDisconnect,
-                           () -> {
-                               connection.sendReceiptIfNeeded(frame);
-                               connection.resume();
-                           });
+                           throwable -> context.runOnContext(v -> connection.sendErrorAndDisconnect(throwable)),
+                           () -> context.runOnContext(v -> {
+                               pendingSend.completed = true;
+                               completePendingSends();
+                           }));
+    }
+
+    /**
+     * Sends the receipts for all SEND frames that have completed, in the order the frames were received.
+     * Resumes the client once there is room for more SEND frames.
+     */
+    private void completePendingSends(){
+        PendingSend head;
+        while((head = pendingSends.peek()) != null && head.completed){
+            pendingSends.poll();
+            connection.sendReceiptIfNeeded(head.frame);
+        }
+        if(paused && pendingSends.size() < maxInFlightSends){
+            paused = false;
+            connection.resume();
+        }
     }
 
     @Override
@@ -96,7 +129,13 @@ public class DefaultStompServerHandler implements StompServerHandler {
 
             CRI cri = CRI.create(frame.getDestination());
 
-            StompSubscriptionEventSubscriber subscriber = new StompSubscriptionEventSubscriber(cri.raw(), subscriptionId, connection);
+            StompSubscriptionEventSubscriber subscriber
+                    = new StompSubscriptionEventSubscriber(cri.raw(),
+                                                           subscriptionId,
+                                                           connection,
+                                                           writeQueue,
+                                                           services.stompMessageEncoder,
+                                                           services.continuumGatewayProperties.getStompSubscription());
             endpointConnectionHandler.subscribe(cri, subscriptionId, subscriber);
 
         } catch (Exception e) {
@@ -165,6 +204,20 @@ public class DefaultStompServerHandler implements StompServerHandler {
     public void closed() {
         // We don't remove the session if disconnect was not called because this could be a network issue
         endpointConnectionHandler.shutdown();
+        pendingSends.clear();
+        if(writeQueue.getDropped() > 0 || writeQueue.getConflated() > 0){
+            log.info("Connection closed, slow consumer policy dropped {} and conflated {} events",
+                     writeQueue.getDropped(), writeQueue.getConflated());
+        }
+    }
+
+    private static class PendingSend {
+        private final Frame frame;
+        private boolean completed = false;
+
+        public PendingSend(Frame frame) {
+            this.frame = frame;
+        }
     }
 
 }
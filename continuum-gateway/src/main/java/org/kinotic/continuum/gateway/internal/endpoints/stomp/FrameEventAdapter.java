@@ -20,21 +20,24 @@ package org.kinotic.continuum.gateway.internal.endpoints.stomp;
 import org.kinotic.continuum.core.api.event.CRI;
 import org.kinotic.continuum.core.api.event.Event;
 import org.kinotic.continuum.core.api.event.Metadata;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
 import org.kinotic.continuum.internal.core.api.event.MapMetadataAdapter;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.stomp.lite.frame.Frame;
 
 /**
  * Adapts a {@link Frame} to a {@link Event}
+ * The body of the {@link Frame} is used as the event data without copying it
  *
  *
  * Created by navid on 11/21/19
  */
-public class FrameEventAdapter implements Event<byte[]> {
+public class FrameEventAdapter implements BufferEvent {
 
     private final Frame frame;
     private final CRI cri;
     private final Metadata metadata;
-
+    private byte[] data;
 
     public FrameEventAdapter(Frame frame) {
         this.frame = frame;
@@ -54,6 +57,16 @@ public class FrameEventAdapter implements Event<byte[]> {
 
     @Override
     public byte[] data() {
-        return frame.getBody().getBytes();
+        byte[] ret = data;
+        if(ret == null && frame.getBody() != null){
+            ret = frame.getBody().getBytes();
+            data = ret;
+        }
+        return ret;
+    }
+
+    @Override
+    public Buffer buffer() {
+        return frame.getBody();
     }
 }
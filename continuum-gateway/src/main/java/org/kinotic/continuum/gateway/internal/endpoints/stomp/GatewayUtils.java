@@ -18,6 +18,7 @@
 package org.kinotic.continuum.gateway.internal.endpoints.stomp;
 
 import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.stomp.lite.frame.Frame;
@@ -34,43 +35,6 @@ import java.util.UUID;
  */
 public class GatewayUtils {
 
-    // FIXME: move to HFT specific code
-//    public static void writeHftRawEvent(HftRawEvent event,
-//                                        DocumentContext documentContext){
-//        // We write the destination to the wire directly so not all bytes have to be parsed
-//        documentContext.wire()
-//                       .bytes()
-//                       .writeUtf8(event.cri()) // So we know where the data was sent
-//                       .writeByte(event.dataFormat()) // raw data format
-//                       .writeInt(event.data().length)// length of the rest of the data
-//                       .write(event.data()); // rest of the data
-//    }
-//
-//    public static HftRawEvent readHftRawEvent(DocumentContext documentContext){
-//        Bytes<?> hftBytes = documentContext.wire().bytes();
-//        String cri = hftBytes.readUtf8();
-//        byte dataFormat = hftBytes.readByte();
-//        int length = hftBytes.readInt();
-//
-//        // now read raw data
-//        byte[] dataBytes = {};
-//        if(length > 0) {
-//            dataBytes = new byte[length];
-//            hftBytes.read(dataBytes);
-//        }
-//        return new HftRawEvent(cri, dataFormat, dataBytes);
-//    }
-//
-//    public static HftRawEvent continuumEventToHftRawEvent(Event<byte[]> event){
-//        String rawCri = event.cri().raw();
-//        return new HftRawEvent(rawCri, EventConstants.RAW_EVENT_FORMAT_STOMPISH, toStompBuffer(event).getBytes());
-//    }
-//
-//    public static HftRawEvent stompFrameToHftRawEvent(Frame frame){
-//        String rawCri = frame.getDestination();
-//        return new HftRawEvent(rawCri, EventConstants.RAW_EVENT_FORMAT_STOMPISH, toStompBuffer(frame).getBytes());
-//    }
-
     public static Frame eventToStompFrame(Event<byte[]> event){
         Map<String, String> headers;
         // Stomp spec says that if there are duplicate headers that the later headers overwrite the previous ones
@@ -90,11 +54,27 @@ public class GatewayUtils {
         // Make sure that internal headers are set properly now
         headers.put(Frame.DESTINATION, event.cri().raw());
 
-        return new Frame(Frame.Command.MESSAGE, headers, event.data() == null ? null : Buffer.buffer(event.data()));
+        return new Frame(Frame.Command.MESSAGE, headers, BufferEvent.toBuffer(event));
     }
 
 
     public static Buffer toStompBuffer(Event<byte[]> event){
+        Buffer buffer = toStompHeaderBuffer(event);
+        Buffer data = BufferEvent.toBuffer(event);
+        if (data != null) {
+            buffer.appendBuffer(data);
+        }
+        buffer.appendString(FrameParser.NULL);
+        return buffer;
+    }
+
+    /**
+     * Encodes the headers of the event the same way as {@link #toStompBuffer(Event)}, including the blank line that ends the headers.
+     * The data followed by {@link FrameParser#NULL} completes the frame, this allows the data to be written without copying it.
+     * @param event to encode the headers for
+     * @return a {@link Buffer} containing the encoded headers
+     */
+    public static Buffer toStompHeaderBuffer(Event<byte[]> event){
         Buffer buffer = Buffer.buffer();
         for (Map.Entry<String, String> entry : event.metadata()) {
             String key = entry.getKey();
@@ -108,10 +88,6 @@ public class GatewayUtils {
             }
         }
         buffer.appendString("\n");
-        if (event.data() != null) {
-            buffer.appendBytes(event.data());
-        }
-        buffer.appendString(FrameParser.NULL);
         return buffer;
     }
 
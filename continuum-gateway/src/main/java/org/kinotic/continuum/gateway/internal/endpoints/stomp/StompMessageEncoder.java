@@ -0,0 +1,136 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.endpoints.stomp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.stomp.lite.frame.Frame;
+import io.vertx.ext.stomp.lite.frame.FrameParser;
+import io.vertx.ext.stomp.lite.frame.HeaderCodec;
+import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes STOMP MESSAGE frames for the events delivered to subscriptions.
+ * When an event fans out to many subscriptions, every frame is the same except for the subscription and message-id headers.
+ * So the command, the shared headers and the body are encoded once per {@link Event} instance,
+ * and each subscription only encodes its own headers into a composite buffer that shares the rest.
+ */
+@Component
+public class StompMessageEncoder {
+
+    private static final byte[] COMMAND = (Frame.Command.MESSAGE.name() + "\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE_ID_HEADER = (Frame.MESSAGE_ID + ":").getBytes(StandardCharsets.UTF_8);
+
+    // keys are weak and compared by identity, so an entry is only reused for the same Event instance
+    private final Cache<Event<byte[]>, EncodedMessage> encodedMessages = Caffeine.newBuilder()
+                                                                                 .weakKeys()
+                                                                                 .maximumSize(10_000)
+                                                                                 .build();
+
+    /**
+     * @return the encoded subscription header for the given subscription id, to be passed to {@link #encode(Event, byte[], String)}
+     */
+    public byte[] encodeSubscriptionHeader(String subscriptionId){
+        return (Frame.SUBSCRIPTION + ":" + HeaderCodec.encode(subscriptionId, false) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the MESSAGE frame for the event
+     * @param event to encode
+     * @param subscriptionHeader created by {@link #encodeSubscriptionHeader(String)}
+     * @param messageId to use if the event does not have a message-id header
+     * @return the {@link Buffer} containing the complete frame
+     */
+    public Buffer encode(Event<byte[]> event, byte[] subscriptionHeader, String messageId){
+        EncodedMessage encoded = encodedMessages.get(event, StompMessageEncoder::encodeShared);
+
+        ByteBuf subscriptionHeaders;
+        if(encoded.hasMessageId){
+            subscriptionHeaders = Unpooled.wrappedBuffer(subscriptionHeader);
+        }else{
+            byte[] messageIdBytes = messageId.getBytes(StandardCharsets.US_ASCII);
+            subscriptionHeaders = Unpooled.buffer(subscriptionHeader.length + MESSAGE_ID_HEADER.length + messageIdBytes.length + 1);
+            subscriptionHeaders.writeBytes(subscriptionHeader)
+                               .writeBytes(MESSAGE_ID_HEADER)
+                               .writeBytes(messageIdBytes)
+                               .writeByte('\n');
+        }
+
+        return Buffer.buffer(Unpooled.wrappedBuffer(encoded.head.duplicate(),
+                                                    subscriptionHeaders,
+                                                    encoded.tail.duplicate()));
+    }
+
+    private static EncodedMessage encodeShared(Event<byte[]> event){
+        // Stomp spec says that if there are duplicate headers that the later headers overwrite the previous ones
+        // We do this to enforce that spec in the case that the metadata is backed by a multimap
+        Map<String, String> headers = new LinkedHashMap<>();
+        if(event.metadata() != null){
+            for (Map.Entry<String,String> entry: event.metadata()) {
+                headers.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // these are always set below
+        headers.remove(Frame.SUBSCRIPTION);
+        headers.remove(Frame.CONTENT_LENGTH);
+        headers.put(Frame.DESTINATION, event.cri().raw());
+
+        Buffer body = BufferEvent.toBuffer(event);
+        if(body != null){
+            headers.put(Frame.CONTENT_LENGTH, Integer.toString(body.length()));
+        }
+
+        Buffer head = Buffer.buffer(COMMAND);
+        for(Map.Entry<String, String> entry : headers.entrySet()){
+            head.appendString(HeaderCodec.encode(entry.getKey(), false))
+                .appendString(":")
+                .appendString(HeaderCodec.encode(entry.getValue(), false))
+                .appendString("\n");
+        }
+
+        Buffer tail = Buffer.buffer(body != null ? body.length() + 2 : 2).appendString("\n");
+        if(body != null){
+            tail.appendBuffer(body);
+        }
+        tail.appendString(FrameParser.NULL);
+
+        return new EncodedMessage(head.getByteBuf(), tail.getByteBuf(), headers.containsKey(Frame.MESSAGE_ID));
+    }
+
+    private static class EncodedMessage {
+        private final ByteBuf head;
+        private final ByteBuf tail;
+        private final boolean hasMessageId;
+
+        public EncodedMessage(ByteBuf head, ByteBuf tail, boolean hasMessageId) {
+            this.head = head;
+            this.tail = tail;
+            this.hasMessageId = hasMessageId;
+        }
+    }
+
+}
@@ -63,9 +63,9 @@ public class StompServerVerticle extends AbstractVerticle {
         serverOptions.setMaxWebSocketFrameSize(continuumProperties.getMaxEventPayloadSize());
 
         httpServer = vertx.createHttpServer(serverOptions)
-                          .webSocketHandler(StompServer.createWebSocketHandler(vertx,
-                                                                               stompServerOptions,
-                                                                               stompServerHandlerFactory))
+                          .webSocketHandler(ConnectionWriteQueue.capture(StompServer.createWebSocketHandler(vertx,
+                                                                                                            stompServerOptions,
+                                                                                                            stompServerHandlerFactory)))
                           .requestHandler(router)
                           .exceptionHandler(event -> log.error(
                                   "Stomp server Exception before completing Client Connection",
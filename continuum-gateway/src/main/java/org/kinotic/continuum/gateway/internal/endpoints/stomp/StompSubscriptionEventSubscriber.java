@@ -17,16 +17,25 @@
 
 package org.kinotic.continuum.gateway.internal.endpoints.stomp;
 
+import io.vertx.core.buffer.Buffer;
 import org.kinotic.continuum.core.api.event.Event;
 import io.vertx.ext.stomp.lite.StompServerConnection;
-import io.vertx.ext.stomp.lite.frame.Frame;
+import org.kinotic.continuum.gateway.api.config.ContinuumStompSubscriptionProperties;
+import org.kinotic.continuum.gateway.api.config.StompSlowConsumerPolicy;
+import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.BaseSubscriber;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
 
 /**
  * Handles messages sent to the event bus for a stomp based subscription
+ * Frames are encoded by the {@link StompMessageEncoder}, which shares the encoded event between all subscriptions that receive it.
+ * Events are requested in batches, and only written while the {@link ConnectionWriteQueue} of the connection is not full.
+ * Events that cannot be written yet are held, and the {@link StompSlowConsumerPolicy} decides what happens when the client cannot keep up.
  */
 public class StompSubscriptionEventSubscriber extends BaseSubscriber<Event<byte[]>> {
 
@@ -35,27 +44,80 @@ public class StompSubscriptionEventSubscriber extends BaseSubscriber<Event<byte[
     private final String destination;
     private final String subscriptionId;
     private final StompServerConnection connection;
+    private final ConnectionWriteQueue writeQueue;
+    private final StompMessageEncoder encoder;
+    private final byte[] subscriptionHeader;
+    private final String messageIdPrefix;
+    private final StompSlowConsumerPolicy policy;
+    private final int requestSize;
+    private final int bufferSize;
+    private final String conflationKeyHeader;
+
+    // held frames in the order they were received, keyed by conflation key or a unique sequence. Guarded by this
+    private final LinkedHashMap<Object, Buffer> pending = new LinkedHashMap<>();
+    private long sequence = 0;
+    private long messageSequence = 0;
+    private int receivedSinceRequest = 0;
+    private boolean requestWhenDrained = false;
+    private boolean waitingForDrain = false;
 
     public StompSubscriptionEventSubscriber(String destination,
                                             String subscriptionId,
-                                            StompServerConnection connection) {
+                                            StompServerConnection connection,
+                                            ConnectionWriteQueue writeQueue,
+                                            StompMessageEncoder encoder,
+                                            ContinuumStompSubscriptionProperties properties) {
         this.destination = destination;
         this.subscriptionId = subscriptionId;
         this.connection = connection;
+        this.writeQueue = writeQueue;
+        this.encoder = encoder;
+        this.subscriptionHeader = encoder.encodeSubscriptionHeader(subscriptionId);
+        // message ids only need to be unique within the connection, and subscription ids already are
+        this.messageIdPrefix = subscriptionId + "-";
+        this.policy = properties.getSlowConsumerPolicy();
+        this.requestSize = Math.max(1, properties.getRequestSize());
+        this.bufferSize = Math.max(1, properties.getBufferSize());
+        this.conflationKeyHeader = properties.getConflationKeyHeader();
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+        request(requestSize);
     }
 
     @Override
     protected void hookOnNext(Event<byte[]> event) {
         try {
-            Frame frame = GatewayUtils.eventToStompFrame(event);
-            // Set Subscription ID header
-            frame.getHeaders().put(Frame.SUBSCRIPTION, subscriptionId);
+            boolean disconnect = false;
+            synchronized (this){
+                Buffer frame = encoder.encode(event, subscriptionHeader, messageIdPrefix + messageSequence++);
+
+                if(pending.isEmpty() && !writeQueue.isFull()){
+                    write(frame);
+                }else{
+                    disconnect = hold(event, frame);
+                    awaitDrain();
+                }
 
-            if(log.isTraceEnabled()) {
-                log.trace("Sending Frame\n{}", frame);
+                receivedSinceRequest++;
+                if(receivedSinceRequest >= requestSize){
+                    receivedSinceRequest = 0;
+                    // with backpressure nothing more is requested until the connection can be written to
+                    if(policy == StompSlowConsumerPolicy.BACKPRESSURE && !pending.isEmpty()){
+                        requestWhenDrained = true;
+                    }else{
+                        request(requestSize);
+                    }
+                }
             }
 
-            connection.write(frame);
+            if(disconnect){
+                log.warn("Disconnecting slow consumer, {} events are waiting to be written for subscription {} to {}",
+                         bufferSize, subscriptionId, destination);
+                dispose();
+                connection.close();
+            }
 
         } catch (Exception e) {
             log.error("Unexpected Error in Handler {}", e.getMessage(), e);
@@ -70,4 +132,79 @@ public class StompSubscriptionEventSubscriber extends BaseSubscriber<Event<byte[
         log.error("Error on event bus subscription for destination {}", destination, throwable);
     }
 
+    /**
+     * Holds the frame until the connection can be written to
+     * @return true if the client should be disconnected
+     */
+    private boolean hold(Event<byte[]> event, Buffer frame){
+        boolean ret = false;
+        Object key = null;
+        if(policy == StompSlowConsumerPolicy.CONFLATE){
+            key = conflationKeyHeader != null ? event.metadata().get(conflationKeyHeader) : event.cri().raw();
+            if(key != null && pending.replace(key, frame) != null){
+                writeQueue.recordConflated();
+                return false;
+            }
+        }
+        if(key == null){
+            key = sequence++;
+        }
+
+        if(policy != StompSlowConsumerPolicy.BACKPRESSURE && pending.size() >= bufferSize){
+            if(policy == StompSlowConsumerPolicy.DISCONNECT){
+                ret = true;
+            }else{
+                Iterator<Buffer> iterator = pending.values().iterator();
+                iterator.next();
+                iterator.remove();
+                writeQueue.recordDropped();
+            }
+        }
+        if(!ret){
+            pending.put(key, frame);
+        }
+        return ret;
+    }
+
+    private void awaitDrain(){
+        if(!waitingForDrain){
+            waitingForDrain = true;
+            writeQueue.onDrain(this::drain);
+            // the write queue may have drained before the callback was added
+            if(!writeQueue.isFull()){
+                drain();
+            }
+        }
+    }
+
+    private void drain(){
+        synchronized (this){
+            waitingForDrain = false;
+            if(isDisposed()){
+                pending.clear();
+                return;
+            }
+
+            Iterator<Buffer> iterator = pending.values().iterator();
+            while(iterator.hasNext() && !writeQueue.isFull()){
+                write(iterator.next());
+                iterator.remove();
+            }
+
+            if(!pending.isEmpty()){
+                awaitDrain();
+            }else if(requestWhenDrained){
+                requestWhenDrained = false;
+                request(requestSize);
+            }
+        }
+    }
+
+    private void write(Buffer frame){
+        if(log.isTraceEnabled()) {
+            log.trace("Sending Frame\n{}", frame.toString());
+        }
+        connection.write(frame);
+    }
+
 }
@@ -17,84 +17,165 @@
 
 package org.kinotic.continuum.gateway.internal.hft;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.stomp.lite.frame.FrameParser;
+import org.apache.commons.lang3.Validate;
 import org.kinotic.continuum.core.api.event.Event;
+import org.kinotic.continuum.core.api.event.EventConstants;
+import org.kinotic.continuum.gateway.api.config.ContinuumGatewayProperties;
+import org.kinotic.continuum.gateway.api.config.ContinuumHftProperties;
+import org.kinotic.continuum.gateway.internal.endpoints.stomp.GatewayUtils;
+import org.kinotic.continuum.internal.core.api.event.BufferEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Allows writing to multiple  ChronicleQueue transparently
+ * Allows writing to multiple {@link HftQueue}s transparently, there is one queue for each {@link org.kinotic.continuum.core.api.event.CRI#resourceName()}.
+ * Queues are opened when first written to and closed once they have not been written to for the configured expiration.
+ * Writes are performed by a single journal thread, so the files are never written on a vertx event loop and events are journaled in order.
+ * The data of an event is written straight from its {@link Buffer}, only the STOMP headers are encoded before handing the write to the journal thread.
  *
  *
  * Created by Navid Mitchell on 11/4/20
  */
 @Component
 public class DefaultHFTQueueManager implements HFTQueueManager {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultHFTQueueManager.class);
+
+    private static final String QUEUE_NAME_PATTERN = "[\\w\\-]+";
+    // shared by all writes, it is only read using absolute positions
+    private static final ByteBuffer FRAME_END = ByteBuffer.wrap(FrameParser.NULL.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+
+    private final ContinuumHftProperties hftProperties;
+    private final LoadingCache<String, HftQueue> cache;
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "continuum-hft-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DefaultHFTQueueManager(ContinuumGatewayProperties gatewayProperties) {
+        this.hftProperties = gatewayProperties.getHft();
+
+        // The eviction listener is called atomically with the removal, so a queue is closed before it can be opened again
+        cache = Caffeine.newBuilder()
+                        .expireAfterAccess(hftProperties.getQueueExpiration(), TimeUnit.MILLISECONDS)
+                        .evictionListener((String key, HftQueue queue, RemovalCause cause) -> closeQueue(queue))
+                        .build(key -> {
+                            try {
+                                return new HftQueue(key,
+                                                    queuePath(key),
+                                                    hftProperties.getRollCycle(),
+                                                    hftProperties.getFileSize(),
+                                                    hftProperties.getSyncPolicy());
+                            } catch (Exception e) {
+                                log.error("Could not build HFT Queue for "+key, e);
+                                throw e;
+                            }
+                        });
+    }
+
+    @Override
+    public Mono<Void> write(Event<byte[]> event){
+        return Mono.create(sink -> {
+            try {
+                String key = queueName(event.cri().resourceName());
+                String cri = event.cri().raw();
+                // the headers are encoded now, since the metadata may be changed once the event continues to be processed
+                ByteBuffer headers = GatewayUtils.toStompHeaderBuffer(event).getByteBuf().nioBuffer();
+                Buffer data = BufferEvent.toBuffer(event);
+                ByteBuffer dataBuffer = data != null ? data.getByteBuf().nioBuffer() : null;
+                // completes on the context of the caller, so processing of the event continues where it started
+                Context context = Vertx.currentContext();
+
+                journalExecutor.execute(() -> {
+                    Throwable error = null;
+                    try {
+                        try {
+                            cache.get(key).append(cri, EventConstants.RAW_EVENT_FORMAT_STOMPISH, headers, dataBuffer, FRAME_END);
+                        } catch (IllegalStateException e) {
+                            // the queue was closed after it was retrieved, opening it again
+                            cache.get(key).append(cri, EventConstants.RAW_EVENT_FORMAT_STOMPISH, headers, dataBuffer, FRAME_END);
+                        }
+                    } catch (Exception e) {
+                        error = new IllegalStateException("Error writing to HFT Queue", e);
+                    }
+                    complete(sink, context, error);
+                });
+            } catch (Exception e) {
+                sink.error(new IllegalStateException("Error writing to HFT Queue", e));
+            }
+        });
+    }
+
     @Override
-    public Mono<Void> write(Event<byte[]> event) {
-        return null;
+    public HftTailer createTailer(String resourceName) {
+        return new HftTailer(queuePath(queueName(resourceName)));
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        journalExecutor.shutdown();
+        try {
+            // let the writes already submitted finish before the queues are closed
+            if(!journalExecutor.awaitTermination(10, TimeUnit.SECONDS)){
+                log.warn("HFT Queue writes did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for(HftQueue queue : cache.asMap().values()){
+            closeQueue(queue);
+        }
+        cache.invalidateAll();
+    }
+
+    private Path queuePath(String key){
+        return Path.of(hftProperties.getDirectory(), key);
     }
 
-//    private static final Logger log = LoggerFactory.getLogger(DefaultHFTQueueManager.class);
-//
-//    private final LoadingCache<String, ChronicleQueue> cache;
-//
-//    public DefaultHFTQueueManager(final ContinuumGatewayProperties gatewayProperties) {
-//
-//        cache = Caffeine.newBuilder()
-//                        .expireAfterAccess(1, TimeUnit.HOURS)
-//                        .removalListener((String key, ChronicleQueue queue, RemovalCause cause) -> {
-//                            if(queue != null){
-//                                queue.close();
-//                            }
-//                        })
-//                        .build(key -> {
-//                            try {
-//                                Path queuePath = Path.of(gatewayProperties.getDataDir(), key);
-//                                Files.createDirectories(queuePath.getParent());
-//                                return SingleChronicleQueueBuilder.binary(queuePath)
-//                                                                  .rollCycle(RollCycles.FAST_HOURLY)
-//                                                                  .storeFileListener((cycle, file) -> log.debug("HFT releasing file "+file))
-//                                                                  .build();
-//                            } catch (Exception e) {
-//                                log.error("Could not build HFT Queue for "+key, e);
-//                                throw e;
-//                            }
-//                        });
-//    }
-//
-//    @Override
-//    public Mono<Void> write(Event<byte[]> event){
-//        return Mono.create(sink -> {
-//
-//            String key = event.cri().resourceName().replace(".", "_");
-//
-//            ChronicleQueue queue = cache.get(key);
-//            if(queue != null){
-//                HftRawEvent hftRawEvent = GatewayUtils.continuumEventToHftRawEvent(event);
-//
-//                ExcerptAppender hftQueueAppender = queue.acquireAppender();
-//                boolean success = false;
-//                // store all events in a hft queue for redundancy
-//                try (final DocumentContext dc = hftQueueAppender.writingDocument()) {
-//
-//                    GatewayUtils.writeHftRawEvent(hftRawEvent, dc);
-//
-//                    success = true;
-//                }catch(Exception e){
-//                    sink.error(new IllegalStateException("Error writing to HFT Queue", e));
-//                }
-//
-//                // Done outside of try with resource to not block DocumentContext any longer than needed
-//                if(success){
-//                    sink.success();
-//                }
-//
-//            }else{
-//                sink.error(new IllegalStateException("No HFT Queue is available for "+key));
-//            }
-//
-//        });
-//    }
+    private static String queueName(String resourceName){
+        String ret = resourceName.replace(".", "_");
+        Validate.matchesPattern(ret, QUEUE_NAME_PATTERN, "Invalid HFT Queue name " + ret);
+        return ret;
+    }
 
+    private static void complete(MonoSink<Void> sink, Context context, Throwable error){
+        if(context != null){
+            context.runOnContext(v -> complete(sink, null, error));
+        }else if(error != null){
+            sink.error(error);
+        }else{
+            sink.success();
+        }
+    }
+
+    private static void closeQueue(HftQueue queue){
+        if(queue != null){
+            try {
+                queue.close();
+            } catch (IOException e) {
+                log.warn("Could not close HFT Queue {}", queue.getName(), e);
+            }
+        }
+    }
 
 }
@@ -35,4 +35,13 @@ public interface HFTQueueManager {
      */
     Mono<Void> write(Event<byte[]> event);
 
+    /**
+     * Creates a {@link HftTailer} that can be used to replay all events written for the given resource name
+     *
+     * @param resourceName the {@link org.kinotic.continuum.core.api.event.CRI#resourceName()} of the events to read
+     *
+     * @return a new {@link HftTailer} positioned at the start of the queue
+     */
+    HftTailer createTailer(String resourceName);
+
 }
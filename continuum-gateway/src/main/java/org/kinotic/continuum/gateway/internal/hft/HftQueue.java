@@ -0,0 +1,249 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.hft;
+
+import org.kinotic.continuum.gateway.api.config.HftRollCycle;
+import org.kinotic.continuum.gateway.api.config.HftSyncPolicy;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * A durable queue stored as a series of preallocated memory mapped files, a new file is started for every {@link HftRollCycle}.
+ * Events are written straight into the mapped file, so appending does not allocate any objects on the heap other than the encoded cri.
+ * Each record is laid out as follows.
+ * <pre>
+ * int     length of the rest of the record, written last so a reader never sees a partial record
+ * int     length of the cri
+ * bytes   the cri UTF-8 encoded
+ * byte    format of the data
+ * int     length of the data
+ * bytes   the data
+ * </pre>
+ * Records are padded to a multiple of 4 bytes, so the length can be written and read atomically.
+ * The length after a record is cleared before the record is published, so anything left behind by a record that was torn,
+ * because the process stopped before its length was written, is never read as a record.
+ * When the queue rolls to a new file a length of {@link #END_OF_FILE} is written after the last record.
+ * Any number of {@link HftTailer}'s can read the queue while it is being written.
+ */
+public class HftQueue implements AutoCloseable {
+
+    static final String FILE_SUFFIX = ".hft";
+    static final int END_OF_FILE = -1;
+    static final VarHandle INT_HANDLE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final String name;
+    private final Path directory;
+    private final HftRollCycle rollCycle;
+    private final int fileSize;
+    private final HftSyncPolicy syncPolicy;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private String cycleName;
+    private int sequence;
+    private int position;
+    private boolean closed = false;
+
+    /**
+     * Opens the queue, appending continues in the latest existing file if it belongs to the current cycle
+     */
+    public HftQueue(String name,
+                    Path directory,
+                    HftRollCycle rollCycle,
+                    int fileSize,
+                    HftSyncPolicy syncPolicy) throws IOException {
+        this(name, directory, rollCycle, fileSize, syncPolicy, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock that provides the current time in milliseconds, used to determine the current {@link HftRollCycle}
+     */
+    HftQueue(String name,
+             Path directory,
+             HftRollCycle rollCycle,
+             int fileSize,
+             HftSyncPolicy syncPolicy,
+             LongSupplier clock) throws IOException {
+        this.name = name;
+        this.directory = directory;
+        this.rollCycle = rollCycle;
+        this.fileSize = fileSize;
+        this.syncPolicy = syncPolicy;
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        List<String> files = listFiles(directory);
+        if(!files.isEmpty()){
+            String latest = files.get(files.size() - 1);
+            int separator = latest.lastIndexOf('-');
+            cycleName = latest.substring(0, separator);
+            sequence = Integer.parseInt(latest.substring(separator + 1, latest.length() - FILE_SUFFIX.length()));
+            openFile(directory.resolve(latest));
+        }
+    }
+
+    /**
+     * Appends a record to the queue
+     * @param cri the event was sent to
+     * @param dataFormat the format of the data
+     * @param data the parts of the data to write one after another, so the data does not need to be copied into a single buffer first.
+     *             All remaining bytes of each part are written without changing the position of the {@link ByteBuffer}, null parts are skipped.
+     */
+    public synchronized void append(String cri, byte dataFormat, ByteBuffer... data) throws IOException {
+        if(closed){
+            throw new IllegalStateException("HFT Queue " + name + " is closed");
+        }
+        byte[] criBytes = cri.getBytes(StandardCharsets.UTF_8);
+        int dataLength = 0;
+        for(ByteBuffer part : data){
+            if(part != null){
+                dataLength += part.remaining();
+            }
+        }
+        int length = 4 + criBytes.length + 1 + 4 + dataLength;
+        int recordSize = align(4 + length);
+        // room is always left for the end of file marker
+        if(recordSize + 4 > fileSize){
+            throw new IllegalArgumentException("Event of " + length + " bytes is larger than the file size of HFT Queue " + name);
+        }
+
+        String currentCycleName = rollCycle.cycleName(clock.getAsLong());
+        if(buffer == null || !currentCycleName.equals(cycleName) || position + recordSize + 4 > buffer.capacity()){
+            roll(currentCycleName);
+        }
+
+        int start = position;
+        int index = start + 4;
+        buffer.putInt(index, criBytes.length);
+        index += 4;
+        buffer.put(index, criBytes);
+        index += criBytes.length;
+        buffer.put(index, dataFormat);
+        index++;
+        buffer.putInt(index, dataLength);
+        index += 4;
+        for(ByteBuffer part : data){
+            if(part != null && part.hasRemaining()){
+                buffer.put(index, part, part.position(), part.remaining());
+                index += part.remaining();
+            }
+        }
+        // there is always room for the next length, it may hold the remains of a torn record
+        buffer.putInt(start + recordSize, 0);
+        INT_HANDLE.setRelease(buffer, start, length);
+        position = start + recordSize;
+
+        if(syncPolicy == HftSyncPolicy.EVERY_WRITE){
+            buffer.force(start, 4 + length);
+        }
+    }
+
+    /**
+     * @return a new {@link HftTailer} positioned at the start of this queue
+     */
+    public HftTailer createTailer(){
+        return new HftTailer(directory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(!closed){
+            closed = true;
+            closeFile();
+        }
+    }
+
+    /**
+     * @return the size rounded up to a multiple of 4
+     */
+    static int align(int size){
+        return (size + 3) & ~3;
+    }
+
+    static List<String> listFiles(Path directory) throws IOException {
+        List<String> ret = new ArrayList<>();
+        if(Files.isDirectory(directory)){
+            try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)){
+                for(Path file : files){
+                    ret.add(file.getFileName().toString());
+                }
+            }
+            // the cycle name and zero padded sequence sort chronologically
+            Collections.sort(ret);
+        }
+        return ret;
+    }
+
+    private void roll(String newCycleName) throws IOException {
+        if(buffer != null){
+            INT_HANDLE.setRelease(buffer, position, END_OF_FILE);
+            closeFile();
+        }
+        sequence = newCycleName.equals(cycleName) ? sequence + 1 : 0;
+        cycleName = newCycleName;
+        openFile(directory.resolve(String.format("%s-%04d%s", cycleName, sequence, FILE_SUFFIX)));
+    }
+
+    private void openFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(fileSize, channel.size()));
+        // find the end of any records already written
+        position = 0;
+        int length;
+        while(position + 4 <= buffer.capacity() && (length = buffer.getInt(position)) > 0){
+            position += align(4 + length);
+        }
+        if(position + 4 <= buffer.capacity() && buffer.getInt(position) == END_OF_FILE){
+            // the file is complete, the next append will start a new file
+            position = buffer.capacity();
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if(buffer != null){
+            if(syncPolicy != HftSyncPolicy.NONE){
+                buffer.force();
+            }
+            channel.close();
+            buffer = null;
+            channel = null;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.hft;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads the records of a {@link HftQueue} in the order they were written, this can be used to replay the events that were journaled.
+ * A {@link HftTailer} is not thread safe.
+ */
+public class HftTailer implements AutoCloseable {
+
+    private final Path directory;
+
+    private String fileName;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    HftTailer(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the next record
+     * @return the next {@link HftRawEvent} or null if the tailer has read everything written so far
+     */
+    public HftRawEvent readNext() throws IOException {
+        HftRawEvent ret = null;
+        boolean searching = true;
+        while(searching){
+            if(buffer == null && !openNextFile()){
+                searching = false;
+            }else{
+                int length = position + 4 <= buffer.capacity() ? (int) HftQueue.INT_HANDLE.getAcquire(buffer, position) : HftQueue.END_OF_FILE;
+                if(length > buffer.capacity() - position - 4){
+                    throw new IOException("Corrupt record at position " + position + " of HFT Queue file " + fileName);
+                }else if(length > 0){
+                    ret = readRecord(position + 4);
+                    position += HftQueue.align(4 + length);
+                    searching = false;
+                }else if(length == HftQueue.END_OF_FILE){
+                    buffer = null;
+                }else{
+                    // nothing has been written yet
+                    searching = false;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Moves the tailer back to the start of the queue
+     */
+    public void toStart(){
+        fileName = null;
+        buffer = null;
+        position = 0;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private HftRawEvent readRecord(int index){
+        int criLength = buffer.getInt(index);
+        index += 4;
+        byte[] criBytes = new byte[criLength];
+        buffer.get(index, criBytes);
+        index += criLength;
+        byte dataFormat = buffer.get(index);
+        index++;
+        int dataLength = buffer.getInt(index);
+        index += 4;
+        byte[] data = new byte[dataLength];
+        buffer.get(index, data);
+        return new HftRawEvent(new String(criBytes, StandardCharsets.UTF_8), dataFormat, data);
+    }
+
+    /**
+     * @return true if the file after the current file exists and was opened
+     */
+    private boolean openNextFile() throws IOException {
+        boolean ret = false;
+        List<String> files = HftQueue.listFiles(directory);
+        for(String file : files){
+            if(fileName == null || file.compareTo(fileName) > 0){
+                try(FileChannel channel = FileChannel.open(directory.resolve(file), StandardOpenOption.READ)){
+                    // the queue may have created the file without extending it yet
+                    if(channel.size() >= 4){
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                        fileName = file;
+                        position = 0;
+                        ret = true;
+                    }
+                }
+                break;
+            }
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.endpoints.rest;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests claiming, expiring and rejecting requests held by a {@link ResponseCorrelationStore}
+ */
+public class ResponseCorrelationStoreTests {
+
+    private static final String PREFIX = "verticle-1:";
+    private static final long TIMEOUT = 100;
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(START_TIME);
+
+    @Test
+    public void testExpiresInDeadlineOrder(){
+        ResponseCorrelationStore store = createStore(10);
+        RoutingContext first = Mockito.mock(RoutingContext.class);
+        RoutingContext second = Mockito.mock(RoutingContext.class);
+        RoutingContext third = Mockito.mock(RoutingContext.class);
+
+        store.add(first);
+        clock.addAndGet(10);
+        store.add(second);
+        clock.addAndGet(10);
+        String thirdId = store.add(third);
+
+        // nothing has expired yet
+        clock.set(START_TIME + TIMEOUT - 1);
+        Assertions.assertEquals(List.of(), expire(store));
+
+        // a request expires once its deadline is reached
+        clock.set(START_TIME + TIMEOUT);
+        Assertions.assertEquals(List.of(first), expire(store));
+
+        clock.set(START_TIME + TIMEOUT + 15);
+        Assertions.assertEquals(List.of(second), expire(store));
+
+        // a request that was claimed before its deadline is not expired
+        Assertions.assertSame(third, store.remove(thirdId));
+        clock.set(START_TIME + 10 * TIMEOUT);
+        Assertions.assertEquals(List.of(), expire(store));
+    }
+
+    @Test
+    public void testExpiresAllRequestsPastTheirDeadline(){
+        ResponseCorrelationStore store = createStore(10);
+        List<RoutingContext> contexts = new ArrayList<>();
+        for(int i = 0; i < 5; i++){
+            RoutingContext routingContext = Mockito.mock(RoutingContext.class);
+            contexts.add(routingContext);
+            store.add(routingContext);
+            clock.incrementAndGet();
+        }
+
+        clock.set(START_TIME + TIMEOUT + 2);
+        Assertions.assertEquals(contexts.subList(0, 3), expire(store));
+
+        clock.set(START_TIME + 2 * TIMEOUT);
+        Assertions.assertEquals(contexts.subList(3, 5), expire(store));
+    }
+
+    @Test
+    public void testClaimExpiredRequest(){
+        ResponseCorrelationStore store = createStore(10);
+        RoutingContext routingContext = Mockito.mock(RoutingContext.class);
+        String claimId = store.add(routingContext);
+
+        clock.addAndGet(TIMEOUT);
+        Assertions.assertEquals(List.of(routingContext), expire(store));
+
+        // a response that arrives after the request expired finds nothing to complete
+        Assertions.assertNull(store.remove(claimId));
+    }
+
+    @Test
+    public void testClaimSameIdTwice(){
+        ResponseCorrelationStore store = createStore(10);
+        RoutingContext routingContext = Mockito.mock(RoutingContext.class);
+        String claimId = store.add(routingContext);
+
+        Assertions.assertSame(routingContext, store.remove(claimId));
+        Assertions.assertNull(store.remove(claimId));
+        Assertions.assertNull(store.remove(PREFIX + "unknown"));
+
+        // a claimed request is not expired later
+        clock.addAndGet(TIMEOUT);
+        Assertions.assertEquals(List.of(), expire(store));
+    }
+
+    @Test
+    public void testClaimIdsAreUnique(){
+        ResponseCorrelationStore store = createStore(1000);
+        ResponseCorrelationStore otherStore = new ResponseCorrelationStore("verticle-2:",
+                                                                           TIMEOUT,
+                                                                           1000,
+                                                                           OpenTelemetry.noop(),
+                                                                           clock::get);
+        Set<String> claimIds = new HashSet<>();
+        for(int i = 0; i < 500; i++){
+            String claimId = store.add(Mockito.mock(RoutingContext.class));
+            Assertions.assertTrue(claimId.startsWith(PREFIX));
+            Assertions.assertTrue(claimIds.add(claimId), "Duplicate claim id " + claimId);
+            Assertions.assertTrue(claimIds.add(otherStore.add(Mockito.mock(RoutingContext.class))));
+        }
+
+        // ids are not reused once a request is claimed
+        String claimId = store.add(Mockito.mock(RoutingContext.class));
+        store.remove(claimId);
+        Assertions.assertTrue(claimIds.add(claimId));
+        Assertions.assertTrue(claimIds.add(store.add(Mockito.mock(RoutingContext.class))));
+    }
+
+    @Test
+    public void testRejectsWhenFull(){
+        ResponseCorrelationStore store = createStore(2);
+        String firstId = store.add(Mockito.mock(RoutingContext.class));
+        String secondId = store.add(Mockito.mock(RoutingContext.class));
+
+        Assertions.assertNotNull(firstId);
+        Assertions.assertNotNull(secondId);
+        Assertions.assertNull(store.add(Mockito.mock(RoutingContext.class)));
+
+        // claiming a request makes room for another
+        store.remove(firstId);
+        Assertions.assertNotNull(store.add(Mockito.mock(RoutingContext.class)));
+        Assertions.assertNull(store.add(Mockito.mock(RoutingContext.class)));
+
+        // expiring requests makes room as well
+        clock.addAndGet(TIMEOUT);
+        Assertions.assertEquals(2, expire(store).size());
+        Assertions.assertNotNull(store.add(Mockito.mock(RoutingContext.class)));
+    }
+
+    @Test
+    public void testClear(){
+        ResponseCorrelationStore store = createStore(10);
+        RoutingContext first = Mockito.mock(RoutingContext.class);
+        RoutingContext second = Mockito.mock(RoutingContext.class);
+        String firstId = store.add(first);
+        store.add(second);
+
+        List<RoutingContext> cleared = new ArrayList<>();
+        store.clear(cleared::add);
+        Assertions.assertEquals(List.of(first, second), cleared);
+
+        Assertions.assertNull(store.remove(firstId));
+        clock.addAndGet(TIMEOUT);
+        Assertions.assertEquals(List.of(), expire(store));
+    }
+
+    private ResponseCorrelationStore createStore(int maxInFlight){
+        return new ResponseCorrelationStore(PREFIX, TIMEOUT, maxInFlight, OpenTelemetry.noop(), clock::get);
+    }
+
+    private static List<RoutingContext> expire(ResponseCorrelationStore store){
+        List<RoutingContext> ret = new ArrayList<>();
+        store.expire(ret::add);
+        return ret;
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ * Copyright 2008-2021 Kinotic and the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kinotic.continuum.gateway.internal.hft;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kinotic.continuum.gateway.api.config.HftRollCycle;
+import org.kinotic.continuum.gateway.api.config.HftSyncPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests writing a {@link HftQueue} and reading it back with a {@link HftTailer}
+ */
+public class HftQueueTests {
+
+    private static final String CRI = "srv://org.kinotic.continuum.tests.TestService/serviceMethod";
+    private static final byte FORMAT = 1;
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(START_TIME);
+
+    @Test
+    public void testAppendAndTail() throws IOException {
+        try(HftQueue queue = createQueue(4096);
+            HftTailer tailer = queue.createTailer()){
+
+            // the parts are written as one record
+            queue.append(CRI, FORMAT, wrap("head:"), null, wrap("body"), wrap("\0"));
+            queue.append(CRI, FORMAT);
+
+            HftRawEvent first = tailer.readNext();
+            Assertions.assertEquals(CRI, first.cri());
+            Assertions.assertEquals(FORMAT, first.dataFormat());
+            Assertions.assertEquals("head:body\0", new String(first.data(), StandardCharsets.UTF_8));
+            Assertions.assertEquals(0, tailer.readNext().data().length);
+            Assertions.assertNull(tailer.readNext());
+
+            // records appended later are read by the same tailer
+            queue.append(CRI, FORMAT, wrap("later"));
+            Assertions.assertEquals("later", dataOf(tailer.readNext()));
+            Assertions.assertNull(tailer.readNext());
+        }
+    }
+
+    @Test
+    public void testRollsWhenFileIsFull() throws IOException {
+        try(HftQueue queue = createQueue(512)){
+            for(int i = 0; i < 50; i++){
+                queue.append(CRI, FORMAT, wrap("event-" + i));
+            }
+        }
+
+        Assertions.assertTrue(HftQueue.listFiles(directory).size() > 1, "Queue did not roll to a new file");
+        Assertions.assertEquals(expectedData(0, 50), readAll());
+    }
+
+    @Test
+    public void testRollsOnNewCycle() throws IOException {
+        try(HftQueue queue = createQueue(4096)){
+            queue.append(CRI, FORMAT, wrap("event-0"));
+            clock.addAndGet(60_000);
+            queue.append(CRI, FORMAT, wrap("event-1"));
+        }
+
+        List<String> files = HftQueue.listFiles(directory);
+        Assertions.assertEquals(2, files.size());
+        Assertions.assertTrue(files.get(0).startsWith(HftRollCycle.MINUTELY.cycleName(START_TIME)));
+        Assertions.assertTrue(files.get(1).startsWith(HftRollCycle.MINUTELY.cycleName(START_TIME + 60_000)));
+        Assertions.assertEquals(expectedData(0, 2), readAll());
+    }
+
+    @Test
+    public void testReopenContinuesAfterLastRecord() throws IOException {
+        try(HftQueue queue = createQueue(4096)){
+            for(int i = 0; i < 5; i++){
+                queue.append(CRI, FORMAT, wrap("event-" + i));
+            }
+        }
+        try(HftQueue queue = createQueue(4096)){
+            queue.append(CRI, FORMAT, wrap("event-5"));
+        }
+
+        Assertions.assertEquals(1, HftQueue.listFiles(directory).size());
+        Assertions.assertEquals(expectedData(0, 6), readAll());
+    }
+
+    @Test
+    public void testReopenAfterRollStartsNewFile() throws IOException {
+        try(HftQueue queue = createQueue(512)){
+            for(int i = 0; i < 20; i++){
+                queue.append(CRI, FORMAT, wrap("event-" + i));
+            }
+        }
+        int files = HftQueue.listFiles(directory).size();
+        try(HftQueue queue = createQueue(512)){
+            for(int i = 20; i < 40; i++){
+                queue.append(CRI, FORMAT, wrap("event-" + i));
+            }
+        }
+
+        Assertions.assertTrue(HftQueue.listFiles(directory).size() >= files);
+        Assertions.assertEquals(expectedData(0, 40), readAll());
+    }
+
+    /**
+     * A record whose length was never written, because the process stopped while appending, must not be read
+     * even when a shorter record is appended over it later
+     */
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        try(HftQueue queue = createQueue(4096)){
+            queue.append(CRI, FORMAT, wrap("event-0"));
+            queue.append(CRI, FORMAT, wrap("event-1"));
+        }
+
+        // leave the body of a torn record after the last record
+        int end = recordSize("event-0") + recordSize("event-1");
+        Path file = directory.resolve(HftQueue.listFiles(directory).get(0));
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            byte[] garbage = new byte[512];
+            Arrays.fill(garbage, (byte) 0x7F);
+            channel.write(ByteBuffer.wrap(garbage), end + 4);
+        }
+
+        try(HftQueue queue = createQueue(4096)){
+            queue.append(CRI, FORMAT, wrap("event-2"));
+        }
+
+        Assertions.assertEquals(expectedData(0, 3), readAll());
+    }
+
+    private HftQueue createQueue(int fileSize) throws IOException {
+        return new HftQueue("test", directory, HftRollCycle.MINUTELY, fileSize, HftSyncPolicy.NONE, clock::get);
+    }
+
+    private List<String> readAll() throws IOException {
+        List<String> ret = new ArrayList<>();
+        try(HftTailer tailer = new HftTailer(directory)){
+            HftRawEvent event;
+            while((event = tailer.readNext()) != null){
+                ret.add(dataOf(event));
+            }
+        }
+        return ret;
+    }
+
+    private static int recordSize(String data){
+        return HftQueue.align(4 + 4 + CRI.length() + 1 + 4 + data.length());
+    }
+
+    private static ByteBuffer wrap(String value){
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String dataOf(HftRawEvent event){
+        return new String(event.data(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> expectedData(int from, int to){
+        List<String> ret = new ArrayList<>();
+        for(int i = from; i < to; i++){
+            ret.add("event-" + i);
+        }
+        return ret;
+    }
+
+}